@@ -23,6 +23,16 @@ package us.pcsw.dbbrowser;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.Vector;
+
+import javax.swing.SwingUtilities;
+
+import us.pcsw.dbbrowser.cp.StreamingCursor;
+import us.pcsw.util.tablemodelexport.SharedTableModel;
 
 /**
  * us.pcsw.dbbrowser.ResultSetTableModel
@@ -36,6 +46,31 @@ import java.sql.SQLException;
  * listeners that the last row is not available.  Also, this instance's
  * reference to the ResultSet is released at this point because all data has
  * been cached.
+ * <P>
+ * When a row which has not yet been cached is requested from the event
+ * dispatch thread, the row is not read from the ResultSet right away.  A
+ * background PageFetcher thread reads the page instead and LOADING is
+ * returned for the cell until the rows are published back on the event
+ * dispatch thread.  Rows are published in batches so that listeners are not
+ * flooded with one event per row.
+ * </P>
+ * <P>
+ * Only the thread reading the ResultSet holds readLock, which it keeps
+ * while rows come from the server.  The rows are read into a fragment of a
+ * page of its own, and fetchLock is only taken to hand the fragment over,
+ * so the event dispatch thread never waits on the database.  Closing the
+ * model leaves the ResultSet to be closed by the fetcher thread, and
+ * awaitClose waits until it has been.
+ * </P>
+ * <P>
+ * The cache is kept in pages.  If Preferences.getCacheHeapBudget() is set
+ * and the ResultSet is scrollable, pages farthest from the last requested
+ * row are discarded once the cache grows past the budget, and are read again
+ * with ResultSet.absolute() when they are next shown.  The pages of a
+ * forward only ResultSet are all kept, since the only way to read them again
+ * would be to run the statement again, which may not return the same rows
+ * or may change the data.
+ * </P>
  *
  * <P><B>Revision History:</B><UL>
  * <LI>05/10/2001 Development began on this class.</LI>
@@ -43,15 +78,49 @@ import java.sql.SQLException;
  *                values, thus improving the readability of resultsets in a
  *                JTable control.</LI>
  * <LI>03/13/2003 Added option to disable lazy load of cache.</LI>
+ * <LI>10/18/2026 Pages are now fetched by a background thread so that the
+ *                event dispatch thread does not block on the ResultSet.</LI>
+ * <LI>10/18/2026 The cache is now paged and bounded by the cache heap budget
+ *                preference.</LI>
+ * <LI>10/18/2026 The streaming cursor the resultset was read through is
+ *                closed along with the resultset.</LI>
+ * <LI>10/18/2026 Added the constructor which takes the streaming cursor and a
+ *                fetch size controller.</LI>
+ * <LI>10/18/2026 Pages of forward only resultsets are no longer discarded
+ *                and read again by running the query again.</LI>
+ * <LI>10/18/2026 This class implements SharedTableModel.  Threads other than
+ *                the event dispatch thread get an exception rather than an
+ *                empty row when a row can't be read.</LI>
+ * <LI>10/18/2026 Rows are read under readLock rather than fetchLock, which
+ *                is only held to hand them over, and the ResultSet is closed
+ *                by the fetcher thread.  Added awaitClose.</LI>
  * </UL></P>
  *
  * @author Philip A. Chapman
  */
 public final class CachingResultSetTableModel
     extends ResultSetTableModel
+    implements SharedTableModel
 {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * The value returned for cells of rows which are still being fetched.
+	 */
+	public static final String LOADING = "Loading...";
+
+	/**
+	 * The smallest number of rows in a cache page.  Keeps a small fetch size
+	 * from producing a page per row.
+	 */
+	private static final int MIN_PAGE_ROWS = 100;
+
+	/**
+	 * The minimum number of milliseconds between publications of fetched rows
+	 * to the event dispatch thread while a page is being fetched.
+	 */
+	private static final long PUBLISH_INTERVAL = 250;
+
 	/**
      * Indicates that all rows have been read and all data has been cached.
      */
@@ -62,6 +131,148 @@ public final class CachingResultSetTableModel
      */
     ResultSet rs;
 
+    /**
+     * The number of rows which have been read and published into the cache.
+     * Only changed on the event dispatch thread (or before the model is
+     * shown) but read by the fetcher thread.
+     */
+    private volatile int cachedRowCount = 0;
+
+    /**
+     * Indicates that the model has been closed and no more rows are to be
+     * read.
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Indicates that the ResultSet has no more rows to be read.  The rows
+     * may not all have been published yet.
+     */
+    private volatile boolean endOfResults = false;
+
+    /**
+     * Guards fetcher, pendingFragments, pageRequests, publishScheduled,
+     * requestedRowCount and resultSetOpen.  It is only held briefly, never
+     * while reading from the ResultSet, so that the event dispatch thread
+     * can take it.
+     */
+    private final Object fetchLock = new Object();
+
+    /**
+     * The thread currently reading rows from the ResultSet or null.
+     */
+    private PageFetcher fetcher = null;
+
+    /**
+     * The last row requested.  Pages are evicted farthest from this row
+     * first.
+     */
+    private volatile int focusRow = 0;
+
+    /**
+     * The number of rows in each page of the cache.
+     */
+    private int pageRows = MIN_PAGE_ROWS;
+
+    /**
+     * Pages of the cache.  Each element is an array of ColumnVectors holding
+     * pageRows rows, or null if the page has been evicted.  The columns
+     * member of the super class is kept empty and used as the template for
+     * new pages.
+     */
+    private Vector pages = new Vector();
+
+    /**
+     * Page indexes (Integers) the fetcher has been asked to read again.
+     */
+    private SortedSet pageRequests = new TreeSet();
+
+    /**
+     * PageFragments which have been read but not yet published into the
+     * cache.
+     */
+    private List pendingFragments = new ArrayList();
+
+    /**
+     * Guards rs, streamingCursor and the position of the ResultSet.  It is
+     * held by the thread reading from the ResultSet for as long as it
+     * reads, and fetchLock may be taken while holding it but not the other
+     * way around.
+     */
+    private final Object readLock = new Object();
+
+    /**
+     * The number of rows which have been read from the ResultSet, whether or
+     * not they have been published yet.  Pages are numbered from this count
+     * because cachedRowCount lags behind while rows are being published.
+     * Only changed while holding readLock.
+     */
+    private volatile int readRowCount = 0;
+
+    /**
+     * Indicates that a publication of pending rows is queued on the event
+     * dispatch thread.
+     */
+    private boolean publishScheduled = false;
+
+    /**
+     * Indicates that a page could not be read again, after which evicted
+     * pages are shown as empty rather than being requested again.
+     */
+    private volatile boolean reloadFailed = false;
+
+    /**
+     * Indicates that pages have been evicted from the cache.
+     */
+    private volatile boolean pagesEvicted = false;
+
+    /**
+     * The number of rows the fetcher has been asked to cache.
+     */
+    private int requestedRowCount = 0;
+
+    /**
+     * An estimate of the heap used by resident pages.  Event dispatch thread
+     * only.
+     */
+    private long residentBytes = 0;
+
+    /**
+     * Indexes (Integers) of the pages which have not been evicted.  Event
+     * dispatch thread only.
+     */
+    private SortedSet residentPages = new TreeSet();
+
+    /**
+     * Indicates that the ResultSet has been handed to the model and not yet
+     * closed.
+     */
+    private boolean resultSetOpen = false;
+
+    /**
+     * Indicates that the ResultSet supports absolute positioning.
+     */
+    private volatile boolean scrollable = false;
+
+    /**
+     * The cursor through which the resultset is being streamed, or null.
+     * The model closes it, restoring the connection's settings, when all
+     * rows have been read or the model is closed.
+     */
+    private StreamingCursor streamingCursor = null;
+
+    /**
+     * Indicates that rows are to be read on the calling thread, even the
+     * event dispatch thread, rather than placeholders being returned.
+     */
+    private boolean synchronous = false;
+
+    /**
+     * Indicates that the model was closed before all of its rows were read,
+     * or after some were evicted, so that they can't be read any more.
+     */
+    private volatile boolean truncated = false;
+
     /**
      * Basic Constructor.
      */
@@ -79,7 +290,90 @@ public final class CachingResultSetTableModel
     public CachingResultSetTableModel(ResultSet rs)
     	throws SQLException
     {
-		super(rs);
+		// The fetch state has to be initialized before the first page is
+		// read, so don't let the super class load the resultset.
+		super();
+		setResultSet(rs);
+    }
+
+    /**
+     * Constructor which initializes the new instance with a ResultSet which
+     * is being streamed through a cursor.
+     * @param rs The ResultSet from which table data is to be provided.
+     * @param cursor The cursor the ResultSet is streamed through, which the
+     *               model closes when it is done with the ResultSet.  May be
+     *               null.
+     * @param controller Tunes the fetch size as rows are read.  May be null.
+     * @exception SQLException Indicates an error reading data from the
+     *                         resultset.
+     */
+    public CachingResultSetTableModel(ResultSet rs, StreamingCursor cursor,
+                                      FetchSizeController controller)
+    	throws SQLException
+    {
+		super();
+		streamingCursor = cursor;
+		setFetchSizeController(controller);
+		setResultSet(rs);
+    }
+
+    /**
+     * The ResultSet can't be kept open for readers, as the connection is
+     * needed for the next statement, so the model is closed when asked and
+     * readers find out from isTruncated whether they lost rows.
+     * @see us.pcsw.util.tablemodelexport.SharedTableModel#acquire()
+     */
+    public void acquire()
+    {
+    }
+
+    /**
+     * Waits until the ResultSet of a closed model has been closed, so that
+     * the connection may be used for another statement.  Returns at once if
+     * the model has not been closed.  Must not be called on the event
+     * dispatch thread.
+     */
+    public void awaitClose()
+    {
+    	synchronized (fetchLock) {
+    		while (closed && resultSetOpen) {
+    			try {
+    				fetchLock.wait();
+    			} catch (InterruptedException ie) {
+    				Thread.currentThread().interrupt();
+    				return;
+    			}
+    		}
+    	}
+    }
+
+    /**
+     * Stops reading rows and has the fetcher thread close the ResultSet.
+     * The rows which have been read remain available, and the table is told
+     * that there are no more.  Threads waiting for rows which can no longer
+     * be read are woken and fail.
+     */
+    public void close()
+    {
+    	synchronized (fetchLock) {
+    		if (! closed) {
+    			truncated = ! endOfResults || pagesEvicted || reloadFailed;
+    		}
+    		closed = true;
+    		endOfResults = true;
+    		fetchLock.notifyAll();
+    		// Closing a ResultSet may have to read the rest of its rows from
+    		// the server, so it is not done here.
+    		if (resultSetOpen && fetcher == null) {
+    			fetcher = new PageFetcher();
+    			fetcher.start();
+    		}
+    		if (! SwingUtilities.isEventDispatchThread()) {
+    			schedulePublish();
+    			return;
+    		}
+    	}
+    	publishPendingRows();
     }
 
 	/**
@@ -92,7 +386,8 @@ public final class CachingResultSetTableModel
 	}
 
 	/**
-	 * Returns the number of rows that are cached.
+	 * Returns the number of rows that have been read.  If pages have been
+	 * evicted, not all of them are held in memory.
 	 * @return int The number of rows that are cached.
 	 */
 	public int getCachedRowCount()
@@ -100,22 +395,30 @@ public final class CachingResultSetTableModel
 		if (columns == null) {
 			return 0;
 		} else {
-			return columns[0].size();
+			return cachedRowCount;
 		}
 	}
 
     public int getRowCount()
     {
 		int rowCount;
+		if (columns != null && ! cacheFull &&
+		    ! SwingUtilities.isEventDispatchThread())
+		{
+			// Threads other than the event dispatch thread read every row
+			// they are told of, so wait until it is known whether there is
+			// another one rather than returning a row which may not exist.
+			waitForRow(cachedRowCount);
+		}
 		if (columns == null) {
 		    rowCount = 0;
 		} else {
 		    if (cacheFull) {
-				rowCount = columns[0].size();
+				rowCount = cachedRowCount;
 		    } else {
 				// return 1 more than however many are cached until all are
 				// cached and the number of rows is known.
-				rowCount = columns[0].size() + 1;
+				rowCount = cachedRowCount + 1;
 		    }
 		}
 		return rowCount;
@@ -123,59 +426,39 @@ public final class CachingResultSetTableModel
 
     public Object getValueAt(int row, int column, boolean returnNulls)
     {
-		// If the row has been cached, return the cached data.  Otherwise, make
-		// an attempt to read more data.  If more data is cached, fire a
-		// notification that table rows have been inserted, so that the model
-		// stays 1 row ahead of the table.  If no more data is cached, mark
-		// the cache as full and fire notification of the 1 extra row as
-		// having been deleted.
-		int currentPosition = 0;
-		int rowsToRead = 0;
+		// If the row is cached, return the cached data.  Otherwise, ask for
+		// the row to be read.  On the event dispatch thread the read happens
+		// in the background and a placeholder is returned; the table is
+		// notified when the rows have been cached.  Other threads, and the
+		// event dispatch thread in synchronous mode, wait for the row.
 		Object obj;
 	
 		if (columns == null) {
 		    return null;
 		} else {
-		    if (columns[0].size() < row + 1) {
-			    // Attempt to read the row from the database.
-			    currentPosition = columns[0].size();
-			    int cachePageSize = Preferences.getCachePageSize();
-				rowsToRead = row - currentPosition + cachePageSize;
-				int i = -1;
-			    while (++i < rowsToRead || cachePageSize == 0) {
-					try {
-						if ((! cacheFull) && rs.next()) {
-							// The row exists, cache the data.
-							for (int j = 0; j < columns.length; j++) {
-							    try {
-									obj = rs.getString(j + 1);
-									if (rs.wasNull()) {
-										obj = null;
-									}
-							    } catch (SQLException sqle2) {
-									handleException(sqle2);
-									obj = null;
-							    }
-							    columns[j].add(obj);
-							}
-					    } else {
-							// No more data
-							cacheFull = true;
-							rs.close();
-							rs = null;   // Release unneeded resources
-							fireTableRowsDeleted(currentPosition + i, row);
-							return null;
-					    } 
-					} catch (SQLException sqle) {
-					    handleException(sqle);
-					    return null;
-					}
-			    }
-			    // Increase the number of rows the table thinks there are.
-			    // Return the cell's data.
-			    fireTableRowsInserted(row + 1, row + 1);
-		    } // end if (columns[0].size() < row + 1)
-		    obj = columns[column].get(row);
+			focusRow = row;
+			ColumnVector page[] = getResidentPage(row);
+			if (page == null) {
+				if (cacheFull && ! closed && row >= cachedRowCount) {
+					return null;
+				} else if (! SwingUtilities.isEventDispatchThread()) {
+					waitForRow(row);
+				} else if (reloadFailed && row < cachedRowCount) {
+					return null;
+				} else if (cacheFull && row >= cachedRowCount) {
+					return null;
+				} else if (synchronous) {
+					readRowNow(row);
+				} else {
+					requestRow(row);
+					return LOADING;
+				}
+				page = getResidentPage(row);
+				if (page == null) {
+					return null;
+				}
+			}
+		    obj = page[column].get(row % pageRows);
 		    if (obj == null && ! returnNulls) {
 		    	return Preferences.getRepresentationForNull();
 		    } else {
@@ -184,6 +467,465 @@ public final class CachingResultSetTableModel
 		}
     }
 
+    /**
+     * @see us.pcsw.util.tablemodelexport.SharedTableModel#isTruncated()
+     */
+    public boolean isTruncated()
+    {
+    	return truncated;
+    }
+
+    /**
+     * Indicates whether the row is held in memory, so that getValueAt will
+     * return its data without reading from the database.
+     */
+    public boolean isRowCached(int row)
+    {
+    	return getResidentPage(row) != null;
+    }
+
+    /**
+     * @see us.pcsw.util.tablemodelexport.SharedTableModel#release()
+     */
+    public void release()
+    {
+    }
+
+    /**
+     * Sets whether rows are read on the calling thread, even if it is the
+     * event dispatch thread, rather than in the background.  This is used
+     * while the whole model is walked, such as when it is exported, so that
+     * placeholders are not returned.
+     */
+    public void setSynchronous(boolean synchronous)
+    {
+    	this.synchronous = synchronous;
+    }
+
+    /**
+     * Indicates whether evicted pages can be read again.
+     */
+    private boolean canReload()
+    {
+    	return scrollable;
+    }
+
+    /**
+     * Closes the resultset and the cursor it was streamed through.  Must be
+     * called while holding readLock.
+     */
+    private void closeResultSet() throws SQLException
+    {
+    	try {
+    		if (rs != null) {
+    			rs.close();
+    		}
+    	} finally {
+    		rs = null;   // Release unneeded resources
+    		try {
+	    		if (streamingCursor != null) {
+	    			StreamingCursor cursor = streamingCursor;
+	    			streamingCursor = null;
+	    			cursor.close();
+	    		}
+    		} finally {
+    			synchronized (fetchLock) {
+    				resultSetOpen = false;
+    				fetchLock.notifyAll();
+    			}
+    		}
+    	}
+    }
+
+    /**
+     * Creates an empty page using the cached columns as templates.
+     */
+    private ColumnVector[] createPage()
+    {
+    	ColumnVector page[] = new ColumnVector[columns.length];
+    	for (int j = 0; j < columns.length; j++) {
+    		page[j] = columns[j].createEmpty();
+    	}
+    	return page;
+    }
+
+    /**
+     * Discards the pages farthest from the focus row until the cache is within
+     * the heap budget.  The page holding the focus row and the page still
+     * being filled are kept.  Event dispatch thread only.
+     */
+    private void evictPages()
+    {
+    	long budget = Preferences.getCacheHeapBudget() * 1024L * 1024L;
+    	if (budget <= 0 || residentBytes <= budget || ! canReload()) {
+    		return;
+    	}
+    	int focusPage = focusRow / pageRows;
+    	int tailPage = (cacheFull ? -1 : pages.size() - 1);
+    	while (residentBytes > budget && residentPages.size() > 1) {
+    		int low = ((Integer)residentPages.first()).intValue();
+    		int high = ((Integer)residentPages.last()).intValue();
+    		int victim;
+    		if (focusPage - low > high - focusPage) {
+    			victim = (low == tailPage ? high : low);
+    		} else {
+    			victim = (high == tailPage || high == focusPage ? low : high);
+    		}
+    		if (victim == focusPage || victim == tailPage) {
+    			break;
+    		}
+    		residentBytes -= getByteSize((ColumnVector[])pages.get(victim));
+    		pages.set(victim, null);
+    		residentPages.remove(Integer.valueOf(victim));
+    		pagesEvicted = true;
+    	}
+    }
+
+    /**
+     * Returns the estimated heap used by the page.
+     */
+    private long getByteSize(ColumnVector page[])
+    {
+    	long size = 0;
+    	for (int j = 0; j < page.length; j++) {
+    		size += page[j].getByteSize();
+    	}
+    	return size;
+    }
+
+    /**
+     * Returns the page holding the row, or null if the row has not been read
+     * or its page has been evicted.
+     */
+    private ColumnVector[] getResidentPage(int row)
+    {
+    	if (row < 0 || row >= cachedRowCount) {
+    		return null;
+    	}
+    	int page = row / pageRows;
+    	synchronized (pages) {
+    		return (page < pages.size() ? (ColumnVector[])pages.get(page) : null);
+    	}
+    }
+
+    /**
+     * Moves fragments which have been read into the cache and notifies
+     * listeners of new rows in a single event, then evicts pages if the cache
+     * has grown too large.  Must be run on the event dispatch thread or
+     * before the model has been handed to a table.
+     */
+    private void publishPendingRows()
+    {
+    	List fragments;
+    	boolean end;
+    	synchronized (fetchLock) {
+    		publishScheduled = false;
+    		fragments = pendingFragments;
+    		pendingFragments = new ArrayList();
+    		end = endOfResults;
+    	}
+    	int first = cachedRowCount;
+    	int added = 0;
+    	for (int i = 0; i < fragments.size(); i++) {
+    		PageFragment fragment = (PageFragment)fragments.get(i);
+    		Integer index = Integer.valueOf(fragment.page);
+    		if (fragment.reloaded) {
+    			if (pages.get(fragment.page) == null) {
+    				pages.set(fragment.page, fragment.columns);
+    				residentPages.add(index);
+    				residentBytes += getByteSize(fragment.columns);
+    				int firstRow = fragment.page * pageRows;
+    				fireTableRowsUpdated(firstRow, firstRow + fragment.rowCount - 1);
+    			}
+    		} else {
+    			if (fragment.page == pages.size()) {
+    				pages.add(createPage());
+    				residentPages.add(index);
+    			}
+    			ColumnVector page[] = (ColumnVector[])pages.get(fragment.page);
+    			residentBytes -= getByteSize(page);
+    			for (int j = 0; j < page.length; j++) {
+    				page[j].addAll(fragment.columns[j]);
+    			}
+    			residentBytes += getByteSize(page);
+    			added += fragment.rowCount;
+    		}
+    	}
+    	if (added > 0) {
+	    	cachedRowCount = first + added;
+	    	// The new rows are inserted ahead of the extra row which stands
+	    	// for the rows not yet read.
+	    	fireTableRowsInserted(first, cachedRowCount - 1);
+    	}
+    	if (end && ! cacheFull && columns != null) {
+    		cacheFull = true;
+    		fireTableRowsDeleted(cachedRowCount, cachedRowCount);
+    	}
+    	evictPages();
+    	synchronized (fetchLock) {
+    		fetchLock.notifyAll();
+    	}
+    }
+
+    /**
+     * Reads rows from the end of the resultset into a fragment of their
+     * page, and adds it to pendingFragments.  Reading stops at the end of
+     * the page, so that the fragment is part of a single page.  Must be
+     * called while holding readLock, and not fetchLock, which is only taken
+     * to hand the fragment over.
+     * @param target The number of rows to have read.
+     * @param deadline The time after which the rows read so far are handed
+     *                 over rather than more being read.
+     */
+    private void readRows(int target, long deadline)
+    {
+    	int page = readRowCount / pageRows;
+    	PageFragment fragment = new PageFragment(page, createPage(), false);
+    	boolean end = false;
+    	SQLException error = null;
+    	try {
+	    	while (! closed && readRowCount < target &&
+	    	       readRowCount / pageRows == page)
+	    	{
+	    		if (rs == null || ! nextRow(rs, fragment.columns)) {
+	    			// No more data
+	    			end = true;
+	    			break;
+	    		}
+	    		// The row exists, hold the data until it is published.
+	    		readRow(rs, fragment.columns);
+	    		fragment.rowCount++;
+	    		readRowCount++;
+	    		if (System.currentTimeMillis() >= deadline) {
+	    			break;
+	    		}
+	    	}
+    	} catch (SQLException sqle) {
+    		// Stop reading rather than retrying a broken resultset
+    		// over and over from the fetcher thread.
+    		end = true;
+    		error = sqle;
+    	}
+    	if (end) {
+    		// A scrollable resultset is kept open so that evicted pages
+    		// can be read again.
+    		if (error != null || closed || ! scrollable ||
+    		    Preferences.getCacheHeapBudget() < 1)
+    		{
+	    		try {
+	    			closeResultSet();
+	    		} catch (SQLException sqle) {
+	    			// The first error is the one worth showing.
+	    			if (error == null) {
+	    				error = sqle;
+	    			}
+	    		}
+    		}
+    	}
+    	synchronized (fetchLock) {
+    		if (fragment.rowCount > 0) {
+    			pendingFragments.add(fragment);
+    		}
+    		if (end) {
+    			endOfResults = true;
+    		}
+    	}
+    	// The resultset of a closed model is expected to fail.
+    	if (error != null && ! closed) {
+    		reportException(error);
+    	}
+    }
+
+    /**
+     * Reads the current row of the resultset into the page's vectors.
+     */
+    private void readRow(ResultSet resultSet, ColumnVector page[])
+    {
+    	for (int j = 0; j < page.length; j++) {
+    		try {
+    			page[j].read(resultSet, j + 1);
+    		} catch (SQLException sqle) {
+    			// The vector has stored a null for the cell.
+    			reportException(sqle);
+    		}
+    	}
+    }
+
+    /**
+     * Synchronously reads the row, and the rest of its page, and publishes
+     * it.  Must be called on the event dispatch thread or before the model
+     * has been handed to a table, because the rows are published into the
+     * cache immediately.
+     */
+    private void readRowNow(int row)
+    {
+    	synchronized (readLock) {
+    		if (row < cachedRowCount) {
+    			reloadPage(row / pageRows);
+    		} else {
+    			int target = getFetchTarget(row);
+	    		while (! endOfResults && ! closed &&
+	    		       readRowCount < target)
+	    		{
+	    			readRows(target, Long.MAX_VALUE);
+	    		}
+    		}
+    	}
+    	publishPendingRows();
+    }
+
+    /**
+     * Returns the number of rows which should be cached to satisfy a request
+     * for the row.
+     */
+    private int getFetchTarget(int row)
+    {
+    	int cachePageSize = Preferences.getCachePageSize();
+    	return (cachePageSize == 0 ? Integer.MAX_VALUE : row + cachePageSize);
+    }
+
+    /**
+     * Reads an evicted page again and adds it to pendingFragments.  Must be
+     * called while holding readLock and not fetchLock.
+     */
+    private void reloadPage(int page)
+    {
+    	int first = page * pageRows;
+    	int count = Math.min(pageRows, cachedRowCount - first);
+    	ColumnVector columns[] = createPage();
+    	int read = 0;
+    	try {
+	    	if (scrollable && rs != null) {
+	    		if (rs.absolute(first + 1)) {
+	    			do {
+	    				readRow(rs, columns);
+	    			} while (++read < count && rs.next());
+	    		}
+	    		// Put the cursor back for the rows still to be read.
+	    		int position = readRowCount;
+	    		if (endOfResults) {
+	    			rs.afterLast();
+	    		} else if (position == 0) {
+	    			rs.beforeFirst();
+	    		} else {
+	    			rs.absolute(position);
+	    		}
+	    	}
+    	} catch (SQLException sqle) {
+    		if (! closed) {
+    			reportException(sqle);
+    		}
+    	}
+    	if (read < count) {
+    		// The rows are not what they were.  Don't keep trying.
+    		reloadFailed = true;
+    	} else {
+    		PageFragment fragment = new PageFragment(page, columns, true);
+    		fragment.rowCount = read;
+    		synchronized (fetchLock) {
+    			pendingFragments.add(fragment);
+    		}
+    	}
+    }
+
+    /**
+     * Shows the exception to the user on the event dispatch thread.
+     */
+    private void reportException(final Throwable t)
+    {
+    	if (SwingUtilities.isEventDispatchThread()) {
+    		handleException(t);
+    	} else {
+    		SwingUtilities.invokeLater(new Runnable() {
+    			public void run()
+    			{
+    				handleException(t);
+    			}
+    		});
+    	}
+    }
+
+    /**
+     * Asks the fetcher thread to read the row, either by reading further
+     * into the resultset or by reading its evicted page again.
+     */
+    private void requestRow(int row)
+    {
+    	synchronized (fetchLock) {
+    		if (row < cachedRowCount) {
+    			pageRequests.add(Integer.valueOf(row / pageRows));
+    		} else {
+    			int target = getFetchTarget(row);
+    			if (target > requestedRowCount) {
+    				requestedRowCount = target;
+    			}
+    		}
+    		if (fetcher == null && ! closed) {
+    			fetcher = new PageFetcher();
+    			fetcher.start();
+    		}
+    	}
+    }
+
+    /**
+     * Queues a publication of pending rows on the event dispatch thread
+     * unless one is already queued.  Must be called while holding fetchLock.
+     */
+    private void schedulePublish()
+    {
+    	if (! publishScheduled) {
+    		publishScheduled = true;
+    		SwingUtilities.invokeLater(new Runnable() {
+    			public void run()
+    			{
+    				publishPendingRows();
+    			}
+    		});
+    	}
+    }
+
+    /**
+     * Asks the fetcher for the row and waits until it has been published
+     * into the cache.  Used from threads other than the event dispatch
+     * thread, which export the rows and must not write an empty row in
+     * place of one which could not be read.
+     * @exception IllegalStateException Indicates that the row can't be read
+     *                                  because the model was closed, the
+     *                                  page could not be read again or the
+     *                                  thread was interrupted.
+     */
+    private void waitForRow(int row)
+    {
+    	synchronized (fetchLock) {
+    		while (getResidentPage(row) == null) {
+    			if (closed) {
+    				throw new IllegalStateException(
+    						"The results were closed before row " + (row + 1) +
+    						" could be read."
+    					);
+    			} else if (reloadFailed && row < cachedRowCount) {
+    				throw new IllegalStateException(
+    						"Row " + (row + 1) + " could not be read again."
+    					);
+    			} else if (cacheFull && row >= cachedRowCount) {
+    				return;
+    			}
+    			// Ask again each time in case the page was evicted before
+    			// this thread got to it.
+    			requestRow(row);
+    			try {
+    				fetchLock.wait(PUBLISH_INTERVAL);
+    			} catch (InterruptedException ie) {
+    				Thread.currentThread().interrupt();
+    				throw new IllegalStateException(
+    						"Interrupted while waiting for row " + (row + 1) +
+    						"."
+    					);
+    			}
+    		}
+    	}
+    }
+
     /**
      * Sets/changes the ResultSet from which data is to be provided.
      * @exception IllegalArgumentException Indicats that the provided ResultSet
@@ -196,14 +938,138 @@ public final class CachingResultSetTableModel
      */
     protected void loadResultSet(ResultSet rs) throws SQLException
     {
-		this.rs = rs;
+    	int cachePageSize = Preferences.getCachePageSize();
+    	synchronized (readLock) {
+			if (this.rs != null && this.rs != rs) {
+				try {
+					closeResultSet();
+				} catch (SQLException sqle) {
+					// The old resultset is no longer wanted.
+				}
+			}
+			this.rs = rs;
+			readRowCount = 0;
+			try {
+				scrollable = (rs.getType() != ResultSet.TYPE_FORWARD_ONLY);
+			} catch (SQLException sqle) {
+				scrollable = false;
+			}
+			synchronized (fetchLock) {
+				closed = false;
+				endOfResults = false;
+				pageRequests.clear();
+				pendingFragments.clear();
+				requestedRowCount = 0;
+				resultSetOpen = true;
+			}
+    	}
 		cacheFull = false;
-		// Pull first cached page of results
-		getValueAt(0, 0, true);
+		cachedRowCount = 0;
+		pageRows = Math.max(cachePageSize, MIN_PAGE_ROWS);
+		pages.clear();
+		reloadFailed = false;
+		residentBytes = 0;
+		residentPages.clear();
+		// Pull first cached page of results.  This is done synchronously
+		// because the model has not been handed to a table yet.
+		readRowNow(0);
     }
     
     protected boolean isResultSetLoaded(ResultSet rs)
     {
     	return rs.equals(this.rs);
     }
+
+    /**
+     * Reads rows from the ResultSet off of the event dispatch thread.  The
+     * thread exits once the requested rows have been read so that an idle
+     * model does not hold a thread.  Once the model is closed, it closes
+     * the ResultSet and exits.
+     */
+    private class PageFetcher extends Thread
+    {
+    	PageFetcher()
+    	{
+    		super("CachingResultSetTableModel.PageFetcher");
+    		setDaemon(true);
+    	}
+
+    	public void run()
+    	{
+    		long lastPublish = System.currentTimeMillis();
+    		for (;;) {
+    			// Decide what to read under fetchLock, then read it under
+    			// readLock alone so that the event dispatch thread is never
+    			// kept waiting on the database.
+    			int page = -1;
+    			int target;
+    			synchronized (fetchLock) {
+    				if (closed) {
+    					break;
+    				}
+    				if (! pageRequests.isEmpty()) {
+    					// Evicted pages the user is waiting on come first.
+    					Integer first = (Integer)pageRequests.first();
+    					pageRequests.remove(first);
+    					page = first.intValue();
+    				} else if (endOfResults || readRowCount >= requestedRowCount) {
+    					fetcher = null;
+    					if (pendingFragments.size() > 0 || endOfResults) {
+    						schedulePublish();
+    					}
+    					return;
+    				}
+    				target = requestedRowCount;
+    			}
+    			boolean publish = false;
+    			synchronized (readLock) {
+    				if (page < 0) {
+    					readRows(target, lastPublish + PUBLISH_INTERVAL);
+    				} else if (pages.get(page) == null) {
+    					reloadPage(page);
+    					publish = true;
+    				}
+    			}
+    			long now = System.currentTimeMillis();
+    			if (publish || now - lastPublish >= PUBLISH_INTERVAL) {
+    				synchronized (fetchLock) {
+    					schedulePublish();
+    				}
+    				lastPublish = now;
+    			}
+    		}
+    		// The model was closed.
+    		synchronized (readLock) {
+    			try {
+    				closeResultSet();
+    			} catch (SQLException sqle) {
+    				// Nothing useful to do, the model is going away.
+    			}
+    		}
+    		synchronized (fetchLock) {
+    			fetcher = null;
+    			schedulePublish();
+    		}
+    	}
+    }
+
+    /**
+     * Rows read for one page of the cache which have not been published yet.
+     * Either rows read from the end of the resultset, to be appended to the
+     * page, or a complete evicted page which has been read again.
+     */
+    private static class PageFragment
+    {
+    	PageFragment(int page, ColumnVector columns[], boolean reloaded)
+    	{
+    		this.page = page;
+    		this.columns = columns;
+    		this.reloaded = reloaded;
+    	}
+
+    	ColumnVector columns[];
+    	int page;
+    	boolean reloaded;
+    	int rowCount = 0;
+    }
 }
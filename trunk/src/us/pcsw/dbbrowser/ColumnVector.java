@@ -0,0 +1,1105 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * us.pcsw.dbbrowser.ColumnVector
+ * -
+ * Holds the cached values of a single resultset column.  Rather than keeping
+ * a String object per cell, each vector stores its values in primitive arrays
+ * chosen from the column's java.sql.Types value and tracks nulls in a bitmap.
+ * Whole numbers are read with getLong and kept in int or long arrays.
+ * Floating point and decimal numbers are kept in double arrays, and dates
+ * and times as milliseconds in long arrays, for as long as the driver's text
+ * for each value can be rebuilt from it.  All other values are read with
+ * getString and kept as text.  get() returns the same text the ResultSet's
+ * getString method would have so that the display and exports do not
+ * change, except that whole numbers lose any padding the driver adds, such
+ * as for MySQL's ZEROFILL.  Values can also be written to and read back from
+ * a compact binary form so that rows can be moved out of the heap.
+ *
+ * <P><STRONG>Revision History:</STRONG><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 Added encode and decode for the spill file.</LI>
+ * <LI>Oct 18, 2026 Floating point numbers, dates and times are kept as the
+ *                  driver's text rather than by value.</LI>
+ * <LI>Oct 18, 2026 getDouble and getLong are only offered by IntegerVector,
+ *                  which is now public, rather than throwing for other
+ *                  types.</LI>
+ * <LI>Oct 18, 2026 Added DoubleVector and TimestampVector, which fall back to
+ *                  text when the driver's text can't be rebuilt.</LI>
+ * </UL></P>
+ */
+public abstract class ColumnVector
+{
+	// CONSTANTS
+	
+	private static final int INITIAL_CAPACITY = 16;
+	
+	// CONSTRUCTORS
+	
+	ColumnVector()
+	{
+		super();
+		nulls = new long[1];
+	}
+
+	/**
+	 * Creates a new, empty vector suited to the column type.
+	 * @param sqlType The type of the column as defined in java.sql.Types.
+	 * @param signed Whether the column holds signed numbers.  Unsigned 64 bit
+	 *               values will not fit into a long and are stored as text.
+	 */
+	public static ColumnVector create(int sqlType, boolean signed)
+	{
+		switch (sqlType) {
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+				return new IntegerVector();
+			case Types.BIGINT:
+				if (signed) {
+					return new IntegerVector();
+				} else {
+					return new TextVector();
+				}
+			case Types.REAL:
+			case Types.FLOAT:
+			case Types.DOUBLE:
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+				return new DoubleVector();
+			case Types.DATE:
+			case Types.TIME:
+			case Types.TIMESTAMP:
+				return new TimestampVector(sqlType);
+			default:
+				return new TextVector();
+		}
+	}
+	
+	// MEMBERS
+	
+	/**
+	 * A bitmap of the rows whose values are null.
+	 */
+	private long[] nulls;
+	
+	/**
+	 * The number of values in the vector.
+	 */
+	protected int size = 0;
+	
+	/**
+	 * Returns the number of values in the vector.
+	 */
+	public int size()
+	{
+		return size;
+	}
+	
+	// METHODS
+	
+	/**
+	 * Appends the values of another vector of the same type to this one.
+	 */
+	public void addAll(ColumnVector other)
+	{
+		int count = other.size;
+		ensureCapacity(size + count);
+		copyValues(other, size, count);
+		for (int i = 0; i < count; i++) {
+			setNull(size + i, other.isNull(i));
+		}
+		size += count;
+	}
+	
+	/**
+	 * Removes all values from the vector.
+	 */
+	public void clear()
+	{
+		size = 0;
+		nulls = new long[1];
+		resetStorage();
+	}
+	
+	/**
+	 * Returns a new, empty vector of the same type as this one.
+	 */
+	public abstract ColumnVector createEmpty();
+	
+	/**
+	 * Reads a value written by encode from the buffer's current position and
+	 * returns it as get would have.  The buffer is left positioned after the
+	 * value.
+	 */
+	public abstract Object decode(ByteBuffer buffer);
+	
+	/**
+	 * Writes the value at the row, which must not be null, in a compact
+	 * binary form which can be read with decode.
+	 */
+	public abstract void encode(int row, DataOutput out) throws IOException;
+	
+	/**
+	 * Returns the value at the row as it would have been returned by the
+	 * ResultSet's getString method, or null if the value is null.
+	 */
+	public abstract Object get(int row);
+	
+	/**
+	 * Returns an estimate of the number of bytes of heap used by the vector's
+	 * storage.
+	 */
+	public long getByteSize()
+	{
+		return nulls.length * 8L + getStorageSize();
+	}
+	
+	/**
+	 * Returns true if the value at the row is null.
+	 */
+	public boolean isNull(int row)
+	{
+		return (nulls[row >> 6] & (1L << (row & 63))) != 0;
+	}
+	
+	/**
+	 * Reads the value of the column from the current row of the ResultSet
+	 * and appends it to the vector.
+	 * @param rs The ResultSet positioned on the row to be read.
+	 * @param column The 1 based index of the column.
+	 */
+	public void read(ResultSet rs, int column) throws SQLException
+	{
+		ensureCapacity(size + 1);
+		boolean isNull;
+		try {
+			isNull = ! readValue(rs, column, size) || rs.wasNull();
+		} catch (SQLException sqle) {
+			// Keep the vector in step with the other columns.
+			readFailed(size);
+			setNull(size++, true);
+			throw sqle;
+		}
+		setNull(size, isNull);
+		size++;
+	}
+	
+	/**
+	 * Copies count values from the start of the other vector into this
+	 * vector's storage, starting at index.  Capacity has been ensured.
+	 */
+	protected abstract void copyValues(ColumnVector other, int index, int count);
+	
+	/**
+	 * Makes sure that the storage can hold at least capacity values.
+	 */
+	protected abstract void ensureCapacity(int capacity);
+	
+	/**
+	 * Returns the number of bytes allocated for the values.
+	 */
+	protected abstract long getStorageSize();
+	
+	/**
+	 * Returns true if the bit for the row is set in the bitmap.
+	 */
+	protected static boolean getBit(long bits[], int row)
+	{
+		int word = row >> 6;
+		return word < bits.length && (bits[word] & (1L << (row & 63))) != 0;
+	}
+	
+	/**
+	 * Sets or clears the bit for the row in the bitmap, which is grown if it
+	 * is too short.
+	 * @return The bitmap, which may be a new array.
+	 */
+	protected static long[] setBit(long bits[], int row, boolean value)
+	{
+		int word = row >> 6;
+		if (word >= bits.length) {
+			long[] newBits = new long[Math.max(word + 1, bits.length * 2)];
+			System.arraycopy(bits, 0, newBits, 0, bits.length);
+			bits = newBits;
+		}
+		if (value) {
+			bits[word] |= (1L << (row & 63));
+		} else {
+			bits[word] &= ~(1L << (row & 63));
+		}
+		return bits;
+	}
+	
+	/**
+	 * Calculates the new capacity of an array that needs to hold at least
+	 * capacity values.
+	 */
+	protected static int growCapacity(int current, int capacity)
+	{
+		int newCapacity = Math.max(INITIAL_CAPACITY, current);
+		while (newCapacity < capacity) {
+			newCapacity = (newCapacity > Integer.MAX_VALUE / 2 ?
+					Integer.MAX_VALUE : newCapacity * 2);
+		}
+		return newCapacity;
+	}
+	
+	/**
+	 * Reads the value from the ResultSet into the storage at index.
+	 * @return False if the value is known to be null.
+	 */
+	protected abstract boolean readValue(ResultSet rs, int column, int index)
+		throws SQLException;
+	
+	/**
+	 * Called when reading the value at index failed so that the storage can
+	 * be left consistent.  The value will be marked null.
+	 */
+	protected void readFailed(int index)
+	{
+	}
+	
+	/**
+	 * Releases the storage when the vector is cleared.
+	 */
+	protected abstract void resetStorage();
+	
+	/**
+	 * Reads a long written by writeVarLong.
+	 */
+	protected static long readVarLong(ByteBuffer buffer)
+	{
+		long zigzag = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buffer.get();
+			zigzag |= (long)(b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return (zigzag >>> 1) ^ -(zigzag & 1);
+	}
+	
+	/**
+	 * Writes a long in as few bytes as its magnitude allows, seven bits to a
+	 * byte.  Small negative numbers are kept small by zigzag encoding.
+	 */
+	protected static void writeVarLong(DataOutput out, long value)
+		throws IOException
+	{
+		long zigzag = (value << 1) ^ (value >> 63);
+		while ((zigzag & ~0x7FL) != 0) {
+			out.writeByte((int)((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		out.writeByte((int)zigzag);
+	}
+	
+	private void setNull(int row, boolean isNull)
+	{
+		nulls = setBit(nulls, row, isNull);
+	}
+	
+	/**
+	 * Stores whole numbers.  Values are kept in an int array until a value
+	 * that does not fit into an int is read, at which point the storage is
+	 * widened to a long array.  Callers which need the numbers themselves
+	 * rather than their text can cast a vector returned by create for an
+	 * integer column to this class.
+	 */
+	public static final class IntegerVector extends ColumnVector
+	{
+		IntegerVector()
+		{
+			super();
+		}
+		
+		private int[] ints = new int[0];
+		private long[] longs = null;
+		
+		public ColumnVector createEmpty()
+		{
+			return new IntegerVector();
+		}
+		
+		public Object decode(ByteBuffer buffer)
+		{
+			return String.valueOf(readVarLong(buffer));
+		}
+		
+		public void encode(int row, DataOutput out) throws IOException
+		{
+			writeVarLong(out, getLong(row));
+		}
+		
+		public Object get(int row)
+		{
+			return (isNull(row) ? null : String.valueOf(getLong(row)));
+		}
+		
+		/**
+		 * Returns the value at the row as a double.  A null cell returns 0,
+		 * so check isNull first where that matters.
+		 */
+		public double getDouble(int row)
+		{
+			return getLong(row);
+		}
+		
+		/**
+		 * Returns the value at the row.  A null cell returns 0, so check
+		 * isNull first where that matters.
+		 */
+		public long getLong(int row)
+		{
+			return (longs == null ? ints[row] : longs[row]);
+		}
+		
+		protected long getStorageSize()
+		{
+			return (longs == null ? ints.length * 4L : longs.length * 8L);
+		}
+		
+		protected void copyValues(ColumnVector other, int index, int count)
+		{
+			IntegerVector v = (IntegerVector)other;
+			if (longs == null && v.longs != null) {
+				widen(ints.length);
+			}
+			if (longs == null) {
+				System.arraycopy(v.ints, 0, ints, index, count);
+			} else if (v.longs == null) {
+				for (int i = 0; i < count; i++) {
+					longs[index + i] = v.ints[i];
+				}
+			} else {
+				System.arraycopy(v.longs, 0, longs, index, count);
+			}
+		}
+		
+		protected void ensureCapacity(int capacity)
+		{
+			if (longs == null) {
+				if (ints.length < capacity) {
+					int[] newInts = new int[growCapacity(ints.length, capacity)];
+					System.arraycopy(ints, 0, newInts, 0, size);
+					ints = newInts;
+				}
+			} else if (longs.length < capacity) {
+				long[] newLongs = new long[growCapacity(longs.length, capacity)];
+				System.arraycopy(longs, 0, newLongs, 0, size);
+				longs = newLongs;
+			}
+		}
+		
+		protected boolean readValue(ResultSet rs, int column, int index)
+			throws SQLException
+		{
+			long value = rs.getLong(column);
+			if (longs == null) {
+				if (value == (int)value) {
+					ints[index] = (int)value;
+					return true;
+				}
+				widen(ints.length);
+			}
+			longs[index] = value;
+			return true;
+		}
+		
+		protected void resetStorage()
+		{
+			ints = new int[0];
+			longs = null;
+		}
+		
+		private void widen(int capacity)
+		{
+			longs = new long[capacity];
+			for (int i = 0; i < size; i++) {
+				longs[i] = ints[i];
+			}
+			ints = null;
+		}
+	}
+	
+	/**
+	 * Stores floating point and decimal numbers.  Each value is read with
+	 * getString and kept in a double array if its text is what
+	 * Double.toString writes for it or, for whole numbers, what
+	 * Long.toString writes.  Once a value is read whose text can't be
+	 * rebuilt, such as a decimal with trailing zeros or more digits than a
+	 * double holds, the vector keeps the text of all of its values instead.
+	 */
+	public static final class DoubleVector extends ColumnVector
+	{
+		// The first byte of each encoded value says how it was written.
+		private static final byte ENCODED_DOUBLE = 0;
+		private static final byte ENCODED_WHOLE = 1;
+		private static final byte ENCODED_TEXT = 2;
+		
+		DoubleVector()
+		{
+			super();
+		}
+		
+		private double[] doubles = new double[0];
+		/**
+		 * A bitmap of the values whose text is written without a fraction.
+		 */
+		private long[] wholes = new long[1];
+		/**
+		 * The text of the values once one has been read which can't be
+		 * rebuilt from a double.  The other arrays are then null.
+		 */
+		private TextVector text = null;
+		
+		public ColumnVector createEmpty()
+		{
+			return new DoubleVector();
+		}
+		
+		public Object decode(ByteBuffer buffer)
+		{
+			switch (buffer.get()) {
+				case ENCODED_DOUBLE:
+					return Double.toString(buffer.getDouble());
+				case ENCODED_WHOLE:
+					return Long.toString(readVarLong(buffer));
+				default:
+					return TextVector.decodeText(buffer);
+			}
+		}
+		
+		public void encode(int row, DataOutput out) throws IOException
+		{
+			if (text != null) {
+				out.writeByte(ENCODED_TEXT);
+				text.encode(row, out);
+			} else if (getBit(wholes, row)) {
+				out.writeByte(ENCODED_WHOLE);
+				writeVarLong(out, (long)doubles[row]);
+			} else {
+				out.writeByte(ENCODED_DOUBLE);
+				out.writeDouble(doubles[row]);
+			}
+		}
+		
+		public Object get(int row)
+		{
+			if (isNull(row)) {
+				return null;
+			}
+			return (text == null ? format(row) : text.getText(row));
+		}
+		
+		/**
+		 * Returns the value at the row.  A null cell returns 0, so check
+		 * isNull first where that matters.  Values beyond the precision of a
+		 * double are rounded.
+		 * @throws NumberFormatException If the driver's text for the value
+		 *                               is not a number Java can read.
+		 */
+		public double getDouble(int row)
+		{
+			if (isNull(row)) {
+				return 0;
+			}
+			return (text == null ?
+					doubles[row] : Double.parseDouble(text.getText(row)));
+		}
+		
+		protected long getStorageSize()
+		{
+			return (text == null ?
+					doubles.length * 8L + wholes.length * 8L :
+					text.getStorageSize());
+		}
+		
+		protected void copyValues(ColumnVector other, int index, int count)
+		{
+			DoubleVector v = (DoubleVector)other;
+			if (text == null && v.text != null) {
+				toText();
+			}
+			if (text == null) {
+				System.arraycopy(v.doubles, 0, doubles, index, count);
+				for (int i = 0; i < count; i++) {
+					wholes = setBit(wholes, index + i, getBit(v.wholes, i));
+				}
+			} else if (v.text != null) {
+				text.copyValues(v.text, index, count);
+			} else {
+				for (int i = 0; i < count; i++) {
+					text.setText(index + i, v.isNull(i) ? null : v.format(i));
+				}
+			}
+		}
+		
+		protected void ensureCapacity(int capacity)
+		{
+			if (text != null) {
+				text.ensureCapacity(capacity);
+			} else if (doubles.length < capacity) {
+				double[] newDoubles =
+					new double[growCapacity(doubles.length, capacity)];
+				System.arraycopy(doubles, 0, newDoubles, 0, size);
+				doubles = newDoubles;
+			}
+		}
+		
+		protected boolean readValue(ResultSet rs, int column, int index)
+			throws SQLException
+		{
+			String s = rs.getString(column);
+			if (s == null) {
+				if (text != null) {
+					text.setText(index, null);
+				}
+				return false;
+			}
+			if (text == null) {
+				try {
+					double value = Double.parseDouble(s);
+					if (Double.toString(value).equals(s)) {
+						doubles[index] = value;
+						wholes = setBit(wholes, index, false);
+						return true;
+					}
+					if (value == Math.rint(value) && Math.abs(value) < 1e18 &&
+						Long.toString((long)value).equals(s))
+					{
+						doubles[index] = value;
+						wholes = setBit(wholes, index, true);
+						return true;
+					}
+				} catch (NumberFormatException nfe) {
+					// Kept as text below.
+				}
+				toText();
+			}
+			text.setText(index, s);
+			return true;
+		}
+		
+		protected void readFailed(int index)
+		{
+			if (text != null) {
+				text.setText(index, null);
+			}
+		}
+		
+		protected void resetStorage()
+		{
+			doubles = new double[0];
+			wholes = new long[1];
+			text = null;
+		}
+		
+		private String format(int row)
+		{
+			return (getBit(wholes, row) ?
+					Long.toString((long)doubles[row]) :
+					Double.toString(doubles[row]));
+		}
+		
+		private void toText()
+		{
+			text = new TextVector();
+			text.ensureCapacity(doubles.length);
+			for (int i = 0; i < size; i++) {
+				text.setText(i, isNull(i) ? null : format(i));
+			}
+			doubles = null;
+			wholes = null;
+		}
+	}
+	
+	/**
+	 * Stores dates, times and timestamps as milliseconds since the epoch,
+	 * with the nanoseconds of timestamps kept beside them.  Each value is
+	 * read with getString and parsed with the valueOf method of
+	 * java.sql.Date, Time or Timestamp in the JVM's time zone.  It is kept by
+	 * value if its text is what that class's toString writes for it, or for
+	 * a timestamp, the same text without a zero fraction.  Once a value is
+	 * read whose text can't be rebuilt, such as MySQL's zero date or a time
+	 * with a fraction, the vector keeps the text of all of its values instead.
+	 */
+	public static final class TimestampVector extends ColumnVector
+	{
+		// The first byte of each encoded value says how it was written.
+		private static final byte ENCODED_VALUE = 0;
+		private static final byte ENCODED_NO_FRACTION = 1;
+		private static final byte ENCODED_TEXT = 2;
+		
+		/**
+		 * @param sqlType Types.DATE, Types.TIME or Types.TIMESTAMP.
+		 */
+		TimestampVector(int sqlType)
+		{
+			super();
+			this.sqlType = sqlType;
+			resetStorage();
+		}
+		
+		private int sqlType;
+		private long[] millis;
+		/**
+		 * The nanoseconds of timestamps.  Null for dates and times.
+		 */
+		private int[] nanos;
+		/**
+		 * A bitmap of the timestamps whose text has no fraction.
+		 */
+		private long[] noFractions;
+		/**
+		 * The text of the values once one has been read which can't be
+		 * rebuilt.  The other arrays are then null.
+		 */
+		private TextVector text;
+		
+		public ColumnVector createEmpty()
+		{
+			return new TimestampVector(sqlType);
+		}
+		
+		public Object decode(ByteBuffer buffer)
+		{
+			byte encoding = buffer.get();
+			if (encoding == ENCODED_TEXT) {
+				return TextVector.decodeText(buffer);
+			}
+			long value = readVarLong(buffer);
+			int n = (sqlType == Types.TIMESTAMP ? (int)readVarLong(buffer) : 0);
+			return format(value, n, encoding == ENCODED_NO_FRACTION);
+		}
+		
+		public void encode(int row, DataOutput out) throws IOException
+		{
+			if (text != null) {
+				out.writeByte(ENCODED_TEXT);
+				text.encode(row, out);
+				return;
+			}
+			out.writeByte(getBit(noFractions, row) ?
+					ENCODED_NO_FRACTION : ENCODED_VALUE);
+			writeVarLong(out, millis[row]);
+			if (nanos != null) {
+				writeVarLong(out, nanos[row]);
+			}
+		}
+		
+		public Object get(int row)
+		{
+			if (isNull(row)) {
+				return null;
+			}
+			return (text == null ? format(row) : text.getText(row));
+		}
+		
+		/**
+		 * Returns the value at the row as milliseconds since the epoch, as
+		 * getTime would for the Date, Time or Timestamp which the driver's
+		 * text is read as in the JVM's time zone.  A null cell returns 0, so
+		 * check isNull first where that matters.
+		 * @throws IllegalArgumentException If the driver's text for the value
+		 *                                  is not in the JDBC escape format,
+		 *                                  such as MySQL's zero date.
+		 */
+		public long getMillis(int row)
+		{
+			if (isNull(row)) {
+				return 0;
+			}
+			return (text == null ?
+					millis[row] : parse(text.getText(row)).getTime());
+		}
+		
+		/**
+		 * Returns the fraction of the second of a timestamp in nanoseconds.
+		 * Dates, times and null cells return 0.
+		 * @throws IllegalArgumentException As getMillis does.
+		 */
+		public int getNanos(int row)
+		{
+			if (isNull(row) || sqlType != Types.TIMESTAMP) {
+				return 0;
+			}
+			return (text == null ?
+				nanos[row] : ((Timestamp)parse(text.getText(row))).getNanos());
+		}
+		
+		protected long getStorageSize()
+		{
+			if (text != null) {
+				return text.getStorageSize();
+			}
+			return millis.length * 8L + noFractions.length * 8L +
+				(nanos == null ? 0 : nanos.length * 4L);
+		}
+		
+		protected void copyValues(ColumnVector other, int index, int count)
+		{
+			TimestampVector v = (TimestampVector)other;
+			if (text == null && v.text != null) {
+				toText();
+			}
+			if (text == null) {
+				System.arraycopy(v.millis, 0, millis, index, count);
+				if (nanos != null) {
+					System.arraycopy(v.nanos, 0, nanos, index, count);
+				}
+				for (int i = 0; i < count; i++) {
+					noFractions = setBit(noFractions, index + i,
+							getBit(v.noFractions, i));
+				}
+			} else if (v.text != null) {
+				text.copyValues(v.text, index, count);
+			} else {
+				for (int i = 0; i < count; i++) {
+					text.setText(index + i, v.isNull(i) ? null : v.format(i));
+				}
+			}
+		}
+		
+		protected void ensureCapacity(int capacity)
+		{
+			if (text != null) {
+				text.ensureCapacity(capacity);
+			} else if (millis.length < capacity) {
+				int newCapacity = growCapacity(millis.length, capacity);
+				long[] newMillis = new long[newCapacity];
+				System.arraycopy(millis, 0, newMillis, 0, size);
+				millis = newMillis;
+				if (nanos != null) {
+					int[] newNanos = new int[newCapacity];
+					System.arraycopy(nanos, 0, newNanos, 0, size);
+					nanos = newNanos;
+				}
+			}
+		}
+		
+		protected boolean readValue(ResultSet rs, int column, int index)
+			throws SQLException
+		{
+			String s = rs.getString(column);
+			if (s == null) {
+				if (text != null) {
+					text.setText(index, null);
+				}
+				return false;
+			}
+			if (text == null) {
+				try {
+					java.util.Date value = parse(s);
+					int n = (nanos == null ? 0 : ((Timestamp)value).getNanos());
+					String rebuilt = format(value.getTime(), n, false);
+					boolean noFraction = (! rebuilt.equals(s) && n == 0 &&
+							rebuilt.equals(s + ".0"));
+					if (noFraction || rebuilt.equals(s)) {
+						millis[index] = value.getTime();
+						if (nanos != null) {
+							nanos[index] = n;
+						}
+						noFractions = setBit(noFractions, index, noFraction);
+						return true;
+					}
+				} catch (IllegalArgumentException iae) {
+					// Kept as text below.
+				}
+				toText();
+			}
+			text.setText(index, s);
+			return true;
+		}
+		
+		protected void readFailed(int index)
+		{
+			if (text != null) {
+				text.setText(index, null);
+			}
+		}
+		
+		protected void resetStorage()
+		{
+			millis = new long[0];
+			nanos = (sqlType == Types.TIMESTAMP ? new int[0] : null);
+			noFractions = new long[1];
+			text = null;
+		}
+		
+		private String format(int row)
+		{
+			return format(millis[row], (nanos == null ? 0 : nanos[row]),
+					getBit(noFractions, row));
+		}
+		
+		private String format(long value, int n, boolean noFraction)
+		{
+			switch (sqlType) {
+				case Types.DATE:
+					return new Date(value).toString();
+				case Types.TIME:
+					return new Time(value).toString();
+				default:
+					Timestamp ts = new Timestamp(value);
+					ts.setNanos(n);
+					String s = ts.toString();
+					// Drop the ".0" which toString adds to whole seconds.
+					return (noFraction ? s.substring(0, s.length() - 2) : s);
+			}
+		}
+		
+		private java.util.Date parse(String s)
+		{
+			switch (sqlType) {
+				case Types.DATE:
+					return Date.valueOf(s);
+				case Types.TIME:
+					return Time.valueOf(s);
+				default:
+					return Timestamp.valueOf(s);
+			}
+		}
+		
+		private void toText()
+		{
+			text = new TextVector();
+			text.ensureCapacity(millis.length);
+			for (int i = 0; i < size; i++) {
+				text.setText(i, isNull(i) ? null : format(i));
+			}
+			millis = null;
+			nanos = null;
+			noFractions = null;
+		}
+	}
+	
+	/**
+	 * Stores text in one shared array with an array of end offsets.  Text is
+	 * kept one byte per character until a character above 0xFF is read, at
+	 * which point the storage is widened to chars.
+	 */
+	private static final class TextVector extends ColumnVector
+	{
+		TextVector()
+		{
+			super();
+		}
+		
+		private byte[] bytes = new byte[0];
+		private char[] chars = null;
+		private int[] ends = new int[0];
+		private int length = 0;
+		
+		public ColumnVector createEmpty()
+		{
+			return new TextVector();
+		}
+		
+		public Object decode(ByteBuffer buffer)
+		{
+			return decodeText(buffer);
+		}
+		
+		static String decodeText(ByteBuffer buffer)
+		{
+			// The length is negative if the text was written as chars.
+			int len = (int)readVarLong(buffer);
+			char[] value = new char[Math.abs(len)];
+			if (len < 0) {
+				buffer.asCharBuffer().get(value);
+				buffer.position(buffer.position() + value.length * 2);
+			} else {
+				for (int i = 0; i < len; i++) {
+					value[i] = (char)(buffer.get() & 0xFF);
+				}
+			}
+			return new String(value);
+		}
+		
+		public void encode(int row, DataOutput out) throws IOException
+		{
+			int start = (row == 0 ? 0 : ends[row - 1]);
+			int len = ends[row] - start;
+			if (chars == null) {
+				writeVarLong(out, len);
+				out.write(bytes, start, len);
+			} else {
+				writeVarLong(out, -len);
+				for (int i = 0; i < len; i++) {
+					out.writeChar(chars[start + i]);
+				}
+			}
+		}
+		
+		public Object get(int row)
+		{
+			return (isNull(row) ? null : getText(row));
+		}
+		
+		/**
+		 * Returns the text stored at the row without checking for null.
+		 */
+		String getText(int row)
+		{
+			int start = (row == 0 ? 0 : ends[row - 1]);
+			if (chars == null) {
+				char[] value = new char[ends[row] - start];
+				for (int i = 0; i < value.length; i++) {
+					value[i] = (char)(bytes[start + i] & 0xFF);
+				}
+				return new String(value);
+			} else {
+				return new String(chars, start, ends[row] - start);
+			}
+		}
+		
+		protected long getStorageSize()
+		{
+			return ends.length * 4L +
+				(chars == null ? bytes.length : chars.length * 2L);
+		}
+		
+		protected void copyValues(ColumnVector other, int index, int count)
+		{
+			TextVector v = (TextVector)other;
+			if (chars == null && v.chars != null) {
+				widen(bytes.length);
+			}
+			ensureTextCapacity(length + v.length);
+			if (chars == null) {
+				System.arraycopy(v.bytes, 0, bytes, length, v.length);
+			} else if (v.chars == null) {
+				for (int i = 0; i < v.length; i++) {
+					chars[length + i] = (char)(v.bytes[i] & 0xFF);
+				}
+			} else {
+				System.arraycopy(v.chars, 0, chars, length, v.length);
+			}
+			for (int i = 0; i < count; i++) {
+				ends[index + i] = length + v.ends[i];
+			}
+			length += v.length;
+		}
+		
+		protected void ensureCapacity(int capacity)
+		{
+			if (ends.length < capacity) {
+				int[] newEnds = new int[growCapacity(ends.length, capacity)];
+				// Copy every end, since a TextVector holding the text of a
+				// typed vector does not keep its own size.
+				System.arraycopy(ends, 0, newEnds, 0, ends.length);
+				ends = newEnds;
+			}
+		}
+		
+		private void ensureTextCapacity(int capacity)
+		{
+			if (chars == null) {
+				if (bytes.length < capacity) {
+					byte[] newBytes = new byte[growCapacity(bytes.length, capacity)];
+					System.arraycopy(bytes, 0, newBytes, 0, length);
+					bytes = newBytes;
+				}
+			} else if (chars.length < capacity) {
+				char[] newChars = new char[growCapacity(chars.length, capacity)];
+				System.arraycopy(chars, 0, newChars, 0, length);
+				chars = newChars;
+			}
+		}
+		
+		protected boolean readValue(ResultSet rs, int column, int index)
+			throws SQLException
+		{
+			String s = rs.getString(column);
+			setText(index, s);
+			return (s != null);
+		}
+		
+		/**
+		 * Stores the text at index, which must follow the last index stored.
+		 * Null stores an empty value.  Capacity has been ensured.
+		 */
+		void setText(int index, String s)
+		{
+			if (s == null) {
+				ends[index] = length;
+				return;
+			}
+			int len = s.length();
+			if (chars == null) {
+				for (int i = 0; i < len; i++) {
+					if (s.charAt(i) > 0xFF) {
+						widen(bytes.length);
+						break;
+					}
+				}
+			}
+			ensureTextCapacity(length + len);
+			if (chars == null) {
+				for (int i = 0; i < len; i++) {
+					bytes[length + i] = (byte)s.charAt(i);
+				}
+			} else {
+				s.getChars(0, len, chars, length);
+			}
+			length += len;
+			ends[index] = length;
+		}
+		
+		protected void readFailed(int index)
+		{
+			ends[index] = length;
+		}
+		
+		protected void resetStorage()
+		{
+			bytes = new byte[0];
+			chars = null;
+			ends = new int[0];
+			length = 0;
+		}
+		
+		private void widen(int capacity)
+		{
+			chars = new char[capacity];
+			for (int i = 0; i < length; i++) {
+				chars[i] = (char)(bytes[i] & 0xFF);
+			}
+			bytes = null;
+		}
+	}
+}
@@ -48,6 +48,10 @@ import us.pcsw.dbbrowser.event.*;
  * <LI>08/14/2002 This class was created.</LI>
  * <LI>02/15/2003 The ability to notify status listeners of status events was
  *                added.</LI>
+ * <LI>10/18/2026 Metadata is read through the provider's shared metadata
+ *                connection, from getMetadataConnection, rather than a
+ *                connection of the model's own.  The pool keeps that
+ *                connection, so close only discards the nodes.</LI>
  * </UL></P>
  * 
  * @author Philip A. Chapman
@@ -108,6 +112,15 @@ public final class DBObjectsTreeModel
 		}	
     }
 
+    /**
+     * Discards the nodes of the tree.  They will be reloaded if the tree is
+     * used again.
+     */
+    public synchronized void close()
+    {
+		children = null;
+    }
+
     /**
      * Adds a TreeModelListener to the list of listeners to be notified.
      * @param l The TreeModelListener to be added.
@@ -200,12 +213,11 @@ public final class DBObjectsTreeModel
     public String getTitle()
     {
 		try {
-		    Connection con = conProv.getConnection();
+		    Connection con = conProv.getMetadataConnection();
 		    DatabaseMetaData dmd = con.getMetaData();
 		    StringBuffer sb = new StringBuffer();
 		    sb.append(dmd.getDatabaseProductName());
 		    sb.append(" - ");
-		    dmd = con.getMetaData();
 			sb.append(conProv.getServerName());
 		    return sb.toString();
 		} catch (Exception e) {
@@ -369,7 +381,7 @@ public final class DBObjectsTreeModel
      * @exception SQLException indicates that an error occurred while querying
      *                         the database server.
      */
-    public void refresh()
+    public synchronized void refresh()
 		throws ClassNotFoundException, IllegalAccessException,
 			          InstantiationException, SQLException
     {
@@ -388,7 +400,7 @@ public final class DBObjectsTreeModel
 				children = new Vector();
 			}
 
-			Connection con = conProv.getConnection();
+			Connection con = conProv.getMetadataConnection();
 
 			// Get a list of all catalogs unless we are connected to
 			// Postgresql.
@@ -24,8 +24,10 @@ package us.pcsw.dbbrowser;
 import java.sql.SQLException;
 import java.util.Stack;
 import java.util.Vector;
+import javax.swing.SwingUtilities;
 
 import us.pcsw.dbbrowser.event.*;
+import us.pcsw.swing.SwingWorker;
 
 /**
  * us.pcsw.dbbrowser.DBobjectsTreeNode
@@ -34,6 +36,13 @@ import us.pcsw.dbbrowser.event.*;
  *
  * <P><B>Revision History:</B><UL>
  * <LI>08/06/2002 This class was created.</LI>
+ * <LI>10/18/2026 Nodes which return true from isLoadedInBackground are
+ *                refreshed in a worker thread when their children are
+ *                first requested on the event dispatch thread.  A
+ *                "Loading..." child is shown until the load finishes.  The
+ *                load can be cancelled with cancelLoading.</LI>
+ * <LI>10/18/2026 insertChildNodes takes the indices of the nodes from where
+ *                they were appended rather than searching for each.</LI>
  * </UL></P>
  * 
  *
@@ -47,6 +56,18 @@ public abstract class DBObjectsTreeNode
     static final protected int NODES_REMOVED = 2;
     static final protected int STRUCTURE_CHANGED = 3;
 
+    /**
+     * The number of child nodes a refresh should collect before inserting
+     * them, so that a long list appears in pieces while it loads.
+     */
+    static final protected int LOAD_CHUNK_SIZE = 500;
+
+    /**
+     * The child shown after the loaded children while loading in the
+     * background.
+     */
+    static final private String LOADING_NODE = "Loading\u2026";
+
     /**
      * The node's children.
      */
@@ -58,6 +79,16 @@ public abstract class DBObjectsTreeNode
      */
     protected DBObjectsTreeNode parent = null;
 
+    /**
+     * The worker refreshing the node in the background, or null.
+     */
+    private volatile SwingWorker loader = null;
+
+    /**
+     * Whether the current background load has been cancelled.
+     */
+    private volatile boolean loadCancelled = false;
+
     /**
      * Initializes a new instance of DBobjectsTreeNode.
      * @param parent The DBObjectsTreeNode 1 level above this node, null if
@@ -68,6 +99,19 @@ public abstract class DBObjectsTreeNode
 		this.parent = parent;
     }
 
+    /**
+     * Stops a background load of the node's children, such as when the node
+     * is collapsed.  The children loaded so far are discarded and will be
+     * loaded again the next time they are requested.
+     */
+    public void cancelLoading()
+    {
+		if (loader != null) {
+			loadCancelled = true;
+			loader.interrupt();
+		}
+    }
+
     /**
      * Returns the child at the indicated index.
      * @param index the index of the child.
@@ -78,6 +122,9 @@ public abstract class DBObjectsTreeNode
 			return null;
 		} else {
 			Vector v = getChildren();
+			if (loader != null && index == v.size()) {
+				return LOADING_NODE;
+			}
 		    return v.elementAt(index);
 		}
     }
@@ -90,6 +137,9 @@ public abstract class DBObjectsTreeNode
     int getChildCount()
     {
 		Vector v = getChildren();
+		if (loader != null) {
+			return v.size() + 1;
+		}
 	    return v.size();
     }
 
@@ -99,9 +149,16 @@ public abstract class DBObjectsTreeNode
 	protected Vector getChildren()
 	{
 		if (children == null) {
-			try {
-				refresh();
-			} catch (Throwable t) {}
+			if (isLoadedInBackground() &&
+			    SwingUtilities.isEventDispatchThread())
+			{
+				children = new Vector();
+				startLoading();
+			} else {
+				try {
+					refresh();
+				} catch (Throwable t) {}
+			}
 			// If no children were added by the refresh method, create an
 			// empty Vector.
 			if (children == null) {
@@ -119,8 +176,81 @@ public abstract class DBObjectsTreeNode
     int getIndexOfChild(Object child)
     {
 		Vector v = getChildren();
+		if (loader != null && child == LOADING_NODE) {
+			return v.size();
+		}
 		return v.indexOf(child);
     }
+
+    /**
+     * Indicates whether the node is being loaded in the background and the
+     * load should stop.  Refresh methods of nodes loaded in the background
+     * should check this between rows.
+     */
+    protected boolean isLoadCancelled()
+    {
+		return loadCancelled;
+    }
+
+    /**
+     * Returns true if the node's children should be loaded in a worker
+     * thread when requested from the event dispatch thread.  Nodes whose
+     * refresh may take a long time should override this and insert their
+     * children in chunks of LOAD_CHUNK_SIZE.  By default, false is returned.
+     */
+    protected boolean isLoadedInBackground()
+    {
+		return false;
+    }
+
+    /**
+     * Called on the event dispatch thread when the background load is done.
+     * The loading node is removed, or if the load was cancelled, the
+     * children are discarded.
+     */
+    private void loadFinished(SwingWorker worker)
+    {
+		if (loader != worker) {
+			return;
+		}
+		loader = null;
+		if (loadCancelled) {
+			loadCancelled = false;
+			children = null;
+			notifyParent(STRUCTURE_CHANGED, new Stack());
+		} else {
+			int[] indices = {children.size()};
+			Object[] removed = {LOADING_NODE};
+			notifyParent(NODES_REMOVED, new Stack(), indices, removed);
+		}
+    }
+
+    /**
+     * Starts refreshing the node in a worker thread.  Children and status
+     * events produced by the refresh are passed to the event dispatch
+     * thread.
+     */
+    private void startLoading()
+    {
+		loadCancelled = false;
+		loader = new SwingWorker() {
+			public Object construct()
+			{
+				try {
+					refresh();
+				} catch (Throwable t) {
+					notifyParent(new StatusEvent(DBObjectsTreeNode.this, t));
+				}
+				return null;
+			}
+
+			public void finished()
+			{
+				loadFinished(this);
+			}
+		};
+		loader.start();
+    }
     
     /**
      * Returns the parent node)
@@ -176,17 +306,33 @@ public abstract class DBObjectsTreeNode
      *                    a leaf node.  The child nodes MUST NOT already exist
      *                    in children.
      */
-    protected void insertChildNodes(Object[] childNodes)
+    protected void insertChildNodes(final Object[] childNodes)
     {
+		if (loader != null && ! SwingUtilities.isEventDispatchThread()) {
+			// Loading in the background; the tree may only change on the
+			// event dispatch thread.
+			final SwingWorker worker = loader;
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run()
+				{
+					if (loader == worker && ! loadCancelled) {
+						insertChildNodes(childNodes);
+					}
+				}
+			});
+			return;
+		}
 		if (children == null) {
 		    children = new Vector();
 		}
 		int j = childNodes.length;
+		int start = children.size();
 		int[] indices = new int[j];
 		Object[] insertedChildren = new Object[j];
+		children.ensureCapacity(start + j);
 		for (int i = 0; i < j; i++) {
 	    	children.add(childNodes[i]);
-		    indices[i] = children.indexOf(childNodes[i]);
+		    indices[i] = start + i;
 		    insertedChildren[i] = childNodes[i];
 		}
 		notifyParent(NODES_INSERTED, new Stack(), indices, insertedChildren);
@@ -246,8 +392,17 @@ public abstract class DBObjectsTreeNode
 	/**
 	 * Notifies the paretn of a StatusEvent.
 	 */
-	protected void notifyParent(StatusEvent se)
+	protected void notifyParent(final StatusEvent se)
 	{
+		if (loader != null && ! SwingUtilities.isEventDispatchThread()) {
+			SwingUtilities.invokeLater(new Runnable() {
+				public void run()
+				{
+					notifyParent(se);
+				}
+			});
+			return;
+		}
 		if (parent != null) {
 			parent.notified(se);
 		}
@@ -0,0 +1,284 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import us.pcsw.util.tablemodelexport.RowFetcher;
+
+/**
+ * us.pcsw.dbbrowser.FetchSizeController
+ * -
+ * Tunes the fetch size of a ResultSet while it is being read.  Drivers
+ * default to fetch sizes which suit few queries, such as 10 rows for Oracle.
+ * Each time the driver has to go back to the server for more rows, the time
+ * the call to next() took is measured.  If round trips are slow, the fetch
+ * size is grown so that fewer are made.  The fetch size is capped so that
+ * a single fetch does not hold more than TARGET_FETCH_BYTES, based on the
+ * size of the rows read so far, and is kept within the bounds given by the
+ * connection provider.  The fetch size is only changed over the first
+ * ADAPT_ROUND_TRIPS round trips.
+ * <P>
+ * The number of rows fetched per round trip is assumed to be the fetch size
+ * that was in effect, so the round trip count is an estimate.  It means
+ * nothing for a driver which read every row when the query was run.
+ * </P>
+ *
+ * <P><STRONG>Revision History:</STRONG><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 A negative fetch size, with which a driver streams rows,
+ *                  is left alone.</LI>
+ * <LI>Oct 18, 2026 This class implements RowFetcher, so that the rows of an
+ *                  export are read through it.</LI>
+ * <LI>Oct 18, 2026 Starts from the fetch size the connection provider gives
+ *                  streaming statements rather than the page size.</LI>
+ * </UL></P>
+ */
+public final class FetchSizeController implements RowFetcher
+{
+	// CONSTANTS
+	
+	/**
+	 * The default largest fetch size.
+	 */
+	public static final int DEFAULT_MAX_FETCH_SIZE = 10000;
+	
+	/**
+	 * The default smallest fetch size.
+	 */
+	public static final int DEFAULT_MIN_FETCH_SIZE = 10;
+	
+	/**
+	 * The number of round trips over which the fetch size is tuned.
+	 */
+	private static final int ADAPT_ROUND_TRIPS = 8;
+	
+	/**
+	 * Round trips which take longer than this many nanoseconds quadruple
+	 * the fetch size.
+	 */
+	private static final long SLOW_ROUND_TRIP = 50000000L;
+	
+	/**
+	 * Round trips which take longer than this many nanoseconds double the
+	 * fetch size.
+	 */
+	private static final long MEDIUM_ROUND_TRIP = 5000000L;
+	
+	/**
+	 * The most memory that the rows of one fetch should take.
+	 */
+	private static final long TARGET_FETCH_BYTES = 2L * 1024L * 1024L;
+	
+	// CONSTRUCTORS
+	
+	/**
+	 * Creates a new controller.
+	 * @param minFetchSize The smallest fetch size to use.
+	 * @param maxFetchSize The largest fetch size to use.
+	 * @param startFetchSize The fetch size to start with, usually the one
+	 *                       the connection provider gives streaming
+	 *                       statements.  0 or less to start with the
+	 *                       driver's.
+	 */
+	public FetchSizeController(int minFetchSize, int maxFetchSize,
+	                           int startFetchSize)
+	{
+		super();
+		this.minFetchSize = Math.max(1, minFetchSize);
+		this.maxFetchSize = Math.max(this.minFetchSize, maxFetchSize);
+		this.startFetchSize = startFetchSize;
+	}
+	
+	// MEMBERS
+	
+	private boolean adapting = true;
+	private volatile int fetchSize = 0;
+	private volatile long lastRoundTripNanos = 0;
+	private int maxFetchSize;
+	private int minFetchSize;
+	private volatile int roundTrips = 0;
+	private int rowsUntilFetch = 0;
+	private int startFetchSize;
+	
+	/**
+	 * Returns the fetch size currently in use, or 0 if the driver streams
+	 * the rows one at a time.
+	 */
+	public int getFetchSize()
+	{
+		return fetchSize;
+	}
+	
+	/**
+	 * Returns the time, in milliseconds, the last measured round trip took.
+	 */
+	public long getLastRoundTripMillis()
+	{
+		return lastRoundTripNanos / 1000000L;
+	}
+	
+	/**
+	 * Returns an estimate of the number of times rows have been fetched from
+	 * the server, which assumes that each fetch returned the fetch size then
+	 * in effect.
+	 */
+	public int getRoundTrips()
+	{
+		return roundTrips;
+	}
+	
+	// METHODS
+	
+	/**
+	 * Moves the ResultSet to the next row, measuring the call if it is
+	 * expected to fetch rows from the server.
+	 * @param rs The ResultSet being read.
+	 * @param rows The vectors the rows are being read into, used to estimate
+	 *             the size of a row.  May be null.
+	 * @return The value returned by rs.next().
+	 */
+	public boolean next(ResultSet rs, ColumnVector rows[])
+		throws SQLException
+	{
+		if (rowsUntilFetch > 0) {
+			rowsUntilFetch--;
+			return rs.next();
+		}
+		long start = System.nanoTime();
+		boolean more = rs.next();
+		lastRoundTripNanos = System.nanoTime() - start;
+		roundTrips++;
+		if (more) {
+			// The rows just fetched were fetched with the old size.
+			rowsUntilFetch = fetchSize - 1;
+			if (adapting) {
+				adapt(rs, rows);
+			}
+		}
+		return more;
+	}
+	
+	/**
+	 * Moves the ResultSet to the next row without estimating the size of
+	 * the rows, which are not kept.
+	 * @see us.pcsw.util.tablemodelexport.RowFetcher#next(ResultSet)
+	 */
+	public boolean next(ResultSet rs) throws SQLException
+	{
+		return next(rs, null);
+	}
+	
+	/**
+	 * Sets the starting fetch size of a ResultSet which is about to be read.
+	 * The start fetch size given to the constructor is used if it is
+	 * positive, otherwise the driver's is, within bounds.  A negative fetch
+	 * size on the ResultSet, such as MySQL's Integer.MIN_VALUE, has the
+	 * driver stream the rows one at a time, and is not changed.
+	 */
+	public void start(ResultSet rs)
+	{
+		int size = 0;
+		try {
+			size = rs.getFetchSize();
+		} catch (SQLException sqle) {
+			// Use the start fetch size.
+		}
+		roundTrips = 0;
+		rowsUntilFetch = 0;
+		if (size < 0) {
+			fetchSize = 0;
+			adapting = false;
+			return;
+		}
+		if (startFetchSize > 0) {
+			size = startFetchSize;
+		}
+		fetchSize = clamp(size);
+		adapting = setFetchSize(rs, fetchSize);
+	}
+	
+	/**
+	 * Resizes the fetch based on the last round trip and the size of the
+	 * rows read so far.
+	 */
+	private void adapt(ResultSet rs, ColumnVector rows[])
+	{
+		int size = fetchSize;
+		if (lastRoundTripNanos > SLOW_ROUND_TRIP) {
+			size = size * 4;
+		} else if (lastRoundTripNanos > MEDIUM_ROUND_TRIP) {
+			size = size * 2;
+		}
+		long rowBytes = estimateRowBytes(rows);
+		if (rowBytes > 0) {
+			size = (int)Math.min(size, TARGET_FETCH_BYTES / rowBytes);
+		}
+		size = clamp(size);
+		if (size != fetchSize) {
+			if (setFetchSize(rs, size)) {
+				fetchSize = size;
+			} else {
+				adapting = false;
+			}
+		}
+		if (roundTrips >= ADAPT_ROUND_TRIPS) {
+			adapting = false;
+		}
+	}
+	
+	private int clamp(int size)
+	{
+		return Math.max(minFetchSize, Math.min(maxFetchSize, size));
+	}
+	
+	/**
+	 * Estimates the heap used per row by the rows read so far, or returns 0
+	 * if no rows have been read.
+	 */
+	private long estimateRowBytes(ColumnVector rows[])
+	{
+		if (rows == null || rows.length == 0 || rows[0].size() == 0) {
+			return 0;
+		}
+		long bytes = 0;
+		for (int i = 0; i < rows.length; i++) {
+			bytes += rows[i].getByteSize();
+		}
+		return Math.max(1, bytes / rows[0].size());
+	}
+	
+	/**
+	 * Sets the ResultSet's fetch size, returning false if the driver
+	 * refuses.
+	 */
+	private boolean setFetchSize(ResultSet rs, int size)
+	{
+		try {
+			rs.setFetchSize(size);
+			return true;
+		} catch (SQLException sqle) {
+			return false;
+		}
+	}
+}
@@ -3,10 +3,12 @@
  */
 package us.pcsw.dbbrowser;
 
+import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+
+import us.pcsw.util.tablemodelexport.LoadedTableModel;
+import us.pcsw.util.tablemodelexport.SharedTableModel;
 
 /**
  * us.pcsw.dbbrowser.LoadedResultSetTableModel
@@ -15,27 +17,46 @@ import java.util.List;
  * ResultSet in at once so that the ResultSet can then be closed.
  * 
  * <STRONG>Note:</STRONG> For large result sets, this may use up large amounts
- * of memory.
+ * of memory.  If Preferences.getSpillThreshold() is set, rows are moved to a
+ * temporary file once they use more memory than that and are read back from
+ * the file as they are displayed.
  *
  * <P><STRONG>Revision History:</STRONG><UL>
  * <LI>Feb 16, 2006 This class was created by pchapman.</LI>
+ * <LI>Oct 18, 2026 Rows are now stored in the typed ColumnVectors of the
+ *                  super class rather than as a list of Object arrays.</LI>
+ * <LI>Oct 18, 2026 Rows are spilled to a memory mapped temporary file past
+ *                  the spill threshold.</LI>
+ * <LI>Oct 18, 2026 Added the constructor which takes a fetch size
+ *                  controller.</LI>
+ * <LI>Oct 18, 2026 This class implements LoadedTableModel, so that its rows
+ *                  may be formatted on several threads when exported.</LI>
+ * <LI>Oct 18, 2026 This class implements SharedTableModel.  The spill file
+ *                  is not deleted until exports reading it are done.</LI>
  * </UL></P>
  *
  * @author pchapman
  */
 public final class LoadedResultSetTableModel extends ResultSetTableModel
+	implements LoadedTableModel, SharedTableModel
 {
-	// CONSTRUCTORS
+	// CONSTANTS
 	
 	private static final long serialVersionUID = 1L;
 	
+	/**
+	 * The number of rows read between checks of the memory used.
+	 */
+	private static final int SPILL_CHECK_ROWS = 1024;
+	
+	// CONSTRUCTORS
+	
 	/**
 	 * Creates a new instance.
 	 */
 	public LoadedResultSetTableModel()
 	{
 		super();
-		data = new ArrayList();
 	}
 
 	/**
@@ -47,24 +68,116 @@ public final class LoadedResultSetTableModel extends ResultSetTableModel
 		super(rs);
 	}
 
+	/**
+	 * Creates a new instance and loads the resultset, tuning the fetch size
+	 * with the controller as it is read.
+	 */
+	public LoadedResultSetTableModel(ResultSet rs,
+	                                 FetchSizeController controller)
+		throws SQLException
+	{
+		super();
+		setFetchSizeController(controller);
+		setResultSet(rs);
+	}
+
 	// MEMBERS
 	
-	// A list of Object arrays.  Each Object array is a row.  Each array
-	// element is a cell.
-	private List data;
+	// Indicates that the model was closed while acquired.  Guarded by this.
+	private boolean closePending = false;
+	
+	// The number of readers which have acquired the model.  Guarded by this.
+	private int readers = 0;
+	
+	// The number of rows loaded.  Not initialized here because the super
+	// class constructor may already have loaded the resultset.
+	private int rowCount;
+	
+	// The file holding the rows, or null if they are held in the columns.
+	private ResultSpillFile spillFile;
 	
 	/**
 	 * @see us.pcsw.dbbrowser.ResultSetTableModel#getValueAt(int, int, boolean)
 	 */
 	public Object getValueAt(int row, int column, boolean returnNulls)
 	{
-		Object o = ((Object[])data.get(row))[column];
+		Object o;
+		if (spillFile == null) {
+			o = columns[column].get(row);
+		} else {
+			try {
+				o = spillFile.get(row, column);
+			} catch (IOException ioe) {
+				handleException(ioe);
+				o = null;
+			}
+		}
 		if (o == null) {
 			o = Preferences.getRepresentationForNull();
 		}
 		return o;
 	}
 	
+	/**
+	 * @see us.pcsw.util.tablemodelexport.SharedTableModel#acquire()
+	 */
+	public synchronized void acquire()
+	{
+		readers++;
+	}
+	
+	/**
+	 * Deletes the spill file, if there is one.  If the model has been
+	 * acquired, the file is deleted when the last reader releases it.
+	 * @see us.pcsw.dbbrowser.ResultSetTableModel#close()
+	 */
+	public void close()
+	{
+		synchronized (this) {
+			if (readers > 0) {
+				closePending = true;
+				return;
+			}
+		}
+		deleteSpillFile();
+	}
+	
+	/**
+	 * Deletes the spill file, if there is one.
+	 */
+	private void deleteSpillFile()
+	{
+		if (spillFile != null) {
+			spillFile.delete();
+			spillFile = null;
+		}
+	}
+	
+	/**
+	 * The rows are kept until every reader has released the model, so none
+	 * are lost.
+	 * @see us.pcsw.util.tablemodelexport.SharedTableModel#isTruncated()
+	 */
+	public boolean isTruncated()
+	{
+		return false;
+	}
+	
+	/**
+	 * @see us.pcsw.util.tablemodelexport.SharedTableModel#release()
+	 */
+	public void release()
+	{
+		synchronized (this) {
+			readers--;
+			if (readers > 0 || ! closePending) {
+				return;
+			}
+			closePending = false;
+		}
+		deleteSpillFile();
+	}
+	
 	/**
 	 * @see us.pcsw.dbbrowser.ResultSetTableModel#isResultSetLoaded(java.sql.ResultSet)
 	 */
@@ -82,23 +195,63 @@ public final class LoadedResultSetTableModel extends ResultSetTableModel
 	 */
 	protected void loadResultSet(ResultSet rs) throws SQLException
 	{
-		Object[] row = null;
 		int colCount = getColumnCount();
+		long threshold = Preferences.getSpillThreshold() * 1024L * 1024L;
 
-		if (data == null) {
-			data = new ArrayList();
-		} else {
-			data.clear();
-		}
-		while (rs.next()) {
-			row = new Object[colCount];
-			for (int i = 0; i < colCount; i++) {
-				row[i] = rs.getString(i + 1);
-				if (rs.wasNull()) {
-					row[i] = null;
+		deleteSpillFile();
+		rowCount = 0;
+		try {
+			while (nextRow(rs, columns)) {
+				for (int i = 0; i < colCount; i++) {
+					columns[i].read(rs, i + 1);
+				}
+				rowCount++;
+				if (
+						threshold > 0 && rowCount % SPILL_CHECK_ROWS == 0 &&
+						(spillFile != null || getByteSize() > threshold)
+					)
+				{
+					spill();
 				}
 			}
-			data.add(row);
+			if (spillFile != null) {
+				spill();
+				spillFile.finish();
+			}
+		} catch (IOException ioe) {
+			deleteSpillFile();
+			throw new SQLException("Unable to write the results to a " +
+			                       "temporary file: " + ioe.getMessage());
+		}
+	}
+	
+	/**
+	 * Returns the estimated heap used by the columns.
+	 */
+	private long getByteSize()
+	{
+		long size = 0;
+		for (int i = 0; i < columns.length; i++) {
+			size += columns[i].getByteSize();
+		}
+		return size;
+	}
+	
+	/**
+	 * Moves the rows held in the columns to the spill file, creating it if
+	 * needed.  The columns are left empty.
+	 */
+	private void spill() throws IOException
+	{
+		if (spillFile == null) {
+			spillFile = new ResultSpillFile(columns);
+		}
+		spillFile.append(columns);
+		for (int i = 0; i < columns.length; i++) {
+			// clear() drops the row arrays, freeing their heap, and new ones
+			// are grown as more rows are read.  The vectors themselves are
+			// kept, since the spill file decodes with them.
+			columns[i].clear();
 		}
 	}
 
@@ -107,6 +260,6 @@ public final class LoadedResultSetTableModel extends ResultSetTableModel
 	 */
 	public int getRowCount()
 	{
-		return data.size();
+		return (columns == null ? 0 : rowCount);
 	}
 }
@@ -72,6 +72,13 @@ import org.w3c.dom.Text;
  * <LI>Sep 25, 2003 Fixed a bug in the saving of result font size.  PAC </LI>
  * <LI>Jan 06, 2004 Made changes so that the look and feel defaults to
  *                  "Windows" on Microsoft platforms.  PAC </LI>
+ * <LI>Oct 18, 2026 Added the cache heap budget setting, which bounds the
+ *                  memory used by a lazily loaded resultset cache.</LI>
+ * <LI>Oct 18, 2026 Added the spill threshold setting, past which fully
+ *                  loaded resultsets are moved to a temporary file.</LI>
+ * <LI>Oct 18, 2026 Added the export threads setting, the number of threads
+ *                  which format a fully loaded resultset when it is
+ *                  saved.</LI>
  * </UL></P>
  */
 public final class Preferences
@@ -84,6 +91,7 @@ public final class Preferences
 	private static final String BOUNDS_LEFT = "Left";
 	private static final String BOUNDS_TOP = "Top";
 	private static final String BOUNDS_WIDTH = "Width";
+	private static final String CACHE_HEAP_BUDGET = "CacheHeapBudget";
 	private static final String CACHE_PAGE_SIZE = "CachePageSize";
 	private static final String CON_PROVIDER = "ConnectionProvider";
 	private static final String CON_PROVIDER_ATTR_NAME = "name";
@@ -93,16 +101,36 @@ public final class Preferences
 	private static final String DBVIEW_BOUNDS = "DBViewBounds";
 	private static final String DISPLAY_TB_LABELS = "DisplayToolbarLabels";
 	private static final String ELEM_ROOT = "DBBrowserPreferences";
+	private static final String EXPORT_THREADS = "ExportThreads";
 	private static final String IGNORE_SEL_TEXT = "IgnoreSelectedText";
 	private static final String LOOK_AND_FEEL = "LookAndFeel";
 	private static final String REP_FOR_NULL = "RepresentationForNull";
 	private static final String RES_FONT_NAME = "ResultsFontName";
 	private static final String RES_FONT_SIZE = "ResultsFontSize";
+	private static final String SPILL_THRESHOLD = "SpillThreshold";
 	private static final String SQL_FONT_NAME = "SQLFontName";
 	private static final String SQL_FONT_SIZE = "SQLFontSize";
 	private static final String SQL_TAB_SIZE = "SQLTabSize";
 	private static final String STORE_CON_SECRETS = "StoreConnectionSecrets";
 	
+	/**
+	 * The number of megabytes a lazily loaded resultset cache may use before
+	 * pages are evicted.  0 means no limit.
+	 */
+	private static int cacheHeapBudget = 0;
+	
+	/**
+	 * The number of megabytes a fully loaded resultset may use before its
+	 * rows are moved to a temporary file.  0 means never.
+	 */
+	private static int spillThreshold = 0;
+	
+	/**
+	 * The number of threads which format the rows of a fully loaded
+	 * resultset when it is exported.  0 means one per processor.
+	 */
+	private static int exportThreads = 0;
+	
 	/**
 	 * The paging size to be used for resultset caches.
 	 */
@@ -234,6 +262,39 @@ public final class Preferences
 					parseError = true;
 				}
 
+				// Cache heap budget.  Older configuration files do not have
+				// this setting.
+				nodeText = getNodeText(doc, CACHE_HEAP_BUDGET);
+				if (nodeText != null) {
+					try {
+						cacheHeapBudget = Integer.parseInt(nodeText);
+					} catch (NumberFormatException nfe) {
+						parseError = true;
+					}
+				}
+
+				// Spill threshold.  Older configuration files do not have
+				// this setting.
+				nodeText = getNodeText(doc, SPILL_THRESHOLD);
+				if (nodeText != null) {
+					try {
+						spillThreshold = Integer.parseInt(nodeText);
+					} catch (NumberFormatException nfe) {
+						parseError = true;
+					}
+				}
+
+				// Export threads.  Older configuration files do not have
+				// this setting.
+				nodeText = getNodeText(doc, EXPORT_THREADS);
+				if (nodeText != null) {
+					try {
+						exportThreads = Integer.parseInt(nodeText);
+					} catch (NumberFormatException nfe) {
+						parseError = true;
+					}
+				}
+
 				// DBBrowser's main frame's default dimensions
 				nl = doc.getElementsByTagName(DBBROWSER_BOUNDS);
 				if (nl != null && nl.getLength() > 0) {
@@ -426,6 +487,22 @@ public final class Preferences
 	}
 
 	
+	/**
+	 * Gets the number of megabytes that the cache of a lazily loaded
+	 * resultset may use.  When the cache grows beyond this size, the pages
+	 * farthest from the rows being viewed are discarded and read again from
+	 * the database when needed.  If the value is 0, the cache is not
+	 * limited.  The default is 0.  Only the caches of scrollable resultsets
+	 * are limited, since the rows of a forward only resultset can't be read
+	 * again; the PostgreSQL, MySQL and Oracle providers stream forward only
+	 * resultsets.
+	 * @returns The cache size limit in megabytes.
+	 */
+	public static int getCacheHeapBudget()
+	{
+		return cacheHeapBudget;
+	}
+	
 	/**
 	 * Gets the size of cache pages (in rows).  If the value is 0, the entire
 	 * resultset is cached from the start.  The default is 0.
@@ -478,6 +555,16 @@ public final class Preferences
 		return dbViewBounds;
 	}
 
+	/**
+	 * Gets the number of threads which format the rows of a fully loaded
+	 * resultset when it is saved to file.  If the value is 0, there is one
+	 * thread per processor.  The default is 0.
+	 */
+	public static int getExportThreads()
+	{
+		return exportThreads;
+	}
+
 	/**
 	 * Returns the name of the prefered look and feel; or a zero length string
 	 * if there is no preferred.
@@ -548,6 +635,18 @@ public final class Preferences
 		return resFontSize;
 	}
 
+	/**
+	 * Gets the number of megabytes that a fully loaded resultset may use
+	 * before its rows are moved to a temporary file and read back through a
+	 * memory mapped buffer.  If the value is 0, rows are never moved.  The
+	 * default is 0.
+	 * @returns The spill threshold in megabytes.
+	 */
+	public static int getSpillThreshold()
+	{
+		return spillThreshold;
+	}
+
 	/**
 	 * Convenience method that uses the sqlFontName and sqlFontSize properties
 	 * to build a Font object to be used when displaying SQL text.
@@ -639,6 +738,24 @@ public final class Preferences
 		elem.appendChild(text);
 		rootElem.appendChild(elem);
 		
+		// Cache heap budget
+		elem = doc.createElement(CACHE_HEAP_BUDGET);
+		text = doc.createTextNode(String.valueOf(cacheHeapBudget));
+		elem.appendChild(text);
+		rootElem.appendChild(elem);
+		
+		// Spill threshold
+		elem = doc.createElement(SPILL_THRESHOLD);
+		text = doc.createTextNode(String.valueOf(spillThreshold));
+		elem.appendChild(text);
+		rootElem.appendChild(elem);
+		
+		// Export threads
+		elem = doc.createElement(EXPORT_THREADS);
+		text = doc.createTextNode(String.valueOf(exportThreads));
+		elem.appendChild(text);
+		rootElem.appendChild(elem);
+		
 		// Connection providers
 		ConnectionProviderModelItem cpmi = null;
 		Element cpElement = doc.createElement(CON_PROVIDER_LIST); 
@@ -741,6 +858,16 @@ public final class Preferences
 		transformer.transform(source, result);
 	}
 
+	/**
+	 * Sets the number of megabytes that the cache of a lazily loaded
+	 * resultset may use.  If the value is 0, the cache is not limited.
+	 * @param megabytes The cache size limit in megabytes.
+	 */
+	public static void setCacheHeapBudget(int megabytes)
+	{
+		cacheHeapBudget = (megabytes < 0 ? 0 : megabytes);
+	}
+
 	/**
 	 * Sets the size of cache pages (in rows).  If the value is 0, the entire
 	 * resultset is cached from the start.
@@ -781,6 +908,16 @@ public final class Preferences
 	{
 		dbViewBounds = bounds;
 	}
+
+	/**
+	 * Sets the number of threads which format the rows of a fully loaded
+	 * resultset when it is saved to file.  If the value is 0, there is one
+	 * thread per processor.
+	 */
+	public static void setExportThreads(int threads)
+	{
+		exportThreads = (threads < 0 ? 0 : threads);
+	}
 	/**
 	 * Sets the name of the prefered look and feel.
 	 */
@@ -823,6 +960,17 @@ public final class Preferences
 		resFontSize = fontSize;
 	}
 
+	/**
+	 * Sets the number of megabytes that a fully loaded resultset may use
+	 * before its rows are moved to a temporary file.  If the value is 0, rows
+	 * are never moved.
+	 * @param megabytes The spill threshold in megabytes.
+	 */
+	public static void setSpillThreshold(int megabytes)
+	{
+		spillThreshold = (megabytes < 0 ? 0 : megabytes);
+	}
+
 	/**
 	 * Sets the font name and size to be used when displaying SQL text from
 	 * the given font.
@@ -42,6 +42,8 @@ import us.pcsw.dbbrowser.event.*;
  * <LI>Aug 06, 2003 Added awareness of schemas.  PAC. </LI>
  * <LI>Sep 05, 2003 Fixed a bug where oracle SPs were being shown twice.  Once
  * <LI>             as an SP, the second as a packaged item.  PAC. </LI>
+ * <LI>Oct 18, 2026 The list is loaded in the background and inserted in
+ *                  chunks.  The load stops if it is cancelled.</LI>
  * </UL></P>
  */
 public class ProceduresTreeNode
@@ -68,6 +70,15 @@ public class ProceduresTreeNode
 		}
 	}
 
+	/**
+	 * Returns true; catalogs may have many thousands of procedures.
+	 * @see us.pcsw.dbbrowser.DBObjectsTreeNode#isLoadedInBackground()
+	 */
+	protected boolean isLoadedInBackground()
+	{
+		return true;
+	}
+
 	/**
 	 * @see us.pcsw.dbbrowser.DBObjectsTreeNode#isLeaf()
 	 */
@@ -112,7 +123,7 @@ public class ProceduresTreeNode
 			cat = cat == null ? "" : cat;
 			ResultSet rs = dmd.getProcedures(cat, null, "%");
 			Vector v = new Vector();
-			while (rs.next()) {
+			while (rs.next() && ! isLoadCancelled()) {
 				cat = rs.getString("PROCEDURE_CAT");
 				if (rs.wasNull()) {
 					cat = null;
@@ -122,6 +133,10 @@ public class ProceduresTreeNode
 					schema = null;
 				}
 				v.add(new ProcedureTreeNode(this, con, cat, schema, rs.getString("PROCEDURE_NAME")));
+				if (v.size() == LOAD_CHUNK_SIZE) {
+					insertChildNodes(v.toArray());
+					v.clear();
+				}
 			}
 			rs.close();
 			if (v.size() > 0) {
@@ -24,13 +24,13 @@ package us.pcsw.dbbrowser;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
-import java.util.ArrayList;
-import java.util.List;
 
 import javax.swing.JOptionPane;
 
 import org.slf4j.LoggerFactory;
 
+import us.pcsw.util.tablemodelexport.TypedTableModel;
+
 /**
  * us.pcsw.dbbrowser.ResultSetTableModel
  * -
@@ -47,19 +47,27 @@ import org.slf4j.LoggerFactory;
  *                and the CachingResultSetTableModel subclass.  This was so
  *                a new LoadedResultSetTableModel subclass could be created
  *                and common code could be reused. PAC </LI>
+ * <LI>10/18/2026 The cached data is now held in ColumnVectors, which store
+ *                values in primitive arrays chosen by column type, rather
+ *                than in lists of Strings.</LI>
+ * <LI>10/18/2026 Rows may be read through a FetchSizeController.</LI>
+ * <LI>10/18/2026 This class implements TypedTableModel, so that its data is
+ *                exported by the type of each column.</LI>
+ * <LI>10/18/2026 Added awaitClose.</LI>
  * </UL></P>
  *
  * @author Philip A. Chapman
  */
 public abstract class ResultSetTableModel
     extends javax.swing.table.AbstractTableModel
+    implements TypedTableModel
 {
 	private static final long serialVersionUID = 1L;
 
     /**
      * Holds vectors which hold cached data.
      */
-    protected List columns[] = null;
+    protected ColumnVector columns[] = null;
 
     /**
      * The names of the columns.
@@ -71,6 +79,11 @@ public abstract class ResultSetTableModel
      */
     protected int columnTypes[] = null;
 
+    /**
+     * Tunes the fetch size as the resultset is read.  May be null.
+     */
+    private FetchSizeController fetchSizeController = null;
+
     /**
      * Basic Constructor.
      */
@@ -92,6 +105,59 @@ public abstract class ResultSetTableModel
 		setResultSet(rs);
     }
 
+    /**
+     * Releases any database or other resources held by the model.  This is
+     * called when the model is no longer displayed.  The default
+     * implementation does nothing.
+     */
+    public void close()
+    {
+    }
+
+    /**
+     * Waits until the resources a call to close let go of have been
+     * released, where close leaves that to another thread.  The default
+     * implementation returns at once.
+     */
+    public void awaitClose()
+    {
+    }
+
+    /**
+     * Returns the controller which tunes the fetch size as the resultset is
+     * read, or null.
+     */
+    public FetchSizeController getFetchSizeController()
+    {
+    	return fetchSizeController;
+    }
+
+    /**
+     * Sets the controller which tunes the fetch size as the resultset is
+     * read.  Must be set before the resultset is.
+     */
+    public void setFetchSizeController(FetchSizeController controller)
+    {
+    	fetchSizeController = controller;
+    }
+
+    /**
+     * Moves the resultset to its next row, through the fetch size
+     * controller if there is one.
+     * @param rs The resultset being read.
+     * @param rows The vectors the rows are being read into.  Used to
+     *             estimate the size of the rows.
+     */
+    protected boolean nextRow(ResultSet rs, ColumnVector rows[])
+    	throws SQLException
+    {
+    	if (fetchSizeController == null) {
+    		return rs.next();
+    	} else {
+    		return fetchSizeController.next(rs, rows);
+    	}
+    }
+
     /**
      * Called whenever an exception is thrown.
      * @param exception Throwable
@@ -176,20 +242,17 @@ public abstract class ResultSetTableModel
 				try {
 				    columnCount = rs.getMetaData().getColumnCount();
 				} catch (SQLException e) {}
-				// Initialize the data cache.
-				columns = new List[columnCount];
-				for (int i = 0; i < columnCount; i++) {
-				    columns[i] = new ArrayList();
-				}
 				// Get column headers
 				columnNames = new String[columnCount];
 				columnTypes = new int[columnCount];
+				boolean signed[] = new boolean[columnCount];
 				for (int i = 0; i < columnCount; i++) {
 				    try {
 						columnNames[i] =
 					    	rs.getMetaData().getColumnLabel(i + 1);
 					    columnTypes[i] =
 					    	rs.getMetaData().getColumnType(i + 1);
+					    signed[i] = rs.getMetaData().isSigned(i + 1);
 				    } catch (SQLException e) {
 				    	if (columnNames[i] == null) {
 	 						columnNames[i] = "Column " + String.valueOf(i + 1);
@@ -197,7 +260,16 @@ public abstract class ResultSetTableModel
 				    	columnTypes[i] = Types.VARCHAR;
 				    }
 				}
+				// Initialize the data cache.  The storage used for each
+				// column depends on the column's type.
+				columns = new ColumnVector[columnCount];
+				for (int i = 0; i < columnCount; i++) {
+				    columns[i] = ColumnVector.create(columnTypes[i], signed[i]);
+				}
 				
+				if (fetchSizeController != null) {
+					fetchSizeController.start(rs);
+				}
 				loadResultSet(rs);
 
 				fireTableStructureChanged();
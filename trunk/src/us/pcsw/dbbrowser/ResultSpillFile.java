@@ -0,0 +1,285 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * us.pcsw.dbbrowser.ResultSpillFile
+ * -
+ * Holds rows of a resultset in a temporary file rather than on the heap.
+ * Rows are appended from ColumnVectors while the resultset is read and are
+ * written in a compact binary form: a null bitmap followed by the encoded
+ * values of the columns which are not null.  Once finish has been called,
+ * rows are read back through memory mapped buffers.
+ * <P>
+ * The file is mapped in segments because a single mapping cannot be larger
+ * than 2GB.  A row never crosses from one segment into the next; if it would,
+ * the rest of the segment is left empty.  Rather than keeping the offset of
+ * every row, the offset of every INDEX_STRIDE'th row, and of the first row of
+ * each segment, is kept and the rows in between are skipped over.
+ * </P>
+ *
+ * <P><STRONG>Revision History:</STRONG><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+final class ResultSpillFile
+{
+	// CONSTANTS
+	
+	/**
+	 * The number of rows between index entries.
+	 */
+	private static final int INDEX_STRIDE = 64;
+	
+	/**
+	 * The size of each mapped segment of the file.
+	 */
+	private static final int SEGMENT_SIZE = 1 << 28;
+	
+	// CONSTRUCTORS
+	
+	/**
+	 * Creates the temporary file.
+	 * @param templates Vectors of the same types as the rows which will be
+	 *                  appended.  Used to decode the values.
+	 */
+	ResultSpillFile(ColumnVector templates[]) throws IOException
+	{
+		super();
+		this.templates = templates;
+		nullBytes = (templates.length + 7) / 8;
+		file = File.createTempFile("dbbrowser", ".rows");
+		// In case the file is still mapped, and so cannot be deleted, when
+		// the model is closed.
+		file.deleteOnExit();
+		out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16);
+	}
+	
+	// MEMBERS
+	
+	private FileChannel channel = null;
+	private File file;
+	private int indexCount = 0;
+	private long indexOffsets[] = new long[16];
+	private int indexRows[] = new int[16];
+	private Object lastRow[] = null;
+	private int lastRowIndex = -1;
+	private long length = 0;
+	private int nullBytes;
+	private OutputStream out;
+	private int rowCount = 0;
+	private ByteArrayOutputStream rowBuffer = new ByteArrayOutputStream();
+	private DataOutputStream rowOut = new DataOutputStream(rowBuffer);
+	private MappedByteBuffer segments[] = null;
+	private ColumnVector templates[];
+	
+	/**
+	 * Returns the number of rows in the file.
+	 */
+	int getRowCount()
+	{
+		return rowCount;
+	}
+	
+	// METHODS
+	
+	/**
+	 * Appends all of the rows held in the vectors to the file.
+	 */
+	void append(ColumnVector columns[]) throws IOException
+	{
+		int rows = (columns.length == 0 ? 0 : columns[0].size());
+		byte nulls[] = new byte[nullBytes];
+		for (int r = 0; r < rows; r++) {
+			rowBuffer.reset();
+			for (int j = 0; j < nullBytes; j++) {
+				nulls[j] = 0;
+			}
+			for (int j = 0; j < columns.length; j++) {
+				if (columns[j].isNull(r)) {
+					nulls[j >> 3] |= (1 << (j & 7));
+				}
+			}
+			rowOut.write(nulls);
+			for (int j = 0; j < columns.length; j++) {
+				if (! columns[j].isNull(r)) {
+					columns[j].encode(r, rowOut);
+				}
+			}
+			writeRow();
+		}
+	}
+	
+	/**
+	 * Closes and deletes the file.
+	 */
+	synchronized void delete()
+	{
+		try {
+			if (out != null) {
+				out.close();
+				out = null;
+			}
+			if (channel != null) {
+				channel.close();
+				channel = null;
+			}
+		} catch (IOException ioe) {
+			// The file is going away anyway.
+		}
+		segments = null;
+		lastRow = null;
+		// On some platforms this fails until the mapped buffers have been
+		// garbage collected; deleteOnExit will catch it then.
+		file.delete();
+	}
+	
+	/**
+	 * Finishes writing the file and prepares it to be read.
+	 */
+	void finish() throws IOException
+	{
+		out.close();
+		out = null;
+		rowBuffer = null;
+		rowOut = null;
+		channel = new RandomAccessFile(file, "r").getChannel();
+		segments = new MappedByteBuffer[(int)((length + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+	}
+	
+	/**
+	 * Returns the value of the cell as ColumnVector.get would have, or null
+	 * if the value is null.
+	 */
+	synchronized Object get(int row, int column) throws IOException
+	{
+		if (row != lastRowIndex) {
+			// Tables ask for every column of a row in turn, so decode the
+			// whole row once.
+			lastRow = readRow(row);
+			lastRowIndex = row;
+		}
+		return lastRow[column];
+	}
+	
+	/**
+	 * Returns the mapped buffer for the segment, mapping it if it has not
+	 * been already.
+	 */
+	private ByteBuffer getSegment(int segment) throws IOException
+	{
+		if (segments[segment] == null) {
+			long start = (long)segment * SEGMENT_SIZE;
+			segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY,
+			                                start,
+			                                Math.min(SEGMENT_SIZE, length - start));
+		}
+		return segments[segment];
+	}
+	
+	/**
+	 * Decodes the row.
+	 */
+	private Object[] readRow(int row) throws IOException
+	{
+		if (segments == null) {
+			throw new IOException("The spill file is not open for reading.");
+		}
+		// Find the last index entry at or before the row.
+		int low = 0;
+		int high = indexCount - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (indexRows[mid] <= row) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		long offset = indexOffsets[low];
+		ByteBuffer buffer = getSegment((int)(offset / SEGMENT_SIZE));
+		buffer.position((int)(offset % SEGMENT_SIZE));
+		Object values[] = new Object[templates.length];
+		for (int r = indexRows[low]; r <= row; r++) {
+			int nullsAt = buffer.position();
+			buffer.position(nullsAt + nullBytes);
+			for (int j = 0; j < templates.length; j++) {
+				if ((buffer.get(nullsAt + (j >> 3)) & (1 << (j & 7))) != 0) {
+					values[j] = null;
+				} else {
+					values[j] = templates[j].decode(buffer);
+				}
+			}
+		}
+		return values;
+	}
+	
+	/**
+	 * Writes the row in rowBuffer to the file, starting a new segment if
+	 * the row will not fit in what is left of the current one.
+	 */
+	private void writeRow() throws IOException
+	{
+		int size = rowBuffer.size();
+		if (size > SEGMENT_SIZE) {
+			throw new IOException("A row is too large to be written to the spill file.");
+		}
+		long room = SEGMENT_SIZE - (length % SEGMENT_SIZE);
+		if (size > room) {
+			for (long i = 0; i < room; i++) {
+				out.write(0);
+			}
+			length += room;
+		}
+		// Rows are only found by skipping forward within a segment, so the
+		// first row of each segment needs an index entry.
+		boolean newSegment = (length % SEGMENT_SIZE == 0);
+		if (newSegment || rowCount % INDEX_STRIDE == 0) {
+			if (indexCount == indexRows.length) {
+				int newRows[] = new int[indexCount * 2];
+				long newOffsets[] = new long[indexCount * 2];
+				System.arraycopy(indexRows, 0, newRows, 0, indexCount);
+				System.arraycopy(indexOffsets, 0, newOffsets, 0, indexCount);
+				indexRows = newRows;
+				indexOffsets = newOffsets;
+			}
+			indexRows[indexCount] = rowCount;
+			indexOffsets[indexCount] = length;
+			indexCount++;
+		}
+		rowBuffer.writeTo(out);
+		length += size;
+		rowCount++;
+	}
+}
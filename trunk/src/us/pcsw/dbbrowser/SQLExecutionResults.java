@@ -21,6 +21,8 @@
  */
 package us.pcsw.dbbrowser;
 
+import java.io.File;
+
 import java.util.LinkedList;
 import java.util.List;
 
@@ -32,6 +34,13 @@ import java.util.List;
  *
  * <P><STRONG>Revision History:</STRONG><UL>
  * <LI>Feb 16, 2006 This class was created by pchapman.</LI>
+ * <LI>Oct 18, 2026 Added the fetch size and round trip count.</LI>
+ * <LI>Oct 18, 2026 Added the export file and exported row count.</LI>
+ * <LI>Oct 18, 2026 Added the count of resultsets which were not
+ *                  exported.</LI>
+ * <LI>Oct 18, 2026 The fetch size and round trips are only set for rows
+ *                  streamed from the server, and the round trips are an
+ *                  estimate.</LI>
  * </UL></P>
  *
  * @author pchapman
@@ -71,6 +80,77 @@ public final class SQLExecutionResults
 		return resultSetModelList;
 	}
 	
+	private File exportFile;
+	/**
+	 * Returns the file a query's rows were exported to rather than being
+	 * shown, or null.
+	 */
+	public File getExportFile()
+	{
+		return exportFile;
+	}
+	void setExportFile(File exportFile)
+	{
+		this.exportFile = exportFile;
+	}
+	
+	private long exportedRowCount;
+	/**
+	 * Returns the number of rows written to the export file.
+	 */
+	public long getExportedRowCount()
+	{
+		return exportedRowCount;
+	}
+	void setExportedRowCount(long exportedRowCount)
+	{
+		this.exportedRowCount = exportedRowCount;
+	}
+	
+	private int skippedResultSetCount;
+	/**
+	 * Returns the number of resultsets after the first which were not
+	 * written to the export file.
+	 */
+	public int getSkippedResultSetCount()
+	{
+		return skippedResultSetCount;
+	}
+	void setSkippedResultSetCount(int skippedResultSetCount)
+	{
+		this.skippedResultSetCount = skippedResultSetCount;
+	}
+	
+	private int fetchSize;
+	/**
+	 * Returns the fetch size chosen for the exported resultset, or 0 if the
+	 * rows were not streamed from the server a fetch at a time, or were
+	 * only read as they were viewed.
+	 */
+	public int getFetchSize()
+	{
+		return fetchSize;
+	}
+	void setFetchSize(int fetchSize)
+	{
+		this.fetchSize = fetchSize;
+	}
+	
+	private int roundTrips;
+	/**
+	 * Returns an estimate of the number of times rows were fetched from the
+	 * server before the results were returned, which assumes each fetch
+	 * returned the fetch size.  Only set when getFetchSize is.
+	 */
+	public int getRoundTrips()
+	{
+		return roundTrips;
+	}
+	void setRoundTrips(int roundTrips)
+	{
+		this.roundTrips = roundTrips;
+	}
+	
 	private long runTimeMills;
 	public long getRunTimeMills()
 	{
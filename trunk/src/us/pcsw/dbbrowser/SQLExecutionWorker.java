@@ -21,16 +21,28 @@
  */
 package us.pcsw.dbbrowser;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
+import us.pcsw.dbbrowser.cp.ConnectionProvider;
+import us.pcsw.dbbrowser.cp.StreamingCursor;
 import us.pcsw.dbbrowser.event.StatusEvent;
 import us.pcsw.dbbrowser.event.StatusTypeEnum;
 
+import us.pcsw.util.tablemodelexport.ExportTarget;
+import us.pcsw.util.tablemodelexport.TableModelExport;
+
 /**
  * This class creates a report based on a resultset.
  *
@@ -38,10 +50,45 @@ import us.pcsw.dbbrowser.event.StatusTypeEnum;
  * <LI> Dec 31, 2003 This class was created by Philip A. Chapman.</LI>
  * <LI> Mar 11, 2005 PAC Added the ability to cancel a statement that is being
  *                   executed. </LI>
+ * <LI> Oct 18, 2026 The result cache may discard pages of scrollable
+ *                   resultsets. </LI>
+ * <LI> Oct 18, 2026 Queries shown through the result cache are run with the
+ *                   connection provider's streaming cursor. </LI>
+ * <LI> Oct 18, 2026 Resultsets are read through a FetchSizeController. </LI>
+ * <LI> Oct 18, 2026 A query's rows may be written to an export file as they
+ *                   are read rather than shown. </LI>
+ * <LI> Oct 18, 2026 Queries are no longer run again to read pages the result
+ *                   cache discarded. </LI>
+ * <LI> Oct 18, 2026 The fetch size and round trips are only reported for
+ *                   resultsets which were read in full. </LI>
+ * <LI> Oct 18, 2026 Waits for the models of the last statement to close
+ *                   their resultsets before running the statement. </LI>
+ * <LI> Oct 18, 2026 Only the first resultset of a statement is exported, and
+ *                   the others are counted. </LI>
+ * <LI> Oct 18, 2026 The rows of an export are read through the
+ *                   FetchSizeController which tunes its fetch size. </LI>
+ * <LI> Oct 18, 2026 Every statement is run with the streaming cursor, rather
+ *                   than only those starting with SELECT, and what is done
+ *                   with it depends on whether it returns a resultset. </LI>
+ * <LI> Oct 18, 2026 The fetch size controller starts from the provider's
+ *                   streaming fetch size, and fetches are only reported for
+ *                   rows read through the streaming cursor. </LI>
  * </UL></P>
  */
 public final class SQLExecutionWorker extends ExecutionWorker
 {
+	/**
+	 * The number of rows read from the server at a time for an export if
+	 * the result cache's page size is not set.
+	 */
+	private static final int EXPORT_PAGE_SIZE = 1000;
+	
+	/**
+	 * The SQL state of the error raised by a statement which can't be run
+	 * inside a transaction.
+	 */
+	private static final String TRANSACTION_ACTIVE = "25001";
+	
 	/**
 	 * Indicates that the query is being cancelled so that the user is not
 	 * given an error message.
@@ -54,6 +101,25 @@ public final class SQLExecutionWorker extends ExecutionWorker
 	 */
 	private Connection con = null;
 
+	/**
+	 * The file the rows of a query are written to, or null if they are to
+	 * be shown.
+	 */
+	private ExportTarget exportTarget = null;
+
+	/**
+	 * The models of the last statement run on the connection, which have
+	 * been closed and whose resultsets must be closed before the statement
+	 * is run.
+	 */
+	private List closedModels = new ArrayList();
+
+	/**
+	 * The provider of the connection, used to open streaming cursors.  May
+	 * be null.
+	 */
+	private ConnectionProvider provider = null;
+
 	/**
 	 * The sql statement to execute.
 	 */
@@ -71,6 +137,21 @@ public final class SQLExecutionWorker extends ExecutionWorker
 	 * @param sql The statement to execute.
 	 */
 	public SQLExecutionWorker(Connection con, String sql)
+	{
+		this(null, con, sql);
+	}
+
+	/**
+	 * Creates a new SQLExcecutionWorker which runs queries with the
+	 * provider's streaming cursor so that only the rows being viewed are
+	 * read from the server.
+	 * @param provider The provider of the connection.  May be null.
+	 * @param con The connection to the database on which the statement will
+	 *            be run.
+	 * @param sql The statement to execute.
+	 */
+	public SQLExecutionWorker(ConnectionProvider provider, Connection con,
+	                          String sql)
 	{
 		super();
 		if (con == null) {
@@ -78,9 +159,27 @@ public final class SQLExecutionWorker extends ExecutionWorker
 		} else {
 			this.con = con;
 		}
+		this.provider = provider;
 		setSQL(sql);
 	}
 
+	/**
+	 * Creates a new SQLExcecutionWorker which writes the rows of a query to
+	 * a file as they are read, rather than keeping them to be shown.  Only
+	 * the rows the driver fetches at a time are held in memory.
+	 * @param provider The provider of the connection.  May be null.
+	 * @param con The connection to the database on which the statement will
+	 *            be run.
+	 * @param sql The statement to execute.
+	 * @param exportTarget The file to write the rows to.
+	 */
+	public SQLExecutionWorker(ConnectionProvider provider, Connection con,
+	                          String sql, ExportTarget exportTarget)
+	{
+		this(provider, con, sql);
+		this.exportTarget = exportTarget;
+	}
+
 	public void interrupt() {
 		if (stmt != null) {
 			cancel = true;
@@ -101,28 +200,93 @@ public final class SQLExecutionWorker extends ExecutionWorker
 	{
 		SQLExecutionResults execResults = new SQLExecutionResults();
 		long time = 0;
+		StreamingCursor cursor = null;
 		try {
-			stmt = con.createStatement();
+			for (int i = 0; i < closedModels.size(); i++) {
+				((ResultSetTableModel)closedModels.get(i)).awaitClose();
+			}
+			closedModels.clear();
+			// Whether a statement returns rows is only known once it has
+			// been run, so the cursor is opened for any statement, and is
+			// closed unused, putting the connection's settings back, if the
+			// statement returns none.
+			if (provider != null && exportTarget != null) {
+				// Every row is read once, in order.
+				cursor = provider.openForwardOnlyCursor(
+						con,
+						Preferences.getCachePageSize() > 0 ?
+							Preferences.getCachePageSize() : EXPORT_PAGE_SIZE
+					);
+				stmt = cursor.getStatement();
+			} else if (provider != null && Preferences.getCachePageSize() > 0) {
+				// Only the rows being viewed are read, so have the driver
+				// read them from the server a page at a time.
+				cursor = provider.openStreamingCursor(
+						con, Preferences.getCachePageSize()
+					);
+				stmt = cursor.getStatement();
+			} else {
+				stmt = con.createStatement();
+			}
 			notifyStatusListeners(new StatusEvent(this, StatusTypeEnum.BUSY));
 			notifyStatusListeners(new StatusEvent(this, StatusTypeEnum.QUERY_STARTED));
 			time = new Date().getTime();
-			stmt.execute(getSQL());
+			try {
+				stmt.execute(getSQL());
+			} catch (SQLException sqle) {
+				if (cursor == null || ! TRANSACTION_ACTIVE.equals(sqle.getSQLState())) {
+					throw sqle;
+				}
+				// The cursor turned autocommit off, and the statement, such
+				// as PostgreSQL's VACUUM, can't be run in a transaction.  It
+				// returns no rows, so run it on its own.
+				cursor.close();
+				cursor = null;
+				stmt = con.createStatement();
+				stmt.execute(getSQL());
+			}
 			execResults.setRunTimeMills(new Date().getTime() - time);
 			notifyStatusListeners(new StatusEvent(this, StatusTypeEnum.QUERY_ENDED));
 
 			ResultSet rs = null;
-			boolean handleMultipleResults = Preferences.getCachePageSize() < 1;
+			// A cached resultset must stay open, so the statement's other
+			// results can't be read.  An exported one has been read in full.
+			boolean handleMultipleResults =
+				exportTarget != null || Preferences.getCachePageSize() < 1;
+			boolean exported = false;
 			int count = stmt.getUpdateCount();
 			boolean hasMoreResults = false;
 			do {
-				if (count == -1) {
+				if (count == -1 && exportTarget != null) {
+					// The file holds a single table, so only the first
+					// resultset is written to it.
+					if (exported) {
+						execResults.setSkippedResultSetCount(
+								execResults.getSkippedResultSetCount() + 1
+							);
+					} else {
+						exportResultSet(
+								stmt.getResultSet(), execResults, cursor != null
+							);
+						exported = true;
+					}
+					execResults.setRunTimeMills(new Date().getTime() - time);
+				} else if (count == -1) {
 					// We have a resultset
 					rs = stmt.getResultSet();
+					FetchSizeController controller = createFetchSizeController();
 					ResultSetTableModel rstm = null;
 					if (handleMultipleResults) {
-						rstm = new LoadedResultSetTableModel(rs);
+						// The statement was not run with the streaming
+						// cursor, so the driver may have read every row when
+						// it was run, and the fetches aren't reported.
+						rstm = new LoadedResultSetTableModel(rs, controller);
 					} else {
-						rstm = new CachingResultSetTableModel(rs);
+						// The model closes the cursor when it is done with
+						// the resultset.  Its rows are read as they are
+						// viewed, so there are no fetches to report yet.
+						rstm = new CachingResultSetTableModel(rs, cursor, controller);
+						cursor = null;
 					}
 					execResults.getResultSetModelList().add(rstm);
 				} else {
@@ -131,7 +295,7 @@ public final class SQLExecutionWorker extends ExecutionWorker
 				}
 				// Running the following commands could cause the cached
 				// resultset to close; so only execute them if we are using
-				// the loaded resultset table model.
+				// the loaded resultset table model or exporting.
 				if (handleMultipleResults) {
 					// The order of stmt.getMoreResults(), then
 					// stmt.getUpdateCount() is crucial.
@@ -155,10 +319,93 @@ public final class SQLExecutionWorker extends ExecutionWorker
 			execResults.setRunTimeMills(0);
 			execResults.getExceptionList().add(t);
 			notifyStatusListeners(new StatusEvent(this, StatusTypeEnum.QUERY_ENDED));
+		} finally {
+			if (cursor != null) {
+				// No model took over the cursor.
+				try {
+					cursor.close();
+				} catch (SQLException sqle) {
+					execResults.getExceptionList().add(sqle);
+				}
+			}
 		}
 		return execResults;
 	}
 	
+	/**
+	 * Creates a controller to tune the fetch size of a resultset within the
+	 * provider's bounds, starting from the fetch size the provider gives
+	 * streaming statements, or the page size if it gives none.
+	 */
+	private FetchSizeController createFetchSizeController()
+	{
+		int pageSize = (Preferences.getCachePageSize() > 0 ?
+				Preferences.getCachePageSize() : EXPORT_PAGE_SIZE);
+		if (provider == null) {
+			return new FetchSizeController(
+					FetchSizeController.DEFAULT_MIN_FETCH_SIZE,
+					FetchSizeController.DEFAULT_MAX_FETCH_SIZE,
+					pageSize
+				);
+		} else {
+			int startFetchSize = provider.getStreamingFetchSize(pageSize);
+			return new FetchSizeController(
+					provider.getMinFetchSize(), provider.getMaxFetchSize(),
+					startFetchSize > 0 ? startFetchSize : pageSize
+				);
+		}
+	}
+
+	/**
+	 * Writes the rows of a resultset to the export file.  A file which is
+	 * only partly written, because of an error or because the statement was
+	 * cancelled, is deleted.
+	 * @param streamed Whether the statement was run with the provider's
+	 *                 streaming cursor, so that the rows were fetched from
+	 *                 the server as they were read.
+	 */
+	private void exportResultSet(ResultSet rs, SQLExecutionResults execResults,
+	                             boolean streamed)
+		throws IOException
+	{
+		FetchSizeController controller = createFetchSizeController();
+		controller.start(rs);
+		File file = exportTarget.getFile();
+		boolean written = false;
+		OutputStream outStream = new FileOutputStream(file);
+		try {
+			execResults.setExportedRowCount(
+					TableModelExport.exportData(
+							exportTarget.getExportType(), rs, controller,
+							outStream, exportTarget.getTitle()
+						)
+				);
+			outStream.close();
+			execResults.setExportFile(file);
+			if (streamed) {
+				// Every row has been read, so the fetches made can be
+				// estimated.
+				execResults.setFetchSize(controller.getFetchSize());
+				execResults.setRoundTrips(controller.getRoundTrips());
+			}
+			written = true;
+		} catch (IOException ioe) {
+			// Reading the resultset fails once the statement is cancelled.
+			if (! cancel) {
+				throw ioe;
+			}
+		} finally {
+			if (! written) {
+				try {
+					outStream.close();
+				} catch (IOException ioe) {
+					// The error that stopped the export is reported.
+				}
+				file.delete();
+			}
+		}
+	}
+
 	/**
 	 * @see us.pcsw.swing.SwingWorker#finished()
 	 */
@@ -180,6 +427,17 @@ public final class SQLExecutionWorker extends ExecutionWorker
 	{
 		return cancel;
 	}
+
+	/**
+	 * Sets the models of the last statement run on the connection, which
+	 * have been closed.  Their resultsets are closed in the background, and
+	 * the statement is not run until they have been.
+	 * @param models ResultSetTableModels.
+	 */
+	public void setClosedModels(List models)
+	{
+		closedModels = new ArrayList(models);
+	}
 	
 	/**
 	 * Sets the SQL to execute.
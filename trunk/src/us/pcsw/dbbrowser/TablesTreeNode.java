@@ -37,6 +37,8 @@ import us.pcsw.dbbrowser.event.*;
  * <P><B>Revision History:</B><UL>
  * <LI>Nov 8, 2002	This class was created by Philip A. Chapman.</LI>
  * <LI>Feb 15, 2003 Added support for the StatusEvent.</LI>
+ * <LI>Oct 18, 2026 The list is loaded in the background and inserted in
+ *                  chunks.  The load stops if it is cancelled.</LI>
  * </UL></P>
  */
 public class TablesTreeNode
@@ -79,6 +81,15 @@ public class TablesTreeNode
 		return type;
 	}
 
+	/**
+	 * Returns true; catalogs may have many thousands of tables.
+	 * @see us.pcsw.dbbrowser.DBObjectsTreeNode#isLoadedInBackground()
+	 */
+	protected boolean isLoadedInBackground()
+	{
+		return true;
+	}
+
 	/**
 	 * @see us.pcsw.dbbrowser.DBObjectsTreeNode#isLeaf()
 	 */
@@ -118,7 +129,7 @@ public class TablesTreeNode
 			String tblTypes[] = {type.getQueryConstant()};
 			ResultSet rs = dmd.getTables(catNode.getCatalogName(), null, "%", tblTypes);
 			Vector v = new Vector();
-			while (rs.next()) {
+			while (rs.next() && ! isLoadCancelled()) {
 				cat = rs.getString("TABLE_CAT");
 				if (rs.wasNull()) {
 					cat = null;
@@ -128,6 +139,10 @@ public class TablesTreeNode
 					schema = null;
 				}
 				v.add(new TableTreeNode(this, con, cat, schema, rs.getString("TABLE_NAME")));
+				if (v.size() == LOAD_CHUNK_SIZE) {
+					insertChildNodes(v.toArray());
+					v.clear();
+				}
 			}
 			rs.close();
 			if (v.size() > 0) {
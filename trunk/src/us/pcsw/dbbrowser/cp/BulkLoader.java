@@ -0,0 +1,65 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.cp;
+
+import java.sql.SQLException;
+
+/**
+ * us.pcsw.dbbrowser.cp.BulkLoader
+ * -
+ * Loads rows into a table through a database's native bulk load mechanism,
+ * which is much faster than inserting them one statement at a time.  Rows
+ * are passed to addRow as they are read, and finish waits for the server to
+ * load them.  A failure is only known for the load as a whole, not for the
+ * row which caused it.  ConnectionProviders create loaders for their
+ * drivers through createBulkLoader.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>10/18/2026 This class was created.</LI>
+ * </UL></P>
+ */
+public abstract class BulkLoader
+{
+	/**
+	 * Adds a row to the load.
+	 * @param values The row's values in the order of the loader's columns.
+	 *               A value is null, a String read from the input, or an
+	 *               object, such as a java.util.Date, parsed from it.
+	 * @throws SQLException indicates the load has failed.
+	 */
+	public abstract void addRow(Object[] values)
+		throws SQLException;
+
+	/**
+	 * Abandons the load.  Rows are not loaded, though a driver may already
+	 * have stored some of them if the connection is in autocommit mode.
+	 */
+	public abstract void cancel();
+
+	/**
+	 * Ends the load and waits for the server to finish it.
+	 * @return The number of rows loaded, or -1 if the driver does not say.
+	 * @throws SQLException indicates the load failed.
+	 */
+	public abstract long finish()
+		throws SQLException;
+}
@@ -0,0 +1,830 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.cp;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Executor;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * us.pcsw.dbbrowser.cp.ConnectionPool
+ * -
+ * A pool of connections opened by a ConnectionProvider.  One pool is kept
+ * for each distinct set of provider class and parameter values, so all
+ * windows connected with the same parameters share it.  Connections handed
+ * out are proxies; closing one returns the physical connection to the pool.
+ * <P>
+ * Idle connections are validated before they are handed out and are closed
+ * once they have been idle for longer than IDLE_TIMEOUT, down to the minimum
+ * pool size.  That many idle connections are opened in the background when
+ * the pool is created, and again after each eviction.  A proxy which is garbage collected without having been closed
+ * is a leak; its physical connection is closed and the stack trace of the
+ * code which borrowed it is logged.  The statements, metadata and
+ * resultsets created through a proxy are proxies too, which keep it
+ * reachable while they are and whose getConnection returns it rather than
+ * the physical connection, so a connection still in use through them is
+ * never taken for a leak.
+ * </P>
+ * <P>
+ * Each pool also keeps one connection, outside of the pooled ones, for
+ * reading metadata.  It is opened when first used, reopened if it is lost
+ * and closed once no call on it, or on an object created through it, has
+ * been made or is in progress for IDLE_TIMEOUT, so browsing never waits behind a query running on
+ * another connection.  The objects created through it are proxied in the
+ * same way, so that they return its proxy rather than the physical
+ * connection.
+ * </P>
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>10/18/2026 This class was created.</LI>
+ * <LI>10/18/2026 Added the metadata connection.</LI>
+ * <LI>10/18/2026 Objects created through a pooled connection are proxied so
+ *                that they keep its proxy reachable.</LI>
+ * <LI>10/18/2026 Objects created through the metadata connection are
+ *                proxied too, so that the physical connection does not
+ *                escape through their getConnection.</LI>
+ * <LI>10/18/2026 The metadata connection is not closed as idle while a call
+ *                on it is in progress.</LI>
+ * <LI>10/18/2026 The pool is filled to its minimum size.</LI>
+ * </UL></P>
+ */
+public final class ConnectionPool
+{
+	/**
+	 * How often, in milliseconds, idle connections and leaks are checked for.
+	 */
+	private static final long EVICTION_INTERVAL = 60000;
+
+	/**
+	 * The number of milliseconds a connection may sit idle before it is
+	 * closed.
+	 */
+	private static final long IDLE_TIMEOUT = 5 * 60000;
+
+	/**
+	 * The number of seconds to wait for a connection to be validated.
+	 */
+	private static final int VALIDATION_TIMEOUT = 5;
+
+	/**
+	 * The number of milliseconds to wait for a connection when the pool is
+	 * at its maximum size.
+	 */
+	private static final long WAIT_TIMEOUT = 30000;
+
+	/**
+	 * Pools keyed by provider class and parameter values.
+	 */
+	private static Map pools = new HashMap();
+
+	/**
+	 * Runs the eviction of idle connections for all pools.
+	 */
+	private static Timer evictionTimer = null;
+
+	/**
+	 * @param provider A copy of the provider the pool opens connections with.
+	 * @param minSize The number of idle connections to keep open.
+	 * @param maxSize The most connections the pool will have open at once.
+	 */
+	private ConnectionPool(ConnectionProvider provider, int minSize,
+	                       int maxSize)
+	{
+		super();
+		this.provider = provider;
+		this.minSize = minSize;
+		this.maxSize = Math.max(1, maxSize);
+	}
+
+	/**
+	 * Idle connections, most recently returned first.
+	 */
+	private LinkedList idle = new LinkedList();
+
+	/**
+	 * Leases of the connections which have been handed out, keyed by the
+	 * weak reference to the proxy.
+	 */
+	private Map leases = new HashMap();
+
+	/**
+	 * Proxies which have been garbage collected are queued here.
+	 */
+	private ReferenceQueue collected = new ReferenceQueue();
+
+	private int maxSize;
+	private int minSize;
+
+	/**
+	 * The number of connections being opened, which count toward the
+	 * pool's size.
+	 */
+	private int opening = 0;
+
+	private ConnectionProvider provider;
+
+	/**
+	 * The proxy handed out for the metadata connection.
+	 */
+	private Connection metadataProxy = null;
+
+	/**
+	 * The physical metadata connection, or null if it is not open.
+	 */
+	private Connection metadataConnection = null;
+
+	/**
+	 * When the metadata connection was last used.
+	 */
+	private long metadataUsed = 0;
+
+	/**
+	 * The number of calls in progress on the metadata connection and the
+	 * objects created through it.
+	 */
+	private int metadataUseCount = 0;
+
+	/**
+	 * Borrows a connection from the pool for the provider's parameters,
+	 * opening a new one if none are idle.  The connection must be closed to
+	 * return it to the pool.
+	 */
+	static Connection getConnection(ConnectionProvider provider)
+		throws ClassNotFoundException, IllegalAccessException,
+		       InstantiationException, SQLException
+	{
+		return getPool(provider).borrow();
+	}
+
+	/**
+	 * Returns the metadata connection for the provider's parameters.  The
+	 * physical connection is opened the first time the returned connection
+	 * is used.  Closing the returned connection has no effect.
+	 */
+	static Connection getMetadataConnection(ConnectionProvider provider)
+	{
+		ConnectionPool pool = getPool(provider);
+		synchronized (pool) {
+			if (pool.metadataProxy == null) {
+				pool.metadataProxy = (Connection)Proxy.newProxyInstance(
+						Connection.class.getClassLoader(),
+						new Class[] {Connection.class},
+						pool.new MetadataConnectionHandler()
+					);
+			}
+			return pool.metadataProxy;
+		}
+	}
+
+	/**
+	 * Returns the pool for the provider's parameters, creating it if needed.
+	 */
+	private static ConnectionPool getPool(ConnectionProvider provider)
+	{
+		ConnectionPool pool;
+		String key = createKey(provider);
+		synchronized (pools) {
+			pool = (ConnectionPool)pools.get(key);
+			if (pool == null) {
+				pool = new ConnectionPool(
+						(ConnectionProvider)provider.clone(),
+						provider.getPoolMinSize(), provider.getPoolMaxSize()
+					);
+				pools.put(key, pool);
+				if (evictionTimer == null) {
+					evictionTimer = new Timer(true);
+					evictionTimer.schedule(new EvictionTask(),
+					                       EVICTION_INTERVAL,
+					                       EVICTION_INTERVAL);
+				}
+				if (pool.minSize > 0) {
+					// Open the idle connections without holding up the
+					// caller.
+					final ConnectionPool newPool = pool;
+					evictionTimer.schedule(new TimerTask() {
+						public void run()
+						{
+							newPool.fill();
+						}
+					}, 0);
+				}
+			}
+		}
+		return pool;
+	}
+
+	/**
+	 * Builds the key of the pool for the provider's class and parameters.
+	 */
+	private static String createKey(ConnectionProvider provider)
+	{
+		StringBuffer key = new StringBuffer(provider.getClass().getName());
+		ConnectionParameter param;
+		Enumeration e = provider.getConnectionParameters();
+		while (e.hasMoreElements()) {
+			param = (ConnectionParameter)e.nextElement();
+			key.append('\u0000');
+			key.append(param.getName());
+			key.append('=');
+			Object value = param.getValue();
+			if (value instanceof Object[]) {
+				Object values[] = (Object[])value;
+				for (int i = 0; i < values.length; i++) {
+					key.append(values[i]).append(',');
+				}
+			} else {
+				key.append(value);
+			}
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Hands out an idle connection which is still valid, or opens one.
+	 */
+	private Connection borrow()
+		throws ClassNotFoundException, IllegalAccessException,
+		       InstantiationException, SQLException
+	{
+		long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+		while (true) {
+			Connection con = null;
+			synchronized (this) {
+				reclaimLeaks();
+				if (! idle.isEmpty()) {
+					con = ((IdleConnection)idle.removeFirst()).con;
+				} else if (leases.size() + opening < maxSize) {
+					opening++;
+				} else {
+					long wait = deadline - System.currentTimeMillis();
+					if (wait <= 0) {
+						throw new SQLException("All " + maxSize +
+							" pooled connections to " +
+							provider.getServerName() + " are in use.");
+					}
+					try {
+						wait(wait);
+					} catch (InterruptedException ie) {
+						Thread.currentThread().interrupt();
+						throw new SQLException("Interrupted while waiting " +
+							"for a pooled connection.");
+					}
+					continue;
+				}
+			}
+			if (con == null) {
+				// Open a connection outside of the lock, it may be slow.
+				try {
+					con = provider.getConnection();
+				} finally {
+					synchronized (this) {
+						opening--;
+					}
+				}
+			} else if (! isValid(con)) {
+				closeQuietly(con);
+				continue;
+			}
+			return lease(con);
+		}
+	}
+
+	/**
+	 * Closes a connection, ignoring any errors.
+	 */
+	private static void closeQuietly(Connection con)
+	{
+		try {
+			con.close();
+		} catch (SQLException sqle) {
+			// The connection is being discarded anyway.
+		}
+	}
+
+	/**
+	 * Wraps a statement, resultset or database metadata created through a
+	 * pooled or metadata connection in a proxy which refers to the object it
+	 * was created through.  Other values are returned as they are.
+	 * @param value The object returned by the driver.
+	 * @param type The declared type of the method which returned it.
+	 * @param parent The proxy the object was created through.
+	 * @param connection The proxy of the connection.
+	 * @param metadataPool The pool whose metadata connection the object was
+	 *                     created through, or null for a pooled connection.
+	 */
+	private static Object wrapDerived(
+			Object value, Class type, Object parent, Connection connection,
+			ConnectionPool metadataPool
+		)
+	{
+		if (
+				value == null ||
+				(type != Statement.class && type != PreparedStatement.class &&
+				 type != CallableStatement.class && type != ResultSet.class &&
+				 type != DatabaseMetaData.class)
+			)
+		{
+			return value;
+		}
+		return Proxy.newProxyInstance(
+				type.getClassLoader(), new Class[] {type},
+				new DerivedObjectHandler(value, parent, connection, metadataPool)
+			);
+	}
+
+	/**
+	 * Closes connections which have been idle too long, leaving at least the
+	 * minimum, reclaims leaked connections and then opens connections until
+	 * the minimum are idle.
+	 */
+	private void evict()
+	{
+		LinkedList expired = new LinkedList();
+		synchronized (this) {
+			reclaimLeaks();
+			long cutoff = System.currentTimeMillis() - IDLE_TIMEOUT;
+			if (
+					metadataConnection != null && metadataUseCount == 0 &&
+					metadataUsed < cutoff
+				)
+			{
+				expired.add(metadataConnection);
+				metadataConnection = null;
+			}
+			// The oldest connections are at the end of the list.
+			while (idle.size() > minSize &&
+			       ((IdleConnection)idle.getLast()).since < cutoff)
+			{
+				expired.add(((IdleConnection)idle.removeLast()).con);
+			}
+		}
+		for (Iterator it = expired.iterator(); it.hasNext(); ) {
+			closeQuietly((Connection)it.next());
+		}
+		fill();
+	}
+
+	/**
+	 * Opens connections until the minimum number are idle, or the pool is at
+	 * its maximum size.  A connection which can't be opened is logged, and
+	 * filling is tried again at the next eviction.
+	 */
+	private void fill()
+	{
+		while (true) {
+			synchronized (this) {
+				if (
+						idle.size() + opening >= minSize ||
+						idle.size() + leases.size() + opening >= maxSize
+					)
+				{
+					return;
+				}
+				opening++;
+			}
+			Connection con = null;
+			try {
+				con = provider.getConnection();
+			} catch (Exception e) {
+				LoggerFactory.getLogger(getClass()).warn(
+						"Could not open an idle connection to " +
+						provider.getServerName() + ".", e
+					);
+			} finally {
+				synchronized (this) {
+					opening--;
+					if (con != null) {
+						idle.addFirst(new IdleConnection(con));
+						notifyAll();
+					}
+				}
+			}
+			if (con == null) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Marks the start of a call on the metadata connection or an object
+	 * created through it, during which the connection is not evicted.
+	 */
+	private synchronized void beginMetadataUse()
+	{
+		metadataUseCount++;
+	}
+
+	/**
+	 * Marks the end of a call started with beginMetadataUse.
+	 */
+	private synchronized void endMetadataUse()
+	{
+		metadataUseCount--;
+		metadataUsed = System.currentTimeMillis();
+	}
+
+	/**
+	 * Returns the physical metadata connection, opening it if needed.
+	 */
+	private Connection getMetadataConnection()
+		throws ClassNotFoundException, IllegalAccessException,
+		       InstantiationException, SQLException
+	{
+		synchronized (this) {
+			metadataUsed = System.currentTimeMillis();
+			if (metadataConnection != null) {
+				return metadataConnection;
+			}
+		}
+		Connection con = provider.getConnection();
+		try {
+			con.setNetworkTimeout(new DaemonExecutor(),
+			                      provider.getMetadataTimeout() * 1000);
+		} catch (AbstractMethodError ame) {
+			// Drivers written before JDBC 4.1 only get statement timeouts.
+		} catch (SQLException sqle) {
+			// The driver does not support network timeouts.
+		}
+		synchronized (this) {
+			if (metadataConnection == null) {
+				metadataConnection = con;
+				con = null;
+			}
+		}
+		if (con != null) {
+			// Another thread opened one first.
+			closeQuietly(con);
+		}
+		return getMetadataConnection();
+	}
+
+	/**
+	 * Checks that an idle connection can still be used.
+	 */
+	private boolean isValid(Connection con)
+	{
+		try {
+			return con.isValid(VALIDATION_TIMEOUT);
+		} catch (AbstractMethodError ame) {
+			// Drivers written before JDBC 4.
+			try {
+				return ! con.isClosed();
+			} catch (SQLException sqle) {
+				return false;
+			}
+		} catch (SQLException sqle) {
+			return false;
+		}
+	}
+
+	/**
+	 * Wraps the connection in a proxy which returns it to the pool when
+	 * closed and records who borrowed it.
+	 */
+	private synchronized Connection lease(Connection con)
+	{
+		PooledConnectionHandler handler = new PooledConnectionHandler(con);
+		Connection proxy = (Connection)Proxy.newProxyInstance(
+				Connection.class.getClassLoader(),
+				new Class[] {Connection.class},
+				handler
+			);
+		Reference ref = new WeakReference(proxy, collected);
+		handler.ref = ref;
+		leases.put(ref, new Lease(con, new Throwable("Connection borrowed here")));
+		return proxy;
+	}
+
+	/**
+	 * Closes the physical connections of proxies which were garbage
+	 * collected without being closed.  Must be called while synchronized.
+	 */
+	private void reclaimLeaks()
+	{
+		Reference ref;
+		while ((ref = collected.poll()) != null) {
+			Lease lease = (Lease)leases.remove(ref);
+			if (lease != null) {
+				LoggerFactory.getLogger(getClass()).warn(
+						"A pooled connection was not closed.", lease.borrowedAt
+					);
+				closeQuietly(lease.con);
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Puts a connection whose proxy has been closed back into the pool.
+	 */
+	private void release(Reference ref, Connection con)
+	{
+		boolean reusable;
+		try {
+			// Don't hand the next borrower an open transaction or changed
+			// settings.
+			if (! con.getAutoCommit()) {
+				con.rollback();
+				con.setAutoCommit(true);
+			}
+			reusable = ! con.isClosed();
+		} catch (SQLException sqle) {
+			reusable = false;
+		}
+		synchronized (this) {
+			leases.remove(ref);
+			if (reusable) {
+				idle.addFirst(new IdleConnection(con));
+			}
+			notifyAll();
+		}
+		if (! reusable) {
+			closeQuietly(con);
+		}
+	}
+
+	/**
+	 * Runs the network timeout's abort of a connection in a daemon thread.
+	 */
+	private static final class DaemonExecutor implements Executor
+	{
+		public void execute(Runnable command)
+		{
+			Thread t = new Thread(command, "Connection timeout");
+			t.setDaemon(true);
+			t.start();
+		}
+	}
+
+	/**
+	 * Runs eviction for every pool.
+	 */
+	private static final class EvictionTask extends TimerTask
+	{
+		public void run()
+		{
+			Object all[];
+			synchronized (pools) {
+				all = pools.values().toArray();
+			}
+			for (int i = 0; i < all.length; i++) {
+				((ConnectionPool)all[i]).evict();
+			}
+		}
+	}
+
+	/**
+	 * Passes calls through to a statement, resultset or database metadata
+	 * created through a pooled or metadata connection.  Holding the connection's proxy
+	 * keeps it from being taken for a leak while the object is in use, and
+	 * the proxy is returned in place of the physical connection so that it
+	 * is not closed or kept by the caller.
+	 */
+	private static final class DerivedObjectHandler implements InvocationHandler
+	{
+		/**
+		 * @param target The driver's object.
+		 * @param parent The proxy target was created through.
+		 * @param connection The proxy of the connection.
+		 * @param metadataPool The pool whose metadata connection target was
+		 *                     created through, which is told of each call,
+		 *                     or null.
+		 */
+		DerivedObjectHandler(Object target, Object parent,
+		                     Connection connection, ConnectionPool metadataPool)
+		{
+			this.connection = connection;
+			this.metadataPool = metadataPool;
+			this.parent = parent;
+			this.target = target;
+		}
+
+		private Connection connection;
+		private ConnectionPool metadataPool;
+		private Object parent;
+		private Object target;
+
+		public Object invoke(Object proxy, Method method, Object args[])
+			throws Throwable
+		{
+			String name = method.getName();
+			if (name.equals("getConnection") && args == null) {
+				return connection;
+			} else if (
+					name.equals("getStatement") && args == null &&
+					parent instanceof Statement
+				)
+			{
+				return parent;
+			} else if (name.equals("equals")) {
+				return Boolean.valueOf(proxy == args[0]);
+			} else if (name.equals("hashCode")) {
+				return Integer.valueOf(System.identityHashCode(proxy));
+			}
+			Object result;
+			if (metadataPool != null) {
+				metadataPool.beginMetadataUse();
+			}
+			try {
+				result = method.invoke(target, args);
+			} catch (InvocationTargetException ite) {
+				throw ite.getTargetException();
+			} finally {
+				if (metadataPool != null) {
+					metadataPool.endMetadataUse();
+				}
+			}
+			return wrapDerived(
+					result, method.getReturnType(), proxy, connection,
+					metadataPool
+				);
+		}
+	}
+
+	/**
+	 * An idle connection and when it was returned.
+	 */
+	private static final class IdleConnection
+	{
+		IdleConnection(Connection con)
+		{
+			this.con = con;
+			this.since = System.currentTimeMillis();
+		}
+
+		Connection con;
+		long since;
+	}
+
+	/**
+	 * A connection which has been handed out and where it was borrowed.
+	 */
+	private static final class Lease
+	{
+		Lease(Connection con, Throwable borrowedAt)
+		{
+			this.con = con;
+			this.borrowedAt = borrowedAt;
+		}
+
+		Throwable borrowedAt;
+		Connection con;
+	}
+
+	/**
+	 * Passes calls through to the physical metadata connection, opening it
+	 * if needed.  Statements are given the provider's metadata timeout.  If a
+	 * call fails and the connection turns out to be lost, it is dropped so
+	 * the next call reopens it.  Statements, resultsets and metadata are
+	 * wrapped like those of pooled connections.  Each call, including those
+	 * on the wrapped objects, is counted while it runs so that the
+	 * connection is not evicted from under it.
+	 */
+	private final class MetadataConnectionHandler implements InvocationHandler
+	{
+		public Object invoke(Object proxy, Method method, Object args[])
+			throws Throwable
+		{
+			String name = method.getName();
+			if (name.equals("close")) {
+				// The connection is shared; the pool closes it when idle.
+				return null;
+			} else if (name.equals("isClosed")) {
+				return Boolean.FALSE;
+			} else if (name.equals("equals")) {
+				return Boolean.valueOf(proxy == args[0]);
+			} else if (name.equals("hashCode")) {
+				return Integer.valueOf(System.identityHashCode(proxy));
+			}
+			beginMetadataUse();
+			try {
+				Connection con = getMetadataConnection();
+				Object result;
+				try {
+					result = method.invoke(con, args);
+				} catch (InvocationTargetException ite) {
+					if (! isValid(con)) {
+						synchronized (ConnectionPool.this) {
+							if (metadataConnection == con) {
+								metadataConnection = null;
+							}
+						}
+						closeQuietly(con);
+					}
+					throw ite.getTargetException();
+				}
+				if (result instanceof Statement) {
+					((Statement)result).setQueryTimeout(
+							provider.getMetadataTimeout()
+						);
+				}
+				return wrapDerived(
+						result, method.getReturnType(), proxy,
+						(Connection)proxy, ConnectionPool.this
+					);
+			} finally {
+				endMetadataUse();
+			}
+		}
+	}
+
+	/**
+	 * Passes calls through to the physical connection, except for close,
+	 * which returns it to the pool.  The handler must not refer to the proxy
+	 * so that a leaked proxy can be collected; the objects created through
+	 * it do, so that it is not collected while they are in use.
+	 */
+	private final class PooledConnectionHandler implements InvocationHandler
+	{
+		PooledConnectionHandler(Connection con)
+		{
+			this.con = con;
+		}
+
+		private Connection con;
+		Reference ref;
+
+		public Object invoke(Object proxy, Method method, Object args[])
+			throws Throwable
+		{
+			String name = method.getName();
+			if (name.equals("close")) {
+				synchronized (this) {
+					if (con != null) {
+						Connection c = con;
+						con = null;
+						release(ref, c);
+					}
+				}
+				return null;
+			} else if (name.equals("isClosed")) {
+				synchronized (this) {
+					if (con == null) {
+						return Boolean.TRUE;
+					}
+				}
+			} else if (name.equals("equals")) {
+				return Boolean.valueOf(proxy == args[0]);
+			} else if (name.equals("hashCode")) {
+				return Integer.valueOf(System.identityHashCode(proxy));
+			}
+			Connection c;
+			synchronized (this) {
+				c = con;
+			}
+			if (c == null) {
+				throw new SQLException("The connection has been returned to the pool.");
+			}
+			Object result;
+			try {
+				result = method.invoke(c, args);
+			} catch (InvocationTargetException ite) {
+				throw ite.getTargetException();
+			}
+			return wrapDerived(
+					result, method.getReturnType(), proxy, (Connection)proxy,
+					null
+				);
+		}
+	}
+}
@@ -27,6 +27,7 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.Enumeration;
 import java.util.Vector;
@@ -50,6 +51,7 @@ import org.w3c.dom.NodeList;
 import org.w3c.dom.Text;
 import org.xml.sax.SAXException;
 
+import us.pcsw.dbbrowser.FetchSizeController;
 import us.pcsw.dbbrowser.Preferences;
 
 /**
@@ -73,6 +75,17 @@ import us.pcsw.dbbrowser.Preferences;
  *                more database info.  PAC </LI>
  * <LI>05/05/2005 Fixed a bug in the load(File) method where an error was
  *                thrown for parameters with no value. PAC </LI>
+ * <LI>10/18/2026 Added openStreamingCursor, which subclasses tune through
+ *                the getStreaming... methods.</LI>
+ * <LI>10/18/2026 Added the fetch size bounds.</LI>
+ * <LI>10/18/2026 Added getPooledConnection and the pool size bounds.
+ *                getDataTypes now uses a pooled connection.</LI>
+ * <LI>10/18/2026 Added getMetadataConnection and getMetadataTimeout.
+ *                getDataTypes now uses the metadata connection.</LI>
+ * <LI>10/18/2026 Added createBulkLoader.</LI>
+ * <LI>10/18/2026 Added openForwardOnlyCursor.</LI>
+ * <LI>10/18/2026 getStreamingFetchSize is public, so that the fetch size
+ *                controller can start from it.</LI>
  * </UL></P>
  *
  * @author Philip A. Chapman
@@ -116,6 +129,27 @@ public abstract class ConnectionProvider
 	 */
 	public abstract boolean canGetViewText();
 
+	/**
+	 * Creates a loader which uses the database's native bulk load mechanism
+	 * to insert rows into a table.  By default, null is returned.  Subclasses
+	 * whose drivers have such a mechanism should override this method.
+	 * @param con The connection to load the rows over.
+	 * @param tableName The name of the table to load.
+	 * @param columnNames The columns the values of each row are for.
+	 * @param jdbcTypes The java.sql.Types of the columns.
+	 * @return The loader, or null if there is none for the driver or it
+	 *         cannot be used on the connection.
+	 * @throws SQLException indicates a problem setting up the loader.
+	 */
+	public BulkLoader createBulkLoader(
+			Connection con, String tableName, String[] columnNames,
+			int[] jdbcTypes
+		)
+		throws SQLException
+	{
+		return null;
+	}
+
 	/**
 	 * Allows for the creation of a duplicate of this connection.  Connection
 	 * parameters are copied to the clone.
@@ -184,7 +218,7 @@ public abstract class ConnectionProvider
 			ClassNotFoundException, IllegalAccessException,
 			InstantiationException, SQLException
 	{
-		Connection con = getConnection();
+		Connection con = getMetadataConnection();
 		DatabaseMetaData dmd = con.getMetaData();
 		ResultSet rst = dmd.getTypeInfo();
 		DataType dt = null;
@@ -195,11 +229,91 @@ public abstract class ConnectionProvider
 			dt.setScaleRequired(getScaleRequired(dt));
 			v.add(dt);
 		}
+		rst.close();
 		DataType[] dataTypes = new DataType[v.size()];
 		v.copyInto(dataTypes);
 		return dataTypes;
 	}
 
+	/**
+	 * Returns the largest fetch size the fetch size controller may use with
+	 * this provider's driver.
+	 */
+	public int getMaxFetchSize()
+	{
+		return FetchSizeController.DEFAULT_MAX_FETCH_SIZE;
+	}
+
+	/**
+	 * Returns the smallest fetch size the fetch size controller may use with
+	 * this provider's driver.
+	 */
+	public int getMinFetchSize()
+	{
+		return FetchSizeController.DEFAULT_MIN_FETCH_SIZE;
+	}
+
+	/**
+	 * Returns the connection used to read metadata for this provider's
+	 * parameters.  It is shared by everything browsing the same database,
+	 * is kept apart from the connections queries run on, and is opened when
+	 * first used.  Closing it has no effect.
+	 */
+	public Connection getMetadataConnection()
+	{
+		return ConnectionPool.getMetadataConnection(this);
+	}
+
+	/**
+	 * Returns the number of seconds a statement or network call on the
+	 * metadata connection may take before it is abandoned.
+	 */
+	public int getMetadataTimeout()
+	{
+		return 30;
+	}
+
+	/**
+	 * Returns the most connections the pool for this provider's parameters
+	 * may have open at once.
+	 */
+	public int getPoolMaxSize()
+	{
+		return 4;
+	}
+
+	/**
+	 * Returns the number of idle connections the pool for this provider's
+	 * parameters keeps open.  They are opened when the pool is created and
+	 * are not closed for being idle.  The default implementation returns 0.
+	 */
+	public int getPoolMinSize()
+	{
+		return 0;
+	}
+
+	/**
+	 * Borrows a connection from the pool shared by all providers with the
+	 * same class and parameter values.  Closing the returned connection
+	 * returns it to the pool.  Use this for work which needs a connection of
+	 * its own, such as an import, rather than opening one with getConnection.
+	 * @exception ClassNotFoundException indicates that the JDBC driver classes
+	 *                                   could not be found/loaded.
+	 * @exception IllegalAccessException indicates that the JDBC driver classes
+	 *                                   could not be loaded.
+	 * @exception InstantiationException indicates that the JDBC driver classes
+	 *                                   could not be loaded.
+	 * @exception SQLException indicates there was an error connecting to the
+	 *                         database, or all of the pool's connections are
+	 *                         in use.
+	 */
+	public Connection getPooledConnection()
+		throws ClassNotFoundException, IllegalAccessException,
+		       InstantiationException, SQLException
+	{
+		return ConnectionPool.getConnection(this);
+	}
+
 	/**
 	 * Builds and returns the vector of needed connection parameters.
 	 */
@@ -325,6 +439,117 @@ public abstract class ConnectionProvider
 	 */
 	public abstract String getServerName();
 
+	/**
+	 * Returns the fetch size to give a streaming statement, or 0 to leave
+	 * the driver's default.  A positive fetch size is also where the fetch
+	 * size controller starts when tuning a resultset.  The default
+	 * implementation returns 0.
+	 * @param pageSize The number of rows the caller expects to read at a
+	 *                 time.
+	 */
+	public int getStreamingFetchSize(int pageSize)
+	{
+		return 0;
+	}
+
+	/**
+	 * Returns the resultset type to use for a streaming statement.  The
+	 * default implementation asks for a scroll insensitive resultset if the
+	 * result cache is bounded and the driver supports one, so that discarded
+	 * pages can be read again by position.  Otherwise, a forward only
+	 * resultset is used.  Subclasses for drivers which buffer scrollable
+	 * resultsets on the client should return TYPE_FORWARD_ONLY.
+	 * @param con The connection the statement will be created on.
+	 */
+	protected int getStreamingResultSetType(Connection con)
+	{
+		try {
+			if (
+					Preferences.getCacheHeapBudget() > 0 &&
+					con.getMetaData().supportsResultSetType(
+							ResultSet.TYPE_SCROLL_INSENSITIVE
+						)
+				)
+			{
+				return ResultSet.TYPE_SCROLL_INSENSITIVE;
+			}
+		} catch (SQLException sqle) {
+			// Fall back to the type every driver supports.
+		}
+		return ResultSet.TYPE_FORWARD_ONLY;
+	}
+
+	/**
+	 * Indicates whether autocommit must be turned off for the driver to
+	 * stream a resultset rather than read it all at once.  The default
+	 * implementation returns false.
+	 */
+	protected boolean isStreamingAutoCommitOffRequired()
+	{
+		return false;
+	}
+
+	/**
+	 * Creates a statement which reads the rows of a query from the server a
+	 * page at a time rather than buffering the entire resultset on the
+	 * client.  The caller must close the returned cursor, which also restores
+	 * any connection settings that were changed, once the resultset is no
+	 * longer needed.
+	 * @param con The connection on which the query will be executed.
+	 * @param pageSize The number of rows the caller expects to read at a
+	 *                 time.
+	 * @throws SQLException indicates a problem creating the statement.
+	 */
+	public StreamingCursor openStreamingCursor(Connection con, int pageSize)
+		throws SQLException
+	{
+		return openStreamingCursor(
+				con, pageSize, getStreamingResultSetType(con)
+			);
+	}
+
+	/**
+	 * Creates a streaming statement like openStreamingCursor, but whose
+	 * resultsets are always forward only.  This suits reading every row of
+	 * a query once, such as when exporting it, since the driver need not
+	 * keep the rows already read.
+	 * @param con The connection on which the query will be executed.
+	 * @param pageSize The number of rows the caller expects to read at a
+	 *                 time.
+	 * @throws SQLException indicates a problem creating the statement.
+	 */
+	public StreamingCursor openForwardOnlyCursor(Connection con, int pageSize)
+		throws SQLException
+	{
+		return openStreamingCursor(con, pageSize, ResultSet.TYPE_FORWARD_ONLY);
+	}
+
+	private StreamingCursor openStreamingCursor(
+			Connection con, int pageSize, int resultSetType
+		)
+		throws SQLException
+	{
+		boolean restoreAutoCommit = false;
+		if (isStreamingAutoCommitOffRequired() && con.getAutoCommit()) {
+			con.setAutoCommit(false);
+			restoreAutoCommit = true;
+		}
+		try {
+			Statement stmt = con.createStatement(resultSetType,
+			                                     ResultSet.CONCUR_READ_ONLY);
+			int fetchSize = getStreamingFetchSize(pageSize);
+			if (fetchSize != 0) {
+				stmt.setFetchSize(fetchSize);
+			}
+			return new StreamingCursor(con, stmt, restoreAutoCommit);
+		} catch (SQLException sqle) {
+			if (restoreAutoCommit) {
+				con.setAutoCommit(true);
+			}
+			throw sqle;
+		}
+	}
+
 	/**
 	 * Takes a name of a view and returns the text of the view.
      * @param con The connection to the database server.
@@ -0,0 +1,87 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.cp;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * us.pcsw.dbbrowser.cp.StreamingCursor
+ * -
+ * A statement set up by a ConnectionProvider so that the rows of a query are
+ * read from the server as they are needed rather than all at once.  Some
+ * drivers need connection settings changed for this, such as autocommit being
+ * turned off.  close() closes the statement and puts the settings back.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>10/18/2026 This class was created.</LI>
+ * </UL></P>
+ */
+public final class StreamingCursor
+{
+	/**
+	 * @param con The connection on which the statement was created.
+	 * @param stmt The statement.
+	 * @param restoreAutoCommit Whether autocommit was turned off for the
+	 *                          cursor and must be turned back on.
+	 */
+	StreamingCursor(Connection con, Statement stmt, boolean restoreAutoCommit)
+	{
+		super();
+		this.con = con;
+		this.stmt = stmt;
+		this.restoreAutoCommit = restoreAutoCommit;
+	}
+
+	private Connection con;
+	private boolean restoreAutoCommit;
+	private Statement stmt;
+
+	/**
+	 * Returns the statement with which the query is to be executed.
+	 */
+	public Statement getStatement()
+	{
+		return stmt;
+	}
+
+	/**
+	 * Closes the statement, and so any open resultset, and restores the
+	 * connection's settings.  Calling close more than once does nothing.
+	 */
+	public synchronized void close() throws SQLException
+	{
+		if (stmt != null) {
+			try {
+				stmt.close();
+			} finally {
+				stmt = null;
+				if (restoreAutoCommit) {
+					// Turning autocommit back on ends the transaction the
+					// cursor was read in.
+					con.setAutoCommit(true);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,302 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.cp;
+
+import java.io.BufferedWriter;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * us.pcsw.dbbrowser.cp.TextBulkLoader
+ * -
+ * A bulk loader for drivers which read the rows to load as comma separated
+ * text from a stream.  Rows are written as UTF-8 lines to a pipe which the
+ * driver reads from in a thread of its own, so the rows never have to be
+ * held in memory or written to a temporary file.  Every string is quoted
+ * with embedded quotes doubled, dates are written in ISO format and booleans
+ * are written as 1 or 0.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>10/18/2026 This class was created.</LI>
+ * <LI>10/18/2026 Booleans are written as 1 or 0, and timestamps keep all of
+ *                their fractional seconds.</LI>
+ * </UL></P>
+ */
+public abstract class TextBulkLoader extends BulkLoader
+{
+	// CONSTANTS
+
+	/**
+	 * The number of bytes the pipe to the driver buffers.
+	 */
+	private static final int PIPE_SIZE = 256 * 1024;
+
+	// CONSTRUCTORS
+
+	/**
+	 * @param jdbcTypes The java.sql.Types of the columns, used to format the
+	 *                  values.
+	 * @param nullText The unquoted text the driver reads as a null value.
+	 */
+	protected TextBulkLoader(int[] jdbcTypes, String nullText)
+	{
+		super();
+		this.jdbcTypes = jdbcTypes;
+		this.nullText = nullText;
+	}
+
+	// MEMBERS
+
+	private volatile boolean cancelled = false;
+	private DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+	private Exception error = null;
+	private int[] jdbcTypes;
+	private Thread loadThread = null;
+	private String nullText;
+	private long rowCount = -1;
+	private DateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+	private DateFormat timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+	private Writer writer = null;
+
+	// METHODS
+
+	/**
+	 * @see us.pcsw.dbbrowser.cp.BulkLoader#addRow(java.lang.Object[])
+	 */
+	public void addRow(Object[] values)
+		throws SQLException
+	{
+		if (writer == null) {
+			start();
+		}
+		try {
+			for (int i = 0; i < values.length; i++) {
+				if (i > 0) {
+					writer.write(',');
+				}
+				writeValue(values[i], jdbcTypes[i]);
+			}
+			writer.write('\n');
+		} catch (IOException ioe) {
+			// The driver stopped reading; finish reports why.
+			finish();
+			throw toSQLException(ioe);
+		}
+	}
+
+	/**
+	 * @see us.pcsw.dbbrowser.cp.BulkLoader#cancel()
+	 */
+	public void cancel()
+	{
+		cancelled = true;
+		try {
+			finish();
+		} catch (SQLException sqle) {
+			// The load was meant to fail.
+		}
+	}
+
+	/**
+	 * @see us.pcsw.dbbrowser.cp.BulkLoader#finish()
+	 */
+	public long finish()
+		throws SQLException
+	{
+		if (writer == null) {
+			start();
+		}
+		try {
+			writer.close();
+		} catch (IOException ioe) {
+			// The driver stopped reading; the load thread has the reason.
+		}
+		try {
+			loadThread.join();
+		} catch (InterruptedException ie) {
+			cancelled = true;
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for the bulk load.");
+		}
+		synchronized (this) {
+			if (error != null) {
+				throw toSQLException(error);
+			}
+			return rowCount;
+		}
+	}
+
+	/**
+	 * Reads the rows from the input and loads them.  This is called in a
+	 * thread of its own, and the input ends when the load is finished.
+	 * @return The number of rows loaded, or -1 if the driver does not say.
+	 * @throws Exception indicates the load failed.
+	 */
+	protected abstract long load(InputStream in)
+		throws Exception;
+
+	/**
+	 * Starts the thread in which the driver reads the rows.
+	 */
+	private void start()
+		throws SQLException
+	{
+		PipedInputStream pipeIn = new PipedInputStream(PIPE_SIZE);
+		try {
+			writer = new BufferedWriter(
+					new OutputStreamWriter(new PipedOutputStream(pipeIn), "UTF-8")
+				);
+		} catch (IOException ioe) {
+			throw toSQLException(ioe);
+		}
+		// Failing the driver's read is the only way to abandon some loads.
+		final InputStream in = new FilterInputStream(pipeIn) {
+			public int read()
+				throws IOException
+			{
+				checkCancelled();
+				return super.read();
+			}
+
+			public int read(byte[] b, int off, int len)
+				throws IOException
+			{
+				checkCancelled();
+				return super.read(b, off, len);
+			}
+
+			private void checkCancelled()
+				throws IOException
+			{
+				if (cancelled) {
+					throw new IOException("The bulk load was cancelled.");
+				}
+			}
+		};
+		loadThread = new Thread("Bulk load") {
+			public void run()
+			{
+				try {
+					long count = load(in);
+					synchronized (TextBulkLoader.this) {
+						rowCount = count;
+					}
+				} catch (Exception e) {
+					synchronized (TextBulkLoader.this) {
+						error = e;
+					}
+				} finally {
+					try {
+						// Unblocks a writer waiting for room in the pipe.
+						in.close();
+					} catch (IOException ioe) {
+						// Nothing more will be read.
+					}
+				}
+			}
+		};
+		loadThread.setDaemon(true);
+		loadThread.start();
+	}
+
+	/**
+	 * Wraps an exception which is not an SQLException in one.
+	 */
+	private static SQLException toSQLException(Exception e)
+	{
+		if (e instanceof SQLException) {
+			return (SQLException)e;
+		}
+		SQLException sqle = new SQLException("The bulk load failed: " + e.getMessage());
+		sqle.initCause(e);
+		return sqle;
+	}
+
+	/**
+	 * Writes a value in the format the driver reads for the column's type.
+	 */
+	private void writeValue(Object value, int jdbcType)
+		throws IOException
+	{
+		if (value == null) {
+			writer.write(nullText);
+		} else if (value instanceof Date) {
+			switch (jdbcType) {
+			case Types.DATE:
+				writer.write(dateFormat.format((Date)value));
+				break;
+			case Types.TIME:
+				writer.write(timeFormat.format((Date)value));
+				break;
+			default:
+				if (value instanceof Timestamp) {
+					// The format would cut the nanoseconds to milliseconds.
+					writer.write(value.toString());
+				} else {
+					writer.write(timestampFormat.format((Date)value));
+				}
+			}
+		} else if (value instanceof Boolean) {
+			// MySQL loads the words true and false as 0, but it and
+			// PostgreSQL both read 1 and 0.
+			writer.write(((Boolean)value).booleanValue() ? '1' : '0');
+		} else if (value instanceof Number) {
+			writer.write(value.toString());
+		} else {
+			String s = value.toString();
+			switch (jdbcType) {
+			case Types.CHAR:
+			case Types.VARCHAR:
+			case Types.LONGVARCHAR:
+			case Types.CLOB:
+			case Types.NCHAR:
+			case Types.NVARCHAR:
+			case Types.LONGNVARCHAR:
+			case Types.NCLOB:
+				break;
+			default:
+				// Padding is only meaningful in character columns.
+				s = s.trim();
+			}
+			writer.write('"');
+			int start = 0;
+			for (int i = s.indexOf('"'); i >= 0; i = s.indexOf('"', start)) {
+				writer.write(s, start, i + 1 - start);
+				writer.write('"');
+				start = i + 1;
+			}
+			writer.write(s, start, s.length() - start);
+			writer.write('"');
+		}
+	}
+}
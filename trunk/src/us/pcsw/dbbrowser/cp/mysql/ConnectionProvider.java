@@ -23,6 +23,7 @@ package us.pcsw.dbbrowser.cp.mysql;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Vector;
 import us.pcsw.dbbrowser.cp.*;
@@ -36,6 +37,11 @@ import us.pcsw.dbbrowser.cp.*;
  * <LI>07/23/2001 This class was created.</LI>
  * <LI>08/13/2002 Documentation was modified.</LI>
  * <LI>10/18/2002 Code was added to use the new ConnectionParameter class.<LI>
+ * <LI>10/18/2026 Streaming statements are given a fetch size of
+ *                Integer.MIN_VALUE, with which the driver reads their rows
+ *                from the server one at a time.</LI>
+ * <LI>10/18/2026 Rows are bulk loaded with LOAD DATA LOCAL INFILE when the
+ *                parameters allow it.</LI>
  * </UL></P>
  *
  * @author Philip A. Chapman
@@ -63,6 +69,30 @@ public final class ConnectionProvider
 		return false;
 	}
 
+	/**
+	 * Returns a loader which uses LOAD DATA LOCAL INFILE, or null if the
+	 * Parameters do not include allowLoadLocalInfile=true.  That setting lets
+	 * the server read any local file the user can, so it is not turned on
+	 * here.
+	 * @see us.pcsw.dbbrowser.cp.ConnectionProvider#createBulkLoader(Connection, String, String[], int[])
+	 */
+	public BulkLoader createBulkLoader(
+			Connection con, String tableName, String[] columnNames,
+			int[] jdbcTypes
+		)
+		throws SQLException
+	{
+		Object o = getConnectionParameter("Parameters").getValue();
+		if (
+				o == null ||
+				o.toString().toLowerCase().indexOf("allowloadlocalinfile=true") < 0
+			)
+		{
+			return null;
+		}
+		return LoadDataBulkLoader.create(con, tableName, columnNames, jdbcTypes);
+	}
+
     /**
      * Gets a connection to the database based on the provided parameters.
      * @exception ClassNotFoundException indicates that the JDBC driver classes
@@ -179,6 +209,31 @@ public final class ConnectionProvider
 		*/ 
 	}
 
+	/**
+	 * The driver reads the whole resultset into memory unless the fetch size
+	 * is Integer.MIN_VALUE, which streams the rows one at a time.  A server
+	 * side cursor would also do, but useCursorFetch=true applies to every
+	 * statement on the connection and makes all of them server prepared.
+	 * While a streamed resultset is open, no other statement can be run on
+	 * the connection.
+	 * @see us.pcsw.dbbrowser.cp.ConnectionProvider#getStreamingFetchSize(int)
+	 */
+	public int getStreamingFetchSize(int pageSize)
+	{
+		return Integer.MIN_VALUE;
+	}
+
+	/**
+	 * The driver reads every row of a scrollable resultset into memory, so
+	 * only forward only resultsets are streamed, which the result cache
+	 * memory limit does not bound.
+	 * @see us.pcsw.dbbrowser.cp.ConnectionProvider#getStreamingResultSetType(Connection)
+	 */
+	protected int getStreamingResultSetType(Connection con)
+	{
+		return ResultSet.TYPE_FORWARD_ONLY;
+	}
+
 	/**
 	 * Gets a string representation of the server to which a connection
 	 * is or will be made.
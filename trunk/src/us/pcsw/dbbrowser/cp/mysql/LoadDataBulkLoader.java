@@ -0,0 +1,199 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.cp.mysql;
+
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+import us.pcsw.dbbrowser.cp.TextBulkLoader;
+
+/**
+ * us.pcsw.dbbrowser.cp.mysql.LoadDataBulkLoader
+ * -
+ * Loads rows with LOAD DATA LOCAL INFILE, giving the driver a stream to read
+ * in place of the file.  The server only accepts the statement if the
+ * connection was made with allowLoadLocalInfile=true.  The driver is only
+ * loaded at runtime, so its classes are used by reflection.
+ * <P>
+ * LOAD DATA LOCAL carries on past rows it can't load as they are, as if
+ * IGNORE had been given: bad values are truncated or converted and
+ * duplicate rows are skipped, with only a warning for each.  The load fails
+ * if there are any warnings, so that the import stops and the rows are
+ * rolled back as they would be if inserted one at a time.
+ * </P>
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>10/18/2026 This class was created.</LI>
+ * <LI>10/18/2026 The load fails if the server reports warnings.</LI>
+ * </UL></P>
+ */
+final class LoadDataBulkLoader extends TextBulkLoader
+{
+	// CONSTANTS
+
+	/**
+	 * The number of warnings whose messages are reported when a load fails.
+	 */
+	private static final int REPORTED_WARNINGS = 3;
+
+	/**
+	 * The driver's statement interfaces with setLocalInfileInputStream, for
+	 * Connector/J 8 and later and for earlier versions.
+	 */
+	private static final String[] STATEMENT_INTERFACES = {
+			"com.mysql.cj.jdbc.JdbcStatement",
+			"com.mysql.jdbc.Statement"
+	};
+
+	// CONSTRUCTORS
+
+	/**
+	 * @param stmt The statement the load is run on.
+	 * @param driverStmt The driver's statement interface to stmt.
+	 * @param setStream The driver's setLocalInfileInputStream method.
+	 * @param sql The LOAD DATA statement.
+	 * @param jdbcTypes The java.sql.Types of the columns.
+	 */
+	private LoadDataBulkLoader(
+			Statement stmt, Object driverStmt, Method setStream, String sql,
+			int[] jdbcTypes
+		)
+	{
+		// Without an escape character, an unquoted NULL is null.
+		super(jdbcTypes, "NULL");
+		this.driverStmt = driverStmt;
+		this.setStream = setStream;
+		this.sql = sql;
+		this.stmt = stmt;
+	}
+
+	// MEMBERS
+
+	private Object driverStmt;
+	private Method setStream;
+	private String sql;
+	private Statement stmt;
+
+	// METHODS
+
+	/**
+	 * Fails the load if the server changed or skipped any rows.
+	 * @param warning The first of the statement's warnings, or null.
+	 * @throws SQLException lists the first few of the warnings.
+	 */
+	private static void checkWarnings(SQLWarning warning)
+		throws SQLException
+	{
+		if (warning == null) {
+			return;
+		}
+		StringBuffer sb = new StringBuffer();
+		int count = 0;
+		for (SQLWarning w = warning; w != null; w = w.getNextWarning()) {
+			if (count < REPORTED_WARNINGS) {
+				sb.append(count == 0 ? " " : "; ");
+				sb.append(w.getMessage());
+			}
+			count++;
+		}
+		if (count > REPORTED_WARNINGS) {
+			sb.append("; ...");
+		}
+		SQLException sqle = new SQLException(
+				"The server changed or skipped rows while loading them (" +
+				count + " warnings):" + sb
+			);
+		sqle.setNextException(warning);
+		throw sqle;
+	}
+
+	/**
+	 * Creates a loader for the connection, or returns null if the driver
+	 * cannot load from a stream.
+	 */
+	static LoadDataBulkLoader create(
+			Connection con, String tableName, String[] columnNames,
+			int[] jdbcTypes
+		)
+		throws SQLException
+	{
+		Statement stmt = con.createStatement();
+		for (int i = 0; i < STATEMENT_INTERFACES.length; i++) {
+			try {
+				Class c = Class.forName(STATEMENT_INTERFACES[i]);
+				Object driverStmt = stmt.unwrap(c);
+				Method setStream = c.getMethod(
+						"setLocalInfileInputStream",
+						new Class[] {InputStream.class}
+					);
+				StringBuffer sql = new StringBuffer(
+						"LOAD DATA LOCAL INFILE 'stream' INTO TABLE "
+					);
+				sql.append(tableName);
+				sql.append(" CHARACTER SET utf8mb4");
+				sql.append(" FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"'");
+				sql.append(" ESCAPED BY '' LINES TERMINATED BY '\\n' (");
+				for (int j = 0; j < columnNames.length; j++) {
+					if (j > 0) {
+						sql.append(", ");
+					}
+					sql.append(columnNames[j]);
+				}
+				sql.append(')');
+				return new LoadDataBulkLoader(
+						stmt, driverStmt, setStream, sql.toString(), jdbcTypes
+					);
+			} catch (Throwable t) {
+				// Try the next version's interface.
+			}
+		}
+		stmt.close();
+		return null;
+	}
+
+	/**
+	 * @see us.pcsw.dbbrowser.cp.TextBulkLoader#load(java.io.InputStream)
+	 */
+	protected long load(InputStream in)
+		throws Exception
+	{
+		try {
+			setStream.invoke(driverStmt, new Object[] {in});
+			long count = stmt.executeUpdate(sql);
+			checkWarnings(stmt.getWarnings());
+			return count;
+		} catch (InvocationTargetException ite) {
+			Throwable t = ite.getTargetException();
+			if (t instanceof Exception) {
+				throw (Exception)t;
+			}
+			throw (Error)t;
+		} finally {
+			stmt.close();
+		}
+	}
+}
@@ -41,6 +41,8 @@ import us.pcsw.dbbrowser.cp.*;
  * <LI>10/29/2002 Added min/max values to port parameter.</LI>
  * <LI>08/03/2003 Implemented canGetProcedureText(), canGetViewText(),
  *                getProcedureText, and getViewText methods.  PAC </LI>
+ * <LI>10/18/2026 Declared how the driver streams resultsets.</LI>
+ * <LI>10/18/2026 Lowered the largest fetch size.</LI>
  * </UL></P>
  * 
  * @author Philip A. Chapman
@@ -98,6 +100,17 @@ public final class ConnectionProvider
 		return DriverManager.getConnection(connect.toString(), login, pass);
     }
 
+	/**
+	 * The driver allocates its fetch buffers from the declared width of each
+	 * column times the fetch size, whatever the data, so large fetch sizes
+	 * waste a lot of memory on wide tables.
+	 * @see us.pcsw.dbbrowser.cp.ConnectionProvider#getMaxFetchSize()
+	 */
+	public int getMaxFetchSize()
+	{
+		return 1000;
+	}
+
 	/**
 	 * Builds and returns the vector of needed connection parameters.
 	 */
@@ -151,6 +164,26 @@ public final class ConnectionProvider
 		return spText.toString();
 	}
 
+	/**
+	 * The driver fetches 10 rows per round trip unless a fetch size is set.
+	 * @see us.pcsw.dbbrowser.cp.ConnectionProvider#getStreamingFetchSize(int)
+	 */
+	public int getStreamingFetchSize(int pageSize)
+	{
+		return pageSize;
+	}
+
+	/**
+	 * The driver reads every row of a scrollable resultset into memory, so
+	 * only forward only resultsets are streamed.  Their pages are never
+	 * discarded from the result cache.
+	 * @see us.pcsw.dbbrowser.cp.ConnectionProvider#getStreamingResultSetType(Connection)
+	 */
+	protected int getStreamingResultSetType(Connection con)
+	{
+		return ResultSet.TYPE_FORWARD_ONLY;
+	}
+
 	/**
 	 * Gets a string representation of the server to which a connection
 	 * is or will be made.
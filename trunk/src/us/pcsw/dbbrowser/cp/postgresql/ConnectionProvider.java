@@ -23,6 +23,7 @@ package us.pcsw.dbbrowser.cp.postgresql;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Properties;
 import java.util.Vector;
@@ -38,6 +39,8 @@ import us.pcsw.dbbrowser.cp.*;
  * <LI>07/15/2001 This class was created.</LI>
  * <LI>08/13/2002 Documentation was modified.</LI>
  * <LI>10/18/2002 Code was added to use the new ConnectionParameter class.<LI>
+ * <LI>10/18/2026 Declared how the driver streams resultsets.</LI>
+ * <LI>10/18/2026 Rows are bulk loaded with COPY.</LI>
  * </UL></P>
  *
  * @author Philip A. Chapman
@@ -71,6 +74,19 @@ public final class ConnectionProvider
 		return false;
 	}
 
+	/**
+	 * Returns a loader which uses COPY ... FROM STDIN, or null if the
+	 * driver is too old to have the copy API.
+	 * @see us.pcsw.dbbrowser.cp.ConnectionProvider#createBulkLoader(Connection, String, String[], int[])
+	 */
+	public BulkLoader createBulkLoader(
+			Connection con, String tableName, String[] columnNames,
+			int[] jdbcTypes
+		)
+	{
+		return CopyBulkLoader.create(con, tableName, columnNames, jdbcTypes);
+	}
+
     /**
      * Gets a connection to the database based on the provided parameters.
      * @exception ClassNotFoundException indicates that the JDBC driver classes
@@ -154,6 +170,37 @@ public final class ConnectionProvider
 								"available through the Postgresql driver."); 
 	}
 
+	/**
+	 * The driver only uses a server side cursor, rather than reading every
+	 * row, when a fetch size is set.
+	 * @see us.pcsw.dbbrowser.cp.ConnectionProvider#getStreamingFetchSize(int)
+	 */
+	public int getStreamingFetchSize(int pageSize)
+	{
+		return pageSize;
+	}
+
+	/**
+	 * The driver reads every row of a scrollable resultset, so only forward
+	 * only resultsets are streamed, and the result cache keeps all of their
+	 * rows whatever its memory limit.
+	 * @see us.pcsw.dbbrowser.cp.ConnectionProvider#getStreamingResultSetType(Connection)
+	 */
+	protected int getStreamingResultSetType(Connection con)
+	{
+		return ResultSet.TYPE_FORWARD_ONLY;
+	}
+
+	/**
+	 * Cursors only live within a transaction, so the driver ignores the
+	 * fetch size in autocommit mode.
+	 * @see us.pcsw.dbbrowser.cp.ConnectionProvider#isStreamingAutoCommitOffRequired()
+	 */
+	protected boolean isStreamingAutoCommitOffRequired()
+	{
+		return true;
+	}
+
 	/**
 	 * Gets a string representation of the server to which a connection
 	 * is or will be made.
@@ -0,0 +1,116 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.cp.postgresql;
+
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+
+import us.pcsw.dbbrowser.cp.TextBulkLoader;
+
+/**
+ * us.pcsw.dbbrowser.cp.postgresql.CopyBulkLoader
+ * -
+ * Loads rows with COPY ... FROM STDIN through the driver's CopyManager.  The
+ * driver is only loaded at runtime, so its classes are used by reflection.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>10/18/2026 This class was created.</LI>
+ * </UL></P>
+ */
+final class CopyBulkLoader extends TextBulkLoader
+{
+	// CONSTRUCTORS
+
+	/**
+	 * @param copyManager The driver's CopyManager for the connection.
+	 * @param sql The COPY statement.
+	 * @param jdbcTypes The java.sql.Types of the columns.
+	 */
+	private CopyBulkLoader(Object copyManager, String sql, int[] jdbcTypes)
+	{
+		// In CSV format an unquoted empty value is null.
+		super(jdbcTypes, "");
+		this.copyManager = copyManager;
+		this.sql = sql;
+	}
+
+	// MEMBERS
+
+	private Object copyManager;
+	private String sql;
+
+	// METHODS
+
+	/**
+	 * Creates a loader for the connection, or returns null if the driver has
+	 * no copy API.
+	 */
+	static CopyBulkLoader create(
+			Connection con, String tableName, String[] columnNames,
+			int[] jdbcTypes
+		)
+	{
+		Object copyManager;
+		try {
+			Class pgConnection = Class.forName("org.postgresql.PGConnection");
+			Object pgCon = con.unwrap(pgConnection);
+			copyManager = pgConnection.getMethod("getCopyAPI", new Class[0])
+			                          .invoke(pgCon, new Object[0]);
+		} catch (Throwable t) {
+			// Drivers older than 8.4 have no copy API.
+			return null;
+		}
+		StringBuffer sql = new StringBuffer("COPY ");
+		sql.append(tableName);
+		sql.append(" (");
+		for (int i = 0; i < columnNames.length; i++) {
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(columnNames[i]);
+		}
+		sql.append(") FROM STDIN WITH CSV");
+		return new CopyBulkLoader(copyManager, sql.toString(), jdbcTypes);
+	}
+
+	/**
+	 * @see us.pcsw.dbbrowser.cp.TextBulkLoader#load(java.io.InputStream)
+	 */
+	protected long load(InputStream in)
+		throws Exception
+	{
+		Method copyIn = copyManager.getClass().getMethod(
+				"copyIn", new Class[] {String.class, InputStream.class}
+			);
+		try {
+			return ((Long)copyIn.invoke(copyManager, new Object[] {sql, in})).longValue();
+		} catch (InvocationTargetException ite) {
+			Throwable t = ite.getTargetException();
+			if (t instanceof Exception) {
+				throw (Exception)t;
+			}
+			throw (Error)t;
+		}
+	}
+}
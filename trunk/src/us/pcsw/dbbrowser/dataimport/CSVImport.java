@@ -21,15 +21,8 @@
  */
 package us.pcsw.dbbrowser.dataimport;
 
-import java.io.IOException;
 import java.io.InputStream;
 
-import java.util.Vector;
-
-import com.Ostermiller.util.CSVParser;
-
-import us.pcsw.dbbrowser.cp.ConnectionProvider;
-
 /**
  * us.pcsw.dbbrowser.dataimport.CSVImport
  * -
@@ -37,60 +30,27 @@ import us.pcsw.dbbrowser.cp.ConnectionProvider;
  *
  * <P><B>Revision History:</B><UL>
  * <LI>Mar 10, 2005 This class was created by pchapman.</LI>
+ * <LI>Oct 18, 2026 Files are loaded in parts at once when the parallelism
+ *                  is greater than 1.</LI>
+ * <LI>Oct 18, 2026 Data is sampled with CSVTokenizer.</LI>
+ * <LI>Oct 18, 2026 Files are checkpointed when a checkpoint file is
+ *                  set.</LI>
+ * <LI>Oct 18, 2026 Rows which can't be imported are skipped or rejected
+ *                  as the error policy says.</LI>
+ * <LI>Oct 18, 2026 Added profileData, which reads the parts of the file
+ *                  at once.</LI>
+ * <LI>Oct 18, 2026 The import, sampling and profiling were moved to
+ *                  TextImport, which reads the data with a
+ *                  CSVTokenizer.</LI>
  * </UL></P>
  */
-public class CSVImport extends DataImport
+public class CSVImport extends TextImport
 {
 	/**
-	 * @see us.pcsw.dbbrowser.dataimport.DataImport#importData(us.pcsw.dbbrowser.cp.ConnectionProvider, java.lang.String, boolean, us.pcsw.dbbrowser.dataimport.ImportColumn[], java.io.InputStream, boolean)
-	 */
-	public void importData(
-			ConnectionProvider provider, String tableName,
-			boolean createTable, ImportColumn[] columns, InputStream iStream,
-			boolean skipFirstRow
-		)
-	{
-		CSVImportThread thread = new CSVImportThread(
-				this, provider, tableName, createTable,
-				columns, iStream, skipFirstRow
-			);
-		thread.start();
-	}
-
-	/**
-	 * @see us.pcsw.dbbrowser.dataimport.DataImport#sampleData(java.io.InputStream)
+	 * @see us.pcsw.dbbrowser.dataimport.TextImport#createReader(java.io.InputStream)
 	 */
-	public String[][] sampleData(InputStream iStream, int rowCount)
-		throws IOException
+	RecordReader createReader(InputStream in)
 	{
-		int colCount = 0;
-		Vector rows = new Vector();
-		String[] row;
-		CSVParser parser = new CSVParser(iStream);
-		rowCount++;
-		for (
-				row = parser.getLine(); rows.size() < rowCount &&
-				row != null; row = parser.getLine()
-			)
-		{
-			if (row.length > colCount) {
-				colCount = row.length;
-			}
-			rows.add(row);
-		}
-		
-		String[][] returnValue = new String[rows.size()][colCount];
-		for (int i = 0; i < returnValue.length; i++) {
-			row = (String[])rows.elementAt(i);
-			for (int j = 0; j < row.length; j++) {
-				if (j >= row.length) {
-					returnValue[i][j] = null;  // Perhaps I should use empty String?
-				} else {
-					returnValue[i][j] = row[j];
-				}
-			}
-		}
-		
-		return returnValue;
+		return new CSVTokenizer(in);
 	}
 }
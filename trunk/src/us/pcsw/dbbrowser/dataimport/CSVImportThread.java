@@ -21,24 +21,24 @@
  */
 package us.pcsw.dbbrowser.dataimport;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import java.nio.channels.FileChannel;
+
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
-import java.sql.Types;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 
-import javax.swing.SwingUtilities;
-
-import com.Ostermiller.util.CSVParser;
-
+import us.pcsw.dbbrowser.cp.BulkLoader;
 import us.pcsw.dbbrowser.cp.ConnectionProvider;
 
 /**
@@ -52,47 +52,506 @@ import us.pcsw.dbbrowser.cp.ConnectionProvider;
  */
 public class CSVImportThread extends Thread
 {
-//	private static final DateFormat DATE_FORMAT = DateFormat.getDateInstance();
-	private static final DateFormat DATE_FORMAT = new SimpleDateFormat("MM/dd/yyyy");
-	private static final DateFormat DATE_FORMAT2 = new SimpleDateFormat("MM/dd/yy");
-	private static final DateFormat TIME_FORMAT = DateFormat.getTimeInstance();
-//	private static DateFormat TIMESTAMP_FORMAT = DateFormat.getDateTimeInstance();
-	private static final DateFormat TIMESTAMP_FORMAT = new SimpleDateFormat("MM/dd/yyyy hh:mm:ss");
-	
+	/**
+	 * The blocks holding the rows in the current batch.
+	 */
+	private RowBlock[] batchBlocks;
+	/**
+	 * The CSV line numbers of the rows in the current batch.
+	 */
+	private int[] batchLines;
+	/**
+	 * The positions after the rows in the current batch.
+	 */
+	private long[] batchOffsets;
+	/**
+	 * The rows in the current batch within their blocks.
+	 */
+	private int[] batchRows;
+	private int batchSize;
+	private int batchedRows = 0;
+	private volatile boolean cancelled = false;
+	/**
+	 * The checkpoint updated as rows are committed, or null.
+	 */
+	private ImportCheckpoint checkpoint = null;
+	/**
+	 * The range of the file the checkpoint records for this thread.
+	 */
+	private int checkpointRange;
 	private ImportColumn[] columns;
+	private int commitInterval;
+	private boolean completed = false;
+	/**
+	 * The thread to pass events to when this thread loads one part of a
+	 * partitioned import, otherwise null.
+	 */
+	private PartitionedCSVImportThread coordinator = null;
 	private boolean createTable;
-	private CSVImport csvImport;
+	/**
+	 * The CSV line number of the last row sent to the server without error.
+	 */
+	private int executedLine = 0;
+	/**
+	 * Whether the rows inserted before a failed statement can still be
+	 * committed, which they can't if the statement's rows could not be
+	 * rolled back to a savepoint.
+	 */
+	private boolean canCommitAfterFailure = true;
+	/**
+	 * The position in iStream after the last row sent to the server without
+	 * error, or -1 if there is none.
+	 */
+	private long executedOffset = -1;
 	private InputStream iStream;
+	private int[] jdbcTypes;
+	/**
+	 * The number of lines in the file before the data read by this thread.
+	 */
+	private int lineOffset = 0;
+	private boolean manualCommit = false;
+	/**
+	 * Passes events to the listeners and measures progress.  The threads of
+	 * a partitioned import share the coordinator's.
+	 */
+	private ImportNotifier notifier;
+	/**
+	 * The CSV column number of each parameter of the insert statement.
+	 */
+	private int[] paramColumns;
 	private ConnectionProvider provider;
+	/**
+	 * Counts and writes the rows which can't be imported, or null if the
+	 * import stops at the first one.
+	 */
+	private RowRejecter rejecter = null;
 	private boolean skipFirstRow;
+	/**
+	 * The position in the file at which iStream starts.
+	 */
+	private long streamOffset = 0;
 	private String tableName;
+	private TextImport textImport;
+	private int uncommittedRows = 0;
+	/**
+	 * Whether each batch is inserted within a savepoint so that it can be
+	 * rolled back alone if it fails.  Some databases, such as PostgreSQL,
+	 * abort the whole transaction when a statement fails, so without one
+	 * the rows inserted before the failure can't be committed.
+	 */
+	private boolean useSavepoints = false;
 	
 	/**
 	 * 
 	 */
 	public CSVImportThread(
-			CSVImport csvImport, ConnectionProvider provider,
+			TextImport textImport, ConnectionProvider provider,
 			String tableName, boolean createTable, ImportColumn[] columns,
 			InputStream iStream, boolean skipFirstRow
 		)
 	{
 		super();
+		this.batchSize = textImport.getBatchSize();
 		this.columns = columns;
+		this.commitInterval = textImport.getCommitInterval();
 		this.createTable = createTable;
-		this.csvImport = csvImport;
 		this.iStream = iStream;
 		this.provider = provider;
 		this.skipFirstRow = skipFirstRow;
 		this.tableName = tableName;
+		this.textImport = textImport;
+		this.notifier = new ImportNotifier(textImport, this);
+	}
+	
+	/**
+	 * Creates a thread which loads one part of a partitioned import.  Events
+	 * are passed to the coordinator rather than to the listeners.
+	 * @param lineOffset The number of lines in the file before the part
+	 *                   read from iStream.
+	 */
+	CSVImportThread(
+			PartitionedCSVImportThread coordinator, TextImport textImport,
+			ConnectionProvider provider, String tableName,
+			ImportColumn[] columns, InputStream iStream, boolean skipFirstRow,
+			int lineOffset
+		)
+	{
+		this(
+				textImport, provider, tableName, false, columns, iStream,
+				skipFirstRow
+			);
+		this.coordinator = coordinator;
+		this.lineOffset = lineOffset;
+		this.notifier = coordinator.getNotifier();
+	}
+	
+	/**
+	 * Sets a parameter of the insert statement.  If the driver can't convert
+	 * the value NULL is set instead.
+	 * @return null, or why the value could not be set.
+	 */
+	private String bind(
+			PreparedStatement stmt, int paramIndex, Object value, int jdbcType
+		)
+		throws SQLException
+	{
+		String problem = null;
+		if (value != null) {
+			try {
+				stmt.setObject(paramIndex, value, jdbcType);
+				return null;
+			} catch (Exception e) {
+				problem = e.getLocalizedMessage();
+			}
+		}
+		stmt.setNull(paramIndex, jdbcType);
+		return problem;
+	}
+
+	/**
+	 * Asks the thread to stop importing.  Rows already inserted are
+	 * committed.
+	 */
+	void cancel()
+	{
+		cancelled = true;
+	}
+	
+	/**
+	 * Commits the rows inserted so far and records them in the checkpoint.
+	 * A failure is reported to the listeners.
+	 */
+	private void commit(Connection con)
+	{
+		try {
+			con.commit();
+			notifier.addCommitted(uncommittedRows);
+			uncommittedRows = 0;
+		} catch (SQLException sqle) {
+			notifyListener(
+					new ImportEvent(
+							this, 0, 0,
+							"Unable to commit the imported rows: " +
+							sqle.getLocalizedMessage(),
+							ImportEvent.EVENT_TYPE_MESSAGE
+						)
+				);
+			return;
+		}
+		if (checkpoint != null && executedOffset >= 0) {
+			try {
+				checkpoint.update(
+						checkpointRange, streamOffset + executedOffset,
+						executedLine
+					);
+			} catch (IOException ioe) {
+				discardCheckpoint(
+						"Unable to write the checkpoint: " +
+						ioe.getLocalizedMessage()
+					);
+			}
+		}
+	}
+
+	/**
+	 * Ends the transaction after rows failed to insert.  If they were rolled
+	 * back to a savepoint, the rows inserted before them are committed.
+	 * Otherwise the transaction may have been aborted by the failure, and
+	 * drivers which carry on past a failed row have inserted rows after it,
+	 * so all of the rows inserted since the last commit are rolled back and
+	 * reported as lost.
+	 */
+	private void commitAfterFailure(Connection con)
+	{
+		if (canCommitAfterFailure) {
+			commit(con);
+			return;
+		}
+		int lostRows = uncommittedRows;
+		try {
+			con.rollback();
+			uncommittedRows = 0;
+		} catch (SQLException sqle) {
+			uncommittedRows = 0;
+			if (checkpoint != null) {
+				discardCheckpoint(
+						"Unable to roll back the imported rows: " +
+						sqle.getLocalizedMessage()
+					);
+			}
+			return;
+		}
+		if (lostRows > 0) {
+			notifyListener(
+					new ImportEvent(
+							this, 0, 0,
+							"The " + lostRows + " rows inserted since the " +
+							"last commit were rolled back and are not in " +
+							tableName + '.',
+							ImportEvent.EVENT_TYPE_MESSAGE
+						)
+				);
+		}
+	}
+
+	/**
+	 * Stops checkpointing the import, since the checkpoint no longer
+	 * matches the committed rows, and reports why.
+	 */
+	private void discardCheckpoint(String message)
+	{
+		checkpoint.delete();
+		checkpoint = null;
+		notifyListener(
+				new ImportEvent(
+						this, 0, 0,
+						message + "  The import can't be resumed.",
+						ImportEvent.EVENT_TYPE_MESSAGE
+					)
+			);
+	}
+
+	/**
+	 * Sends the batched rows to the server.  The rows which could not be
+	 * inserted are reported to the listeners.
+	 * When rows are rejected rather than stopping the import, the rows
+	 * which could not be inserted are rejected instead.
+	 * @return The CSV line number of the first row which could not be
+	 *         inserted, or 0 if all rows were inserted or rejected.
+	 */
+	private int executeBatch(Connection con, PreparedStatement stmt)
+	{
+		int count = batchedRows;
+		batchedRows = 0;
+		if (count == 0) {
+			return 0;
+		}
+		if (rejecter != null) {
+			try {
+				return insertRows(con, stmt, 0, count, true);
+			} catch (SQLException sqle) {
+				notifyListener(
+						new ImportEvent(
+								this, 0, batchLines[0],
+								"Unable to insert the data in rows " +
+								batchLines[0] + " to " + batchLines[count - 1] +
+								": " + sqle.getLocalizedMessage(),
+								ImportEvent.EVENT_TYPE_MESSAGE
+							)
+					);
+				return batchLines[0];
+			}
+		}
+		Savepoint savepoint = (manualCommit ? setSavepoint(con) : null);
+		try {
+			stmt.executeBatch();
+			releaseSavepoint(con, savepoint);
+			inserted(count);
+			executedLine = batchLines[count - 1];
+			executedOffset = batchOffsets[count - 1];
+			return 0;
+		} catch (SQLException sqle) {
+			rollbackFailure(con, savepoint);
+			// Drivers either stop at the first failure, returning the counts
+			// of the rows before it, or try every row and mark those which
+			// failed.
+			int[] counts = new int[0];
+			if (
+					sqle instanceof BatchUpdateException &&
+					((BatchUpdateException)sqle).getUpdateCounts() != null
+				)
+			{
+				counts = ((BatchUpdateException)sqle).getUpdateCounts();
+			}
+			int failedLine = 0;
+			for (int i = 0; i < count; i++) {
+				if (i < counts.length && counts[i] != Statement.EXECUTE_FAILED) {
+					// Within a transaction, the rows of the batch are
+					// rolled back along with the failed ones.
+					if (! manualCommit) {
+						inserted(1);
+					}
+				} else if (i <= counts.length) {
+					if (failedLine == 0) {
+						failedLine = batchLines[i];
+					}
+					notifyListener(
+							new ImportEvent(
+									this, 0, batchLines[i],
+									"Unable to insert the data in row " +
+									batchLines[i] + ": " +
+									sqle.getLocalizedMessage(),
+									ImportEvent.EVENT_TYPE_MESSAGE
+								)
+						);
+				} else {
+					notifyListener(
+							new ImportEvent(
+									this, 0, batchLines[i],
+									"Rows " + batchLines[i] + " to " +
+									batchLines[count - 1] + " were not " +
+									"inserted because of the previous error.",
+									ImportEvent.EVENT_TYPE_MESSAGE
+								)
+						);
+					break;
+				}
+			}
+			if (manualCommit && failedLine > batchLines[0]) {
+				notifyListener(
+						new ImportEvent(
+								this, 0, batchLines[0],
+								"Rows " + batchLines[0] + " up to row " +
+								failedLine + " were rolled back with the " +
+								"rest of the batch.",
+								ImportEvent.EVENT_TYPE_MESSAGE
+							)
+					);
+			}
+			return failedLine;
+		}
+	}
+
+	/**
+	 * Counts rows sent to the server without error.  With autocommit on they
+	 * were committed as they were inserted.
+	 */
+	private void inserted(int count)
+	{
+		if (manualCommit) {
+			uncommittedRows += count;
+		} else {
+			notifier.addCommitted(count);
+		}
+	}
+
+	/**
+	 * Inserts rows of the current batch, rejecting those which fail.  The
+	 * rows are sent together, and if they fail they are rolled back and
+	 * split in halves until the rows which fail are found.  The rows are
+	 * sent within a savepoint if the database has them, otherwise they are
+	 * committed as soon as they are inserted so that a failure rolls back
+	 * only the rows which failed.
+	 * @param from The first row of the batch to insert.
+	 * @param to The row of the batch after the last one to insert.
+	 * @param prepared Whether the statement already holds the rows, as a
+	 *                 batch or as the parameters of a single row.
+	 * @return The CSV line number of the row at which the import must stop,
+	 *         or 0.
+	 * @throws SQLException indicates the rows could not be set or rolled
+	 *                      back.
+	 */
+	private int insertRows(
+			Connection con, PreparedStatement stmt, int from, int to,
+			boolean prepared
+		)
+		throws SQLException
+	{
+		boolean single = to - from == 1;
+		Savepoint savepoint = setSavepoint(con);
+		try {
+			if (! prepared) {
+				for (int i = from; i < to; i++) {
+					// Every value was set once before, so it can be set
+					// again.
+					Object[] values = batchBlocks[i].getValues(batchRows[i]);
+					for (int j = 0; j < values.length; j++) {
+						bind(stmt, j + 1, values[j], jdbcTypes[j]);
+					}
+					if (! single) {
+						stmt.addBatch();
+					}
+				}
+			}
+			if (single && (! prepared || batchSize == 1)) {
+				stmt.executeUpdate();
+			} else {
+				stmt.executeBatch();
+			}
+		} catch (SQLException sqle) {
+			if (batchSize > 1) {
+				stmt.clearBatch();
+			}
+			if (manualCommit) {
+				if (savepoint == null) {
+					con.rollback();
+				} else {
+					con.rollback(savepoint);
+				}
+			}
+			if (single) {
+				executedLine = batchLines[from];
+				executedOffset = batchOffsets[from];
+				return reject(
+						batchLines[from],
+						"Unable to insert the data in row " + batchLines[from] +
+						": " + sqle.getLocalizedMessage(),
+						batchBlocks[from], batchRows[from]
+					) ? 0 : batchLines[from];
+			}
+			int middle = (from + to) / 2;
+			int failedLine = insertRows(con, stmt, from, middle, false);
+			if (failedLine == 0) {
+				failedLine = insertRows(con, stmt, middle, to, false);
+			}
+			return failedLine;
+		}
+		releaseSavepoint(con, savepoint);
+		inserted(to - from);
+		executedLine = batchLines[to - 1];
+		executedOffset = batchOffsets[to - 1];
+		if (manualCommit && savepoint == null) {
+			commit(con);
+		}
+		return 0;
+	}
+
+	/**
+	 * Indicates whether the import finished without being stopped by an
+	 * error or cancelled.
+	 */
+	boolean isCompleted()
+	{
+		return completed;
 	}
 	
 	private void notifyListener(ImportEvent event)
 	{
-		SwingUtilities.invokeLater(new NotifierThread(csvImport, event));
+		if (coordinator != null) {
+			coordinator.workerNotified(this, event);
+			return;
+		}
+		if (
+				rejecter != null &&
+				event.getEventType() == ImportEvent.EVENT_TYPE_STOPPED
+			)
+		{
+			// This thread is the whole import, so it reports the rejected
+			// rows as it stops.
+			rejecter.close();
+			String summary = rejecter.getSummary();
+			if (summary != null) {
+				notifier.post(
+						new ImportEvent(
+								this, 0, 0, summary,
+								ImportEvent.EVENT_TYPE_MESSAGE
+							)
+					);
+			}
+		}
+		notifier.post(event);
 	}
 	
 	public void run()
 	{
+		if (coordinator == null && iStream instanceof FileInputStream) {
+			try {
+				FileChannel channel = ((FileInputStream)iStream).getChannel();
+				notifier.setTotalBytes(channel.size() - channel.position());
+			} catch (IOException ioe) {
+				// The time remaining can't be estimated.
+			}
+		}
 		// Connect to the database.
 		notifyListener(
 				new ImportEvent(
@@ -103,7 +562,7 @@ public class CSVImportThread extends Thread
 			);
 		Connection con = null;
 		try {
-			con = provider.getConnection();
+			con = provider.getPooledConnection();
 		} catch (Exception e) {
 			notifyListener(
 					new ImportEvent(
@@ -123,13 +582,35 @@ public class CSVImportThread extends Thread
 				);
 			return;
 		}
-		
+		try {
+			importData(con);
+		} finally {
+			try {
+				con.close();
+			} catch (SQLException sqle) {
+				// The pool discards connections it can't reuse.
+			}
+		}
+	}
+	
+	/**
+	 * Creates the table if needed and inserts the data using the given
+	 * connection.
+	 */
+	private void importData(Connection con)
+	{
 		if (createTable) {
 			// Create the table.
 			try {
-				String sql = csvImport.createTableCreationSQL(tableName, columns);
+				String sql = textImport.createTableCreationSQL(tableName, columns);
 				Statement stmt = con.createStatement();
-				stmt.execute(sql);
+				try {
+					stmt.execute(sql);
+				} finally {
+					// The connection goes back to the pool, so don't leave
+					// the statement open on it.
+					stmt.close();
+				}
 			} catch (SQLException sqle) {
 				notifyListener(
 						new ImportEvent(
@@ -142,161 +623,328 @@ public class CSVImportThread extends Thread
 			}
 		}
 		
-		// Set up the insert statement
-		PreparedStatement stmt = null;
-		try {
-			stmt = csvImport.createInsertStatement(con, tableName, columns);
-		} catch (SQLException sqle) {
-			notifyListener(
-					new ImportEvent(
-							this, 0, 0,
-							"Unable to create the insert script: " +
-							sqle.getLocalizedMessage(),
-							ImportEvent.EVENT_TYPE_STOPPED
-						)
-				);
-			return;
-		}
-		
 		// Get a list of columns without the auto-increment field(s).
 		LinkedList ll = new LinkedList();
+		int paramCount = 0;
 		for (int i = 0; i < columns.length; i++) {
 			if (columns[i] == null) {
 				ll.add(null);
 			} else if (! columns[i].getDataType().isAutoIncrement()) {
 				ll.add(columns[i]);
+				paramCount++;
 			}
 		}
 		ImportColumn[] insertColumns = new ImportColumn[ll.size()];
 		ll.toArray(insertColumns);
+		String[] columnNames = new String[paramCount];
+		jdbcTypes = new int[paramCount];
+		paramColumns = new int[paramCount];
+		for (int i = 0, j = 0; i < insertColumns.length; i++) {
+			if (insertColumns[i] != null) {
+				columnNames[j] = insertColumns[i].getColumnName();
+				paramColumns[j] = i + 1;
+				jdbcTypes[j++] = insertColumns[i].getDataType().getJDBCType();
+			}
+		}
 		
-		// Initialize the stream.
-		Object data;
-		String[] row;
-		try {
-			CSVParser parser = new CSVParser(iStream);
+		// Use the database's own bulk loader if it has one.
+		BulkLoader loader = null;
+		if (textImport.isBulkLoadAllowed()) {
+			try {
+				loader = provider.createBulkLoader(
+						con, tableName, columnNames, jdbcTypes
+					);
+			} catch (SQLException sqle) {
+				notifyListener(
+						new ImportEvent(
+								this, 0, 0,
+								"Unable to use the bulk loader, the rows will " +
+								"be inserted instead: " +
+								sqle.getLocalizedMessage(),
+								ImportEvent.EVENT_TYPE_MESSAGE
+							)
+					);
+			}
+		}
 		
-			if (this.skipFirstRow) {
-				// Skip the first row.
-				parser.getLine(); // Throw away the return value.
+		// Set up the insert statement
+		PreparedStatement stmt = null;
+		if (loader == null) {
+			try {
+				stmt = textImport.createInsertStatement(con, tableName, columns);
+			} catch (SQLException sqle) {
+				notifyListener(
+						new ImportEvent(
+								this, 0, 0,
+								"Unable to create the insert script: " +
+								sqle.getLocalizedMessage(),
+								ImportEvent.EVENT_TYPE_STOPPED
+							)
+					);
+				return;
 			}
-
+		} else {
+			notifyListener(
+					new ImportEvent(
+							this, 0, 0,
+							"Loading the data with the database's bulk loader.",
+							ImportEvent.EVENT_TYPE_MESSAGE
+						)
+				);
+		}
+		
+		// Send the rows in batches and commit them every commitInterval
+		// rows rather than making a round trip and a commit for each row.
+		try {
+			if (batchSize > 1 && ! con.getMetaData().supportsBatchUpdates()) {
+				batchSize = 1;
+			}
+			con.setAutoCommit(false);
+			manualCommit = true;
+			useSavepoints = con.getMetaData().supportsSavepoints();
+		} catch (SQLException sqle) {
+			// Insert with autocommit on, as before.
+		}
+		if (rejecter != null && ! manualCommit) {
+			// A failed batch can't be rolled back to find the bad rows.
+			batchSize = 1;
+		}
+		if (checkpoint != null && ! manualCommit) {
+			// Rows would be committed without the checkpoint knowing.
+			discardCheckpoint(
+					"The connection commits each row as it is inserted."
+				);
+		}
+		batchBlocks = new RowBlock[batchSize];
+		batchLines = new int[batchSize];
+		batchOffsets = new long[batchSize];
+		batchRows = new int[batchSize];
+		
+		// Read, tokenize and convert the rows in threads of their own while
+		// this thread inserts them.
+		int converterCount = Runtime.getRuntime().availableProcessors();
+		if (coordinator != null) {
+			converterCount /= coordinator.getWorkerCount();
+		}
+		RowConverter converter;
+		try {
+			converter = new RowConverter(
+					insertColumns, paramCount, lineOffset, textImport
+				);
+		} catch (IllegalArgumentException iae) {
+			notifyListener(
+					new ImportEvent(
+							this, 0, 0,
+							"Unable to use the date and time formats: " +
+							iae.getLocalizedMessage(),
+							ImportEvent.EVENT_TYPE_STOPPED
+						)
+				);
+			return;
+		}
+		CSVPipeline pipeline = new CSVPipeline(
+				textImport, iStream, skipFirstRow, converter, converterCount
+			);
+		pipeline.start();
+		
+		int line = 0;
+		int loadedRows = 0;
+		// The position after the last block's rows.
+		long readOffset = 0;
+		try {
 			// Import the data.
-			int paramIndex;
-			for (row = parser.getLine(); row != null; row = parser.getLine()) {
-				paramIndex = 0;
-				try {
-					for (int j = 0; j < insertColumns.length; j++) {
-						if (insertColumns[j] != null) {
-							paramIndex++;
-							if (j < row.length) {
-								data = row[j];
+			for (
+					RowBlock block = pipeline.take();
+					block != null && ! cancelled;
+					block = pipeline.take()
+				)
+			{
+				for (int i = 0; i < block.getRowCount() && ! cancelled; i++) {
+					line = lineOffset + block.getLineNumber(i);
+					// Why the row is rejected rather than inserted, if it is.
+					String rejection = null;
+					List warnings = block.getWarnings(i);
+					if (warnings != null) {
+						for (Iterator it = warnings.iterator(); it.hasNext(); ) {
+							String warning = (String)it.next();
+							if (rejecter == null) {
+								notifyListener(
+										new ImportEvent(
+												this, 0, line, warning,
+												ImportEvent.EVENT_TYPE_MESSAGE
+											)
+									);
+							} else if (rejection == null) {
+								rejection = warning;
 							} else {
-								data = null;
+								rejection += "  " + warning;
 							}
-							
-							// Try to parse the data
-							if (data != null) {
-								String s = data.toString().trim(); 
-								if (s.length() == 0) {
-									data = null;
+						}
+					}
+					Object[] values = block.getValues(i);
+					try {
+						for (
+								int j = 0;
+								loader == null && rejection == null &&
+								j < values.length;
+								j++
+							)
+						{
+							String problem = bind(
+									stmt, j + 1, values[j], jdbcTypes[j]
+								);
+							if (problem != null) {
+								problem =
+									"Unable to parse the data in row " + line +
+									" and column " + paramColumns[j] +
+									(rejecter == null ?
+										" NULL will be inserted: " : ": ") +
+									problem;
+								if (rejecter == null) {
+									notifyListener(
+											new ImportEvent(
+													this, 0, line, problem,
+													ImportEvent.EVENT_TYPE_MESSAGE
+												)
+										);
 								} else {
-									try {
-										switch (insertColumns[j].getDataType().getJDBCType()) {
-										case Types.DATE:
-											try {
-												// Try to parse the date using locale formatting
-												data = DATE_FORMAT.parse(s);
-											} catch (ParseException pe) {
-												try {
-													data = DATE_FORMAT2.parseObject(s);
-												} catch (ParseException pe2) {
-													// Let the JDBC driver do what it can.
-												}
-											}
-											break;
-										case Types.TIMESTAMP:
-											try {
-												// Try to parse the date using locale formatting
-												data = TIMESTAMP_FORMAT.parse(s);
-											} catch (ParseException pe) {
-												// Let the JDBC driver do what it can.
-											}
-											break;
-										case Types.TIME:
-											try {
-												// Try to parse the date using locale formatting
-												data = TIME_FORMAT.parse(s);
-											} catch (ParseException pe) {
-												// Let the JDBC driver do what it can.
-											}
-											break;
-										default:
-											// Let the JDBC driver do what it can.
-										}
-										stmt.setObject(
-												paramIndex, data,
-												insertColumns[j].getDataType().getJDBCType()
-											);
-									} catch (Exception e) {
-										data = null;
-										notifyListener(
-												new ImportEvent(
-														this, 0, parser.getLastLineNumber(),
-														"Unable to parse the data in row " +
-														parser.getLastLineNumber() +
-														" and column " + String.valueOf(j + 1) +
-														" NULL will be inserted: " +
-														e.getLocalizedMessage(),
-														ImportEvent.EVENT_TYPE_STOPPED
-													)
-											);
-									}
+									rejection = problem;
 								}
 							}
-							
-							// Set the value
-							if (data == null) {
-								stmt.setNull(
-										paramIndex,
-										insertColumns[j].getDataType().getJDBCType()
-									);
-							}
 						}
-				    }
-			    	try {
-			    		stmt.executeUpdate();
-			    		paramIndex = 1;
-			    		for (int i = 0; i < insertColumns.length; i++) {
-			    			if (insertColumns[i] != null) {
-			    				stmt.setNull(paramIndex++, insertColumns[i].getDataType().getJDBCType());
-			    			}
-			    		}
-			    	} catch (SQLException sqle) {
+				    	// Every parameter was set above, so there is no need
+				    	// to clear them for the next row.
+				    	int failedLine = 0;
+				    	try {
+				    		if (rejection != null) {
+				    			if (! reject(line, rejection, block, i)) {
+				    				failedLine = line;
+				    			}
+				    		} else if (loader != null) {
+				    			// The loaded rows are committed together once
+				    			// the load finishes.
+				    			loader.addRow(values);
+				    			loadedRows++;
+				    			executedLine = line;
+				    			executedOffset = block.getEndOffset(i);
+				    		} else if (batchSize > 1 || rejecter != null) {
+				    			// Rejected rows are found by inserting the
+				    			// batch again, so keep where they came from.
+				    			if (batchSize > 1) {
+				    				stmt.addBatch();
+				    			}
+				    			batchBlocks[batchedRows] = block;
+				    			batchRows[batchedRows] = i;
+				    			batchLines[batchedRows] = line;
+				    			batchOffsets[batchedRows++] =
+				    				block.getEndOffset(i);
+				    			if (batchedRows == batchSize) {
+				    				failedLine = executeBatch(con, stmt);
+				    			}
+				    		} else {
+				    			Savepoint savepoint =
+				    				(manualCommit ? setSavepoint(con) : null);
+				    			try {
+				    				stmt.executeUpdate();
+				    			} catch (SQLException sqle) {
+				    				rollbackFailure(con, savepoint);
+				    				throw sqle;
+				    			}
+				    			releaseSavepoint(con, savepoint);
+				    			inserted(1);
+				    			executedLine = line;
+				    			executedOffset = block.getEndOffset(i);
+				    		}
+				    		if (
+				    				failedLine == 0 && manualCommit &&
+				    				commitInterval > 0 &&
+				    				uncommittedRows >= commitInterval
+				    			)
+				    		{
+				    			commit(con);
+				    		}
+				    	} catch (SQLException sqle) {
+				    		if (loader != null) {
+				    			// The failed load is rolled back as a whole.
+								notifyListener(
+										new ImportEvent(
+												this, 0, line,
+												"Unable to bulk load the data into " +
+												tableName + ": " +
+												sqle.getLocalizedMessage(),
+												ImportEvent.EVENT_TYPE_STOPPED
+											)
+									);
+								return;
+				    		}
+				    		if (manualCommit) {
+				    			// Keep the rows inserted before this one if
+				    			// the transaction is still usable.
+				    			commitAfterFailure(con);
+				    		}
+							notifyListener(
+									new ImportEvent(
+											this, 0, line,
+											"Unable to insert the data in row " +
+											line + ": " +
+											sqle.getLocalizedMessage(),
+											ImportEvent.EVENT_TYPE_STOPPED
+										)
+								);
+							return;
+				    	}
+				    	if (failedLine > 0) {
+				    		if (manualCommit) {
+				    			commitAfterFailure(con);
+				    		}
+							notifyListener(
+									new ImportEvent(
+											this, 0, failedLine,
+											"The import stopped at row " +
+											failedLine + '.',
+											ImportEvent.EVENT_TYPE_STOPPED
+										)
+								);
+							return;
+				    	}
+					} catch (SQLException sqle) {
 						notifyListener(
-								new ImportEvent(
-										this, 0, parser.getLastLineNumber(),
-										"Unable to insert the data in row " +
-										parser.getLastLineNumber() + ": " +
-										sqle.getLocalizedMessage(),
-										ImportEvent.EVENT_TYPE_STOPPED
-									)
+							new ImportEvent(
+									this, 0, line,
+									"Unable to set data for row " +
+									line + ": " +
+									sqle.getLocalizedMessage(),
+									ImportEvent.EVENT_TYPE_MESSAGE
+								)
 							);
-						return;
-			    	}
-				} catch (SQLException sqle) {
-					notifyListener(
-						new ImportEvent(
-								this, 0, parser.getLastLineNumber(),
-								"Unable to set data for row " +
-								parser.getLastLineNumber() + ": " +
-								sqle.getLocalizedMessage(),
-								ImportEvent.EVENT_TYPE_MESSAGE
-							)
-						);
+					}
+				}
+				if (block.getRowCount() > 0) {
+					long end = block.getEndOffset(block.getRowCount() - 1);
+					notifier.addRead(block.getRowCount(), end - readOffset);
+					readOffset = end;
 				}
 			}
+		} catch (InterruptedException ie) {
+			cancelled = true;
 		} catch (IOException ioe) {
+			// Keep the rows which were read before the error.
+			if (loader != null) {
+				try {
+					loader.finish();
+					inserted(loadedRows);
+				} catch (SQLException sqle) {
+					// The read error is reported below.
+					executedOffset = -1;
+				}
+			}
+			if (executeBatch(con, stmt) > 0) {
+				if (manualCommit) {
+					commitAfterFailure(con);
+				}
+			} else if (manualCommit) {
+				commit(con);
+			}
 			notifyListener(
 					new ImportEvent(
 							this, 0, 0, "Unable to read the data into " +
@@ -305,7 +953,59 @@ public class CSVImportThread extends Thread
 						)
 				);
 			return;
+		} finally {
+			pipeline.close();
+		}
+		if (loader != null) {
+			if (cancelled) {
+				loader.cancel();
+			} else {
+				try {
+					loader.finish();
+					inserted(loadedRows);
+				} catch (SQLException sqle) {
+					notifyListener(
+							new ImportEvent(
+									this, 0, 0,
+									"Unable to bulk load the data into " +
+									tableName + ": " +
+									sqle.getLocalizedMessage(),
+									ImportEvent.EVENT_TYPE_STOPPED
+								)
+						);
+					return;
+				}
+			}
+		}
+		int failedLine = executeBatch(con, stmt);
+		if (manualCommit) {
+			if (failedLine > 0) {
+				commitAfterFailure(con);
+			} else {
+				commit(con);
+			}
+		}
+		if (failedLine > 0) {
+			notifyListener(
+					new ImportEvent(
+							this, 0, failedLine,
+							"The import stopped at row " + failedLine + '.',
+							ImportEvent.EVENT_TYPE_STOPPED
+						)
+				);
+			return;
+		}
+		if (cancelled) {
+			notifyListener(
+					new ImportEvent(
+							this, 0, 0, "Import into " + tableName +
+							" cancelled.",
+							ImportEvent.EVENT_TYPE_STOPPED
+						)
+				);
+			return;
 		}
+		completed = true;
 		notifyListener(
 				new ImportEvent(
 						this, 0, 0, "Import into " + tableName + " done.",
@@ -314,20 +1014,128 @@ public class CSVImportThread extends Thread
 			);
 	}
 	
-	class NotifierThread extends Thread
+	/**
+	 * Skips a row which can't be imported, writing it to the reject file if
+	 * there is one.
+	 * @param reason Why the row can't be imported.
+	 * @return false if the import must stop, because too many rows have
+	 *         been rejected or the row could not be written.
+	 */
+	private boolean reject(int line, String reason, RowBlock block, int row)
 	{
-		private CSVImport csvImport;
-		private ImportEvent event;
-		
-		NotifierThread(CSVImport csvImport, ImportEvent event)
-		{
-			this.csvImport = csvImport;
-			this.event = event;
+		try {
+			if (! rejecter.reject(line, reason, block, row)) {
+				notifyListener(
+						new ImportEvent(
+								this, 0, line, "More than " +
+								rejecter.getMaxErrors() +
+								" rows could not be imported.",
+								ImportEvent.EVENT_TYPE_MESSAGE
+							)
+					);
+				return false;
+			}
+		} catch (IOException ioe) {
+			notifyListener(
+					new ImportEvent(
+							this, 0, line,
+							"Unable to write the reject file: " +
+							ioe.getLocalizedMessage(),
+							ImportEvent.EVENT_TYPE_MESSAGE
+						)
+				);
+			return false;
 		}
-		
-		public void run()
-		{
-			csvImport.notifyListeners(event);
+		if (rejecter.getRejectFile() == null) {
+			// The listeners are the only record of the skipped row.
+			notifyListener(
+					new ImportEvent(
+							this, 0, line, reason,
+							ImportEvent.EVENT_TYPE_MESSAGE
+						)
+				);
+		}
+		return true;
+	}
+
+	/**
+	 * Has the thread record its progress in a checkpoint as it commits rows.
+	 * @param range The range of the file the checkpoint records for this
+	 *              thread.
+	 * @param streamOffset The position in the file at which the thread's
+	 *                     input starts.
+	 */
+	void setCheckpoint(
+			ImportCheckpoint checkpoint, int range, long streamOffset
+		)
+	{
+		this.checkpoint = checkpoint;
+		this.checkpointRange = range;
+		this.streamOffset = streamOffset;
+	}
+	
+	/**
+	 * Releases the savepoint set before rows which were inserted.
+	 * @param savepoint The savepoint, or null.
+	 */
+	private void releaseSavepoint(Connection con, Savepoint savepoint)
+	{
+		if (savepoint != null) {
+			try {
+				con.releaseSavepoint(savepoint);
+			} catch (SQLException sqle) {
+				// It is released when the transaction ends.
+			}
+		}
+	}
+
+	/**
+	 * Rolls back rows which failed to insert to the savepoint set before
+	 * them and records whether the rows inserted before them can still be
+	 * committed.
+	 * @param savepoint The savepoint, or null.
+	 */
+	private void rollbackFailure(Connection con, Savepoint savepoint)
+	{
+		canCommitAfterFailure = false;
+		if (savepoint != null) {
+			try {
+				con.rollback(savepoint);
+				canCommitAfterFailure = true;
+			} catch (SQLException sqle) {
+				// The whole transaction is rolled back instead.
+			}
 		}
 	}
+
+	/**
+	 * Sets a savepoint if the rows are inserted within them.  If the
+	 * database turns out not to have savepoints, the rows inserted so far
+	 * are committed and the rows are committed as they are inserted from
+	 * then on.
+	 * @return The savepoint, or null.
+	 */
+	private Savepoint setSavepoint(Connection con)
+	{
+		if (useSavepoints) {
+			try {
+				return con.setSavepoint();
+			} catch (SQLException sqle) {
+				useSavepoints = false;
+				commit(con);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Has the thread skip the rows which can't be imported rather than
+	 * stop at the first one.
+	 * @param rejecter Counts and writes the skipped rows.
+	 */
+	void setRejecter(RowRejecter rejecter)
+	{
+		this.rejecter = rejecter;
+	}
+	
 }
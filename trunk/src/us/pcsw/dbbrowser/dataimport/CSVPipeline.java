@@ -0,0 +1,261 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.CSVPipeline
+ * -
+ * Reads, tokenizes and converts CSV data in threads of their own, so that
+ * the disk, the CPU and the database are all kept busy while the import
+ * thread inserts the rows.
+ * <P>
+ * A ReadAheadInputStream reads the data in chunks.  A tokenizer thread
+ * splits it into records with the import's RecordReader and packs them
+ * into RowBlocks.  Converter threads
+ * convert the blocks, and the import thread takes them with take in the
+ * order they were read.  Only a few blocks may be waiting to be taken, so
+ * a slow database holds up reading rather than filling memory.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 Records are read with the import's RecordReader, so
+ *                  any TextImport's data may be loaded.</LI>
+ * </UL></P>
+ */
+class CSVPipeline
+{
+	// CONSTANTS
+
+	/**
+	 * The number of bytes read from the file at a time.
+	 */
+	private static final int CHUNK_SIZE = 256 * 1024;
+
+	/**
+	 * The number of chunks which may be read ahead.
+	 */
+	private static final int CHUNK_COUNT = 4;
+
+	/**
+	 * The number of records in a block.
+	 */
+	private static final int ROWS_PER_BLOCK = 1000;
+
+	// CONSTRUCTORS
+
+	/**
+	 * @param textImport The import, which creates the reader for the data.
+	 * @param iStream The data.
+	 * @param skipFirstRow Whether the first record is skipped.
+	 * @param converter Converts the blocks.  It is shared by the converter
+	 *                  threads.
+	 * @param converterCount The number of threads converting blocks.
+	 */
+	CSVPipeline(
+			TextImport textImport, InputStream iStream, boolean skipFirstRow,
+			final RowConverter converter, int converterCount
+		)
+	{
+		super();
+		this.iStream = iStream;
+		this.skipFirstRow = skipFirstRow;
+		this.textImport = textImport;
+		converters = new Thread[Math.max(1, converterCount)];
+		for (int i = 0; i < converters.length; i++) {
+			converters[i] = new Thread("CSV converter " + (i + 1)) {
+				public void run()
+				{
+					convert(converter);
+				}
+			};
+			converters[i].setDaemon(true);
+		}
+		ordered = new ArrayBlockingQueue(converters.length * 2 + 2);
+		tokenizer = new Thread("CSV tokenizer") {
+			public void run()
+			{
+				tokenize();
+			}
+		};
+		tokenizer.setDaemon(true);
+	}
+
+	// MEMBERS
+
+	private volatile boolean closed = false;
+	private Thread[] converters;
+	private InputStream iStream;
+	/**
+	 * The blocks in the order they were read, waiting for the import thread.
+	 * Its capacity limits how far ahead of the import the other stages get.
+	 */
+	private BlockingQueue ordered;
+	private boolean skipFirstRow;
+	private TextImport textImport;
+	private Thread tokenizer;
+	/**
+	 * The blocks waiting for a converter.  It is only ever as full as
+	 * ordered, so it needs no limit of its own.
+	 */
+	private BlockingQueue unconverted = new LinkedBlockingQueue();
+
+	// METHODS
+
+	/**
+	 * Stops the stages.  Blocks which have not been taken are discarded.
+	 */
+	void close()
+	{
+		closed = true;
+		// None of these threads read from a channel, so interrupting them
+		// is safe.
+		tokenizer.interrupt();
+		for (int i = 0; i < converters.length; i++) {
+			converters[i].interrupt();
+		}
+		ordered.clear();
+	}
+
+	/**
+	 * Converts blocks until the end of the data.
+	 */
+	private void convert(RowConverter converter)
+	{
+		try {
+			for (;;) {
+				RowBlock block = (RowBlock)unconverted.take();
+				if (block.isEnd()) {
+					return;
+				}
+				try {
+					converter.convert(block);
+				} finally {
+					block.setConverted();
+				}
+			}
+		} catch (InterruptedException ie) {
+			// The pipeline was closed.
+		}
+	}
+
+	/**
+	 * Passes a block on to the converters and the import thread.
+	 */
+	private void dispatch(RowBlock block)
+		throws InterruptedException
+	{
+		ordered.put(block);
+		unconverted.put(block);
+	}
+
+	/**
+	 * Starts the stages.
+	 */
+	void start()
+	{
+		for (int i = 0; i < converters.length; i++) {
+			converters[i].start();
+		}
+		tokenizer.start();
+	}
+
+	/**
+	 * Returns the next block of converted rows.
+	 * @return The block, or null at the end of the data.
+	 * @throws IOException indicates the data could not be read.
+	 * @throws InterruptedException indicates the import thread was
+	 *                              interrupted.
+	 */
+	RowBlock take()
+		throws IOException, InterruptedException
+	{
+		RowBlock block = (RowBlock)ordered.take();
+		block.awaitConverted();
+		if (block.isEnd()) {
+			// Leave the end in place for any later call.
+			ordered.offer(block);
+			Exception e = block.getError();
+			if (e instanceof IOException) {
+				throw (IOException)e;
+			} else if (e != null) {
+				IOException ioe = new IOException(e.getLocalizedMessage());
+				ioe.initCause(e);
+				throw ioe;
+			}
+			return null;
+		}
+		return block;
+	}
+
+	/**
+	 * Splits the data into records and packs them into blocks until the
+	 * end of the data or until the pipeline is closed.
+	 */
+	private void tokenize()
+	{
+		ReadAheadInputStream in = new ReadAheadInputStream(
+				iStream, CHUNK_SIZE, CHUNK_COUNT
+			);
+		Exception error = null;
+		try {
+			RecordReader reader = textImport.createReader(in);
+			if (skipFirstRow) {
+				reader.next();
+			}
+			RowBlock block = new RowBlock(reader.getCharset(), ROWS_PER_BLOCK);
+			while (! closed && reader.next()) {
+				reader.appendTo(block);
+				if (block.getRowCount() == ROWS_PER_BLOCK) {
+					dispatch(block);
+					block = new RowBlock(reader.getCharset(), ROWS_PER_BLOCK);
+				}
+			}
+			if (block.getRowCount() > 0) {
+				dispatch(block);
+			}
+		} catch (InterruptedException ie) {
+			// The pipeline was closed.
+			return;
+		} catch (Exception e) {
+			// Reported to the import thread when it reaches the end.
+			error = e;
+		} finally {
+			in.close();
+		}
+		try {
+			RowBlock end = new RowBlock(error);
+			ordered.put(end);
+			for (int i = 0; i < converters.length; i++) {
+				unconverted.put(end);
+			}
+		} catch (InterruptedException ie) {
+			// The pipeline was closed.
+		}
+	}
+}
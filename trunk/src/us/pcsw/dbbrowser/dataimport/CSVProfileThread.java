@@ -0,0 +1,168 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.CSVProfileThread
+ * -
+ * Profiles the columns of one range of a CSV file, for CSVImport to merge
+ * with those of the other ranges read at the same time.  Records are read
+ * until the one which ends at or past the range's length, so a range may
+ * end within a record when it is the end of a sample.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 Records are read with any RecordReader.</LI>
+ * </UL></P>
+ */
+class CSVProfileThread extends Thread
+{
+	// CONSTANTS
+
+	private static final int ROWS_PER_BLOCK = 1000;
+
+	// CONSTRUCTORS
+
+	/**
+	 * @param reader Reads the data, starting at the start of the range.
+	 * @param length The length of the range.
+	 * @param skipFirstRow Whether the first record is column headers.
+	 * @param converters The converters returned by
+	 *                   ColumnProfile.createConverters.
+	 */
+	CSVProfileThread(
+			RecordReader reader, long length, boolean skipFirstRow,
+			ColumnConverter[] converters
+		)
+	{
+		super();
+		this.converters = converters;
+		this.length = length;
+		this.reader = reader;
+		this.skipFirstRow = skipFirstRow;
+	}
+
+	// MEMBERS
+
+	private ColumnConverter[] converters;
+	/**
+	 * Whether the end of the data was reached.
+	 */
+	private boolean ended = false;
+	private IOException error = null;
+	private long length;
+	private List profiles = new ArrayList();
+	private RecordReader reader;
+	private long rowCount = 0;
+	private boolean skipFirstRow;
+
+	// METHODS
+
+	/**
+	 * Returns the error which stopped the profiling, or null.
+	 */
+	IOException getError()
+	{
+		return error;
+	}
+
+	/**
+	 * Returns the profile of each column found.  Fields which are blank are
+	 * not added to the profiles; they are the rows less the values.
+	 */
+	ColumnProfile[] getProfiles()
+	{
+		ColumnProfile[] returnValue = new ColumnProfile[profiles.size()];
+		profiles.toArray(returnValue);
+		return returnValue;
+	}
+
+	/**
+	 * Returns the number of records profiled.
+	 */
+	long getRowCount()
+	{
+		return rowCount;
+	}
+
+	/**
+	 * Indicates whether the end of the data was reached, rather than the end
+	 * of the range.
+	 */
+	boolean isEnded()
+	{
+		return ended;
+	}
+
+	/**
+	 * Adds the fields of a block to the profiles.
+	 */
+	private void profile(RowBlock block)
+	{
+		for (int row = 0; row < block.getRowCount(); row++) {
+			int fieldCount = block.getFieldCount(row);
+			while (profiles.size() < fieldCount) {
+				profiles.add(new ColumnProfile());
+			}
+			for (int field = 0; field < fieldCount; field++) {
+				if (! block.isBlank(row, field)) {
+					((ColumnProfile)profiles.get(field)).add(
+							block, row, field, converters
+						);
+				}
+			}
+		}
+		rowCount += block.getRowCount();
+	}
+
+	/**
+	 * @see java.lang.Runnable#run()
+	 */
+	public void run()
+	{
+		try {
+			if (skipFirstRow) {
+				reader.next();
+			}
+			RowBlock block = new RowBlock(reader.getCharset(), ROWS_PER_BLOCK);
+			while (reader.getEndOffset() < length) {
+				if (! reader.next()) {
+					ended = true;
+					break;
+				}
+				reader.appendTo(block);
+				if (block.getRowCount() == ROWS_PER_BLOCK) {
+					profile(block);
+					block = new RowBlock(reader.getCharset(), ROWS_PER_BLOCK);
+				}
+			}
+			profile(block);
+		} catch (IOException ioe) {
+			error = ioe;
+		}
+	}
+}
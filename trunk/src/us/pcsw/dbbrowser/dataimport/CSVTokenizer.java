@@ -0,0 +1,471 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.CSVTokenizer
+ * -
+ * Splits CSV data into records and fields.  The bytes are read into a buffer
+ * which is reused for every record, and each field is kept as a range of
+ * that buffer, so a field costs nothing until its value is asked for or
+ * the record is copied to a RowBlock.
+ * <P>
+ * Values may be quoted with double quotes.  A quoted value may contain
+ * commas and line breaks, a doubled quote for a quote, and the backslash
+ * escapes \n, \r, \t, \" and \\.  Whitespace around unquoted values is
+ * dropped, and blank lines are skipped.  The charset must encode the ASCII
+ * characters as single bytes, as UTF-8 and the ISO-8859 charsets do.
+ * <P>
+ * A field's range is only valid until the next record is read.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 Added getEndOffset.</LI>
+ * <LI>Oct 18, 2026 Extends RecordReader.</LI>
+ * </UL></P>
+ */
+class CSVTokenizer extends RecordReader
+{
+	// CONSTANTS
+
+	private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+	private static final int INITIAL_FIELD_COUNT = 64;
+
+	// CONSTRUCTORS
+
+	/**
+	 * Creates a tokenizer which reads the data in the platform's default
+	 * charset.
+	 * @param in The CSV data.
+	 */
+	CSVTokenizer(InputStream in)
+	{
+		this(in, Charset.defaultCharset());
+	}
+
+	/**
+	 * @param in The CSV data.
+	 * @param charset The charset of the data.
+	 */
+	CSVTokenizer(InputStream in, Charset charset)
+	{
+		super();
+		this.charset = charset;
+		this.in = in;
+	}
+
+	// MEMBERS
+
+	private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+	private Charset charset;
+	/**
+	 * The number of bytes read and discarded from the start of the buffer.
+	 */
+	private long discarded = 0;
+	private boolean eof = false;
+	private int[] fieldEnds = new int[INITIAL_FIELD_COUNT];
+	private int fieldCount = 0;
+	/**
+	 * The fields' ranges, relative to the start of the record so that they
+	 * remain valid when the record is moved within the buffer.
+	 */
+	private int[] fieldStarts = new int[INITIAL_FIELD_COUNT];
+	private InputStream in;
+	private int lastLineNumber = 0;
+	/**
+	 * The number of bytes in the buffer.
+	 */
+	private int limit = 0;
+	private int lineCount = 0;
+	/**
+	 * The position of the next byte to read.
+	 */
+	private int position = 0;
+	/**
+	 * The position of the first byte of the current record.  Bytes before it
+	 * are discarded when more data is read.
+	 */
+	private int recordStart = 0;
+	/**
+	 * The position to which the next byte of a field's value is written.
+	 * Escapes are replaced with the characters they stand for as they are
+	 * read, so this trails the read position once a record has escapes.
+	 */
+	private int writePosition = 0;
+
+	// METHODS
+
+	/**
+	 * Records a field of the current record.  The range is relative to the
+	 * start of the record.
+	 */
+	private void addField(int start, int end)
+	{
+		if (fieldCount == fieldStarts.length) {
+			int[] a = new int[fieldCount * 2];
+			System.arraycopy(fieldStarts, 0, a, 0, fieldCount);
+			fieldStarts = a;
+			a = new int[fieldCount * 2];
+			System.arraycopy(fieldEnds, 0, a, 0, fieldCount);
+			fieldEnds = a;
+		}
+		fieldStarts[fieldCount] = start;
+		fieldEnds[fieldCount++] = end;
+	}
+
+	/**
+	 * Copies the current record to the end of the block.
+	 */
+	void appendTo(RowBlock block)
+	{
+		block.addRow(
+				buffer, recordStart, fieldStarts, fieldEnds, fieldCount,
+				lastLineNumber, getEndOffset()
+			);
+	}
+
+	/**
+	 * Reads more data into the buffer, first discarding the bytes before the
+	 * current record or growing the buffer if the record fills it.
+	 * @return false if there is no more data.
+	 */
+	private boolean fill()
+		throws IOException
+	{
+		if (eof) {
+			return false;
+		}
+		if (recordStart > 0) {
+			int shift = recordStart;
+			System.arraycopy(buffer, shift, buffer, 0, limit - shift);
+			limit -= shift;
+			position -= shift;
+			writePosition -= shift;
+			recordStart = 0;
+			discarded += shift;
+		} else if (limit == buffer.length) {
+			byte[] b = new byte[buffer.length * 2];
+			System.arraycopy(buffer, 0, b, 0, limit);
+			buffer = b;
+		}
+		int count = in.read(buffer, limit, buffer.length - limit);
+		if (count < 0) {
+			eof = true;
+			return false;
+		}
+		limit += count;
+		return true;
+	}
+
+	/**
+	 * Returns the charset of the data.
+	 */
+	Charset getCharset()
+	{
+		return charset;
+	}
+
+	/**
+	 * Returns the position in the data after the current record and its line
+	 * break, where the next record would be read from.
+	 */
+	long getEndOffset()
+	{
+		return discarded + position;
+	}
+
+	/**
+	 * Returns the number of fields in the current record.
+	 */
+	int getFieldCount()
+	{
+		return fieldCount;
+	}
+
+	/**
+	 * Returns the number of the line on which the current record ends.  The
+	 * first line is 1.
+	 */
+	int getLastLineNumber()
+	{
+		return lastLineNumber;
+	}
+
+	/**
+	 * Returns the values of the current record.
+	 */
+	String[] getLine()
+	{
+		String[] line = new String[fieldCount];
+		for (int i = 0; i < fieldCount; i++) {
+			line[i] = getString(i);
+		}
+		return line;
+	}
+
+	/**
+	 * Returns the field's value.
+	 */
+	String getString(int field)
+	{
+		return new String(
+				buffer, recordStart + fieldStarts[field],
+				fieldEnds[field] - fieldStarts[field], charset
+			);
+	}
+
+	/**
+	 * Reads the next record.
+	 * @return false if there are no more records.
+	 */
+	boolean next()
+		throws IOException
+	{
+		fieldCount = 0;
+
+		// Skip blank lines.
+		for (;;) {
+			recordStart = position;
+			if (position == limit && ! fill()) {
+				return false;
+			}
+			byte b = buffer[position];
+			if (b == '\n') {
+				position++;
+				lineCount++;
+			} else if (b == '\r') {
+				position++;
+				if (peek() == '\n') {
+					position++;
+				}
+				lineCount++;
+			} else {
+				break;
+			}
+		}
+
+		recordStart = position;
+		writePosition = position;
+		if (lineCount == 0 && position == 0) {
+			skipByteOrderMark();
+		}
+		int c;
+		do {
+			c = readField();
+		} while (c == ',');
+		if (c == '\r' && peek() == '\n') {
+			position++;
+		}
+		// The last line counts even without a line break.
+		lineCount++;
+		lastLineNumber = lineCount;
+		return true;
+	}
+
+	/**
+	 * Returns the next byte without reading it, or -1 at the end of the data.
+	 */
+	private int peek()
+		throws IOException
+	{
+		if (position == limit && ! fill()) {
+			return -1;
+		}
+		return buffer[position] & 0xff;
+	}
+
+	/**
+	 * Reads a byte, or returns -1 at the end of the data.
+	 */
+	private int read()
+		throws IOException
+	{
+		if (position == limit && ! fill()) {
+			return -1;
+		}
+		return buffer[position++] & 0xff;
+	}
+
+	/**
+	 * Reads a field of the current record.
+	 * @return The byte which ended the field: a comma, a line break, or -1 at
+	 *         the end of the data.
+	 */
+	private int readField()
+		throws IOException
+	{
+		int c = read();
+		while (c == ' ' || c == '\t') {
+			c = read();
+		}
+		int start = writePosition - recordStart;
+		int end;
+		if (c == '"') {
+			for (c = readQuoted(); c != -1; c = readQuoted()) {
+				if (c == '"') {
+					c = read();
+					if (c != '"') {
+						break;
+					}
+				} else if (c == '\\') {
+					c = read();
+					switch (c) {
+					case -1:
+						continue;
+					case 'n':
+						c = '\n';
+						break;
+					case 'r':
+						c = '\r';
+						break;
+					case 't':
+						c = '\t';
+						break;
+					default:
+						// The character itself, as with \" and \\.
+					}
+				} else if (c == '\n' || (c == '\r' && peek() != '\n')) {
+					lineCount++;
+				}
+				buffer[writePosition++] = (byte)c;
+			}
+			end = writePosition - recordStart;
+			while (c == ' ' || c == '\t') {
+				c = read();
+			}
+			// Keep anything after the closing quote rather than lose it.
+			while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+				buffer[writePosition++] = (byte)c;
+				end = writePosition - recordStart;
+				c = read();
+			}
+		} else {
+			if (c != ',' && c != '\n' && c != '\r' && c != -1) {
+				buffer[writePosition++] = (byte)c;
+				c = readUnquoted();
+			}
+			end = writePosition - recordStart;
+			while (
+					end > start && (
+						buffer[recordStart + end - 1] == ' ' ||
+						buffer[recordStart + end - 1] == '\t'
+					)
+				)
+			{
+				end--;
+			}
+		}
+		addField(start, end);
+		return c;
+	}
+
+	/**
+	 * Moves the bytes of a quoted value up to the next quote, backslash or
+	 * line break into place, and reads that byte.
+	 * @return The byte read, or -1 at the end of the data.
+	 */
+	private int readQuoted()
+		throws IOException
+	{
+		for (;;) {
+			int p = position;
+			while (p < limit) {
+				byte b = buffer[p];
+				if (b == '"' || b == '\\' || b == '\n' || b == '\r') {
+					break;
+				}
+				p++;
+			}
+			skipTo(p);
+			if (position < limit) {
+				return buffer[position++] & 0xff;
+			}
+			if (! fill()) {
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * Moves the bytes of an unquoted value up to the next comma or line
+	 * break into place, and reads that byte.
+	 * @return The byte read, or -1 at the end of the data.
+	 */
+	private int readUnquoted()
+		throws IOException
+	{
+		for (;;) {
+			int p = position;
+			while (p < limit) {
+				byte b = buffer[p];
+				if (b == ',' || b == '\n' || b == '\r') {
+					break;
+				}
+				p++;
+			}
+			skipTo(p);
+			if (position < limit) {
+				return buffer[position++] & 0xff;
+			}
+			if (! fill()) {
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * Skips a UTF-8 byte order mark at the start of the data.
+	 */
+	private void skipByteOrderMark()
+		throws IOException
+	{
+		while (limit < 3 && fill()) {
+			// Read until there are enough bytes to check.
+		}
+		if (
+				limit >= 3 && (buffer[0] & 0xff) == 0xef &&
+				(buffer[1] & 0xff) == 0xbb && (buffer[2] & 0xff) == 0xbf
+			)
+		{
+			position = 3;
+			recordStart = 3;
+			writePosition = 3;
+		}
+	}
+
+	/**
+	 * Keeps the bytes up to the given position as part of the current value.
+	 */
+	private void skipTo(int p)
+	{
+		int count = p - position;
+		if (writePosition != position) {
+			System.arraycopy(buffer, position, buffer, writePosition, count);
+		}
+		writePosition += count;
+		position = p;
+	}
+}
@@ -0,0 +1,323 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.math.BigDecimal;
+
+import java.sql.Types;
+
+import java.text.ParsePosition;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.ColumnConverter
+ * -
+ * Converts the fields of a column into the values to insert.  A converter
+ * is chosen once for each column from its data type by create, rather than
+ * looking at the type for every field.  Converters hold no state of their
+ * own, so one may be used by several threads at once.
+ * <P>
+ * A field which is not in the form a converter expects is returned as a
+ * String for the JDBC driver to convert.  The form is checked before the
+ * field is parsed, so no exception is thrown for it.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 Converters may be created for a JDBC type.</LI>
+ * </UL></P>
+ */
+abstract class ColumnConverter
+{
+	// CONSTANTS
+
+	/**
+	 * Dates in ISO 8601 form, which are accepted whatever the date pattern.
+	 */
+	private static final DateTimeFormatter ISO_DATE =
+		DateTimeFormatter.ISO_LOCAL_DATE;
+
+	/**
+	 * Timestamps in ISO 8601 form, with a T or a space between the date and
+	 * the time.  The time may be left off.
+	 */
+	private static final DateTimeFormatter ISO_TIMESTAMP =
+		new DateTimeFormatterBuilder()
+			.append(DateTimeFormatter.ISO_LOCAL_DATE)
+			.optionalStart()
+			.appendPattern("['T'][' ']")
+			.append(DateTimeFormatter.ISO_LOCAL_TIME)
+			.optionalEnd()
+			.toFormatter();
+
+	/**
+	 * Times in ISO 8601 form, which are accepted whatever the time pattern.
+	 */
+	private static final DateTimeFormatter ISO_TIME =
+		DateTimeFormatter.ISO_LOCAL_TIME;
+
+	// METHODS
+
+	/**
+	 * Compiles a user's pattern.  Dates which do not exist, such as
+	 * February 30, are not matched rather than being moved to the nearest
+	 * date which does.  A year of era is taken to be AD unless the pattern
+	 * reads the era.
+	 * @throws IllegalArgumentException indicates the pattern is not valid.
+	 */
+	private static DateTimeFormatter compile(String pattern)
+	{
+		return new DateTimeFormatterBuilder()
+			.appendPattern(pattern)
+			.parseDefaulting(ChronoField.ERA, 1)
+			.toFormatter()
+			.withResolverStyle(ResolverStyle.STRICT);
+	}
+
+	/**
+	 * Converts a field which is not blank.
+	 */
+	abstract Object convert(RowBlock block, int row, int field);
+
+	/**
+	 * Creates the converter for a column.
+	 * @param column The column.
+	 * @param dataImport The import, whose patterns are used for dates and
+	 *                   times.
+	 * @throws IllegalArgumentException indicates one of the import's
+	 *                                  patterns is not valid.
+	 */
+	static ColumnConverter create(ImportColumn column, DataImport dataImport)
+	{
+		return create(column.getDataType().getJDBCType(), dataImport);
+	}
+
+	/**
+	 * Creates the converter for a JDBC type.
+	 * @param jdbcType A constant of java.sql.Types.
+	 * @param dataImport The import, whose patterns are used for dates and
+	 *                   times.
+	 * @throws IllegalArgumentException indicates one of the import's
+	 *                                  patterns is not valid.
+	 */
+	static ColumnConverter create(int jdbcType, DataImport dataImport)
+	{
+		switch (jdbcType) {
+		case Types.BIGINT:
+		case Types.INTEGER:
+		case Types.SMALLINT:
+		case Types.TINYINT:
+			return new WholeNumberConverter();
+		case Types.DECIMAL:
+		case Types.NUMERIC:
+			return new DecimalConverter(true);
+		case Types.DOUBLE:
+		case Types.FLOAT:
+		case Types.REAL:
+			return new DecimalConverter(false);
+		case Types.BIT:
+		case Types.BOOLEAN:
+			return new BooleanConverter();
+		case Types.DATE:
+			return new TemporalConverter(
+					Types.DATE,
+					compile(dataImport.getDatePattern()),
+					ISO_DATE
+				);
+		case Types.TIME:
+			return new TemporalConverter(
+					Types.TIME,
+					compile(dataImport.getTimePattern()),
+					ISO_TIME
+				);
+		case Types.TIMESTAMP:
+			return new TemporalConverter(
+					Types.TIMESTAMP,
+					compile(dataImport.getTimestampPattern()),
+					ISO_TIMESTAMP
+				);
+		default:
+			return new StringConverter();
+		}
+	}
+
+	/**
+	 * Converts true, false, yes, no, 1 and 0 to Booleans.
+	 */
+	private static class BooleanConverter extends ColumnConverter
+	{
+		Object convert(RowBlock block, int row, int field)
+		{
+			String s = block.getTrimmedString(row, field);
+			if (
+					s.equalsIgnoreCase("true") || s.equalsIgnoreCase("yes") ||
+					s.equals("1")
+				)
+			{
+				return Boolean.TRUE;
+			} else if (
+					s.equalsIgnoreCase("false") || s.equalsIgnoreCase("no") ||
+					s.equals("0")
+				)
+			{
+				return Boolean.FALSE;
+			}
+			// Let the JDBC driver do what it can.
+			return s;
+		}
+	}
+
+	/**
+	 * Converts numbers with fractions to BigDecimals or Doubles.
+	 */
+	private static class DecimalConverter extends ColumnConverter
+	{
+		DecimalConverter(boolean exact)
+		{
+			super();
+			this.exact = exact;
+		}
+
+		private boolean exact;
+
+		Object convert(RowBlock block, int row, int field)
+		{
+			if (block.isWholeNumber(row, field)) {
+				long l = block.getLong(row, field);
+				return exact ?
+					(Object)BigDecimal.valueOf(l) : (Object)Double.valueOf(l);
+			}
+			String s = block.getTrimmedString(row, field);
+			if (block.isDecimalNumber(row, field)) {
+				return exact ? (Object)new BigDecimal(s) : (Object)Double.valueOf(s);
+			}
+			// Let the JDBC driver do what it can.
+			return s;
+		}
+	}
+
+	/**
+	 * Leaves the field as a String.
+	 */
+	private static class StringConverter extends ColumnConverter
+	{
+		Object convert(RowBlock block, int row, int field)
+		{
+			// Let the JDBC driver do what it can.
+			return block.getString(row, field);
+		}
+	}
+
+	/**
+	 * Converts dates, times and timestamps to java.sql.Dates, Times and
+	 * Timestamps.
+	 */
+	private static class TemporalConverter extends ColumnConverter
+	{
+		/**
+		 * @param jdbcType Types.DATE, Types.TIME or Types.TIMESTAMP.
+		 * @param formatter The formatter for the user's pattern.
+		 * @param isoFormatter The formatter tried when the user's does not
+		 *                     match.
+		 */
+		TemporalConverter(
+				int jdbcType, DateTimeFormatter formatter,
+				DateTimeFormatter isoFormatter
+			)
+		{
+			super();
+			this.formatters = new DateTimeFormatter[] {formatter, isoFormatter};
+			this.jdbcType = jdbcType;
+		}
+
+		private DateTimeFormatter[] formatters;
+		private int jdbcType;
+
+		Object convert(RowBlock block, int row, int field)
+		{
+			String s = block.getTrimmedString(row, field);
+			for (int i = 0; i < formatters.length; i++) {
+				// Check the form without the exception parse throws.
+				ParsePosition position = new ParsePosition(0);
+				if (
+						formatters[i].parseUnresolved(s, position) == null ||
+						position.getIndex() < s.length()
+					)
+				{
+					continue;
+				}
+				TemporalAccessor parsed;
+				try {
+					parsed = formatters[i].parse(s);
+				} catch (DateTimeParseException dtpe) {
+					// In the right form, but not a real date or time.
+					continue;
+				}
+				LocalDate date = parsed.query(TemporalQueries.localDate());
+				LocalTime time = parsed.query(TemporalQueries.localTime());
+				switch (jdbcType) {
+				case Types.DATE:
+					if (date != null) {
+						return java.sql.Date.valueOf(date);
+					}
+					break;
+				case Types.TIME:
+					if (time != null) {
+						return java.sql.Time.valueOf(time);
+					}
+					break;
+				default:
+					if (date != null) {
+						return java.sql.Timestamp.valueOf(
+								date.atTime(time == null ? LocalTime.MIDNIGHT : time)
+							);
+					}
+				}
+			}
+			// Let the JDBC driver do what it can.
+			return s;
+		}
+	}
+
+	/**
+	 * Converts whole numbers to Longs, reading them straight from the bytes.
+	 */
+	private static class WholeNumberConverter extends ColumnConverter
+	{
+		Object convert(RowBlock block, int row, int field)
+		{
+			if (block.isWholeNumber(row, field)) {
+				return Long.valueOf(block.getLong(row, field));
+			}
+			// Let the JDBC driver do what it can.
+			return block.getString(row, field);
+		}
+	}
+}
@@ -0,0 +1,561 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.sql.Types;
+
+import us.pcsw.dbbrowser.cp.DataType;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.ColumnProfile
+ * -
+ * What is known of a column's data from a sample of it: whether it has
+ * blank fields, its longest field, the precision and scale of its numbers
+ * and whether all of its fields are whole numbers, decimal numbers,
+ * booleans, dates, times or timestamps.  Fields are tested with the
+ * converters the import would use, so a column is only taken to hold dates
+ * if the import's date pattern or ISO 8601 reads them.  The profiles of
+ * the parts of a file read at once are merged.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 A column of numbers written with leading zeros, such as
+ *                  zip codes or account numbers, is text.</LI>
+ * </UL></P>
+ */
+public class ColumnProfile
+{
+	// CONSTANTS
+
+	/**
+	 * The JDBC types tried for each type a column may be inferred to be, in
+	 * the order they are tried.
+	 */
+	private static final int[] BIGINT_TYPES =
+		{Types.BIGINT, Types.NUMERIC, Types.DECIMAL};
+	private static final int[] BOOLEAN_TYPES = {Types.BOOLEAN, Types.BIT};
+	private static final int[] DATE_TYPES = {Types.DATE, Types.TIMESTAMP};
+	private static final int[] DECIMAL_TYPES =
+		{Types.DECIMAL, Types.NUMERIC, Types.DOUBLE, Types.FLOAT};
+	private static final int[] DOUBLE_TYPES = {Types.DOUBLE, Types.FLOAT};
+	private static final int[] INTEGER_TYPES =
+		{Types.INTEGER, Types.BIGINT, Types.NUMERIC, Types.DECIMAL};
+	private static final int[] SMALLINT_TYPES =
+		{Types.SMALLINT, Types.INTEGER, Types.BIGINT, Types.NUMERIC, Types.DECIMAL};
+	private static final int[] STRING_TYPES =
+		{Types.VARCHAR, Types.LONGVARCHAR, Types.CLOB};
+	private static final int[] TIME_TYPES = {Types.TIME};
+	private static final int[] TIMESTAMP_TYPES = {Types.TIMESTAMP};
+
+	/**
+	 * The positions of the converters in the array returned by
+	 * createConverters.
+	 */
+	private static final int BOOLEAN_CONVERTER = 0;
+	private static final int DATE_CONVERTER = 1;
+	private static final int TIME_CONVERTER = 2;
+	private static final int TIMESTAMP_CONVERTER = 3;
+
+	// CONSTRUCTORS
+
+	ColumnProfile()
+	{
+		super();
+	}
+
+	// MEMBERS
+
+	private long blankCount = 0;
+	private boolean bool = true;
+	private boolean complete = false;
+	private boolean date = true;
+	private boolean decimalNumber = true;
+	/**
+	 * Whether a decimal number was written with an exponent.
+	 */
+	private boolean exponent = false;
+	/**
+	 * The most digits before the decimal point, leading zeros aside.
+	 */
+	private int integerDigits = 0;
+	/**
+	 * Whether a number was written with a leading zero, such as 007.
+	 */
+	private boolean leadingZero = false;
+	private int maxLength = 0;
+	private long maxValue = Long.MIN_VALUE;
+	private long minValue = Long.MAX_VALUE;
+	/**
+	 * The most digits after the decimal point.
+	 */
+	private int scale = 0;
+	private boolean time = true;
+	private boolean timestamp = true;
+	private long valueCount = 0;
+	private boolean wholeNumber = true;
+
+	// METHODS
+
+	/**
+	 * Adds a field which is not blank to the profile.
+	 * @param converters The converters returned by createConverters.
+	 */
+	void add(RowBlock block, int row, int field, ColumnConverter[] converters)
+	{
+		valueCount++;
+		maxLength = Math.max(maxLength, block.getString(row, field).length());
+		if (! leadingZero && (wholeNumber || decimalNumber)) {
+			leadingZero = hasLeadingZero(block.getTrimmedString(row, field));
+		}
+		if (wholeNumber) {
+			if (block.isWholeNumber(row, field)) {
+				long l = block.getLong(row, field);
+				minValue = Math.min(minValue, l);
+				maxValue = Math.max(maxValue, l);
+			} else {
+				wholeNumber = false;
+			}
+		}
+		if (decimalNumber) {
+			if (block.isDecimalNumber(row, field)) {
+				addDigits(block.getTrimmedString(row, field));
+			} else {
+				decimalNumber = false;
+			}
+		}
+		// The converters return the field as a String if they can't read it.
+		if (bool) {
+			bool = converters[BOOLEAN_CONVERTER].convert(block, row, field)
+				instanceof Boolean;
+		}
+		if (date) {
+			date = converters[DATE_CONVERTER].convert(block, row, field)
+				instanceof java.sql.Date;
+		}
+		if (time) {
+			time = converters[TIME_CONVERTER].convert(block, row, field)
+				instanceof java.sql.Time;
+		}
+		if (timestamp) {
+			timestamp = converters[TIMESTAMP_CONVERTER].convert(block, row, field)
+				instanceof java.sql.Timestamp;
+		}
+	}
+
+	/**
+	 * Adds fields which are blank, or missing from short records, to the
+	 * profile.
+	 */
+	void addBlanks(long count)
+	{
+		blankCount += count;
+	}
+
+	/**
+	 * Counts the digits of a decimal number before and after its point.
+	 */
+	private void addDigits(String s)
+	{
+		int i = 0;
+		if (i < s.length() && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+			i++;
+		}
+		while (i < s.length() - 1 && s.charAt(i) == '0') {
+			i++;
+		}
+		int digits = 0;
+		while (i < s.length() && Character.isDigit(s.charAt(i))) {
+			digits++;
+			i++;
+		}
+		if (digits == 1 && s.charAt(i - 1) == '0') {
+			// Zero has no digits before the point.
+			digits = 0;
+		}
+		integerDigits = Math.max(integerDigits, digits);
+		if (i < s.length() && s.charAt(i) == '.') {
+			i++;
+			digits = 0;
+			while (i < s.length() && Character.isDigit(s.charAt(i))) {
+				digits++;
+				i++;
+			}
+			scale = Math.max(scale, digits);
+		}
+		if (i < s.length()) {
+			exponent = true;
+		}
+	}
+
+	/**
+	 * Creates the converters used to test the fields of a column.
+	 * @throws IllegalArgumentException indicates one of the import's
+	 *                                  patterns is not valid.
+	 */
+	static ColumnConverter[] createConverters(DataImport dataImport)
+	{
+		ColumnConverter[] converters = new ColumnConverter[4];
+		converters[BOOLEAN_CONVERTER] =
+			ColumnConverter.create(Types.BOOLEAN, dataImport);
+		converters[DATE_CONVERTER] =
+			ColumnConverter.create(Types.DATE, dataImport);
+		converters[TIME_CONVERTER] =
+			ColumnConverter.create(Types.TIME, dataImport);
+		converters[TIMESTAMP_CONVERTER] =
+			ColumnConverter.create(Types.TIMESTAMP, dataImport);
+		return converters;
+	}
+
+	/**
+	 * Creates a column of the type among the data types which best holds
+	 * the data profiled, sized to hold the longest field and the largest
+	 * number.  A column which no other type suits is a VARCHAR, or a
+	 * LONGVARCHAR or CLOB if its fields are too long for a VARCHAR.  The
+	 * column is not nullable only if the whole of the data was profiled and
+	 * no field was blank.
+	 * @param columnName The name of the column.
+	 * @param dataTypes The data types of the database, from
+	 *                  ConnectionProvider.getDataTypes.
+	 * @return The column, or null if none of the data types holds the
+	 *         data.
+	 */
+	public ImportColumn createImportColumn(
+			String columnName, DataType[] dataTypes
+		)
+	{
+		int[] jdbcTypes;
+		switch (getJDBCType()) {
+		case Types.BIGINT:
+			jdbcTypes = BIGINT_TYPES;
+			break;
+		case Types.BOOLEAN:
+			jdbcTypes = BOOLEAN_TYPES;
+			break;
+		case Types.DATE:
+			jdbcTypes = DATE_TYPES;
+			break;
+		case Types.DECIMAL:
+			jdbcTypes = DECIMAL_TYPES;
+			break;
+		case Types.DOUBLE:
+			jdbcTypes = DOUBLE_TYPES;
+			break;
+		case Types.INTEGER:
+			jdbcTypes = INTEGER_TYPES;
+			break;
+		case Types.SMALLINT:
+			jdbcTypes = SMALLINT_TYPES;
+			break;
+		case Types.TIME:
+			jdbcTypes = TIME_TYPES;
+			break;
+		case Types.TIMESTAMP:
+			jdbcTypes = TIMESTAMP_TYPES;
+			break;
+		default:
+			jdbcTypes = STRING_TYPES;
+		}
+		ImportColumn column = createImportColumn(columnName, dataTypes, jdbcTypes);
+		if (column == null && jdbcTypes != STRING_TYPES) {
+			column = createImportColumn(columnName, dataTypes, STRING_TYPES);
+		}
+		if (column != null) {
+			column.setNullable(isNullable());
+		}
+		return column;
+	}
+
+	/**
+	 * Creates a column of the first of the JDBC types which one of the data
+	 * types has and which holds the data.
+	 * @return The column, or null if none of the data types holds the
+	 *         data.
+	 */
+	private ImportColumn createImportColumn(
+			String columnName, DataType[] dataTypes, int[] jdbcTypes
+		)
+	{
+		for (int i = 0; i < jdbcTypes.length; i++) {
+			int precision;
+			int columnScale = 0;
+			switch (jdbcTypes[i]) {
+			case Types.BIGINT:
+			case Types.DECIMAL:
+			case Types.DOUBLE:
+			case Types.FLOAT:
+			case Types.INTEGER:
+			case Types.NUMERIC:
+			case Types.SMALLINT:
+				precision = Math.max(1, getPrecision());
+				columnScale = scale;
+				break;
+			case Types.BIT:
+			case Types.BOOLEAN:
+				precision = 1;
+				break;
+			default:
+				precision = Math.max(1, maxLength);
+			}
+			for (int j = 0; j < dataTypes.length; j++) {
+				DataType dt = dataTypes[j];
+				if (dt.getJDBCType() != jdbcTypes[i] || dt.isAutoIncrement()) {
+					continue;
+				}
+				Boolean b = dt.isPrecisionRequired();
+				if (
+						b != null && b.booleanValue() &&
+						dt.getMaxPrecision() > 0 && precision > dt.getMaxPrecision()
+					)
+				{
+					// Too small for the data.
+					continue;
+				}
+				Integer maxScale = dt.getMaximumScale();
+				if (maxScale != null && columnScale > maxScale.intValue()) {
+					continue;
+				}
+				return new ImportColumn(columnName, dt, precision, columnScale);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the number of fields which were blank or missing.
+	 */
+	public long getBlankCount()
+	{
+		return blankCount;
+	}
+
+	/**
+	 * Returns the JDBC type which best holds the data profiled: SMALLINT,
+	 * INTEGER or BIGINT for whole numbers, DECIMAL for other numbers, or
+	 * DOUBLE if they have exponents, then BOOLEAN, DATE, TIME, TIMESTAMP
+	 * and, for anything else or a column of blank fields, VARCHAR.  Numbers
+	 * with leading zeros are VARCHAR, so that the zeros are kept.
+	 */
+	public int getJDBCType()
+	{
+		if (valueCount == 0) {
+			return Types.VARCHAR;
+		} else if (leadingZero && (wholeNumber || decimalNumber)) {
+			return Types.VARCHAR;
+		} else if (wholeNumber) {
+			if (minValue >= Short.MIN_VALUE && maxValue <= Short.MAX_VALUE) {
+				return Types.SMALLINT;
+			} else if (
+					minValue >= Integer.MIN_VALUE && maxValue <= Integer.MAX_VALUE
+				)
+			{
+				return Types.INTEGER;
+			}
+			return Types.BIGINT;
+		} else if (decimalNumber) {
+			return exponent ? Types.DOUBLE : Types.DECIMAL;
+		} else if (bool) {
+			return Types.BOOLEAN;
+		} else if (date) {
+			return Types.DATE;
+		} else if (time) {
+			return Types.TIME;
+		} else if (timestamp) {
+			return Types.TIMESTAMP;
+		}
+		return Types.VARCHAR;
+	}
+
+	/**
+	 * Returns the length of the longest field, in characters.
+	 */
+	public int getMaxLength()
+	{
+		return maxLength;
+	}
+
+	/**
+	 * Returns the largest whole number, if isWholeNumber.
+	 */
+	public long getMaxValue()
+	{
+		return maxValue;
+	}
+
+	/**
+	 * Returns the smallest whole number, if isWholeNumber.
+	 */
+	public long getMinValue()
+	{
+		return minValue;
+	}
+
+	/**
+	 * Returns the number of digits needed to hold the numbers, if
+	 * isDecimalNumber.
+	 */
+	public int getPrecision()
+	{
+		return integerDigits + scale;
+	}
+
+	/**
+	 * Returns the most digits after the decimal point of the numbers, if
+	 * isDecimalNumber.
+	 */
+	public int getScale()
+	{
+		return scale;
+	}
+
+	/**
+	 * Returns the number of fields which were not blank.
+	 */
+	public long getValueCount()
+	{
+		return valueCount;
+	}
+
+	/**
+	 * Indicates whether a number was written with a leading zero, which
+	 * would be lost if the column were numeric.  Zero itself, and a zero
+	 * before a decimal point, are not leading zeros.
+	 */
+	public boolean hasLeadingZeros()
+	{
+		return leadingZero;
+	}
+
+	/**
+	 * Returns whether the field starts with a zero followed by another
+	 * digit, after any sign.
+	 */
+	private static boolean hasLeadingZero(String s)
+	{
+		int i = 0;
+		if (i < s.length() && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+			i++;
+		}
+		return i + 1 < s.length() && s.charAt(i) == '0' &&
+			Character.isDigit(s.charAt(i + 1));
+	}
+
+	/**
+	 * Indicates whether every field which is not blank is true, false, yes,
+	 * no, 1 or 0.
+	 */
+	public boolean isBoolean()
+	{
+		return bool;
+	}
+
+	/**
+	 * Indicates whether the whole of the data was profiled rather than a
+	 * sample of it.
+	 */
+	public boolean isComplete()
+	{
+		return complete;
+	}
+
+	/**
+	 * Indicates whether every field which is not blank is a date in the
+	 * import's date pattern or in ISO 8601 form.
+	 */
+	public boolean isDate()
+	{
+		return date;
+	}
+
+	/**
+	 * Indicates whether every field which is not blank is a number.
+	 */
+	public boolean isDecimalNumber()
+	{
+		return decimalNumber;
+	}
+
+	/**
+	 * Indicates whether the column may hold blank fields: whether a blank
+	 * field was found, or only a sample of the data was profiled.
+	 */
+	public boolean isNullable()
+	{
+		return blankCount > 0 || ! complete;
+	}
+
+	/**
+	 * Indicates whether every field which is not blank is a time in the
+	 * import's time pattern or in ISO 8601 form.
+	 */
+	public boolean isTime()
+	{
+		return time;
+	}
+
+	/**
+	 * Indicates whether every field which is not blank is a timestamp in
+	 * the import's timestamp pattern or in ISO 8601 form.
+	 */
+	public boolean isTimestamp()
+	{
+		return timestamp;
+	}
+
+	/**
+	 * Indicates whether every field which is not blank is a whole number in
+	 * the range of a long.
+	 */
+	public boolean isWholeNumber()
+	{
+		return wholeNumber;
+	}
+
+	/**
+	 * Adds the profile of another part of the same column to this one.
+	 */
+	void merge(ColumnProfile profile)
+	{
+		blankCount += profile.blankCount;
+		bool = bool && profile.bool;
+		date = date && profile.date;
+		decimalNumber = decimalNumber && profile.decimalNumber;
+		exponent = exponent || profile.exponent;
+		integerDigits = Math.max(integerDigits, profile.integerDigits);
+		leadingZero = leadingZero || profile.leadingZero;
+		maxLength = Math.max(maxLength, profile.maxLength);
+		maxValue = Math.max(maxValue, profile.maxValue);
+		minValue = Math.min(minValue, profile.minValue);
+		scale = Math.max(scale, profile.scale);
+		time = time && profile.time;
+		timestamp = timestamp && profile.timestamp;
+		valueCount += profile.valueCount;
+		wholeNumber = wholeNumber && profile.wholeNumber;
+	}
+
+	/**
+	 * Sets whether the whole of the data was profiled.
+	 */
+	void setComplete(boolean complete)
+	{
+		this.complete = complete;
+	}
+}
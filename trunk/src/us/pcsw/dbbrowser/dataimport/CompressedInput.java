@@ -0,0 +1,128 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.ByteBuffer;
+
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.CompressedInput
+ * -
+ * Recognizes gzip and zip data by its first bytes, so that compressed
+ * files are read as they are decompressed rather than being decompressed
+ * to disk first.  Only the first file in a zip file is read.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+final class CompressedInput
+{
+	// CONSTANTS
+
+	/**
+	 * The size of the buffer gzip data is inflated through.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	// CONSTRUCTORS
+
+	private CompressedInput()
+	{
+		super();
+	}
+
+	// METHODS
+
+	/**
+	 * Returns the data a stream holds.
+	 * @return The stream itself if its data is not compressed, or a stream
+	 *         which decompresses it.  A stream which is not a file is
+	 *         buffered to look at its first bytes.
+	 * @throws IOException indicates the data could not be read, or is a zip
+	 *                     file with no files in it.
+	 */
+	static InputStream open(InputStream in)
+		throws IOException
+	{
+		byte[] magic = new byte[4];
+		int count;
+		if (in instanceof FileInputStream) {
+			// Look without moving the file's position, so that the stream
+			// may still be split into ranges if it is not compressed.
+			FileInputStream fis = (FileInputStream)in;
+			ByteBuffer buffer = ByteBuffer.wrap(magic);
+			long position = fis.getChannel().position();
+			while (
+					buffer.hasRemaining() &&
+					fis.getChannel().read(buffer, position + buffer.position()) > 0
+				)
+			{
+				// Read until there are enough bytes to check.
+			}
+			count = buffer.position();
+		} else {
+			if (! in.markSupported()) {
+				in = new BufferedInputStream(in);
+			}
+			in.mark(magic.length);
+			count = 0;
+			int n;
+			while (
+					count < magic.length &&
+					(n = in.read(magic, count, magic.length - count)) > 0
+				)
+			{
+				count += n;
+			}
+			in.reset();
+		}
+		if (count >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+			return new GZIPInputStream(in, BUFFER_SIZE);
+		}
+		if (
+				count == 4 && magic[0] == 'P' && magic[1] == 'K' &&
+				magic[2] == 3 && magic[3] == 4
+			)
+		{
+			ZipInputStream zis = new ZipInputStream(
+					new BufferedInputStream(in, BUFFER_SIZE)
+				);
+			ZipEntry entry;
+			while ((entry = zis.getNextEntry()) != null) {
+				if (! entry.isDirectory()) {
+					return zis;
+				}
+			}
+			throw new IOException("The zip file has no files in it.");
+		}
+		return in;
+	}
+}
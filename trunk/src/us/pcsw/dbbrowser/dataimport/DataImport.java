@@ -21,6 +21,7 @@
  */
 package us.pcsw.dbbrowser.dataimport;
 
+import java.io.File;
 import java.io.InputStream;
 import java.io.IOException;
 
@@ -28,6 +29,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
+import java.time.format.DateTimeFormatter;
+
 import java.util.LinkedList;
 import java.util.List;
 
@@ -41,11 +44,87 @@ import us.pcsw.dbbrowser.cp.ConnectionProvider;
  *
  * <P><B>Revision History:</B><UL>
  * <LI>Mar 10, 2005 This class was created by pchapman.</LI>
+ * <LI>Oct 18, 2026 Added the batch size and commit interval.</LI>
+ * <LI>Oct 18, 2026 Added the parallelism.</LI>
+ * <LI>Oct 18, 2026 Added the bulk load option.</LI>
+ * <LI>Oct 18, 2026 Added the date, time and timestamp patterns.</LI>
+ * <LI>Oct 18, 2026 Added the checkpoint file and resuming.</LI>
+ * <LI>Oct 18, 2026 Added the error policy, maximum errors and reject
+ *                  file.</LI>
+ * <LI>Oct 18, 2026 Events are passed on with their progress measures.</LI>
+ * <LI>Oct 18, 2026 Added profileData, and columns which are not nullable
+ *                  are created NOT NULL.</LI>
+ * <LI>Oct 18, 2026 Added getFieldNames.</LI>
  * </UL></P>
  */
 public abstract class DataImport extends Object
 {
+	/**
+	 * The default number of rows sent to the server at a time.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	/**
+	 * The default number of rows inserted between commits.
+	 */
+	public static final int DEFAULT_COMMIT_INTERVAL = 10000;
+
+	/**
+	 * The default number of rows which may be skipped or rejected before the
+	 * import stops.
+	 */
+	public static final int DEFAULT_MAX_ERRORS = 1000;
+
+	/**
+	 * The default pattern dates are read with: month/day/year, with a two
+	 * or four digit year.
+	 */
+	public static final String DEFAULT_DATE_PATTERN = "M/d/[yyyy][yy]";
+
+	/**
+	 * The default pattern times are read with: a 12 hour time with AM or PM,
+	 * or a 24 hour time.
+	 */
+	public static final String DEFAULT_TIME_PATTERN = "[h:mm[:ss] a][H:mm[:ss]]";
+
+	/**
+	 * The default pattern timestamps are read with: a date as in
+	 * DEFAULT_DATE_PATTERN, optionally followed by a time as in
+	 * DEFAULT_TIME_PATTERN.
+	 */
+	public static final String DEFAULT_TIMESTAMP_PATTERN =
+		"M/d/[yyyy][yy][ [h:mm[:ss] a][H:mm[:ss]]]";
+
+	/**
+	 * The import stops at the first row which can't be inserted.  Values
+	 * which can't be converted are reported and inserted as NULL.
+	 */
+	public static final int ERROR_POLICY_ABORT = 0;
+
+	/**
+	 * Rows which can't be converted or inserted are reported and skipped.
+	 */
+	public static final int ERROR_POLICY_SKIP = 1;
+
+	/**
+	 * Rows which can't be converted or inserted are skipped and written to
+	 * the reject file with the reason.
+	 */
+	public static final int ERROR_POLICY_REJECT = 2;
+
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private boolean bulkLoadAllowed = true;
+	private File checkpointFile = null;
+	private int commitInterval = DEFAULT_COMMIT_INTERVAL;
+	private String datePattern = DEFAULT_DATE_PATTERN;
+	private int errorPolicy = ERROR_POLICY_ABORT;
 	protected List importListeners = new LinkedList();
+	private int maxErrors = DEFAULT_MAX_ERRORS;
+	private int parallelism = 1;
+	private File rejectFile = null;
+	private boolean resuming = false;
+	private String timePattern = DEFAULT_TIME_PATTERN;
+	private String timestampPattern = DEFAULT_TIMESTAMP_PATTERN;
 	
 	/**
 	 * Adds a listener to the list of listeners to be notified of an
@@ -138,12 +217,154 @@ public abstract class DataImport extends Object
 					}
 					sb.append(')');
 				}
+				if (! columns[i].isNullable()) {
+					sb.append(" NOT NULL");
+				}
 			}
 		}
 		sb.append(')');
 		return sb.toString();
 	}
 	
+	/**
+	 * Returns the names of the fields of a record, in the order of the
+	 * columns, for formats in which the records name their fields.
+	 * @return The names, or null if the records don't name their fields or
+	 *         the names are not yet known.
+	 */
+	public String[] getFieldNames()
+	{
+		return null;
+	}
+
+	/**
+	 * Returns the number of rows sent to the server at a time.  A batch size
+	 * of 1 inserts each row as it is read.
+	 */
+	public int getBatchSize()
+	{
+		return batchSize;
+	}
+
+	/**
+	 * Returns the file the import's progress is recorded in as rows are
+	 * committed, or null if it is not recorded.
+	 */
+	public File getCheckpointFile()
+	{
+		return checkpointFile;
+	}
+
+	/**
+	 * Returns the number of rows inserted between commits.  0 indicates that
+	 * the data is committed once the import is complete.
+	 */
+	public int getCommitInterval()
+	{
+		return commitInterval;
+	}
+
+	/**
+	 * Returns the pattern dates are read with.  Dates in ISO 8601 form are
+	 * read as well.
+	 * @see java.time.format.DateTimeFormatter
+	 */
+	public String getDatePattern()
+	{
+		return datePattern;
+	}
+
+	/**
+	 * Returns the file in which the progress of importing a data file is
+	 * recorded by default: the data file's name followed by ".checkpoint".
+	 */
+	public static File getDefaultCheckpointFile(File dataFile)
+	{
+		return new File(dataFile.getPath() + ".checkpoint");
+	}
+
+	/**
+	 * Returns the file in which the rows of a data file which can't be
+	 * imported are written by default: the data file's name followed by
+	 * ".rejected".
+	 */
+	public static File getDefaultRejectFile(File dataFile)
+	{
+		return new File(dataFile.getPath() + ".rejected");
+	}
+
+	/**
+	 * Returns what is done with rows which can't be imported.
+	 * @return One of the ERROR_POLICY constants.
+	 */
+	public int getErrorPolicy()
+	{
+		return errorPolicy;
+	}
+
+	/**
+	 * Returns the number of rows which may be skipped or rejected before the
+	 * import stops.  0 indicates there is no limit.
+	 */
+	public int getMaxErrors()
+	{
+		return maxErrors;
+	}
+
+	/**
+	 * Returns the most connections the data may be loaded over at once.
+	 */
+	public int getParallelism()
+	{
+		return parallelism;
+	}
+
+	/**
+	 * Returns the file rejected rows are written to, or null.
+	 */
+	public File getRejectFile()
+	{
+		return rejectFile;
+	}
+
+	/**
+	 * Returns the pattern times are read with.  Times in ISO 8601 form are
+	 * read as well.
+	 * @see java.time.format.DateTimeFormatter
+	 */
+	public String getTimePattern()
+	{
+		return timePattern;
+	}
+
+	/**
+	 * Returns the pattern timestamps are read with.  Timestamps in ISO 8601
+	 * form are read as well.
+	 * @see java.time.format.DateTimeFormatter
+	 */
+	public String getTimestampPattern()
+	{
+		return timestampPattern;
+	}
+
+	/**
+	 * Returns whether the data may be loaded with the database's native bulk
+	 * loader rather than with inserts, when the provider offers one.
+	 */
+	public boolean isBulkLoadAllowed()
+	{
+		return bulkLoadAllowed;
+	}
+
+	/**
+	 * Returns whether the import resumes from its checkpoint file rather
+	 * than starting from the beginning of the data.
+	 */
+	public boolean isResuming()
+	{
+		return resuming;
+	}
+
 	/**
 	 * Imports the data into the table.
 	 * @param provider The provider which will provide the database connection.
@@ -171,10 +392,7 @@ public abstract class DataImport extends Object
 	 */
 	void notifyListeners(ImportEvent event)
 	{
-		ImportEvent e2 = new ImportEvent(
-				this, event.getRowCount(), event.getCurrentRow(),
-				event.getMessage(), event.getEventType()
-			);
+		ImportEvent e2 = new ImportEvent(this, event);
 		ImportListener[] listeners = null;
 		synchronized (importListeners) {
 			listeners = new ImportListener[importListeners.size()];
@@ -185,6 +403,21 @@ public abstract class DataImport extends Object
 		}
 	}
 	
+	/**
+	 * Profiles the columns of the data in a file, so that the columns of a
+	 * new table may be chosen from it with ColumnProfile.createImportColumn.
+	 * @param file The file.
+	 * @param sampleSize The number of bytes at the start of the file to
+	 *                   profile, or 0 to profile the whole file.
+	 * @param skipFirstRow Whether the first row is column headers.
+	 * @return The profile of each column.
+	 * @throws IllegalArgumentException indicates one of the date and time
+	 *                                  patterns is not valid.
+	 */
+	public abstract ColumnProfile[] profileData(
+			File file, long sampleSize, boolean skipFirstRow
+		) throws IOException;
+
 	/**
 	 * Removes the listener from the list to be notified of ImportEvents.
 	 * @param listener The listner.
@@ -204,4 +437,140 @@ public abstract class DataImport extends Object
 	 */
 	public abstract String[][] sampleData(InputStream iStream, int rowCount)
 		throws IOException;
+
+	/**
+	 * Sets the number of rows sent to the server at a time.  Values less than
+	 * 1 are treated as 1.
+	 */
+	public void setBatchSize(int batchSize)
+	{
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	/**
+	 * Sets whether the data may be loaded with the database's native bulk
+	 * loader rather than with inserts, when the provider offers one.
+	 */
+	public void setBulkLoadAllowed(boolean bulkLoadAllowed)
+	{
+		this.bulkLoadAllowed = bulkLoadAllowed;
+	}
+
+	/**
+	 * Sets the file the import's progress is recorded in as rows are
+	 * committed, so that an import which stops can be resumed.  The file is
+	 * deleted once the import completes.  Subclasses which can't resume an
+	 * import ignore it.
+	 * @param checkpointFile The file, or null if progress is not recorded.
+	 */
+	public void setCheckpointFile(File checkpointFile)
+	{
+		this.checkpointFile = checkpointFile;
+	}
+
+	/**
+	 * Sets the number of rows inserted between commits.  0 indicates that the
+	 * data is committed once the import is complete.  Negative values are
+	 * treated as 0.
+	 */
+	public void setCommitInterval(int commitInterval)
+	{
+		this.commitInterval = Math.max(0, commitInterval);
+	}
+
+	/**
+	 * Sets the pattern dates are read with.
+	 * @throws IllegalArgumentException indicates the pattern is not valid.
+	 * @see java.time.format.DateTimeFormatter
+	 */
+	public void setDatePattern(String datePattern)
+	{
+		DateTimeFormatter.ofPattern(datePattern);
+		this.datePattern = datePattern;
+	}
+
+	/**
+	 * Sets what is done with rows which can't be imported.
+	 * @param errorPolicy One of the ERROR_POLICY constants.
+	 * @throws IllegalArgumentException indicates the policy is not one of
+	 *                                  the constants.
+	 */
+	public void setErrorPolicy(int errorPolicy)
+	{
+		if (
+				errorPolicy != ERROR_POLICY_ABORT &&
+				errorPolicy != ERROR_POLICY_SKIP &&
+				errorPolicy != ERROR_POLICY_REJECT
+			)
+		{
+			throw new IllegalArgumentException(
+					"Unknown error policy " + errorPolicy + '.'
+				);
+		}
+		this.errorPolicy = errorPolicy;
+	}
+
+	/**
+	 * Sets the number of rows which may be skipped or rejected before the
+	 * import stops.  0 indicates there is no limit.  Negative values are
+	 * treated as 0.
+	 */
+	public void setMaxErrors(int maxErrors)
+	{
+		this.maxErrors = Math.max(0, maxErrors);
+	}
+
+	/**
+	 * Sets the most connections the data may be loaded over at once.
+	 * Subclasses which can split their input load it in parts at the same
+	 * time when this is greater than 1.  Values less than 1 are treated as 1.
+	 */
+	public void setParallelism(int parallelism)
+	{
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * Sets the file rejected rows are written to when the error policy is
+	 * ERROR_POLICY_REJECT.  The file is only created if a row is rejected.
+	 * Each row is written as a CSV record of its line number, the reason it
+	 * was rejected and its fields.  A resumed import adds to the file.
+	 * @param rejectFile The file, or null to skip the rows instead.
+	 */
+	public void setRejectFile(File rejectFile)
+	{
+		this.rejectFile = rejectFile;
+	}
+
+	/**
+	 * Sets whether the import resumes from its checkpoint file rather than
+	 * starting from the beginning of the data.  The data and the table must
+	 * be those of the import which wrote the checkpoint.
+	 */
+	public void setResuming(boolean resuming)
+	{
+		this.resuming = resuming;
+	}
+
+	/**
+	 * Sets the pattern times are read with.
+	 * @throws IllegalArgumentException indicates the pattern is not valid.
+	 * @see java.time.format.DateTimeFormatter
+	 */
+	public void setTimePattern(String timePattern)
+	{
+		DateTimeFormatter.ofPattern(timePattern);
+		this.timePattern = timePattern;
+	}
+
+	/**
+	 * Sets the pattern timestamps are read with.
+	 * @throws IllegalArgumentException indicates the pattern is not valid.
+	 * @see java.time.format.DateTimeFormatter
+	 */
+	public void setTimestampPattern(String timestampPattern)
+	{
+		DateTimeFormatter.ofPattern(timestampPattern);
+		this.timestampPattern = timestampPattern;
+	}
 }
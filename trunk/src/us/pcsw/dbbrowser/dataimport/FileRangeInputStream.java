@@ -0,0 +1,109 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.FileRangeInputStream
+ * -
+ * Reads a range of bytes of a file.  Reads use the channel's positional read
+ * methods, so several streams may read different ranges of the same channel
+ * at once.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+class FileRangeInputStream extends InputStream
+{
+	// CONSTRUCTORS
+
+	/**
+	 * @param channel The file's channel.  It is not closed by this stream.
+	 * @param start The position of the first byte to read.
+	 * @param end The position after the last byte to read.
+	 */
+	FileRangeInputStream(FileChannel channel, long start, long end)
+	{
+		super();
+		this.channel = channel;
+		this.position = start;
+		this.end = end;
+	}
+
+	// MEMBERS
+
+	private FileChannel channel;
+	private long end;
+	private long position;
+
+	// METHODS
+
+	/**
+	 * @see java.io.InputStream#available()
+	 */
+	public int available()
+	{
+		return (int)Math.min(Integer.MAX_VALUE, end - position);
+	}
+
+	/**
+	 * @see java.io.InputStream#read()
+	 */
+	public int read()
+		throws IOException
+	{
+		byte[] b = new byte[1];
+		return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+	}
+
+	/**
+	 * @see java.io.InputStream#read(byte[], int, int)
+	 */
+	public int read(byte[] b, int off, int len)
+		throws IOException
+	{
+		if (position >= end) {
+			return -1;
+		}
+		len = (int)Math.min(len, end - position);
+		int count = channel.read(ByteBuffer.wrap(b, off, len), position);
+		if (count > 0) {
+			position += count;
+		}
+		return count;
+	}
+
+	/**
+	 * @see java.io.InputStream#skip(long)
+	 */
+	public long skip(long n)
+	{
+		n = Math.max(0, Math.min(n, end - position));
+		position += n;
+		return n;
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.InputStream;
+
+import java.nio.charset.Charset;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.FixedWidthImport
+ * -
+ * Imports data in which each line holds fields of fixed widths, padded
+ * with spaces.  The widths are counted in characters if the platform's
+ * charset is UTF-8, and otherwise in bytes.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+public class FixedWidthImport extends TextImport
+{
+	// CONSTRUCTORS
+
+	/**
+	 * @param fieldWidths The width of each field of a line.
+	 * @throws IllegalArgumentException indicates a width is less than 1.
+	 */
+	public FixedWidthImport(int[] fieldWidths)
+	{
+		super();
+		setFieldWidths(fieldWidths);
+	}
+
+	// MEMBERS
+
+	private int[] fieldWidths;
+
+	// METHODS
+
+	/**
+	 * @see us.pcsw.dbbrowser.dataimport.TextImport#createReader(java.io.InputStream)
+	 */
+	RecordReader createReader(InputStream in)
+	{
+		return new FixedWidthReader(in, Charset.defaultCharset(), fieldWidths);
+	}
+
+	/**
+	 * Returns the width of each field of a line.
+	 */
+	public int[] getFieldWidths()
+	{
+		return fieldWidths.clone();
+	}
+
+	/**
+	 * Quotes are part of the values, so every line break ends a record.
+	 * @see us.pcsw.dbbrowser.dataimport.TextImport#hasQuotedValues()
+	 */
+	boolean hasQuotedValues()
+	{
+		return false;
+	}
+
+	/**
+	 * Sets the width of each field of a line.
+	 * @throws IllegalArgumentException indicates a width is less than 1.
+	 */
+	public void setFieldWidths(int[] fieldWidths)
+	{
+		for (int i = 0; i < fieldWidths.length; i++) {
+			if (fieldWidths[i] < 1) {
+				throw new IllegalArgumentException(
+						"Field " + (i + 1) + " has a width of " + fieldWidths[i] +
+						"; widths must be at least 1."
+					);
+			}
+		}
+		this.fieldWidths = fieldWidths.clone();
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.InputStream;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.FixedWidthReader
+ * -
+ * Splits lines into fields of fixed widths.  The widths are counted in
+ * characters when the data is UTF-8, and in bytes otherwise, so the
+ * charset must otherwise encode each character as one byte.  The spaces
+ * which pad a field are dropped.  A line which is too short for all of the
+ * fields has blank fields at its end, and the bytes past the last field
+ * are ignored.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+class FixedWidthReader extends LineRecordReader
+{
+	// CONSTRUCTORS
+
+	/**
+	 * @param in The data.
+	 * @param charset The charset of the data.
+	 * @param fieldWidths The width of each field.
+	 */
+	FixedWidthReader(InputStream in, Charset charset, int[] fieldWidths)
+	{
+		super(in, charset);
+		this.fieldWidths = fieldWidths;
+		this.utf8 = StandardCharsets.UTF_8.equals(charset);
+	}
+
+	// MEMBERS
+
+	private int[] fieldWidths;
+	private boolean utf8;
+
+	// METHODS
+
+	/**
+	 * @see us.pcsw.dbbrowser.dataimport.LineRecordReader#parseLine(byte[], int, int)
+	 */
+	void parseLine(byte[] b, int start, int end)
+	{
+		int p = start;
+		for (int i = 0; i < fieldWidths.length; i++) {
+			int fieldStart = p;
+			for (int n = 0; n < fieldWidths[i] && p < end; n++) {
+				p++;
+				if (utf8) {
+					// Skip the continuation bytes of the character.
+					while (p < end && (b[p] & 0xc0) == 0x80) {
+						p++;
+					}
+				}
+			}
+			int fieldEnd = p;
+			while (fieldStart < fieldEnd && (b[fieldStart] & 0xff) <= ' ') {
+				fieldStart++;
+			}
+			while (fieldEnd > fieldStart && (b[fieldEnd - 1] & 0xff) <= ' ') {
+				fieldEnd--;
+			}
+			addField(b, fieldStart, fieldEnd);
+		}
+	}
+}
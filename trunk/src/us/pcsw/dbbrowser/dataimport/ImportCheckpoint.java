@@ -0,0 +1,271 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import java.util.Properties;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.ImportCheckpoint
+ * -
+ * Records how much of a file has been committed to the database, so that
+ * an import which stops can be resumed where it left off.  The file is
+ * split into ranges, one for each worker loading it, and for each range the
+ * byte offset and line number after the last committed row are kept.  The
+ * checkpoint is written to its file after every commit.
+ * <P>
+ * The checkpoint is written after the commit, so if the program dies
+ * between the two, resuming inserts the rows of that commit again.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+class ImportCheckpoint
+{
+	// CONSTANTS
+
+	private static final String HEADER = "DBBrowser import checkpoint";
+	private static final String KEY_RANGE = "range.";
+	private static final String KEY_RANGES = "ranges";
+	private static final String KEY_SIZE = "size";
+	private static final String KEY_TABLE = "table";
+
+	// CONSTRUCTORS
+
+	private ImportCheckpoint(File file, String tableName, long size, int rangeCount)
+	{
+		super();
+		this.file = file;
+		this.tableName = tableName;
+		this.size = size;
+		ends = new long[rangeCount];
+		lines = new int[rangeCount];
+		offsets = new long[rangeCount];
+	}
+
+	// MEMBERS
+
+	private boolean deleted = false;
+	private long[] ends;
+	private File file;
+	private int[] lines;
+	private long[] offsets;
+	private long size;
+	private String tableName;
+
+	// METHODS
+
+	/**
+	 * Creates a checkpoint for an import which is starting, and writes it.
+	 * @param file The file to write the checkpoint to.
+	 * @param tableName The table the data is imported into.
+	 * @param size The size of the data file.
+	 * @param ranges Pairs of the position at which each range starts and the
+	 *               number of lines before it, in order.  The last range
+	 *               ends at the end of the file.
+	 * @throws IOException indicates the checkpoint could not be written.
+	 */
+	static ImportCheckpoint create(
+			File file, String tableName, long size, long[][] ranges
+		)
+		throws IOException
+	{
+		ImportCheckpoint checkpoint = new ImportCheckpoint(
+				file, tableName, size, ranges.length
+			);
+		for (int i = 0; i < ranges.length; i++) {
+			checkpoint.offsets[i] = ranges[i][0];
+			checkpoint.lines[i] = (int)ranges[i][1];
+			checkpoint.ends[i] = i + 1 < ranges.length ? ranges[i + 1][0] : size;
+		}
+		checkpoint.store();
+		return checkpoint;
+	}
+
+	/**
+	 * Deletes the checkpoint's file, once the import is complete or can no
+	 * longer be resumed.  The checkpoint is not written again.
+	 */
+	synchronized void delete()
+	{
+		deleted = true;
+		file.delete();
+	}
+
+	/**
+	 * Returns the position at which the range ends.
+	 */
+	long getEnd(int range)
+	{
+		return ends[range];
+	}
+
+	/**
+	 * Returns the number of lines before the range's next row to import.
+	 */
+	synchronized int getLine(int range)
+	{
+		return lines[range];
+	}
+
+	/**
+	 * Returns the position of the range's next row to import.
+	 */
+	synchronized long getOffset(int range)
+	{
+		return offsets[range];
+	}
+
+	/**
+	 * Returns the number of ranges the file is loaded in.
+	 */
+	int getRangeCount()
+	{
+		return offsets.length;
+	}
+
+	/**
+	 * Returns the size of the data file when the import started.
+	 */
+	long getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns the table the data is imported into.
+	 */
+	String getTableName()
+	{
+		return tableName;
+	}
+
+	/**
+	 * Reads a checkpoint written by an earlier import.
+	 * @throws IOException indicates the checkpoint could not be read or is
+	 *                     not valid.
+	 */
+	static ImportCheckpoint load(File file)
+		throws IOException
+	{
+		Properties props = new Properties();
+		InputStream in = new FileInputStream(file);
+		try {
+			props.load(in);
+		} finally {
+			in.close();
+		}
+		try {
+			ImportCheckpoint checkpoint = new ImportCheckpoint(
+					file, props.getProperty(KEY_TABLE),
+					Long.parseLong(props.getProperty(KEY_SIZE)),
+					Integer.parseInt(props.getProperty(KEY_RANGES))
+				);
+			for (int i = 0; i < checkpoint.offsets.length; i++) {
+				// offset,line,end
+				String[] values = props.getProperty(KEY_RANGE + i).split(",");
+				checkpoint.offsets[i] = Long.parseLong(values[0]);
+				checkpoint.lines[i] = Integer.parseInt(values[1]);
+				checkpoint.ends[i] = Long.parseLong(values[2]);
+			}
+			if (checkpoint.tableName == null) {
+				throw new IOException("No table is named.");
+			}
+			return checkpoint;
+		} catch (RuntimeException re) {
+			// A missing or malformed value.
+			IOException ioe = new IOException(
+					"The checkpoint " + file.getPath() + " is not valid."
+				);
+			ioe.initCause(re);
+			throw ioe;
+		}
+	}
+
+	/**
+	 * Writes the checkpoint to its file.  It is written to a temporary file
+	 * which then replaces the old one, so a crash leaves one or the other.
+	 */
+	private void store()
+		throws IOException
+	{
+		Properties props = new Properties();
+		props.setProperty(KEY_TABLE, tableName);
+		props.setProperty(KEY_SIZE, String.valueOf(size));
+		props.setProperty(KEY_RANGES, String.valueOf(offsets.length));
+		for (int i = 0; i < offsets.length; i++) {
+			props.setProperty(
+					KEY_RANGE + i,
+					offsets[i] + "," + lines[i] + "," + ends[i]
+				);
+		}
+		File tempFile = new File(file.getPath() + ".tmp");
+		FileOutputStream out = new FileOutputStream(tempFile);
+		try {
+			props.store(out, HEADER);
+			out.getFD().sync();
+		} finally {
+			out.close();
+		}
+		try {
+			Files.move(
+					tempFile.toPath(), file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE
+				);
+		} catch (AtomicMoveNotSupportedException amnse) {
+			Files.move(
+					tempFile.toPath(), file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING
+				);
+		}
+	}
+
+	/**
+	 * Records that a range's rows have been committed up to a row.  Nothing
+	 * is written once the checkpoint has been deleted.
+	 * @param range The range.
+	 * @param offset The position after the last committed row.
+	 * @param line The number of lines up to and including the last committed
+	 *             row.
+	 * @throws IOException indicates the checkpoint could not be written.
+	 */
+	synchronized void update(int range, long offset, int line)
+		throws IOException
+	{
+		if (! deleted && offsets[range] != offset) {
+			offsets[range] = offset;
+			lines[range] = line;
+			store();
+		}
+	}
+}
@@ -30,6 +30,7 @@ import us.pcsw.dbbrowser.cp.DataType;
  *
  * <P><B>Revision History:</B><UL>
  * <LI>Mar 10, 2005 This class was created by pchapman.</LI>
+ * <LI>Oct 18, 2026 Added nullable.</LI>
  * </UL></P>
  */
 public class ImportColumn
@@ -73,6 +74,20 @@ public class ImportColumn
 		this.dataType = type;
 	}
 	
+	/**
+	 * Whether a column created for the import may hold NULL.  Columns are
+	 * nullable unless they are set not to be.
+	 */
+	private boolean nullable = true;
+	public boolean isNullable()
+	{
+		return nullable;
+	}
+	public void setNullable(boolean nullable)
+	{
+		this.nullable = nullable;
+	}
+	
 	private int precision;
 	public int getPrecision()
 	{
@@ -29,6 +29,8 @@ package us.pcsw.dbbrowser.dataimport;
  *
  * <P><B>Revision History:</B><UL>
  * <LI>Feb 7, 2005 This class was created by pchapman.</LI>
+ * <LI>Oct 18, 2026 Added the progress measures: rows read and committed,
+ *                  bytes read, rates and the estimated time remaining.</LI>
  * </UL></P>
  */
 public class ImportEvent
@@ -63,10 +65,15 @@ public class ImportEvent
 	 */
 	public static final int EVENT_TYPE_STOPPED = 4;
 	
+	private long bytesRead = 0;
 	private int curRow;
+	private long elapsedMillis = 0;
 	private String message;
 	private int rowCount;
+	private long rowsCommitted = 0;
+	private long rowsRead = 0;
 	private Object source;
+	private long totalBytes = -1;
 	private int type;
 	
 	ImportEvent(Object source, int rowCount, int curRow, String message, int type)
@@ -83,6 +90,53 @@ public class ImportEvent
 		this(source, rowCount, curRow, message, EVENT_TYPE_MESSAGE);
 	}
 	
+	/**
+	 * Creates a copy of the event with a different source.
+	 */
+	ImportEvent(Object source, ImportEvent event)
+	{
+		this(
+				source, event.rowCount, event.curRow, event.message,
+				event.type
+			);
+		this.bytesRead = event.bytesRead;
+		this.elapsedMillis = event.elapsedMillis;
+		this.rowsCommitted = event.rowsCommitted;
+		this.rowsRead = event.rowsRead;
+		this.totalBytes = event.totalBytes;
+	}
+	
+	/**
+	 * Creates a notification of progress.
+	 * @param totalBytes The number of bytes to read, or -1 if it is not
+	 *                   known.
+	 * @param elapsedMillis The time since the import started.
+	 */
+	ImportEvent(
+			Object source, long rowsRead, long rowsCommitted, long bytesRead,
+			long totalBytes, long elapsedMillis
+		)
+	{
+		this(
+				source, 0, (int)Math.min(Integer.MAX_VALUE, rowsRead), null,
+				EVENT_TYPE_PROGRESSED
+			);
+		this.bytesRead = bytesRead;
+		this.elapsedMillis = elapsedMillis;
+		this.rowsCommitted = rowsCommitted;
+		this.rowsRead = rowsRead;
+		this.totalBytes = totalBytes;
+	}
+	
+	/**
+	 * The number of bytes of the data read so far.
+	 */
+	public long getBytesRead()
+	{
+		return bytesRead;
+	}
+	
+
 	/**
 	 * The current row in the CSV file being processed.
 	 */
@@ -91,6 +145,37 @@ public class ImportEvent
 		return curRow;
 	}
 	
+	/**
+	 * The time since the import started, in milliseconds.
+	 */
+	public long getElapsedMillis()
+	{
+		return elapsedMillis;
+	}
+	
+	/**
+	 * The estimated time until the data has all been read, in milliseconds,
+	 * or -1 if it can't be estimated.
+	 */
+	public long getEstimatedMillisRemaining()
+	{
+		if (totalBytes < 0 || bytesRead <= 0) {
+			return -1;
+		}
+		return (long)(
+				(double)(totalBytes - bytesRead) * elapsedMillis / bytesRead
+			);
+	}
+	
+	/**
+	 * The average number of megabytes of data read per second.
+	 */
+	public double getMegabytesPerSecond()
+	{
+		return elapsedMillis > 0 ?
+			bytesRead * 1000.0 / elapsedMillis / (1024 * 1024) : 0;
+	}
+	
 	/**
 	 * The warning or error message generated by the import tool.
 	 */
@@ -107,6 +192,30 @@ public class ImportEvent
 		return rowCount;
 	}
 	
+	/**
+	 * The number of rows committed to the database so far.
+	 */
+	public long getRowsCommitted()
+	{
+		return rowsCommitted;
+	}
+	
+	/**
+	 * The average number of rows read per second.
+	 */
+	public double getRowsPerSecond()
+	{
+		return elapsedMillis > 0 ? rowsRead * 1000.0 / elapsedMillis : 0;
+	}
+	
+	/**
+	 * The number of rows of the data read so far.
+	 */
+	public long getRowsRead()
+	{
+		return rowsRead;
+	}
+	
 	/**
 	 * The source of the event.  This will be an instance of the
 	 * ImporterThread class.
@@ -116,6 +225,14 @@ public class ImportEvent
 		return source;
 	}
 	
+	/**
+	 * The number of bytes of data to read, or -1 if it is not known.
+	 */
+	public long getTotalBytes()
+	{
+		return totalBytes;
+	}
+	
 	/**
 	 * The type of notification being sent to the listener.
 	 */
@@ -0,0 +1,232 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.ImportNotifier
+ * -
+ * Passes an import's events to its listeners on the event dispatch thread,
+ * and measures its progress.  Events are queued and handed over by a single
+ * task on the event dispatch thread rather than a task each, so a flood of
+ * messages does not flood the event queue.  The threads of an import add to
+ * the measures as they go, and a progress event is sent with them at most
+ * every PROGRESS_INTERVAL milliseconds and as the import stops.
+ * <P>
+ * Only the first MAX_MESSAGES messages of an import are passed on as they
+ * are posted, so that an import which rejects every row does not fill the
+ * listeners with them.  Of the messages after those, the last
+ * TAIL_MESSAGES are passed on as the import stops, after a count of the
+ * ones which were not.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 The number of messages passed on is limited.</LI>
+ * </UL></P>
+ */
+class ImportNotifier implements Runnable
+{
+	// CONSTANTS
+
+	/**
+	 * The least time between progress events, in milliseconds.
+	 */
+	static final long PROGRESS_INTERVAL = 250;
+
+	/**
+	 * The most messages of an import which are passed on as they are
+	 * posted.
+	 */
+	static final int MAX_MESSAGES = 200;
+
+	/**
+	 * The number of the messages after MAX_MESSAGES which are held and
+	 * passed on as the import stops.  The last messages, such as a count
+	 * of the rows rejected, are often the ones wanted.
+	 */
+	static final int TAIL_MESSAGES = 10;
+
+	// CONSTRUCTORS
+
+	/**
+	 * @param dataImport The import whose listeners are notified.
+	 * @param source The source of the progress events.
+	 */
+	ImportNotifier(DataImport dataImport, Object source)
+	{
+		super();
+		this.dataImport = dataImport;
+		this.source = source;
+	}
+
+	// MEMBERS
+
+	private long bytesRead = 0;
+	private DataImport dataImport;
+	/**
+	 * The events waiting to be passed to the listeners.
+	 */
+	private List events = new ArrayList();
+	private long lastProgressTime = 0;
+	/**
+	 * The number of messages passed on.
+	 */
+	private int messageCount = 0;
+	/**
+	 * The number of messages which were neither passed on nor held.
+	 */
+	private long messagesDropped = 0;
+	/**
+	 * The latest of the messages after MAX_MESSAGES.
+	 */
+	private LinkedList messagesHeld = new LinkedList();
+	private long rowsCommitted = 0;
+	private long rowsRead = 0;
+	/**
+	 * Whether a task to pass the events on is waiting to run.
+	 */
+	private boolean scheduled = false;
+	private Object source;
+	private long startTime = System.currentTimeMillis();
+	private long totalBytes = -1;
+
+	// METHODS
+
+	/**
+	 * Counts rows which were committed.
+	 */
+	synchronized void addCommitted(long rows)
+	{
+		rowsCommitted += rows;
+		progressed(false);
+	}
+
+	/**
+	 * Counts rows which were read.
+	 * @param bytes The number of bytes the rows took up in the data.
+	 */
+	synchronized void addRead(long rows, long bytes)
+	{
+		rowsRead += rows;
+		bytesRead += bytes;
+		progressed(false);
+	}
+
+	/**
+	 * Queues an event for the listeners.  The progress so far, and the
+	 * messages which were held back, are sent before an event which stops
+	 * the import.
+	 */
+	synchronized void post(ImportEvent event)
+	{
+		int type = event.getEventType();
+		if (type == ImportEvent.EVENT_TYPE_MESSAGE) {
+			if (messageCount >= MAX_MESSAGES) {
+				messagesHeld.add(event);
+				if (messagesHeld.size() > TAIL_MESSAGES) {
+					messagesHeld.removeFirst();
+					messagesDropped++;
+				}
+				return;
+			}
+			messageCount++;
+		} else if (type == ImportEvent.EVENT_TYPE_STOPPED) {
+			progressed(true);
+			if (messagesDropped > 0) {
+				events.add(
+						new ImportEvent(
+								source, 0, 0,
+								messagesDropped + " more messages were not shown.",
+								ImportEvent.EVENT_TYPE_MESSAGE
+							)
+					);
+				messagesDropped = 0;
+			}
+			events.addAll(messagesHeld);
+			messagesHeld.clear();
+		}
+		events.add(event);
+		if (! scheduled) {
+			scheduled = true;
+			SwingUtilities.invokeLater(this);
+		}
+	}
+
+	/**
+	 * Sends a progress event if one has not been sent recently.
+	 * @param force Whether to send it regardless.
+	 */
+	private void progressed(boolean force)
+	{
+		long now = System.currentTimeMillis();
+		if (! force && now - lastProgressTime < PROGRESS_INTERVAL) {
+			return;
+		}
+		lastProgressTime = now;
+		// The listeners only need the latest progress.
+		for (int i = events.size() - 1; i >= 0; i--) {
+			ImportEvent event = (ImportEvent)events.get(i);
+			if (event.getEventType() == ImportEvent.EVENT_TYPE_PROGRESSED) {
+				events.remove(i);
+				break;
+			}
+		}
+		post(
+				new ImportEvent(
+						source, rowsRead, rowsCommitted, bytesRead,
+						totalBytes, now - startTime
+					)
+			);
+	}
+
+	/**
+	 * Passes the queued events to the listeners.  This is run on the event
+	 * dispatch thread.
+	 */
+	public void run()
+	{
+		List pending;
+		synchronized (this) {
+			pending = events;
+			events = new ArrayList();
+			scheduled = false;
+		}
+		for (int i = 0; i < pending.size(); i++) {
+			dataImport.notifyListeners((ImportEvent)pending.get(i));
+		}
+	}
+
+	/**
+	 * Sets the number of bytes of data to read, for estimating the time
+	 * remaining.
+	 * @param totalBytes The number of bytes, or -1 if it is not known.
+	 */
+	synchronized void setTotalBytes(long totalBytes)
+	{
+		this.totalBytes = totalBytes;
+	}
+}
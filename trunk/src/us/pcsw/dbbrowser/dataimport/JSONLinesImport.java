@@ -0,0 +1,120 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.JSONLinesImport
+ * -
+ * Imports JSON lines (NDJSON) data, in which each line is a JSON object.
+ * Each member name is a field, so the ImportColumns are matched to the
+ * field names rather than to positions in a line.  The field names are set
+ * with setFieldNames, or found by sampleData in the first records.  Until
+ * they are known, a file is not split into ranges, since each range would
+ * find the names in its own order.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+public class JSONLinesImport extends TextImport
+{
+	// CONSTANTS
+
+	/**
+	 * The number of records sampleData looks through for field names.
+	 */
+	private static final int FIELD_NAME_SAMPLE_SIZE = 1000;
+
+	// MEMBERS
+
+	private String[] fieldNames = null;
+
+	// METHODS
+
+	/**
+	 * @see us.pcsw.dbbrowser.dataimport.TextImport#createReader(java.io.InputStream)
+	 */
+	RecordReader createReader(InputStream in)
+	{
+		return new JSONLinesReader(in, fieldNames);
+	}
+
+	/**
+	 * Returns the names of the fields, in the order of the columns, or null
+	 * if they are not yet known.
+	 */
+	public String[] getFieldNames()
+	{
+		return fieldNames;
+	}
+
+	/**
+	 * A file is only split once the field names are known.
+	 * @see us.pcsw.dbbrowser.dataimport.TextImport#isSplittable()
+	 */
+	boolean isSplittable()
+	{
+		return fieldNames != null;
+	}
+
+	/**
+	 * Samples the data, first finding the field names in the first records
+	 * if they are not set.  Each row of the sample has a value for every
+	 * field.
+	 * @see us.pcsw.dbbrowser.dataimport.DataImport#sampleData(java.io.InputStream, int)
+	 */
+	public String[][] sampleData(InputStream iStream, int rowCount)
+		throws IOException
+	{
+		if (fieldNames != null) {
+			return super.sampleData(iStream, rowCount);
+		}
+		JSONLinesReader reader = new JSONLinesReader(
+				CompressedInput.open(iStream), null
+			);
+		String[][] data = sampleData(reader, rowCount);
+		// Look further for members which the sampled records don't have.  The
+		// reader adds the names as it finds them.
+		int recordCount = data.length;
+		while (recordCount < FIELD_NAME_SAMPLE_SIZE && reader.next()) {
+			recordCount++;
+		}
+		fieldNames = reader.getFieldNames();
+		String[][] returnValue = new String[data.length][fieldNames.length];
+		for (int i = 0; i < data.length; i++) {
+			System.arraycopy(data[i], 0, returnValue[i], 0, data[i].length);
+		}
+		return returnValue;
+	}
+
+	/**
+	 * Sets the names of the fields, in the order of the columns.  Members
+	 * with other names are ignored.
+	 */
+	public void setFieldNames(String[] fieldNames)
+	{
+		this.fieldNames = fieldNames;
+	}
+}
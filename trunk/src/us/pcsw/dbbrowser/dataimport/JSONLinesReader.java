@@ -0,0 +1,475 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.JSONLinesReader
+ * -
+ * Reads JSON lines data, in which each line is a JSON object, UTF-8
+ * encoded.  Each member of an object is the field of the same name, so the
+ * members may be in any order or left out.  A line may instead be an
+ * array, whose values are the fields in order.
+ * <P>
+ * Strings are unescaped, null is a blank field, numbers, true and false are
+ * kept as they are written, and objects and arrays within a record are kept
+ * as their JSON text.
+ * <P>
+ * The reader is given the field names, and ignores members with other
+ * names, or finds the field names as it reads and adds a field for each
+ * new one.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+class JSONLinesReader extends LineRecordReader
+{
+	// CONSTRUCTORS
+
+	/**
+	 * @param in The data.
+	 * @param fieldNames The names of the fields, or null to find them in the
+	 *                   data.
+	 */
+	JSONLinesReader(InputStream in, String[] fieldNames)
+	{
+		super(in, StandardCharsets.UTF_8);
+		fixed = fieldNames != null;
+		if (fixed) {
+			for (int i = 0; i < fieldNames.length; i++) {
+				addName(fieldNames[i].getBytes(StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	// MEMBERS
+
+	/**
+	 * Whether the field names were given.
+	 */
+	private boolean fixed;
+	/**
+	 * The field which the last member read was for.  Members are usually in
+	 * the same order in every record, so the next field is tried first.
+	 */
+	private int lastField = -1;
+	private byte[] name = new byte[64];
+	private int nameLength;
+	/**
+	 * The UTF-8 bytes of each field's name.
+	 */
+	private List names = new ArrayList();
+	private int[] valueEnds = new int[16];
+	private byte[] values = new byte[1024];
+	private int valuesLength;
+	/**
+	 * The ranges in values of each field of the current record.  A field
+	 * which the record does not have starts at -1.
+	 */
+	private int[] valueStarts = new int[16];
+
+	// METHODS
+
+	/**
+	 * Adds a field.
+	 */
+	private void addName(byte[] bytes)
+	{
+		names.add(bytes);
+		if (names.size() > valueStarts.length) {
+			valueStarts = Arrays.copyOf(valueStarts, valueStarts.length * 2);
+			valueEnds = Arrays.copyOf(valueEnds, valueEnds.length * 2);
+		}
+		valueStarts[names.size() - 1] = -1;
+	}
+
+	/**
+	 * Appends a byte to values.
+	 */
+	private void append(int b)
+	{
+		if (valuesLength == values.length) {
+			values = Arrays.copyOf(values, values.length * 2);
+		}
+		values[valuesLength++] = (byte)b;
+	}
+
+	/**
+	 * Appends bytes to values.
+	 */
+	private void append(byte[] b, int start, int end)
+	{
+		int length = end - start;
+		if (valuesLength + length > values.length) {
+			values = Arrays.copyOf(
+					values, Math.max(values.length * 2, valuesLength + length)
+				);
+		}
+		System.arraycopy(b, start, values, valuesLength, length);
+		valuesLength += length;
+	}
+
+	/**
+	 * Appends a character to values in UTF-8.
+	 */
+	private void appendCodePoint(int c)
+	{
+		if (c < 0x80) {
+			append(c);
+		} else if (c < 0x800) {
+			append(0xc0 | c >> 6);
+			append(0x80 | c & 0x3f);
+		} else if (c < 0x10000) {
+			append(0xe0 | c >> 12);
+			append(0x80 | c >> 6 & 0x3f);
+			append(0x80 | c & 0x3f);
+		} else {
+			append(0xf0 | c >> 18);
+			append(0x80 | c >> 12 & 0x3f);
+			append(0x80 | c >> 6 & 0x3f);
+			append(0x80 | c & 0x3f);
+		}
+	}
+
+	/**
+	 * Creates the exception for a line which is not JSON.
+	 */
+	private IOException error(String problem)
+	{
+		return new IOException(
+				"Line " + getLineNumber() + " is not a JSON object or array: " +
+				problem
+			);
+	}
+
+	/**
+	 * Returns the field for the name read into name, or -1 if it is not a
+	 * field and the field names were given.
+	 */
+	private int findField()
+	{
+		int count = names.size();
+		for (int i = 0, field = lastField + 1; i < count; i++, field++) {
+			if (field == count) {
+				field = 0;
+			}
+			byte[] bytes = (byte[])names.get(field);
+			if (bytes.length == nameLength) {
+				int j = 0;
+				while (j < nameLength && bytes[j] == name[j]) {
+					j++;
+				}
+				if (j == nameLength) {
+					return field;
+				}
+			}
+		}
+		if (fixed) {
+			return -1;
+		}
+		addName(Arrays.copyOf(name, nameLength));
+		return count;
+	}
+
+	/**
+	 * Returns the names of the fields: those given, or those found so far.
+	 */
+	String[] getFieldNames()
+	{
+		String[] fieldNames = new String[names.size()];
+		for (int i = 0; i < fieldNames.length; i++) {
+			fieldNames[i] = new String(
+					(byte[])names.get(i), StandardCharsets.UTF_8
+				);
+		}
+		return fieldNames;
+	}
+
+	/**
+	 * Returns the value of a hexadecimal digit.
+	 */
+	private int hexDigit(byte b)
+		throws IOException
+	{
+		int digit = Character.digit((char)b, 16);
+		if (digit < 0) {
+			throw error("\\u is not followed by four hexadecimal digits");
+		}
+		return digit;
+	}
+
+	/**
+	 * @see us.pcsw.dbbrowser.dataimport.LineRecordReader#parseLine(byte[], int, int)
+	 */
+	void parseLine(byte[] b, int start, int end)
+		throws IOException
+	{
+		valuesLength = 0;
+		Arrays.fill(valueStarts, 0, names.size(), -1);
+		int p = skipSpace(b, start, end);
+		int fieldCount = 0;
+		if (b[p] == '{') {
+			p = skipSpace(b, p + 1, end);
+			if (p < end && b[p] == '}') {
+				p++;
+			} else {
+				for (;;) {
+					if (p == end || b[p] != '"') {
+						throw error("a member's name is not a string");
+					}
+					int valueStart = valuesLength;
+					p = readString(b, p, end);
+					// Move the name out of values.
+					nameLength = valuesLength - valueStart;
+					if (nameLength > name.length) {
+						name = new byte[Math.max(name.length * 2, nameLength)];
+					}
+					System.arraycopy(values, valueStart, name, 0, nameLength);
+					valuesLength = valueStart;
+					int field = findField();
+					p = skipSpace(b, p, end);
+					if (p == end || b[p] != ':') {
+						throw error("a member's name is not followed by a colon");
+					}
+					p = readValue(b, skipSpace(b, p + 1, end), end, field);
+					if (field >= 0) {
+						lastField = field;
+					}
+					p = skipSpace(b, p, end);
+					if (p < end && b[p] == ',') {
+						p = skipSpace(b, p + 1, end);
+					} else if (p < end && b[p] == '}') {
+						p++;
+						break;
+					} else {
+						throw error("a member is not followed by a comma or }");
+					}
+				}
+			}
+			fieldCount = names.size();
+		} else if (b[p] == '[') {
+			p = skipSpace(b, p + 1, end);
+			if (p < end && b[p] == ']') {
+				p++;
+			} else {
+				for (;;) {
+					if (fieldCount == names.size()) {
+						if (fixed) {
+							// Ignore the values past the last field.
+							p = readValue(b, p, end, -1);
+						} else {
+							addName(String.valueOf(fieldCount + 1).getBytes(StandardCharsets.UTF_8));
+						}
+					}
+					if (fieldCount < names.size()) {
+						p = readValue(b, p, end, fieldCount++);
+					}
+					p = skipSpace(b, p, end);
+					if (p < end && b[p] == ',') {
+						p = skipSpace(b, p + 1, end);
+					} else if (p < end && b[p] == ']') {
+						p++;
+						break;
+					} else {
+						throw error("a value is not followed by a comma or ]");
+					}
+				}
+			}
+		} else {
+			throw error("it does not start with { or [");
+		}
+		if (skipSpace(b, p, end) < end) {
+			throw error("there is more after the end of the record");
+		}
+		for (int i = 0; i < fieldCount; i++) {
+			if (valueStarts[i] < 0) {
+				addField(values, 0, 0);
+			} else {
+				addField(values, valueStarts[i], valueEnds[i]);
+			}
+		}
+	}
+
+	/**
+	 * Reads a string, appending its unescaped value to values.
+	 * @param p The position of the opening quote.
+	 * @return The position after the closing quote.
+	 */
+	private int readString(byte[] b, int p, int end)
+		throws IOException
+	{
+		p++;
+		int runStart = p;
+		while (p < end) {
+			byte c = b[p];
+			if (c == '"') {
+				append(b, runStart, p);
+				return p + 1;
+			} else if (c == '\\') {
+				append(b, runStart, p);
+				if (++p == end) {
+					break;
+				}
+				switch (b[p]) {
+				case '"':
+				case '\\':
+				case '/':
+					append(b[p]);
+					break;
+				case 'b':
+					append('\b');
+					break;
+				case 'f':
+					append('\f');
+					break;
+				case 'n':
+					append('\n');
+					break;
+				case 'r':
+					append('\r');
+					break;
+				case 't':
+					append('\t');
+					break;
+				case 'u':
+					if (p + 4 >= end) {
+						throw error("\\u is not followed by four hexadecimal digits");
+					}
+					int ch = hexDigit(b[p + 1]) << 12 | hexDigit(b[p + 2]) << 8 |
+						hexDigit(b[p + 3]) << 4 | hexDigit(b[p + 4]);
+					p += 4;
+					if (
+							Character.isHighSurrogate((char)ch) && p + 6 < end &&
+							b[p + 1] == '\\' && b[p + 2] == 'u'
+						)
+					{
+						int low = hexDigit(b[p + 3]) << 12 | hexDigit(b[p + 4]) << 8 |
+							hexDigit(b[p + 5]) << 4 | hexDigit(b[p + 6]);
+						if (Character.isLowSurrogate((char)low)) {
+							ch = Character.toCodePoint((char)ch, (char)low);
+							p += 6;
+						}
+					}
+					appendCodePoint(ch);
+					break;
+				default:
+					throw error("a string has an unknown escape");
+				}
+				runStart = ++p;
+			} else {
+				p++;
+			}
+		}
+		throw error("a string is not closed");
+	}
+
+	/**
+	 * Reads a value, keeping it as the field's.
+	 * @param p The position of the value's first byte.
+	 * @param field The field, or -1 if the value is ignored.
+	 * @return The position after the value.
+	 */
+	private int readValue(byte[] b, int p, int end, int field)
+		throws IOException
+	{
+		if (p == end) {
+			throw error("a value is missing");
+		}
+		int valueStart = valuesLength;
+		if (b[p] == '"') {
+			p = readString(b, p, end);
+		} else if (b[p] == '{' || b[p] == '[') {
+			// Keep the JSON text, finding its end by counting brackets
+			// outside of strings.
+			int start = p;
+			int depth = 0;
+			boolean inString = false;
+			for (; p < end; p++) {
+				byte c = b[p];
+				if (inString) {
+					if (c == '\\') {
+						p++;
+					} else if (c == '"') {
+						inString = false;
+					}
+				} else if (c == '"') {
+					inString = true;
+				} else if (c == '{' || c == '[') {
+					depth++;
+				} else if (c == '}' || c == ']') {
+					if (--depth == 0) {
+						break;
+					}
+				}
+			}
+			if (p >= end) {
+				throw error("an object or array is not closed");
+			}
+			p++;
+			append(b, start, p);
+		} else {
+			int start = p;
+			while (
+					p < end && b[p] != ',' && b[p] != '}' && b[p] != ']' &&
+					(b[p] & 0xff) > ' '
+				)
+			{
+				p++;
+			}
+			if (
+					p - start == 4 && b[start] == 'n' && b[start + 1] == 'u' &&
+					b[start + 2] == 'l' && b[start + 3] == 'l'
+				)
+			{
+				// Leave the field blank.
+				return p;
+			}
+			append(b, start, p);
+		}
+		if (field >= 0) {
+			valueStarts[field] = valueStart;
+			valueEnds[field] = valuesLength;
+		}
+		return p;
+	}
+
+	/**
+	 * Returns the position of the first byte at or after p which is not
+	 * whitespace, or end.
+	 */
+	private static int skipSpace(byte[] b, int p, int end)
+	{
+		while (p < end && (b[p] & 0xff) <= ' ') {
+			p++;
+		}
+		return p;
+	}
+}
@@ -0,0 +1,286 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.charset.Charset;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.LineRecordReader
+ * -
+ * Reads data which has a record on each line.  Each line is found in a
+ * buffer which is reused for every line, and passed to parseLine, which
+ * copies its fields to the record with addField.  Lines may end with a line
+ * feed or a carriage return and line feed.  Blank lines are skipped, as is
+ * a UTF-8 byte order mark at the start of the data.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+abstract class LineRecordReader extends RecordReader
+{
+	// CONSTANTS
+
+	private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+	private static final int INITIAL_FIELD_COUNT = 64;
+	private static final int INITIAL_RECORD_SIZE = 4 * 1024;
+
+	// CONSTRUCTORS
+
+	/**
+	 * @param in The data.
+	 * @param charset The charset of the data.  It must encode line feeds
+	 *                and carriage returns as single bytes.
+	 */
+	LineRecordReader(InputStream in, Charset charset)
+	{
+		super();
+		this.charset = charset;
+		this.in = in;
+	}
+
+	// MEMBERS
+
+	private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+	private Charset charset;
+	/**
+	 * The number of bytes read and discarded from the start of the buffer.
+	 */
+	private long discarded = 0;
+	private boolean eof = false;
+	private int fieldCount = 0;
+	/**
+	 * The fields' ranges in record.
+	 */
+	private int[] fieldEnds = new int[INITIAL_FIELD_COUNT];
+	private int[] fieldStarts = new int[INITIAL_FIELD_COUNT];
+	private InputStream in;
+	private int lastLineNumber = 0;
+	/**
+	 * The number of bytes in the buffer.
+	 */
+	private int limit = 0;
+	private int lineCount = 0;
+	/**
+	 * The position after the current line and its line break.
+	 */
+	private int position = 0;
+	/**
+	 * The fields of the current record, one after another.
+	 */
+	private byte[] record = new byte[INITIAL_RECORD_SIZE];
+	private int recordLength = 0;
+
+	// METHODS
+
+	/**
+	 * Adds a field to the current record.
+	 * @param b The bytes holding the field's value.
+	 * @param start The position of the value's first byte.
+	 * @param end The position after the value's last byte.
+	 */
+	void addField(byte[] b, int start, int end)
+	{
+		if (fieldCount == fieldStarts.length) {
+			int[] a = new int[fieldCount * 2];
+			System.arraycopy(fieldStarts, 0, a, 0, fieldCount);
+			fieldStarts = a;
+			a = new int[fieldCount * 2];
+			System.arraycopy(fieldEnds, 0, a, 0, fieldCount);
+			fieldEnds = a;
+		}
+		int length = end - start;
+		if (recordLength + length > record.length) {
+			byte[] r = new byte[Math.max(record.length * 2, recordLength + length)];
+			System.arraycopy(record, 0, r, 0, recordLength);
+			record = r;
+		}
+		System.arraycopy(b, start, record, recordLength, length);
+		fieldStarts[fieldCount] = recordLength;
+		recordLength += length;
+		fieldEnds[fieldCount++] = recordLength;
+	}
+
+	/**
+	 * @see us.pcsw.dbbrowser.dataimport.RecordReader#appendTo(us.pcsw.dbbrowser.dataimport.RowBlock)
+	 */
+	void appendTo(RowBlock block)
+	{
+		block.addRow(
+				record, 0, fieldStarts, fieldEnds, fieldCount, lastLineNumber,
+				getEndOffset()
+			);
+	}
+
+	/**
+	 * Reads more data into the buffer, first discarding the lines before
+	 * the given position or growing the buffer if there are none.
+	 * @param lineStart The start of the line being read.
+	 * @return false if there is no more data.
+	 */
+	private boolean fill(int lineStart)
+		throws IOException
+	{
+		if (eof) {
+			return false;
+		}
+		if (lineStart > 0) {
+			System.arraycopy(buffer, lineStart, buffer, 0, limit - lineStart);
+			limit -= lineStart;
+			position -= lineStart;
+			discarded += lineStart;
+		} else if (limit == buffer.length) {
+			byte[] b = new byte[buffer.length * 2];
+			System.arraycopy(buffer, 0, b, 0, limit);
+			buffer = b;
+		}
+		int count = in.read(buffer, limit, buffer.length - limit);
+		if (count < 0) {
+			eof = true;
+			return false;
+		}
+		limit += count;
+		return true;
+	}
+
+	/**
+	 * @see us.pcsw.dbbrowser.dataimport.RecordReader#getCharset()
+	 */
+	Charset getCharset()
+	{
+		return charset;
+	}
+
+	/**
+	 * @see us.pcsw.dbbrowser.dataimport.RecordReader#getEndOffset()
+	 */
+	long getEndOffset()
+	{
+		return discarded + position;
+	}
+
+	/**
+	 * @see us.pcsw.dbbrowser.dataimport.RecordReader#getLine()
+	 */
+	String[] getLine()
+	{
+		String[] line = new String[fieldCount];
+		for (int i = 0; i < fieldCount; i++) {
+			line[i] = new String(
+					record, fieldStarts[i], fieldEnds[i] - fieldStarts[i], charset
+				);
+		}
+		return line;
+	}
+
+	/**
+	 * Returns the number of the line being read.  The first line is 1.
+	 */
+	int getLineNumber()
+	{
+		return lineCount;
+	}
+
+	/**
+	 * @see us.pcsw.dbbrowser.dataimport.RecordReader#next()
+	 */
+	boolean next()
+		throws IOException
+	{
+		for (;;) {
+			if (discarded == 0 && position == 0) {
+				skipByteOrderMark();
+			}
+			// Find the end of the line, reading more data as needed.  The
+			// line is moved to the start of the buffer when more is read.
+			int length = 0;
+			boolean lineFeed = false;
+			for (;;) {
+				if (position + length == limit) {
+					if (! fill(position)) {
+						break;
+					}
+				}
+				if (buffer[position + length] == '\n') {
+					lineFeed = true;
+					break;
+				}
+				length++;
+			}
+			if (length == 0 && ! lineFeed) {
+				return false;
+			}
+			int start = position;
+			int end = start + length;
+			position = lineFeed ? end + 1 : end;
+			lineCount++;
+			if (end > start && buffer[end - 1] == '\r') {
+				end--;
+			}
+			int i = start;
+			while (i < end && (buffer[i] & 0xff) <= ' ') {
+				i++;
+			}
+			if (i < end) {
+				fieldCount = 0;
+				recordLength = 0;
+				parseLine(buffer, start, end);
+				lastLineNumber = lineCount;
+				return true;
+			}
+			// Skip blank lines.
+		}
+	}
+
+	/**
+	 * Splits a line into the fields of the current record, adding them with
+	 * addField.  The line is not blank.
+	 * @param b The buffer holding the line.
+	 * @param start The position of the line's first byte.
+	 * @param end The position after the line's last byte, without its line
+	 *            break.
+	 * @throws IOException indicates the line is not in the reader's format.
+	 */
+	abstract void parseLine(byte[] b, int start, int end)
+		throws IOException;
+
+	/**
+	 * Skips a UTF-8 byte order mark at the start of the data.
+	 */
+	private void skipByteOrderMark()
+		throws IOException
+	{
+		while (limit < 3 && fill(0)) {
+			// Read until there are enough bytes to check.
+		}
+		if (
+				limit >= 3 && (buffer[0] & 0xff) == 0xef &&
+				(buffer[1] & 0xff) == 0xbb && (buffer[2] & 0xff) == 0xbf
+			)
+		{
+			position = 3;
+		}
+	}
+}
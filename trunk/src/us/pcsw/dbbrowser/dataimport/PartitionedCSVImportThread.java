@@ -0,0 +1,515 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import us.pcsw.dbbrowser.cp.ConnectionProvider;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.PartitionedCSVImportThread
+ * -
+ * Imports a CSV file by splitting it at record boundaries into ranges which
+ * are loaded at the same time by CSVImportThreads, each with its own pooled
+ * connection.  The events of the workers are combined so that listeners see
+ * a single import start and stop.  If a worker stops because of an error,
+ * the others are cancelled.  Each worker commits its own rows.
+ * <P>
+ * When a checkpoint file is given, each worker records in it how far its
+ * range has been committed, and an import which stops can be resumed from
+ * there.  The file is deleted once the import completes.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 Added getWorkerCount.</LI>
+ * <LI>Oct 18, 2026 Imports are checkpointed and can be resumed.</LI>
+ * <LI>Oct 18, 2026 The workers share a RowRejecter.</LI>
+ * <LI>Oct 18, 2026 Events are passed on by an ImportNotifier, which the
+ *                  workers share to measure progress.</LI>
+ * <LI>Oct 18, 2026 findRanges is shared with CSVImport's profiling.</LI>
+ * <LI>Oct 18, 2026 Loads the files of any TextImport, and quotes are only
+ *                  honored when finding ranges if its format has them.</LI>
+ * <LI>Oct 18, 2026 findRanges only takes a quote at the start of a field to
+ *                  begin a quoted value, as CSVTokenizer does.</LI>
+ * </UL></P>
+ */
+class PartitionedCSVImportThread extends Thread
+{
+	// CONSTANTS
+
+	/**
+	 * Files are not split into ranges smaller than this.
+	 */
+	private static final long MIN_PARTITION_SIZE = 1024 * 1024;
+
+	/**
+	 * The size of the buffer used to find record boundaries.
+	 */
+	private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The states of findRanges' scan of the fields of a record.
+	 */
+	private static final int SCAN_FIELD_START = 0;
+	private static final int SCAN_UNQUOTED = 1;
+	private static final int SCAN_QUOTED = 2;
+	private static final int SCAN_QUOTE = 3;
+	private static final int SCAN_ESCAPE = 4;
+
+	// CONSTRUCTORS
+
+	/**
+	 * @param parallelism The most workers to load the file with.
+	 * @param checkpointFile The file to record the import's progress in, or
+	 *                       null.
+	 * @param resuming Whether to resume the import recorded in the
+	 *                 checkpoint file rather than start a new one.
+	 * @param rejecter Counts and writes the rows which can't be imported,
+	 *                 or null if the import stops at the first one.
+	 */
+	PartitionedCSVImportThread(
+			TextImport textImport, ConnectionProvider provider,
+			String tableName, boolean createTable, ImportColumn[] columns,
+			FileInputStream iStream, boolean skipFirstRow, int parallelism,
+			File checkpointFile, boolean resuming, RowRejecter rejecter
+		)
+	{
+		super();
+		this.checkpointFile = checkpointFile;
+		this.columns = columns;
+		this.createTable = createTable;
+		this.iStream = iStream;
+		this.parallelism = parallelism;
+		this.provider = provider;
+		this.rejecter = rejecter;
+		this.resuming = resuming && checkpointFile != null;
+		this.skipFirstRow = skipFirstRow;
+		this.tableName = tableName;
+		this.textImport = textImport;
+		this.notifier = new ImportNotifier(textImport, this);
+	}
+
+	// MEMBERS
+
+	private File checkpointFile;
+	private ImportColumn[] columns;
+	private boolean createTable;
+	private boolean failed = false;
+	private FileInputStream iStream;
+	private ImportNotifier notifier;
+	private int parallelism;
+	private ConnectionProvider provider;
+	private RowRejecter rejecter;
+	private boolean resuming;
+	private boolean skipFirstRow;
+	private String tableName;
+	private TextImport textImport;
+	private CSVImportThread[] workers = new CSVImportThread[0];
+
+	// METHODS
+
+	/**
+	 * Creates the table the data is imported into.
+	 * @return true if the table was created.
+	 */
+	private boolean createTable()
+	{
+		try {
+			Connection con = provider.getPooledConnection();
+			try {
+				Statement stmt = con.createStatement();
+				stmt.execute(textImport.createTableCreationSQL(tableName, columns));
+				stmt.close();
+				if (! con.getAutoCommit()) {
+					con.commit();
+				}
+			} finally {
+				con.close();
+			}
+			return true;
+		} catch (Exception e) {
+			notifyListener(
+					new ImportEvent(
+							this, 0, 0, "Unable to create the table " +
+							tableName + ": " + e.getLocalizedMessage(),
+							ImportEvent.EVENT_TYPE_STOPPED
+						)
+				);
+			return false;
+		}
+	}
+
+	/**
+	 * Creates the checkpoint for a new import.  A checkpoint which can't be
+	 * written is reported and the import goes on without one.
+	 * @return The checkpoint, or null.
+	 */
+	private ImportCheckpoint createCheckpoint(long size, long[][] ranges)
+	{
+		try {
+			return ImportCheckpoint.create(
+					checkpointFile, tableName, size, ranges
+				);
+		} catch (IOException ioe) {
+			notifyListener(
+					new ImportEvent(
+							this, 0, 0, "Unable to write the checkpoint " +
+							checkpointFile.getPath() + ": " +
+							ioe.getLocalizedMessage() +
+							"  The import can't be resumed.",
+							ImportEvent.EVENT_TYPE_MESSAGE
+						)
+				);
+			return null;
+		}
+	}
+
+	/**
+	 * Finds the positions at which to split the start of a file into about
+	 * count ranges of equal size.  A range only starts after a line break
+	 * that is not within a quoted value.  As in CSVTokenizer.readField, a
+	 * value is only quoted if a quote is the first thing in its field other
+	 * than spaces and tabs, a doubled quote within it is a quote, and
+	 * backslash escapes within it are honored.  Quotes anywhere else are
+	 * part of the value.
+	 * @param size The number of bytes at the start of the file to split.
+	 * @param quoted Whether values may be quoted, rather than every line
+	 *               break ending a record.
+	 * @return Pairs of the position at which each range starts and the
+	 *         number of lines before it.  The first range starts at 0.
+	 */
+	static long[][] findRanges(
+			FileChannel channel, long size, int count, boolean quoted
+		)
+		throws IOException
+	{
+		List ranges = new ArrayList();
+		ranges.add(new long[] {0, 0});
+		long target = size / count;
+		int state = SCAN_FIELD_START;
+		long lines = 0;
+		long position = 0;
+		ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+		while (ranges.size() < count && position < size) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				byte b = buffer.get(i);
+				switch (state) {
+				case SCAN_ESCAPE:
+					state = SCAN_QUOTED;
+					continue;
+				case SCAN_QUOTED:
+					if (b == '"') {
+						state = SCAN_QUOTE;
+					} else if (b == '\\') {
+						state = SCAN_ESCAPE;
+					} else if (b == '\n') {
+						lines++;
+					}
+					continue;
+				case SCAN_QUOTE:
+					if (b == '"') {
+						// A doubled quote, and the value goes on.
+						state = SCAN_QUOTED;
+						continue;
+					}
+					// The value was closed, and anything up to the end of
+					// the field is kept as if it were not quoted.
+					state = SCAN_UNQUOTED;
+					break;
+				case SCAN_FIELD_START:
+					if (b == '"' && quoted) {
+						state = SCAN_QUOTED;
+						continue;
+					} else if (b != ' ' && b != '\t') {
+						state = SCAN_UNQUOTED;
+					}
+					break;
+				}
+				if (b == ',' || b == '\r') {
+					state = SCAN_FIELD_START;
+				} else if (b == '\n') {
+					state = SCAN_FIELD_START;
+					lines++;
+					long start = position + i + 1;
+					if (start >= target && start < size) {
+						ranges.add(new long[] {start, lines});
+						if (ranges.size() == count) {
+							break;
+						}
+						target = size * ranges.size() / count;
+					}
+				}
+			}
+			position += read;
+		}
+		long[][] result = new long[ranges.size()][];
+		ranges.toArray(result);
+		return result;
+	}
+
+	/**
+	 * Returns the notifier the workers measure progress with.
+	 */
+	ImportNotifier getNotifier()
+	{
+		return notifier;
+	}
+
+	/**
+	 * Returns the number of workers loading the file.
+	 */
+	synchronized int getWorkerCount()
+	{
+		return workers.length;
+	}
+
+	/**
+	 * Reads the checkpoint of the import being resumed.
+	 * @throws IOException indicates the checkpoint can't be read or was not
+	 *                     written by an import of a file of this size into
+	 *                     this table.
+	 */
+	private ImportCheckpoint loadCheckpoint(long size)
+		throws IOException
+	{
+		ImportCheckpoint checkpoint = ImportCheckpoint.load(checkpointFile);
+		if (
+				checkpoint.getSize() != size ||
+				! checkpoint.getTableName().equals(tableName)
+			)
+		{
+			throw new IOException(
+					"The checkpoint " + checkpointFile.getPath() +
+					" was not written by an import of this file into " +
+					tableName + '.'
+				);
+		}
+		return checkpoint;
+	}
+
+	private void notifyListener(ImportEvent event)
+	{
+		notifier.post(event);
+	}
+
+	public void run()
+	{
+		notifyListener(
+				new ImportEvent(
+						this, 0, 0,
+						"Import started",
+						ImportEvent.EVENT_TYPE_STARTED
+					)
+			);
+		ImportCheckpoint checkpoint = null;
+		try {
+			if (createTable && ! resuming && ! createTable()) {
+				return;
+			}
+
+			FileChannel channel = iStream.getChannel();
+			long size = channel.size();
+			long[][] ranges = null;
+			if (resuming) {
+				// Split the file as the import being resumed did.
+				checkpoint = loadCheckpoint(size);
+			} else {
+				// Don't start more workers than the pool will give
+				// connections to, or make ranges too small to be worth a
+				// connection.
+				int count = Math.min(parallelism, provider.getPoolMaxSize());
+				count = (int)Math.max(
+						1, Math.min(count, size / MIN_PARTITION_SIZE)
+					);
+				ranges = findRanges(
+						channel, size, count, textImport.hasQuotedValues()
+					);
+				if (checkpointFile != null) {
+					checkpoint = createCheckpoint(size, ranges);
+				}
+			}
+
+			synchronized (this) {
+				List list = new ArrayList();
+				long totalBytes = 0;
+				int rangeCount = checkpoint == null ?
+					ranges.length : checkpoint.getRangeCount();
+				for (int i = 0; i < rangeCount; i++) {
+					long start;
+					long end;
+					int lines;
+					if (checkpoint == null) {
+						start = ranges[i][0];
+						end = i + 1 < ranges.length ? ranges[i + 1][0] : size;
+						lines = (int)ranges[i][1];
+					} else {
+						start = checkpoint.getOffset(i);
+						end = checkpoint.getEnd(i);
+						lines = checkpoint.getLine(i);
+					}
+					if (start < end) {
+						totalBytes += end - start;
+						// Only the start of the file has the header row.
+						CSVImportThread worker = new CSVImportThread(
+								this, textImport, provider, tableName, columns,
+								new FileRangeInputStream(channel, start, end),
+								skipFirstRow && start == 0, lines
+							);
+						if (checkpoint != null) {
+							worker.setCheckpoint(checkpoint, i, start);
+						}
+						if (rejecter != null) {
+							worker.setRejecter(rejecter);
+						}
+						list.add(worker);
+					}
+				}
+				workers = new CSVImportThread[list.size()];
+				list.toArray(workers);
+				notifier.setTotalBytes(totalBytes);
+			}
+			notifyListener(
+					new ImportEvent(
+							this, 0, 0,
+							"Loading the file in " + workers.length +
+							" part(s) at once.",
+							ImportEvent.EVENT_TYPE_MESSAGE
+						)
+				);
+			for (int i = 0; i < workers.length; i++) {
+				workers[i].start();
+			}
+			for (int i = 0; i < workers.length; i++) {
+				workers[i].join();
+			}
+		} catch (IOException ioe) {
+			failed = true;
+			notifyListener(
+					new ImportEvent(
+							this, 0, 0, "Unable to read the data into " +
+							tableName + ": " + ioe.getLocalizedMessage(),
+							ImportEvent.EVENT_TYPE_MESSAGE
+						)
+				);
+		} catch (InterruptedException ie) {
+			failed = true;
+			synchronized (this) {
+				for (int i = 0; i < workers.length; i++) {
+					workers[i].cancel();
+				}
+			}
+		} finally {
+			try {
+				iStream.close();
+			} catch (IOException ioe) {
+				// Nothing more will be read.
+			}
+		}
+
+		boolean completed = ! failed;
+		for (int i = 0; i < workers.length; i++) {
+			completed = completed && workers[i].isCompleted();
+		}
+		if (rejecter != null) {
+			rejecter.close();
+			String summary = rejecter.getSummary();
+			if (summary != null) {
+				notifyListener(
+						new ImportEvent(
+								this, 0, 0, summary,
+								ImportEvent.EVENT_TYPE_MESSAGE
+							)
+					);
+			}
+		}
+		if (checkpoint != null) {
+			if (completed) {
+				checkpoint.delete();
+			} else if (checkpointFile.exists()) {
+				notifyListener(
+						new ImportEvent(
+								this, 0, 0, "The import can be resumed from " +
+								"the checkpoint " + checkpointFile.getPath() +
+								'.',
+								ImportEvent.EVENT_TYPE_MESSAGE
+							)
+					);
+			}
+		}
+		notifyListener(
+				new ImportEvent(
+						this, 0, 0, "Import into " + tableName +
+						(completed ? " done." : " stopped."),
+						ImportEvent.EVENT_TYPE_STOPPED
+					)
+			);
+	}
+
+	/**
+	 * Passes a worker's event on to the listeners.  The start and stop of
+	 * each worker are not passed on, except that a worker which stops before
+	 * it completes has its message passed on and the other workers are
+	 * cancelled.
+	 */
+	synchronized void workerNotified(CSVImportThread worker, ImportEvent event)
+	{
+		switch (event.getEventType()) {
+		case ImportEvent.EVENT_TYPE_STARTED:
+			break;
+		case ImportEvent.EVENT_TYPE_STOPPED:
+			if (! worker.isCompleted()) {
+				notifyListener(
+						new ImportEvent(
+								worker, event.getRowCount(),
+								event.getCurrentRow(), event.getMessage(),
+								ImportEvent.EVENT_TYPE_MESSAGE
+							)
+					);
+				if (! failed) {
+					failed = true;
+					for (int i = 0; i < workers.length; i++) {
+						if (workers[i] != worker) {
+							workers[i].cancel();
+						}
+					}
+				}
+			}
+			break;
+		default:
+			notifyListener(event);
+		}
+	}
+}
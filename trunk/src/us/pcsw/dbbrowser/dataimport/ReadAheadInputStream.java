@@ -0,0 +1,212 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.ReadAheadInputStream
+ * -
+ * Reads an input stream in a thread of its own, so that the data is read
+ * from disk while the data read before it is parsed.  The stream reads
+ * ahead by at most a fixed number of chunks, whose buffers are reused.
+ * <P>
+ * Closing this stream stops the reading thread but does not close the
+ * underlying stream.  The thread is never interrupted, since interrupting a
+ * read of a FileChannel closes the channel.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+class ReadAheadInputStream extends InputStream
+{
+	// CONSTRUCTORS
+
+	/**
+	 * @param in The stream to read.
+	 * @param chunkSize The number of bytes read at a time.
+	 * @param chunkCount The number of chunks which may be read ahead.
+	 */
+	ReadAheadInputStream(InputStream in, int chunkSize, int chunkCount)
+	{
+		super();
+		this.in = in;
+		free = new ArrayBlockingQueue(chunkCount);
+		// Never full, since there are only chunkCount chunks.
+		filled = new ArrayBlockingQueue(chunkCount);
+		for (int i = 0; i < chunkCount; i++) {
+			free.add(new Chunk(chunkSize));
+		}
+		Thread thread = new Thread("Read ahead") {
+			public void run()
+			{
+				readAhead();
+			}
+		};
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	// MEMBERS
+
+	private volatile boolean closed = false;
+	private Chunk current = null;
+	private BlockingQueue filled;
+	private BlockingQueue free;
+	private InputStream in;
+	private int position = 0;
+
+	// METHODS
+
+	/**
+	 * Stops reading ahead.  The underlying stream is not closed.
+	 * @see java.io.InputStream#close()
+	 */
+	public void close()
+	{
+		closed = true;
+		// Return the chunks so that the reading thread can see it is closed.
+		filled.drainTo(free);
+		if (current != null) {
+			free.offer(current);
+			current = null;
+		}
+	}
+
+	/**
+	 * Makes sure there is an unread byte in the current chunk.
+	 * @return false at the end of the data.
+	 */
+	private boolean nextChunk()
+		throws IOException
+	{
+		while (current == null || position >= current.length) {
+			if (current != null) {
+				if (current.length < 0) {
+					return false;
+				}
+				free.add(current);
+				current = null;
+			}
+			if (closed) {
+				throw new IOException("The stream is closed.");
+			}
+			try {
+				current = (Chunk)filled.take();
+			} catch (InterruptedException ie) {
+				throw new InterruptedIOException();
+			}
+			position = 0;
+			if (current.error != null) {
+				IOException ioe = current.error;
+				// Keep the end marker so later reads see the same.
+				current.length = -1;
+				current.error = null;
+				throw ioe;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @see java.io.InputStream#read()
+	 */
+	public int read()
+		throws IOException
+	{
+		if (! nextChunk()) {
+			return -1;
+		}
+		return current.bytes[position++] & 0xff;
+	}
+
+	/**
+	 * @see java.io.InputStream#read(byte[], int, int)
+	 */
+	public int read(byte[] b, int off, int len)
+		throws IOException
+	{
+		if (len == 0) {
+			return 0;
+		}
+		if (! nextChunk()) {
+			return -1;
+		}
+		len = Math.min(len, current.length - position);
+		System.arraycopy(current.bytes, position, b, off, len);
+		position += len;
+		return len;
+	}
+
+	/**
+	 * Fills free chunks from the underlying stream until the end of the
+	 * data, an error, or until this stream is closed.
+	 */
+	private void readAhead()
+	{
+		try {
+			for (;;) {
+				Chunk chunk = (Chunk)free.take();
+				if (closed) {
+					return;
+				}
+				try {
+					chunk.length = in.read(chunk.bytes, 0, chunk.bytes.length);
+				} catch (IOException ioe) {
+					chunk.error = ioe;
+					chunk.length = -1;
+				}
+				filled.add(chunk);
+				if (chunk.length < 0) {
+					return;
+				}
+			}
+		} catch (InterruptedException ie) {
+			// Nobody interrupts this thread.
+		}
+	}
+
+	/**
+	 * A buffer of data read from the underlying stream.
+	 */
+	private static class Chunk
+	{
+		Chunk(int size)
+		{
+			super();
+			bytes = new byte[size];
+		}
+
+		byte[] bytes;
+		IOException error = null;
+		/**
+		 * The number of bytes read, or -1 at the end of the data.
+		 */
+		int length = 0;
+	}
+}
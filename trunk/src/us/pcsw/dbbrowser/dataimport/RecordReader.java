@@ -0,0 +1,72 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.IOException;
+
+import java.nio.charset.Charset;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.RecordReader
+ * -
+ * Splits data into records of fields, which are packed into RowBlocks for
+ * the import.  Each format of data which can be imported has one; the
+ * import, sampling and profiling of the data are the same for all of them.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+abstract class RecordReader
+{
+	// METHODS
+
+	/**
+	 * Copies the current record to the end of the block.
+	 */
+	abstract void appendTo(RowBlock block);
+
+	/**
+	 * Returns the charset the fields' bytes are in.
+	 */
+	abstract Charset getCharset();
+
+	/**
+	 * Returns the position in the data after the current record and its line
+	 * break, where the next record would be read from.
+	 */
+	abstract long getEndOffset();
+
+	/**
+	 * Returns the values of the current record.
+	 */
+	abstract String[] getLine();
+
+	/**
+	 * Reads the next record.
+	 * @return false if there are no more records.
+	 * @throws IOException indicates the data could not be read, or is not
+	 *                     in the reader's format.
+	 */
+	abstract boolean next()
+		throws IOException;
+}
@@ -0,0 +1,452 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.nio.charset.Charset;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.RowBlock
+ * -
+ * A block of CSV records passed between the stages of an import.  The
+ * tokenizer copies the bytes of each record into the block, a RowConverter
+ * turns the fields into the values to insert, and the import thread binds
+ * them.  Blocks are handed from stage to stage, so only one thread uses a
+ * block at a time, except for waiting for it to be converted.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 Rows record where they end in the data.</LI>
+ * </UL></P>
+ */
+class RowBlock
+{
+	// CONSTANTS
+
+	private static final int INITIAL_BYTE_COUNT = 64 * 1024;
+	private static final int INITIAL_FIELD_COUNT = 1024;
+
+	/**
+	 * The digits of Long.MAX_VALUE, for checking whether 19 digits fit.
+	 */
+	private static final byte[] MAX_LONG_DIGITS = {
+		'9', '2', '2', '3', '3', '7', '2', '0', '3', '6', '8', '5', '4', '7',
+		'7', '5', '8', '0', '7'
+	};
+
+	// CONSTRUCTORS
+
+	/**
+	 * @param charset The charset of the data.
+	 * @param capacity The number of rows the block is expected to hold.
+	 */
+	RowBlock(Charset charset, int capacity)
+	{
+		super();
+		this.charset = charset;
+		endOffsets = new long[capacity];
+		lineNumbers = new int[capacity];
+		rowFields = new int[capacity + 1];
+	}
+
+	/**
+	 * Creates a block which marks the end of the data.
+	 * @param error The error which ended the data, or null.
+	 */
+	RowBlock(Exception error)
+	{
+		this(null, 0);
+		this.converted = true;
+		this.end = true;
+		this.error = error;
+	}
+
+	// MEMBERS
+
+	private int byteCount = 0;
+	private byte[] bytes = new byte[INITIAL_BYTE_COUNT];
+	private Charset charset;
+	private boolean converted = false;
+	private boolean end = false;
+	private long[] endOffsets;
+	private int[] fieldEnds = new int[INITIAL_FIELD_COUNT];
+	private int[] fieldStarts = new int[INITIAL_FIELD_COUNT];
+	private Exception error = null;
+	private int[] lineNumbers;
+	/**
+	 * The index in fieldStarts and fieldEnds of each row's first field.
+	 */
+	private int[] rowFields;
+	private int rowCount = 0;
+	private Object[][] values = null;
+	private List[] warnings = null;
+
+	// METHODS
+
+	/**
+	 * Adds a record.
+	 * @param buffer The buffer holding the record.
+	 * @param offset The position of the record in the buffer.
+	 * @param starts The fields' starts, relative to offset.
+	 * @param ends The fields' ends, relative to offset.
+	 * @param fieldCount The number of fields.
+	 * @param lineNumber The number of the line on which the record ends.
+	 * @param endOffset The position in the data after the record.
+	 */
+	void addRow(
+			byte[] buffer, int offset, int[] starts, int[] ends,
+			int fieldCount, int lineNumber, long endOffset
+		)
+	{
+		if (rowCount == lineNumbers.length) {
+			long[] l = new long[Math.max(16, rowCount * 2)];
+			System.arraycopy(endOffsets, 0, l, 0, rowCount);
+			endOffsets = l;
+			int[] a = new int[l.length];
+			System.arraycopy(lineNumbers, 0, a, 0, rowCount);
+			lineNumbers = a;
+			a = new int[a.length + 1];
+			System.arraycopy(rowFields, 0, a, 0, rowCount + 1);
+			rowFields = a;
+		}
+		int first = rowFields[rowCount];
+		if (first + fieldCount > fieldStarts.length) {
+			int size = Math.max(fieldStarts.length * 2, first + fieldCount);
+			int[] a = new int[size];
+			System.arraycopy(fieldStarts, 0, a, 0, first);
+			fieldStarts = a;
+			a = new int[size];
+			System.arraycopy(fieldEnds, 0, a, 0, first);
+			fieldEnds = a;
+		}
+		// The fields are in order, so the record ends with the last one.
+		int length = fieldCount > 0 ? ends[fieldCount - 1] : 0;
+		if (byteCount + length > bytes.length) {
+			byte[] b = new byte[Math.max(bytes.length * 2, byteCount + length)];
+			System.arraycopy(bytes, 0, b, 0, byteCount);
+			bytes = b;
+		}
+		System.arraycopy(buffer, offset, bytes, byteCount, length);
+		for (int i = 0; i < fieldCount; i++) {
+			fieldStarts[first + i] = byteCount + starts[i];
+			fieldEnds[first + i] = byteCount + ends[i];
+		}
+		byteCount += length;
+		endOffsets[rowCount] = endOffset;
+		lineNumbers[rowCount] = lineNumber;
+		rowFields[++rowCount] = first + fieldCount;
+	}
+
+	/**
+	 * Records a problem converting a row's data.
+	 */
+	void addWarning(int row, String message)
+	{
+		if (warnings == null) {
+			warnings = new List[rowCount];
+		}
+		if (warnings[row] == null) {
+			warnings[row] = new LinkedList();
+		}
+		warnings[row].add(message);
+	}
+
+	/**
+	 * Waits until the block has been converted.
+	 */
+	synchronized void awaitConverted()
+		throws InterruptedException
+	{
+		while (! converted) {
+			wait();
+		}
+	}
+
+	/**
+	 * Returns the position in the data after the row, counted from the start
+	 * of the data the tokenizer read.
+	 */
+	long getEndOffset(int row)
+	{
+		return endOffsets[row];
+	}
+
+	/**
+	 * Returns the error which ended the data, or null.
+	 */
+	Exception getError()
+	{
+		return error;
+	}
+
+	/**
+	 * Returns the number of fields in the row.
+	 */
+	int getFieldCount(int row)
+	{
+		return rowFields[row + 1] - rowFields[row];
+	}
+
+	/**
+	 * Returns the number of the line on which the row ends, counted from the
+	 * start of the data the tokenizer read.
+	 */
+	int getLineNumber(int row)
+	{
+		return lineNumbers[row];
+	}
+
+	/**
+	 * Parses the field as a whole number without making a String of it.
+	 * @throws NumberFormatException indicates the field is not a whole number
+	 *                               or is out of the range of a long.
+	 */
+	long getLong(int row, int field)
+	{
+		int i = rowFields[row] + field;
+		int start = fieldStarts[i];
+		int end = fieldEnds[i];
+		while (start < end && (bytes[start] & 0xff) <= ' ') {
+			start++;
+		}
+		while (end > start && (bytes[end - 1] & 0xff) <= ' ') {
+			end--;
+		}
+		boolean negative = false;
+		if (start < end && (bytes[start] == '-' || bytes[start] == '+')) {
+			negative = bytes[start++] == '-';
+		}
+		if (start == end) {
+			throw new NumberFormatException(getString(row, field));
+		}
+		// Accumulate negatively so that Long.MIN_VALUE can be read.
+		long limitValue = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long value = 0;
+		for (int j = start; j < end; j++) {
+			int digit = bytes[j] - '0';
+			if (
+					digit < 0 || digit > 9 || value < limitValue / 10 ||
+					value * 10 < limitValue + digit
+				)
+			{
+				throw new NumberFormatException(getString(row, field));
+			}
+			value = value * 10 - digit;
+		}
+		return negative ? value : -value;
+	}
+
+	/**
+	 * Returns the number of rows in the block.
+	 */
+	int getRowCount()
+	{
+		return rowCount;
+	}
+
+	/**
+	 * Returns the field's value.
+	 */
+	String getString(int row, int field)
+	{
+		int i = rowFields[row] + field;
+		return new String(
+				bytes, fieldStarts[i], fieldEnds[i] - fieldStarts[i], charset
+			);
+	}
+
+	/**
+	 * Returns the field's value without leading or trailing whitespace.
+	 */
+	String getTrimmedString(int row, int field)
+	{
+		int i = rowFields[row] + field;
+		int start = fieldStarts[i];
+		int end = fieldEnds[i];
+		while (start < end && (bytes[start] & 0xff) <= ' ') {
+			start++;
+		}
+		while (end > start && (bytes[end - 1] & 0xff) <= ' ') {
+			end--;
+		}
+		return new String(bytes, start, end - start, charset);
+	}
+
+	/**
+	 * Returns the values to insert for the row, one for each column which
+	 * is not auto-incremented.
+	 */
+	Object[] getValues(int row)
+	{
+		return values[row];
+	}
+
+	/**
+	 * Returns the problems converting the row's data, or null if there were
+	 * none.
+	 */
+	List getWarnings(int row)
+	{
+		return warnings == null ? null : warnings[row];
+	}
+
+	/**
+	 * Indicates whether the field is empty or only whitespace.
+	 */
+	boolean isBlank(int row, int field)
+	{
+		int i = rowFields[row] + field;
+		for (int j = fieldStarts[i]; j < fieldEnds[i]; j++) {
+			if ((bytes[j] & 0xff) > ' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Indicates whether the field, without leading or trailing whitespace,
+	 * is a number: an optional sign, digits with an optional decimal point,
+	 * and an optional exponent.
+	 */
+	boolean isDecimalNumber(int row, int field)
+	{
+		int i = rowFields[row] + field;
+		int start = fieldStarts[i];
+		int end = fieldEnds[i];
+		while (start < end && (bytes[start] & 0xff) <= ' ') {
+			start++;
+		}
+		while (end > start && (bytes[end - 1] & 0xff) <= ' ') {
+			end--;
+		}
+		if (start < end && (bytes[start] == '-' || bytes[start] == '+')) {
+			start++;
+		}
+		int digits = 0;
+		boolean point = false;
+		for (; start < end; start++) {
+			byte b = bytes[start];
+			if (b >= '0' && b <= '9') {
+				digits++;
+			} else if (b == '.' && ! point) {
+				point = true;
+			} else {
+				break;
+			}
+		}
+		if (digits == 0) {
+			return false;
+		}
+		if (start < end && (bytes[start] == 'e' || bytes[start] == 'E')) {
+			start++;
+			if (start < end && (bytes[start] == '-' || bytes[start] == '+')) {
+				start++;
+			}
+			if (start == end) {
+				return false;
+			}
+			while (start < end && bytes[start] >= '0' && bytes[start] <= '9') {
+				start++;
+			}
+		}
+		return start == end;
+	}
+
+	/**
+	 * Indicates whether the block marks the end of the data.
+	 */
+	boolean isEnd()
+	{
+		return end;
+	}
+
+	/**
+	 * Indicates whether the field, without leading or trailing whitespace,
+	 * is a whole number in the range of a long, so that getLong can read it.
+	 */
+	boolean isWholeNumber(int row, int field)
+	{
+		int i = rowFields[row] + field;
+		int start = fieldStarts[i];
+		int end = fieldEnds[i];
+		while (start < end && (bytes[start] & 0xff) <= ' ') {
+			start++;
+		}
+		while (end > start && (bytes[end - 1] & 0xff) <= ' ') {
+			end--;
+		}
+		boolean negative = false;
+		if (start < end && (bytes[start] == '-' || bytes[start] == '+')) {
+			negative = bytes[start++] == '-';
+		}
+		if (start == end) {
+			return false;
+		}
+		while (start < end - 1 && bytes[start] == '0') {
+			start++;
+		}
+		for (int j = start; j < end; j++) {
+			if (bytes[j] < '0' || bytes[j] > '9') {
+				return false;
+			}
+		}
+		int length = end - start;
+		if (length != MAX_LONG_DIGITS.length) {
+			return length < MAX_LONG_DIGITS.length;
+		}
+		// Compare the digits with those of the largest long.
+		for (int j = 0; j < length; j++) {
+			int difference = bytes[start + j] - MAX_LONG_DIGITS[j];
+			if (negative && j == length - 1) {
+				// Long.MIN_VALUE is one further from 0.
+				difference--;
+			}
+			if (difference != 0) {
+				return difference < 0;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Marks the block as converted, releasing the thread waiting for it.
+	 */
+	synchronized void setConverted()
+	{
+		converted = true;
+		notifyAll();
+	}
+
+	/**
+	 * Sets the values to insert for the row.
+	 */
+	void setValues(int row, Object[] rowValues)
+	{
+		if (values == null) {
+			values = new Object[rowCount][];
+		}
+		values[row] = rowValues;
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.RowConverter
+ * -
+ * Converts the fields of a block of CSV records into the values to insert,
+ * using a ColumnConverter for each column.  Blank fields become null.  A
+ * RowConverter holds no state which changes, so the converter threads of a
+ * pipeline share one.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created from the parsing code in
+ *                  CSVImportThread.</LI>
+ * <LI>Oct 18, 2026 Fields are converted by a ColumnConverter for each
+ *                  column rather than by a switch on the column's type.</LI>
+ * <LI>Oct 18, 2026 The warnings follow the import's error policy.</LI>
+ * </UL></P>
+ */
+class RowConverter
+{
+	// CONSTRUCTORS
+
+	/**
+	 * @param insertColumns The column for each field of a record, or null
+	 *                      for a field which is skipped.
+	 * @param paramCount The number of columns which are not null.
+	 * @param lineOffset The number of lines in the file before the data the
+	 *                   records are read from.
+	 * @param dataImport The import, whose patterns are used for dates and
+	 *                   times and whose error policy decides whether a
+	 *                   field which can't be converted becomes NULL.
+	 * @throws IllegalArgumentException indicates one of the import's
+	 *                                  patterns is not valid.
+	 */
+	RowConverter(
+			ImportColumn[] insertColumns, int paramCount, int lineOffset,
+			DataImport dataImport
+		)
+	{
+		super();
+		converters = new ColumnConverter[insertColumns.length];
+		for (int i = 0; i < insertColumns.length; i++) {
+			if (insertColumns[i] != null) {
+				converters[i] = ColumnConverter.create(insertColumns[i], dataImport);
+			}
+		}
+		this.lineOffset = lineOffset;
+		this.nullOnError =
+			dataImport.getErrorPolicy() == DataImport.ERROR_POLICY_ABORT;
+		this.paramCount = paramCount;
+	}
+
+	// MEMBERS
+
+	/**
+	 * The converter for each field of a record, or null for a field which
+	 * is skipped.
+	 */
+	private ColumnConverter[] converters;
+	private int lineOffset;
+	/**
+	 * Whether a row with a field which can't be converted is inserted with
+	 * NULL for the field rather than rejected.
+	 */
+	private boolean nullOnError;
+	private int paramCount;
+
+	// METHODS
+
+	/**
+	 * Converts every row of the block.  Fields which cannot be converted
+	 * become null and are reported with the block's warnings; the rows are
+	 * rejected unless the import's error policy is to abort.
+	 */
+	void convert(RowBlock block)
+	{
+		for (int row = 0; row < block.getRowCount(); row++) {
+			Object[] values = new Object[paramCount];
+			int paramIndex = 0;
+			for (int j = 0; j < converters.length; j++) {
+				if (converters[j] != null) {
+					if (j < block.getFieldCount(row) && ! block.isBlank(row, j)) {
+						try {
+							values[paramIndex] = converters[j].convert(block, row, j);
+						} catch (RuntimeException re) {
+							int line = lineOffset + block.getLineNumber(row);
+							block.addWarning(
+									row,
+									"Unable to parse the data in row " + line +
+									" and column " + String.valueOf(j + 1) +
+									(nullOnError ? " NULL will be inserted: " : ": ") +
+									re.getLocalizedMessage()
+								);
+						}
+					}
+					paramIndex++;
+				}
+			}
+			block.setValues(row, values);
+		}
+	}
+}
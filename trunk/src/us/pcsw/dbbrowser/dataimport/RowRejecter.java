@@ -0,0 +1,212 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import java.nio.charset.Charset;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.RowRejecter
+ * -
+ * Counts the rows of an import which are skipped because they can't be
+ * converted or inserted, and writes them to the reject file if there is
+ * one.  The threads loading the parts of a file share one.
+ * <P>
+ * Each rejected row is written as a CSV record of its line number, the
+ * reason it was rejected and its fields, so the file can be corrected and
+ * imported by skipping its first two columns.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+class RowRejecter
+{
+	// CONSTRUCTORS
+
+	/**
+	 * @param rejectFile The file to write rejected rows to, or null if they
+	 *                   are only counted.
+	 * @param append Whether to add to the file rather than replace it.
+	 * @param maxErrors The number of rows which may be rejected, or 0 if
+	 *                  there is no limit.
+	 */
+	RowRejecter(File rejectFile, boolean append, int maxErrors)
+	{
+		super();
+		this.append = append;
+		this.maxErrors = maxErrors;
+		this.rejectFile = rejectFile;
+	}
+
+	// MEMBERS
+
+	private boolean append;
+	private int maxErrors;
+	private File rejectFile;
+	private int rejectedCount = 0;
+	private Writer writer = null;
+
+	// METHODS
+
+	/**
+	 * Closes the reject file.
+	 */
+	synchronized void close()
+	{
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException ioe) {
+				// Every row was flushed as it was written.
+			}
+			writer = null;
+		}
+	}
+
+	/**
+	 * Returns the number of rows which can be rejected, or 0 if there is no
+	 * limit.
+	 */
+	int getMaxErrors()
+	{
+		return maxErrors;
+	}
+
+	/**
+	 * Returns the file rejected rows are written to, or null.
+	 */
+	File getRejectFile()
+	{
+		return rejectFile;
+	}
+
+	/**
+	 * Returns the number of rows rejected so far.
+	 */
+	synchronized int getRejectedCount()
+	{
+		return rejectedCount;
+	}
+
+	/**
+	 * Returns a message saying how many rows were rejected and where they
+	 * were written, or null if none were.
+	 */
+	synchronized String getSummary()
+	{
+		if (rejectedCount == 0) {
+			return null;
+		}
+		return
+			rejectedCount + " row(s) could not be imported" +
+			(
+					rejectFile == null ?
+					"." : " and were written to " + rejectFile.getPath() + '.'
+			);
+	}
+
+	/**
+	 * Rejects a row, writing it to the reject file.
+	 * @param line The CSV line number of the row.
+	 * @param reason Why the row was rejected.
+	 * @param block The block holding the row.
+	 * @param row The row within the block.
+	 * @return false if no more rows may be rejected, in which case the row
+	 *         is not written and the import should stop.
+	 * @throws IOException indicates the row could not be written.
+	 */
+	synchronized boolean reject(
+			int line, String reason, RowBlock block, int row
+		)
+		throws IOException
+	{
+		if (maxErrors > 0 && rejectedCount >= maxErrors) {
+			return false;
+		}
+		rejectedCount++;
+		if (rejectFile == null) {
+			return true;
+		}
+		if (writer == null) {
+			writer = new BufferedWriter(
+					new OutputStreamWriter(
+							new FileOutputStream(rejectFile, append),
+							Charset.defaultCharset()
+						)
+				);
+		}
+		writer.write(String.valueOf(line));
+		writer.write(',');
+		writeField(reason);
+		for (int i = 0; i < block.getFieldCount(row); i++) {
+			writer.write(',');
+			writeField(block.getString(row, i));
+		}
+		writer.write(System.getProperty("line.separator"));
+		// Keep what was rejected if the import dies.
+		writer.flush();
+		return true;
+	}
+
+	/**
+	 * Writes a field, quoting it if CSVTokenizer would not read it back as
+	 * it is.
+	 */
+	private void writeField(String value)
+		throws IOException
+	{
+		boolean quote =
+			value.length() > 0 &&
+			(
+					value.charAt(0) == ' ' || value.charAt(0) == '\t' ||
+					value.charAt(value.length() - 1) == ' ' ||
+					value.charAt(value.length() - 1) == '\t'
+			);
+		for (int i = 0; i < value.length() && ! quote; i++) {
+			char c = value.charAt(i);
+			quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+		}
+		if (! quote) {
+			writer.write(value);
+			return;
+		}
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"') {
+				writer.write("\"\"");
+			} else if (c == '\\') {
+				writer.write("\\\\");
+			} else {
+				writer.write(c);
+			}
+		}
+		writer.write('"');
+	}
+}
@@ -0,0 +1,288 @@
+/*
+ * DBBrowser is software for browsing the structure and contents of databases.
+ * Copyright (C) 2001 Philip A. Chapman
+ * 
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the Free
+ * Software Foundation; either version 2 of the License, or (at your option)
+ * any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program; if not, write to the
+ *
+ *                     Free Software Foundation, Inc.
+ *                    51 Franklin Street, Fifth Floor
+ *                      Boston, MA  02110-1301, USA.
+ */
+package us.pcsw.dbbrowser.dataimport;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+import java.nio.channels.FileChannel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+
+import us.pcsw.dbbrowser.cp.ConnectionProvider;
+
+/**
+ * us.pcsw.dbbrowser.dataimport.TextImport
+ * -
+ * An import of data which a RecordReader splits into records.  Each format
+ * creates its own reader; the records are then imported, sampled and
+ * profiled in the same way whatever the format, through the same
+ * ImportColumn mapping and batches.
+ * <P>
+ * Data compressed with gzip or zip is decompressed as it is read.  Such
+ * data can't be split into ranges, so it is loaded on one connection and
+ * is not checkpointed.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created from CSVImport.</LI>
+ * </UL></P>
+ */
+public abstract class TextImport extends DataImport
+{
+	// CONSTANTS
+
+	/**
+	 * Samples are not split into parts smaller than this.
+	 */
+	private static final long MIN_PROFILE_PART_SIZE = 1024 * 1024;
+
+	// METHODS
+
+	/**
+	 * Creates the reader which splits the data into records.
+	 * @param in The data, decompressed.
+	 */
+	abstract RecordReader createReader(InputStream in);
+
+	/**
+	 * Indicates whether values may be quoted, so that a line break within
+	 * quotes does not end a record.
+	 */
+	boolean hasQuotedValues()
+	{
+		return true;
+	}
+
+	/**
+	 * @see us.pcsw.dbbrowser.dataimport.DataImport#importData(us.pcsw.dbbrowser.cp.ConnectionProvider, java.lang.String, boolean, us.pcsw.dbbrowser.dataimport.ImportColumn[], java.io.InputStream, boolean)
+	 */
+	public void importData(
+			ConnectionProvider provider, String tableName,
+			boolean createTable, ImportColumn[] columns, InputStream iStream,
+			boolean skipFirstRow
+		)
+	{
+		InputStream in;
+		try {
+			in = CompressedInput.open(iStream);
+		} catch (IOException ioe) {
+			notifyListeners(
+					new ImportEvent(
+							this, 0, 0,
+							"Unable to read the data: " + ioe.getLocalizedMessage(),
+							ImportEvent.EVENT_TYPE_STOPPED
+						)
+				);
+			return;
+		}
+		RowRejecter rejecter = null;
+		if (getErrorPolicy() != ERROR_POLICY_ABORT) {
+			rejecter = new RowRejecter(
+					getErrorPolicy() == ERROR_POLICY_REJECT ?
+						getRejectFile() : null,
+					isResuming(), getMaxErrors()
+				);
+		}
+		boolean partitioned = getParallelism() > 1 || getCheckpointFile() != null;
+		Thread thread;
+		if (in instanceof FileInputStream && isSplittable() && partitioned) {
+			// A file can be split into ranges read at the same time, and
+			// read again from where an import stopped.
+			thread = new PartitionedCSVImportThread(
+					this, provider, tableName, createTable, columns,
+					(FileInputStream)in, skipFirstRow, getParallelism(),
+					getCheckpointFile(), isResuming(), rejecter
+				);
+		} else {
+			if (partitioned && in != iStream) {
+				notifyListeners(
+						new ImportEvent(
+								this, 0, 0,
+								"The data is compressed, so it will be " +
+								"loaded on one connection and can't be " +
+								"resumed if the import stops.",
+								ImportEvent.EVENT_TYPE_MESSAGE
+							)
+					);
+			}
+			CSVImportThread importThread = new CSVImportThread(
+					this, provider, tableName, createTable,
+					columns, in, skipFirstRow
+				);
+			if (rejecter != null) {
+				importThread.setRejecter(rejecter);
+			}
+			thread = importThread;
+		}
+		thread.start();
+	}
+
+	/**
+	 * Indicates whether a file may be split into ranges which are read at
+	 * the same time.
+	 */
+	boolean isSplittable()
+	{
+		return true;
+	}
+
+	/**
+	 * Profiles the sample in parts read at once by a CSVProfileThread for
+	 * each processor.  Compressed data is profiled by one thread.
+	 * @see us.pcsw.dbbrowser.dataimport.DataImport#profileData(java.io.File, long, boolean)
+	 */
+	public ColumnProfile[] profileData(
+			File file, long sampleSize, boolean skipFirstRow
+		) throws IOException
+	{
+		ColumnConverter[] converters = ColumnProfile.createConverters(this);
+		FileInputStream fis = new FileInputStream(file);
+		try {
+			InputStream in = CompressedInput.open(fis);
+			CSVProfileThread[] threads;
+			long limit = 0;
+			long size = 0;
+			if (in == fis && isSplittable()) {
+				FileChannel channel = fis.getChannel();
+				size = channel.size();
+				limit = sampleSize > 0 ? Math.min(sampleSize, size) : size;
+				int count = (int)Math.max(
+						1,
+						Math.min(
+								Runtime.getRuntime().availableProcessors(),
+								limit / MIN_PROFILE_PART_SIZE
+							)
+					);
+				long[][] ranges = PartitionedCSVImportThread.findRanges(
+						channel, limit, count, hasQuotedValues()
+					);
+				threads = new CSVProfileThread[ranges.length];
+				for (int i = 0; i < ranges.length; i++) {
+					long start = ranges[i][0];
+					long end = i + 1 < ranges.length ? ranges[i + 1][0] : limit;
+					// The last part reads to the end of the record the sample
+					// ends in.
+					threads[i] = new CSVProfileThread(
+							createReader(new FileRangeInputStream(channel, start, size)),
+							end - start, skipFirstRow && start == 0, converters
+						);
+				}
+			} else {
+				threads = new CSVProfileThread[] {
+					new CSVProfileThread(
+							createReader(in),
+							sampleSize > 0 ? sampleSize : Long.MAX_VALUE,
+							skipFirstRow, converters
+						)
+				};
+			}
+			for (int i = 0; i < threads.length; i++) {
+				threads[i].start();
+			}
+			List profiles = new ArrayList();
+			long rowCount = 0;
+			for (int i = 0; i < threads.length; i++) {
+				try {
+					threads[i].join();
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+				if (threads[i].getError() != null) {
+					throw threads[i].getError();
+				}
+				ColumnProfile[] p = threads[i].getProfiles();
+				for (int j = 0; j < p.length; j++) {
+					if (j < profiles.size()) {
+						((ColumnProfile)profiles.get(j)).merge(p[j]);
+					} else {
+						profiles.add(p[j]);
+					}
+				}
+				rowCount += threads[i].getRowCount();
+			}
+			boolean complete = in == fis && isSplittable() ?
+				limit == size : threads[0].isEnded();
+			ColumnProfile[] returnValue = new ColumnProfile[profiles.size()];
+			profiles.toArray(returnValue);
+			for (int i = 0; i < returnValue.length; i++) {
+				// Fields which were blank or missing were not added.
+				returnValue[i].addBlanks(
+						rowCount - returnValue[i].getValueCount() -
+						returnValue[i].getBlankCount()
+					);
+				returnValue[i].setComplete(complete);
+			}
+			return returnValue;
+		} finally {
+			fis.close();
+		}
+	}
+
+	/**
+	 * @see us.pcsw.dbbrowser.dataimport.DataImport#sampleData(java.io.InputStream)
+	 */
+	public String[][] sampleData(InputStream iStream, int rowCount)
+		throws IOException
+	{
+		return sampleData(createReader(CompressedInput.open(iStream)), rowCount);
+	}
+
+	/**
+	 * Samples the records a reader reads.
+	 * @see #sampleData(InputStream, int)
+	 */
+	String[][] sampleData(RecordReader reader, int rowCount)
+		throws IOException
+	{
+		int colCount = 0;
+		Vector rows = new Vector();
+		String[] row;
+		rowCount++;
+		while (rows.size() < rowCount && reader.next()) {
+			row = reader.getLine();
+			if (row.length > colCount) {
+				colCount = row.length;
+			}
+			rows.add(row);
+		}
+		
+		String[][] returnValue = new String[rows.size()][colCount];
+		for (int i = 0; i < returnValue.length; i++) {
+			row = (String[])rows.elementAt(i);
+			for (int j = 0; j < row.length; j++) {
+				if (j >= row.length) {
+					returnValue[i][j] = null;  // Perhaps I should use empty String?
+				} else {
+					returnValue[i][j] = row[j];
+				}
+			}
+		}
+		
+		return returnValue;
+	}
+}
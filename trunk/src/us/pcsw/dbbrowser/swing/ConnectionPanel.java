@@ -55,6 +55,7 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 
+import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -104,7 +105,9 @@ import us.pcsw.dbbrowser.event.StatusEvent;
 import us.pcsw.dbbrowser.event.StatusListener;
 import us.pcsw.dbbrowser.event.StatusTypeEnum;
 
+import us.pcsw.util.tablemodelexport.ExportTarget;
 import us.pcsw.util.tablemodelexport.TableModelExport;
+import us.pcsw.util.tablemodelexport.TableModelExportType;
 
 import us.pcsw.swing.BasicFileFilter;
 import us.pcsw.swing.SearchAndReplaceDialog;
@@ -231,6 +234,22 @@ import us.pcsw.swing.SearchAndReplaceDialog;
  *                import feature.  PAC </LI>
  * <LI>03/11/2005 PAC Added the ability to cancel a statement that is being
  *                executed. </LI>
+ * <LI>10/18/2026 Result models are closed when their panels are removed or
+ *                the connection is closed. </LI>
+ * <LI>10/18/2026 Statements are run with the connection provider so that
+ *                queries can be streamed. </LI>
+ * <LI>10/18/2026 The fetch size and round trips are shown with the
+ *                execution time. </LI>
+ * <LI>10/18/2026 Added executeToFile, which writes a query's rows straight
+ *                to an export file. </LI>
+ * <LI>10/18/2026 Results are saved in the background. </LI>
+ * <LI>10/18/2026 Fully loaded results are saved with the export threads
+ *                preference. </LI>
+ * <LI>10/18/2026 A statement is not run until the results it replaces have
+ *                closed their resultsets in the background. </LI>
+ * <LI>10/18/2026 Says when a statement's later resultsets were not
+ *                exported. </LI>
+ * <LI>10/18/2026 The round trip count is shown as an estimate. </LI>
  * </UL></P>
  *
  * @author Philip A. Chapman
@@ -511,6 +530,7 @@ public class ConnectionPanel
 	{
 		// Can't close what we do not have.
 		if (db != null) {
+			closeResults();
 			try {
 				db.close();
 			} catch (SQLException sqle) {}
@@ -520,6 +540,26 @@ public class ConnectionPanel
 		}
 	}
 
+	/**
+	 * Closes the models of the result panels, which may hold open resultsets
+	 * on the connection.  The rows already read are still shown.
+	 * @return The models closed, which may still be closing their
+	 *         resultsets.
+	 */
+	private List closeResults()
+	{
+		List models = new ArrayList();
+		for (int i = 0; i < outputTabbedPane.getComponentCount(); i++) {
+			if (outputTabbedPane.getComponentAt(i) instanceof ResultSetPanel) {
+				ResultSetPanel panel =
+					(ResultSetPanel)outputTabbedPane.getComponentAt(i);
+				panel.close();
+				models.add(panel.getResultSetTableModel());
+			}
+		}
+		return models;
+	}
+
 	/**
 	 *  Clear the SQL statement pane.
 	 */	
@@ -594,6 +634,35 @@ public class ConnectionPanel
 	 *  @param event ActionEvent The event that was sent.
 	 */
 	public void executeScript()
+	{
+		executeScript(null);
+	}
+
+	/**
+	 *  Executes the current (selected) SQL statement, writing the rows it
+	 *  returns to a file the user chooses as they are read rather than
+	 *  showing them.
+	 */
+	public void executeToFile()
+	{
+		if (isBshScript()) {
+			setMessage("Only SQL statements can be executed to a file.", false);
+			return;
+		}
+		ExportTarget target = TableModelExport.chooseExportTarget(
+				this, "SQL Results", TableModelExportType.list()
+			);
+		if (target != null) {
+			executeScript(target);
+		}
+	}
+
+	/**
+	 *  Executes the current (selected) SQL statement or BeanShell script.
+	 *  @param exportTarget The file to write the rows of a query to, or null
+	 *                      to show them.
+	 */
+	private void executeScript(ExportTarget exportTarget)
 	{
 		String sql = null;
 		try {
@@ -615,7 +684,16 @@ public class ConnectionPanel
 					worker = new BshExecutionWorker(getConnectionProvider(), sql);
 					cancelButton.setEnabled(false);
 				} else {
-					worker = new SQLExecutionWorker(getDatabaseConnection(), sql);
+					// A streaming cursor from the last statement may hold
+					// the connection in a transaction, which the new
+					// statement must not run inside of.
+					List closedModels = closeResults();
+					SQLExecutionWorker sqlWorker = new SQLExecutionWorker(
+							getConnectionProvider(), getDatabaseConnection(), sql,
+							exportTarget
+						);
+					sqlWorker.setClosedModels(closedModels);
+					worker = sqlWorker;
 					cancelButton.setEnabled(true);
 				}
 				worker.addStatusListener(this);
@@ -1376,10 +1454,14 @@ public class ConnectionPanel
 	{
 		try {
 			if (hasResultSet()) {
-				notifyStatusListeners
-					(new StatusEvent(this, StatusTypeEnum.BUSY));
-				setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-				TableModelExport.saveTableModel(this, this.getResultSetTableModel(), "SQL Results");
+				// The export runs in the background.  The models wait for
+				// rows which are not cached when read off the event
+				// dispatch thread, rather than returning placeholders.
+				TableModelExport.saveTableModel(
+						this, getResultSetTableModel(), "SQL Results",
+						TableModelExportType.list(),
+						Preferences.getExportThreads()
+					);
 			} else if (hasScriptOutput()) {
 				JFileChooser fchooser = new JFileChooser();
 				fchooser.setFileFilter(new BasicFileFilter("sql", "SQL Script"));
@@ -1547,6 +1629,7 @@ public class ConnectionPanel
 		// Delete any unneeded ResultSetPanels.  Always leave the first panel
 		// and the last component, which will be the script output panel.
 		while (outputTabbedPane.getComponentCount() > 2 && (outputTabbedPane.getComponentCount() - 1) > count) {
+			((ResultSetPanel)outputTabbedPane.getComponentAt(outputTabbedPane.getComponentCount() - 2)).close();
 			outputTabbedPane.remove(outputTabbedPane.getComponentCount() - 2);
 		}
 		
@@ -1642,12 +1725,21 @@ public class ConnectionPanel
 				("SQL statement has been executed.  Execution time ");
 		executeMsg.append(formatExecuteTime(results.getRunTimeMills()));
 		executeMsg.append('.');
+		if (results.getFetchSize() > 0) {
+			executeMsg.append("  Rows fetched ");
+			executeMsg.append(results.getFetchSize());
+			executeMsg.append(" at a time in an estimated ");
+			executeMsg.append(results.getRoundTrips());
+			executeMsg.append(" round trip");
+			executeMsg.append(results.getRoundTrips() == 1 ? "." : "s.");
+		}
 
 		int count = results.getResultSetModelList().size();
 		
 		// Delete any unneeded ResultSetPanels.  Always leave the first panel
 		// and the last component, which will be the script output panel.
 		while (outputTabbedPane.getComponentCount() > 2 && (outputTabbedPane.getComponentCount() - 1) > count) {
+			((ResultSetPanel)outputTabbedPane.getComponentAt(outputTabbedPane.getComponentCount() - 2)).close();
 			outputTabbedPane.remove(outputTabbedPane.getComponentCount() - 2);
 		}
 		
@@ -1673,6 +1765,22 @@ public class ConnectionPanel
 			executeMsg.append(" records affected.");
 		}
 		
+		if (results.getExportFile() != null) {
+			executeMsg.append('\n');
+			executeMsg.append(results.getExportedRowCount());
+			executeMsg.append(" rows written to ");
+			executeMsg.append(results.getExportFile().getAbsolutePath());
+			executeMsg.append('.');
+			if (results.getSkippedResultSetCount() > 0) {
+				executeMsg.append("  Only the first resultset was exported; ");
+				executeMsg.append(results.getSkippedResultSetCount());
+				executeMsg.append(
+						results.getSkippedResultSetCount() == 1 ?
+						" other was not." : " others were not."
+					);
+			}
+		}
+		
 		for (Iterator iter = results.getExceptionList().iterator(); iter.hasNext(); ) {
 			executeMsg.append('\n');
 			executeMsg.append(((Throwable)iter.next()).getMessage());
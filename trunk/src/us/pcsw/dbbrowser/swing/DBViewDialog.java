@@ -48,6 +48,8 @@ import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.JTree;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
 import javax.swing.tree.TreeModel;
 
 import org.slf4j.Logger;
@@ -83,11 +85,20 @@ import us.pcsw.dbbrowser.event.StatusTypeEnum;
  * <LI>Aug 1, 2003  Added a popup menu item that will retrieve a view's text,
  *                  similar to the one for procedures.  Improved the procedure
  *                  text view code.  PAC </LI>
+ * <LI>Oct 18, 2026 The popup menu items borrow pooled connections.  Tree
+ *                  models return their connections when removed or when the
+ *                  dialog is closed.</LI>
+ * <LI>Oct 18, 2026 The popup menu items use the metadata connection.  Tree
+ *                  models discard their nodes when removed or when the
+ *                  dialog is closed.</LI>
+ * <LI>Oct 18, 2026 Collapsing a node cancels a background load of its
+ *                  children.</LI>
  * </UL></P>
  */
 public final class DBViewDialog
 	extends JFrame
-	implements ActionListener, MouseListener, StatusListener
+	implements ActionListener, MouseListener, StatusListener,
+	           TreeExpansionListener
 {
 	private static final Logger logger = LoggerFactory.getLogger(DBViewDialog.class);
 	private static final long serialVersionUID = 1L;
@@ -148,6 +159,7 @@ public final class DBViewDialog
 		dbViewTree = new JTree(dbViewModel);
 		dbViewTree.setDragEnabled(true);
 		dbViewTree.addMouseListener(this);
+		dbViewTree.addTreeExpansionListener(this);
 		JScrollPane sPane = new JScrollPane(dbViewTree);
 		getContentPane().add(sPane, BorderLayout.CENTER);
 
@@ -215,6 +227,9 @@ public final class DBViewDialog
 		try {
 			if (closeButton.equals(e.getSource())) {
 				Preferences.setDbViewBounds(getBounds());
+				for (Iterator it = dbViewModels.values().iterator(); it.hasNext(); ) {
+					((DBObjectsTreeModel)it.next()).close();
+				}
 				dispose();
 			} else if (popupProcText.equals(e.getSource())) {
 				popupProcText_Action(e);
@@ -379,7 +394,7 @@ public final class DBViewDialog
 			ProcedureTreeNode node = (ProcedureTreeNode)popupNode; 
 			
 			String procText =
-				popupProvider.getProcedureText(popupProvider.getConnection(),
+				popupProvider.getProcedureText(popupProvider.getMetadataConnection(),
 			                                   node.getCatalog(),
 			                                   node.getSchema(),
 			                                   node.getName());
@@ -398,7 +413,7 @@ public final class DBViewDialog
 			TableTreeNode node = (TableTreeNode)popupNode; 
 			
 			String viewText =
-				popupProvider.getViewText(popupProvider.getConnection(),
+				popupProvider.getViewText(popupProvider.getMetadataConnection(),
 										  node.getCatalog(),
 										  node.getSchema(),
 										  node.getName());
@@ -417,7 +432,7 @@ public final class DBViewDialog
 			DBObjectsTreeModel dbViewModel = new DBObjectsTreeModel(conProv);
 			String title = dbViewModel.getTitle();
 			if (dbViewModels.containsKey(title)) {
-				dbViewModels.remove(title);
+				((DBObjectsTreeModel)dbViewModels.remove(title)).close();
 				((DefaultComboBoxModel)viewsComboBox.getModel()).removeElement(title);
 			}
 		} catch (Throwable t) {
@@ -461,4 +476,25 @@ public final class DBViewDialog
 			setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 		}
 	}
+
+	/**
+	 * Cancels the loading of the collapsed node's children if they are
+	 * still being loaded.
+	 * @see javax.swing.event.TreeExpansionListener#treeCollapsed(javax.swing.event.TreeExpansionEvent)
+	 */
+	public void treeCollapsed(TreeExpansionEvent e)
+	{
+		Object node = e.getPath().getLastPathComponent();
+		if (node instanceof DBObjectsTreeNode) {
+			((DBObjectsTreeNode)node).cancelLoading();
+		}
+	}
+
+	/**
+	 * @see javax.swing.event.TreeExpansionListener#treeExpanded(javax.swing.event.TreeExpansionEvent)
+	 */
+	public void treeExpanded(TreeExpansionEvent e)
+	{
+		// Do Nothing
+	}
 }
@@ -34,6 +34,9 @@ import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -46,6 +49,8 @@ import java.sql.Types;
 import java.text.NumberFormat;
 import java.text.ParseException;
 
+import java.util.StringTokenizer;
+
 import javax.swing.BorderFactory;
 import javax.swing.ComboBoxModel;
 import javax.swing.DefaultComboBoxModel;
@@ -65,6 +70,7 @@ import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.SpinnerNumberModel;
+import javax.swing.SwingUtilities;
 
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
@@ -83,10 +89,13 @@ import us.pcsw.dbbrowser.cp.ConnectionProvider;
 import us.pcsw.dbbrowser.cp.DataType;
 
 import us.pcsw.dbbrowser.dataimport.CSVImport;
+import us.pcsw.dbbrowser.dataimport.ColumnProfile;
 import us.pcsw.dbbrowser.dataimport.DataImport;
+import us.pcsw.dbbrowser.dataimport.FixedWidthImport;
 import us.pcsw.dbbrowser.dataimport.ImportColumn;
 import us.pcsw.dbbrowser.dataimport.ImportEvent;
 import us.pcsw.dbbrowser.dataimport.ImportListener;
+import us.pcsw.dbbrowser.dataimport.JSONLinesImport;
 
 import us.pcsw.swing.BasicFileFilter;
 import us.pcsw.swing.HorizontalGlue;
@@ -103,12 +112,54 @@ import us.pcsw.util.Message;
  *
  * <P><B>Revision History:</B><UL>
  * <LI>Mar 10, 2005 This class was created by pchapman.</LI>
+ * <LI>Oct 18, 2026 Table and column lists are read with pooled
+ *                  connections.</LI>
+ * <LI>Oct 18, 2026 Table and column lists are read with the metadata
+ *                  connection.</LI>
+ * <LI>Oct 18, 2026 Added the batch size and commit interval options.</LI>
+ * <LI>Oct 18, 2026 Added the connections option.</LI>
+ * <LI>Oct 18, 2026 Added the bulk load option.</LI>
+ * <LI>Oct 18, 2026 Added the date, time and timestamp formats.</LI>
+ * <LI>Oct 18, 2026 Imports are checkpointed, and added the resume
+ *                  option.</LI>
+ * <LI>Oct 18, 2026 Added the error policy and maximum errors.</LI>
+ * <LI>Oct 18, 2026 The progress bar shows the rows read and committed,
+ *                  the rates and the time remaining.</LI>
+ * <LI>Oct 18, 2026 The columns of a new table may be inferred from the
+ *                  file's data.</LI>
+ * <LI>Oct 18, 2026 Added the file format and field widths options, and
+ *                  gzip and zip files may be chosen.</LI>
  * </UL></P>
  */
 public class ImportFrame extends JFrame
 {
 	// CONSTANTS
 
+	/**
+	 * The error policies offered, in the order of ERROR_POLICY_LABELS.
+	 */
+	private static final int[] ERROR_POLICIES = {
+			DataImport.ERROR_POLICY_ABORT,
+			DataImport.ERROR_POLICY_SKIP,
+			DataImport.ERROR_POLICY_REJECT
+	};
+	
+	private static final String[] ERROR_POLICY_LABELS = {
+			"Stop the Import", "Skip Them", "Write to a Reject File"
+	};
+	
+	/**
+	 * The file formats offered, with the index of each in the file format
+	 * combo.
+	 */
+	private static final int FILE_FORMAT_CSV = 0;
+	private static final int FILE_FORMAT_JSON_LINES = 1;
+	private static final int FILE_FORMAT_FIXED_WIDTH = 2;
+	
+	private static final String[] FILE_FORMAT_LABELS = {
+			"Comma Separated Values", "JSON Lines", "Fixed Width"
+	};
+	
 	private static final Logger logger = LoggerFactory.getLogger(ImportFrame.class);
 	private static final long serialVersionUID = 1L;
 	
@@ -132,34 +183,53 @@ public class ImportFrame extends JFrame
 
 	// MEMBERS
 	
+	private JSpinner batchSizeSpinner;
+	private JCheckBox bulkLoadBox;
 	private ColumnSelectionListener columnSelectionListener;
 	private JSpinner columnSpinner;
+	private JSpinner commitIntervalSpinner;
 	private int currentTab = 0;
 	private ImportColumn[] columns = null;
 	private JFileChooser fileChooser;
 	private JComboBox columnNameCombo;
 	private DataImport dataImport;
 	private JComboBox dataTypeCombo;
+	private JTextField datePatternField;
+	private JComboBox errorPolicyCombo;
 	private JButton executeButton;
+	private JTextField fieldWidthsField;
+	private int[] fieldWidths;
+	private JComboBox fileFormatCombo;
 	private JCheckBox firstRowHeaderBox;
+	private JButton inferTypesButton;
+	private JSpinner inferSampleSpinner;
 	/**
 	 * Used by inner classes to reference this instance.
 	 */
 	private JFrame me = this;
+	private JSpinner maxErrorsSpinner;
 	private JButton nextButton;
 	private JTextField precisionField;
 	private JButton previousButton;
 	private JProgressBar progressBar;
+	private JSpinner parallelismSpinner;
 	private ConnectionProvider provider;
 	private JTextArea resultsArea;
+	private JCheckBox resumeBox;
 	private JSpinner sampleRowCountSpinner;
 	private JTable sampleTable;
 	private JTextField scaleField;
 	private File selectedFile;
+	/**
+	 * The file format and field widths the data import was created for.
+	 */
+	private String selectedFormat;
 	private Object selectedTable;
 	private JCheckBox skipColumnCheck;
 	private JTabbedPane stepsTab;
 	private JComboBox tableCombo;
+	private JTextField timePatternField;
+	private JTextField timestampPatternField;
 	
 	private int getCurrentTab()
 	{
@@ -172,6 +242,8 @@ public class ImportFrame extends JFrame
 			stepsTab.setSelectedIndex(tabIndex);
 			if (tabIndex == 1) {
 				populateTab1();
+			} else if (tabIndex == 2) {
+				updateResumeBox();
 			}
 			currentTab = tabIndex;
 		}
@@ -280,7 +352,20 @@ public class ImportFrame extends JFrame
 			);
 		fileChooser = new JFileChooser();
 		fileChooser.addChoosableFileFilter(new BasicFileFilter("csv", "Coma Seperated Values"));
+		fileChooser.addChoosableFileFilter(new BasicFileFilter("jsonl", "JSON Lines"));
+		fileChooser.addChoosableFileFilter(new BasicFileFilter("gz", "Gzip Compressed Files"));
+		fileChooser.addChoosableFileFilter(new BasicFileFilter("zip", "Zip Compressed Files"));
 		fileChooser.setControlButtonsAreShown(false);
+		fileChooser.addPropertyChangeListener(
+				JFileChooser.SELECTED_FILE_CHANGED_PROPERTY,
+				new PropertyChangeListener()
+				{
+					public void propertyChange(PropertyChangeEvent pce)
+					{
+						fileSelected((File)pce.getNewValue());
+					}
+				}
+			);
 		constraints = new GridBagConstraints
 		(
 			0, 1,							// gridx, gridy
@@ -322,6 +407,71 @@ public class ImportFrame extends JFrame
 		constraints = new GridBagConstraints
 		(
 			0, 6,							// gridx, gridy
+			1, 1,							// gridwidth, gridheight
+			0, 0,							// weightx, weighty
+			GridBagConstraints.WEST,		// anchor
+			GridBagConstraints.NONE,		// fill
+			new Insets(5, 0, 5, 5),			// insets (t,l,b,r)
+			0, 0							// padx pady
+		);
+		panel2.add(new JLabel("File Format:"), constraints);
+		
+		constraints = new GridBagConstraints
+		(
+			1, 6,							// gridx, gridy
+			1, 1,							// gridwidth, gridheight
+			0.5, 0,							// weightx, weighty
+			GridBagConstraints.WEST,		// anchor
+			GridBagConstraints.NONE,		// fill
+			new Insets(5, 5, 5, 0),			// insets (t,l,b,r)
+			0, 0							// padx pady
+		);
+		fileFormatCombo = new JComboBox(FILE_FORMAT_LABELS);
+		fileFormatCombo.addActionListener(
+				new ActionListener()
+				{
+					public void actionPerformed(ActionEvent ae)
+					{
+						fieldWidthsField.setEnabled(
+								fileFormatCombo.getSelectedIndex() == FILE_FORMAT_FIXED_WIDTH
+							);
+					}
+				}
+			);
+		panel2.add(fileFormatCombo, constraints);
+		
+		constraints = new GridBagConstraints
+		(
+			0, 7,							// gridx, gridy
+			1, 1,							// gridwidth, gridheight
+			0, 0,							// weightx, weighty
+			GridBagConstraints.WEST,		// anchor
+			GridBagConstraints.NONE,		// fill
+			new Insets(5, 0, 5, 5),			// insets (t,l,b,r)
+			0, 0							// padx pady
+		);
+		panel2.add(new JLabel("Field Widths:"), constraints);
+		
+		constraints = new GridBagConstraints
+		(
+			1, 7,							// gridx, gridy
+			1, 1,							// gridwidth, gridheight
+			0.5, 0,							// weightx, weighty
+			GridBagConstraints.WEST,		// anchor
+			GridBagConstraints.NONE,		// fill
+			new Insets(5, 5, 5, 0),			// insets (t,l,b,r)
+			0, 0							// padx pady
+		);
+		fieldWidthsField = new JTextField(20);
+		fieldWidthsField.setToolTipText(
+				"The width of each field, separated by commas, such as 10, 5, 8"
+			);
+		fieldWidthsField.setEnabled(false);
+		panel2.add(fieldWidthsField, constraints);
+		
+		constraints = new GridBagConstraints
+		(
+			0, 8,							// gridx, gridy
 			2, 1,							// gridwidth, gridheight
 			0, 0,							// weightx, weighty
 			GridBagConstraints.NORTHWEST,	// anchor
@@ -337,7 +487,7 @@ public class ImportFrame extends JFrame
 		tableCombo.setEditable(true);
 		constraints = new GridBagConstraints
 		(
-			0, 7,							// gridx, gridy
+			0, 9,							// gridx, gridy
 			2, 1,							// gridwidth, gridheight
 			.5, 0,							// weightx, weighty
 			GridBagConstraints.NORTHWEST,	// anchor
@@ -590,6 +740,38 @@ public class ImportFrame extends JFrame
 		);
 		panel2.add(new JScrollPane(sampleTable), constraints);
 		
+		// ROW 4
+		
+		JPanel panel3 = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+		panel3.add(new JLabel("Infer Types From:"));
+		inferSampleSpinner = new JSpinner(new SpinnerNumberModel(16, 0, Integer.MAX_VALUE, 16));
+		inferSampleSpinner.setToolTipText("The megabytes at the start of the file to read.  0 reads the whole file, and columns with no blank values are made NOT NULL.");
+		panel3.add(inferSampleSpinner);
+		panel3.add(new JLabel("MB"));
+		inferTypesButton = new JButton("Infer Types");
+		inferTypesButton.setToolTipText("Set up the columns of the new table from the types and sizes of the file's data.");
+		inferTypesButton.addActionListener(
+				new ActionListener()
+				{
+					public void actionPerformed(ActionEvent event)
+					{
+						inferTypes();
+					}
+				}
+			);
+		panel3.add(inferTypesButton);
+		constraints = new GridBagConstraints
+		(
+			0, 7,							// gridx, gridy
+			9, 1,							// gridwidth, gridheight
+			0, 0,							// weightx, weighty
+			GridBagConstraints.EAST,		// anchor
+			GridBagConstraints.NONE,		// fill
+			new Insets(5, 0, 0, 0),			// insets (t,l,b,r)
+			0, 0							// padx pady
+		);
+		panel2.add(panel3, constraints);
+		
 		return panel1;
 	}
 	
@@ -608,8 +790,67 @@ public class ImportFrame extends JFrame
 		panel2.add(progressBar, BorderLayout.SOUTH);
 		panel1.add(panel2, BorderLayout.CENTER);
 		
+		JPanel panel3 = new JPanel(new BorderLayout());
+		panel1.add(panel3, BorderLayout.SOUTH);
+		panel2 = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+		panel3.add(panel2, BorderLayout.NORTH);
+		String patternTip = "A java.time.format.DateTimeFormatter pattern.  ISO 8601 values are also read.";
+		panel2.add(new JLabel("Date Format:"));
+		datePatternField = new JTextField(DataImport.DEFAULT_DATE_PATTERN, 12);
+		datePatternField.setToolTipText(patternTip);
+		panel2.add(datePatternField);
+		panel2.add(new JLabel("Time Format:"));
+		timePatternField = new JTextField(DataImport.DEFAULT_TIME_PATTERN, 12);
+		timePatternField.setToolTipText(patternTip);
+		panel2.add(timePatternField);
+		panel2.add(new JLabel("Timestamp Format:"));
+		timestampPatternField = new JTextField(DataImport.DEFAULT_TIMESTAMP_PATTERN, 20);
+		timestampPatternField.setToolTipText(patternTip);
+		panel2.add(timestampPatternField);
 		panel2 = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-		panel1.add(panel2, BorderLayout.SOUTH);
+		panel3.add(panel2, BorderLayout.CENTER);
+		panel2.add(new JLabel("On Bad Rows:"));
+		errorPolicyCombo = new JComboBox(ERROR_POLICY_LABELS);
+		errorPolicyCombo.setToolTipText("What is done with rows which can't be converted or inserted.  Rejected rows are written to the data file's name followed by \".rejected\".");
+		panel2.add(errorPolicyCombo);
+		panel2.add(new JLabel("Max Errors:"));
+		maxErrorsSpinner = new JSpinner(
+				new SpinnerNumberModel(DataImport.DEFAULT_MAX_ERRORS, 0, Integer.MAX_VALUE, 100)
+			);
+		maxErrorsSpinner.setToolTipText("The number of rows which may be skipped or rejected before the import stops.  0 means no limit.");
+		panel2.add(maxErrorsSpinner);
+		panel2 = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+		panel3.add(panel2, BorderLayout.SOUTH);
+		panel2.add(new JLabel("Batch Size:"));
+		batchSizeSpinner = new JSpinner(
+				new SpinnerNumberModel(DataImport.DEFAULT_BATCH_SIZE, 1, 100000, 100)
+			);
+		batchSizeSpinner.setToolTipText("The number of rows sent to the server at a time.");
+		panel2.add(batchSizeSpinner);
+		panel2.add(new JLabel("Commit Every:"));
+		commitIntervalSpinner = new JSpinner(
+				new SpinnerNumberModel(DataImport.DEFAULT_COMMIT_INTERVAL, 0, Integer.MAX_VALUE, 1000)
+			);
+		commitIntervalSpinner.setToolTipText("The number of rows inserted between commits.  0 commits once the import is done.");
+		panel2.add(commitIntervalSpinner);
+		panel2.add(new JLabel("rows"));
+		panel2.add(new HorizontalStrut(10));
+		panel2.add(new JLabel("Connections:"));
+		parallelismSpinner = new JSpinner(
+				new SpinnerNumberModel(1, 1, Math.max(1, provider.getPoolMaxSize()), 1)
+			);
+		parallelismSpinner.setToolTipText("The number of connections to load parts of the file over at once.");
+		panel2.add(parallelismSpinner);
+		panel2.add(new HorizontalStrut(10));
+		bulkLoadBox = new JCheckBox("Bulk Load", true);
+		bulkLoadBox.setToolTipText("Load the data with the database's bulk loader when it has one.  Batch size and commit interval do not apply to it.");
+		panel2.add(bulkLoadBox);
+		panel2.add(new HorizontalStrut(10));
+		resumeBox = new JCheckBox("Resume Import");
+		resumeBox.setToolTipText("Continue the import of this file which stopped, from the last rows it committed.");
+		resumeBox.setEnabled(false);
+		panel2.add(resumeBox);
+		panel2.add(new HorizontalStrut(10));
 		executeButton = new JButton("Import Data");
 		executeButton.addActionListener(
 				new ActionListener()
@@ -626,6 +867,21 @@ public class ImportFrame extends JFrame
 		return panel1;
 	}
 	
+	/**
+	 * Creates the data import for the selected file format.
+	 */
+	private DataImport createDataImport()
+	{
+		switch (fileFormatCombo.getSelectedIndex()) {
+			case FILE_FORMAT_JSON_LINES:
+				return new JSONLinesImport();
+			case FILE_FORMAT_FIXED_WIDTH:
+				return new FixedWidthImport(fieldWidths);
+			default:
+				return new CSVImport();
+		}
+	}
+	
 	private ComboBoxModel createDataTypesComboModel()
 	{
 		try {
@@ -656,7 +912,7 @@ public class ImportFrame extends JFrame
 			// Get a list of tables.
 			String cat;
 			String schema;
-			Connection con = provider.getConnection();
+			Connection con = provider.getMetadataConnection();
 			DatabaseMetaData dmd = con.getMetaData();
 			String tblTypes[] = {"TABLE"};
 			ResultSet rs = dmd.getTables(null , null, "%", tblTypes);
@@ -699,9 +955,23 @@ public class ImportFrame extends JFrame
 	
 	public void executeImport()
 	{
+		if (! setPatterns()) {
+			return;
+		}
 		try {
 			FileInputStream fis = new FileInputStream(selectedFile);
-			boolean b = !(selectedTable instanceof TableTreeNode);
+			boolean resume = resumeBox.isEnabled() && resumeBox.isSelected();
+			// A resumed import's table was created when it started.
+			boolean b = !(resume || selectedTable instanceof TableTreeNode);
+			dataImport.setBatchSize(((Number)batchSizeSpinner.getValue()).intValue());
+			dataImport.setCommitInterval(((Number)commitIntervalSpinner.getValue()).intValue());
+			dataImport.setParallelism(((Number)parallelismSpinner.getValue()).intValue());
+			dataImport.setBulkLoadAllowed(bulkLoadBox.isSelected());
+			dataImport.setCheckpointFile(DataImport.getDefaultCheckpointFile(selectedFile));
+			dataImport.setResuming(resume);
+			dataImport.setErrorPolicy(ERROR_POLICIES[errorPolicyCombo.getSelectedIndex()]);
+			dataImport.setMaxErrors(((Number)maxErrorsSpinner.getValue()).intValue());
+			dataImport.setRejectFile(DataImport.getDefaultRejectFile(selectedFile));
 			dataImport.importData(
 					provider, selectedTable.toString(), b,
 					columns, fis, firstRowHeaderBox.isSelected()
@@ -717,6 +987,119 @@ public class ImportFrame extends JFrame
 		}
 	}
 	
+	/**
+	 * Selects the JSON lines format for a file whose name, less any .gz or
+	 * .zip suffix, ends with .json, .jsonl or .ndjson, and the comma
+	 * separated values format for one which ends with .csv.
+	 */
+	private void fileSelected(File f)
+	{
+		if (f == null) {
+			return;
+		}
+		String name = f.getName().toLowerCase();
+		if (name.endsWith(".gz")) {
+			name = name.substring(0, name.length() - 3);
+		} else if (name.endsWith(".zip")) {
+			name = name.substring(0, name.length() - 4);
+		}
+		if (
+				name.endsWith(".json") || name.endsWith(".jsonl") ||
+				name.endsWith(".ndjson")
+			)
+		{
+			fileFormatCombo.setSelectedIndex(FILE_FORMAT_JSON_LINES);
+		} else if (name.endsWith(".csv")) {
+			fileFormatCombo.setSelectedIndex(FILE_FORMAT_CSV);
+		}
+	}
+	
+	/**
+	 * Returns the name the file gives the field, from the records or the
+	 * header row, or null if it has none.
+	 */
+	private String getFieldName(int field)
+	{
+		String[] fieldNames = dataImport.getFieldNames();
+		if (fieldNames != null) {
+			return fieldNames[field];
+		} else if (firstRowHeaderBox.isSelected()) {
+			String[][] data = ((SampleDataTableModel)sampleTable.getModel()).data;
+			if (data[0][field] != null) {
+				return data[0][field].trim();
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Sets up each column of a new table from a profile of the file's data,
+	 * which is read in the background.  Columns which none of the data
+	 * types suit are left as they were.
+	 */
+	private void inferTypes()
+	{
+		if (! setPatterns()) {
+			return;
+		}
+		final boolean skipFirstRow = firstRowHeaderBox.isSelected();
+		final long sampleSize =
+			((Number)inferSampleSpinner.getValue()).longValue() * 1024 * 1024;
+		ComboBoxModel model = dataTypeCombo.getModel();
+		final DataType[] dataTypes = new DataType[model.getSize()];
+		for (int i = 0; i < dataTypes.length; i++) {
+			dataTypes[i] = (DataType)model.getElementAt(i);
+		}
+		inferTypesButton.setEnabled(false);
+		setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+		new Thread()
+		{
+			public void run()
+			{
+				ColumnProfile[] profiles = null;
+				try {
+					profiles = dataImport.profileData(
+							selectedFile, sampleSize, skipFirstRow
+						);
+				} catch (IOException ioe) {
+					logger.error("Error profiling " + selectedFile, ioe);
+				}
+				final ColumnProfile[] result = profiles;
+				SwingUtilities.invokeLater(
+						new Runnable()
+						{
+							public void run()
+							{
+								setCursor(Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR));
+								inferTypesButton.setEnabled(true);
+								if (result == null) {
+									WrappedOptionPane.showWrappedMessageDialog(
+											me,
+											"There was an error reading data from the file " +
+											selectedFile.getAbsolutePath() + '.',
+											"Cannot Read Data",
+											WrappedOptionPane.INFORMATION_MESSAGE
+										);
+									return;
+								}
+								for (int i = 0; i < columns.length && i < result.length; i++) {
+									String name = getFieldName(i);
+									if (name == null) {
+										name = "COLUMN" + (i + 1);
+									}
+									ImportColumn column = result[i].createImportColumn(name, dataTypes);
+									if (column != null) {
+										columns[i] = column;
+									}
+								}
+								columnSelectionListener.showColumnInfo();
+							}
+						}
+					);
+			}
+		}.start();
+	}
+	
 	public void initGUI()
 	{
 		JPanel panel;
@@ -790,12 +1173,13 @@ public class ImportFrame extends JFrame
 	{
 		// Samples
 		File f = fileChooser.getSelectedFile();
-		if (! f.equals(selectedFile)) {
+		String format = fileFormatCombo.getSelectedIndex() + ":" +
+			fieldWidthsField.getText().trim();
+		if (! (f.equals(selectedFile) && format.equals(selectedFormat))) {
 			try {
 				selectedFile = f;
-				//TODO Right now this is hard-coded.  Later we need to try to
-				//     determine which importer to use.
-				dataImport = new CSVImport();
+				selectedFormat = format;
+				dataImport = createDataImport();
 				dataImport.addImportListener(
 						new ImportListener()
 						{
@@ -809,14 +1193,17 @@ public class ImportFrame extends JFrame
 										println(ie.getMessage());
 										break;
 									case ImportEvent.EVENT_TYPE_PROGRESSED:
+										showProgress(ie);
 										break;
 									case ImportEvent.EVENT_TYPE_STARTED:
 										progressBar.setIndeterminate(true);
+										progressBar.setStringPainted(false);
 										setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 										break;
 									case ImportEvent.EVENT_TYPE_STOPPED:
 										progressBar.setIndeterminate(false);
 										setCursor(Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR));
+										updateResumeBox();
 										break;
 								}
 							}
@@ -837,6 +1224,12 @@ public class ImportFrame extends JFrame
 							((Integer)sampleRowCountSpinner.getValue()).intValue()
 						);
 				columns = new ImportColumn[data[0].length];
+				// Records which name their fields have no header row.
+				boolean b = dataImport.getFieldNames() == null;
+				firstRowHeaderBox.setEnabled(b);
+				if (! b) {
+					firstRowHeaderBox.setSelected(false);
+				}
 				((SampleDataTableModel)sampleTable.getModel()).setData(data);
 				sampleTable.setColumnSelectionInterval(0, 0);
 				SpinnerNumberModel snm = new SpinnerNumberModel(1, 1, data[0].length, 1);
@@ -855,13 +1248,14 @@ public class ImportFrame extends JFrame
 		Object obj = tableCombo.getSelectedItem();
 		if (! obj.equals(selectedTable)) {
 			selectedTable = obj;
+			inferTypesButton.setEnabled(! (obj instanceof TableTreeNode));
 			if (obj instanceof TableTreeNode) {
 				TableTreeNode ttn = (TableTreeNode)obj;
 				columnNameCombo.setEditable(false);
 				dataTypeCombo.setEnabled(false);
 				// Get a list of columns to insert data into.
 				try {
-					Connection con = provider.getConnection();
+					Connection con = provider.getMetadataConnection();
 					DatabaseMetaData dmd = con.getMetaData();
 					ResultSet rs = dmd.getColumns(
 							ttn.getCatalog(),
@@ -898,12 +1292,91 @@ public class ImportFrame extends JFrame
 		}
 	}
 	
+	/**
+	 * Sets the import's date and time patterns from the fields.
+	 * @return false if a pattern is not valid, which the user has been
+	 *         told.
+	 */
+	private boolean setPatterns()
+	{
+		try {
+			dataImport.setDatePattern(datePatternField.getText());
+			dataImport.setTimePattern(timePatternField.getText());
+			dataImport.setTimestampPattern(timestampPatternField.getText());
+			return true;
+		} catch (IllegalArgumentException iae) {
+			WrappedOptionPane.showWrappedMessageDialog(
+					this,
+					"The date and time formats are not valid: " +
+					iae.getLocalizedMessage(),
+					"Invalid Format",
+					WrappedOptionPane.INFORMATION_MESSAGE
+				);
+			return false;
+		}
+	}
+	
+	/**
+	 * Shows the import's progress in the progress bar.
+	 */
+	private void showProgress(ImportEvent ie)
+	{
+		NumberFormat nf = NumberFormat.getIntegerInstance();
+		StringBuffer sb = new StringBuffer();
+		sb.append(nf.format(ie.getRowsRead()));
+		sb.append(" rows read, ");
+		sb.append(nf.format(ie.getRowsCommitted()));
+		sb.append(" committed, ");
+		sb.append(nf.format(ie.getRowsPerSecond()));
+		sb.append(" rows/s, ");
+		nf = NumberFormat.getNumberInstance();
+		nf.setMaximumFractionDigits(1);
+		sb.append(nf.format(ie.getMegabytesPerSecond()));
+		sb.append(" MB/s");
+		long remaining = ie.getEstimatedMillisRemaining() / 1000;
+		if (ie.getTotalBytes() > 0) {
+			progressBar.setIndeterminate(false);
+			progressBar.setMaximum(1000);
+			progressBar.setValue(
+					(int)(ie.getBytesRead() * 1000 / ie.getTotalBytes())
+				);
+			if (remaining >= 0 && ie.getBytesRead() < ie.getTotalBytes()) {
+				sb.append(", ");
+				sb.append(remaining / 3600);
+				sb.append(':');
+				sb.append(remaining / 600 % 6);
+				sb.append(remaining / 60 % 10);
+				sb.append(':');
+				sb.append(remaining / 10 % 6);
+				sb.append(remaining % 10);
+				sb.append(" left");
+			}
+		}
+		progressBar.setString(sb.toString());
+		progressBar.setStringPainted(true);
+	}
+	
 	private void updateNavButtons()
 	{
 		previousButton.setEnabled(getCurrentTab() > 0);
 		nextButton.setEnabled(getCurrentTab() < tabMnemonics.length - 1);
 	}
 	
+	/**
+	 * Offers to resume the import of the selected file if an earlier one left
+	 * a checkpoint.
+	 */
+	private void updateResumeBox()
+	{
+		boolean b =
+			selectedFile != null &&
+			DataImport.getDefaultCheckpointFile(selectedFile).exists();
+		resumeBox.setEnabled(b);
+		if (! b) {
+			resumeBox.setSelected(false);
+		}
+	}
+	
 	private boolean validateTab(int tabIndex)
 	{
 		switch (tabIndex) {
@@ -940,6 +1413,28 @@ public class ImportFrame extends JFrame
 				);
 		}
 		
+		// Fixed width files must have the width of each field.
+		if (fileFormatCombo.getSelectedIndex() == FILE_FORMAT_FIXED_WIDTH) {
+			StringTokenizer st = new StringTokenizer(fieldWidthsField.getText(), ", ");
+			int[] widths = new int[st.countTokens()];
+			try {
+				for (int i = 0; i < widths.length; i++) {
+					widths[i] = Integer.parseInt(st.nextToken());
+					if (widths[i] < 1) {
+						throw new NumberFormatException();
+					}
+				}
+				fieldWidths = widths;
+			} catch (NumberFormatException nfe) {
+				widths = null;
+			}
+			if (widths == null || widths.length == 0) {
+				errorMessage.appendnl(
+						"Please provide the width of each field, as whole numbers greater than zero separated by commas."
+					);
+			}
+		}
+		
 		// We must have a table.
 		Object o = tableCombo.getSelectedItem();
 		if (o == null || o.toString().trim().length() == 0) {
@@ -1004,70 +1499,7 @@ public class ImportFrame extends JFrame
 			
 				// Set up next column info
 				currentColumn = columnIndex;
-				skipColumnCheck.setSelected(columns[currentColumn] == null);
-				if (columns[currentColumn] == null) {
-					if (firstRowHeaderBox.isSelected()) {
-						ComboBoxModel model = columnNameCombo.getModel();
-						ColumnTreeNode node;
-						String fooName = ((SampleDataTableModel)sampleTable.getModel()).data[0][currentColumn];
-						if (model.getSize() == 0) {
-							// No existing columns
-							columnNameCombo.setSelectedItem(fooName);
-						} else {
-							for (int i = 0; i < model.getSize(); i++) {
-								node = (ColumnTreeNode)model.getElementAt(i);
-								if (node.toString().compareToIgnoreCase(fooName) == 0) {
-									columnNameCombo.setSelectedIndex(i);
-									columnNameSelected();
-									break;
-								}
-							}
-						}
-					}
-				} else {
-					String s = columns[currentColumn].getColumnName();
-					ComboBoxModel cbo = columnNameCombo.getModel();
-					if (cbo.getSize() > 0) {
-						for (int i = 0; i < cbo.getSize(); i++) {
-							if (cbo.getElementAt(i).toString().equals(s)) {
-								columnNameCombo.setSelectedIndex(i);
-								columnNameSelected();
-								break;
-							}
-						}
-					} else {
-						// Custom table
-						columnNameCombo.setSelectedItem(columns[currentColumn].getColumnName());
-						// Locate the type
-						DefaultComboBoxModel dcbm = (DefaultComboBoxModel)dataTypeCombo.getModel();
-						DataType dt;
-						for (int i = 0; i < dcbm.getSize(); i++) {
-							dt = (DataType)dcbm.getElementAt(i);
-							if (
-									dt.getJDBCType() == columns[currentColumn].getDataType().getJDBCType() &&
-									dt.getTypeName().equals(columns[currentColumn].getDataType().getTypeName())
-								)
-							{
-								dataTypeCombo.setSelectedIndex(i);
-								Boolean b = dt.isPrecisionRequired();
-								if (b != null && b.booleanValue()) {
-									precisionField.setText(String.valueOf(columns[currentColumn].getPrecision()));
-								} else {
-									precisionField.setText("");
-								}
-								precisionField.setEditable(false);
-								b = dt.isScaleRequired();
-								if (b != null && b.booleanValue()) {
-									scaleField.setText(String.valueOf(columns[currentColumn].getScale()));
-								} else {
-									scaleField.setText("");
-								}
-								scaleField.setEditable(false);
-								break;
-							}
-						}
-					}
-				}
+				showColumnInfo();
 				return true;
 			} else {
 				return false;
@@ -1081,6 +1513,10 @@ public class ImportFrame extends JFrame
 					columns[currentColumn] = null;
 				} else {
 					ImportColumn column = new ImportColumn();
+					if (columns[currentColumn] != null) {
+						// Whether the data has blanks was inferred.
+						column.setNullable(columns[currentColumn].isNullable());
+					}
 					column.setColumnName(columnNameCombo.getSelectedItem().toString());
 					DataType dt = (DataType)dataTypeCombo.getSelectedItem();
 					column.setDataType(dt);
@@ -1106,7 +1542,7 @@ public class ImportFrame extends JFrame
 						if (b != null && b.booleanValue()) {
 							try {
 								i = integerFormat.parse(scaleField.getText()).intValue();
-								if (i < 1) {
+								if (i < 0) {
 									throw new ParseException("", i);
 								}
 								column.setScale(i);
@@ -1127,6 +1563,77 @@ public class ImportFrame extends JFrame
 			return true;
 		}
 		
+		/**
+		 * Shows the current column's settings.
+		 */
+		void showColumnInfo()
+		{
+			skipColumnCheck.setSelected(columns[currentColumn] == null);
+			if (columns[currentColumn] == null) {
+				String fooName = getFieldName(currentColumn);
+				if (fooName != null) {
+					ComboBoxModel model = columnNameCombo.getModel();
+					ColumnTreeNode node;
+					if (model.getSize() == 0) {
+						// No existing columns
+						columnNameCombo.setSelectedItem(fooName);
+					} else {
+						for (int i = 0; i < model.getSize(); i++) {
+							node = (ColumnTreeNode)model.getElementAt(i);
+							if (node.toString().compareToIgnoreCase(fooName) == 0) {
+								columnNameCombo.setSelectedIndex(i);
+								columnNameSelected();
+								break;
+							}
+						}
+					}
+				}
+			} else {
+				String s = columns[currentColumn].getColumnName();
+				ComboBoxModel cbo = columnNameCombo.getModel();
+				if (cbo.getSize() > 0) {
+					for (int i = 0; i < cbo.getSize(); i++) {
+						if (cbo.getElementAt(i).toString().equals(s)) {
+							columnNameCombo.setSelectedIndex(i);
+							columnNameSelected();
+							break;
+						}
+					}
+				} else {
+					// Custom table
+					columnNameCombo.setSelectedItem(columns[currentColumn].getColumnName());
+					// Locate the type
+					DefaultComboBoxModel dcbm = (DefaultComboBoxModel)dataTypeCombo.getModel();
+					DataType dt;
+					for (int i = 0; i < dcbm.getSize(); i++) {
+						dt = (DataType)dcbm.getElementAt(i);
+						if (
+								dt.getJDBCType() == columns[currentColumn].getDataType().getJDBCType() &&
+								dt.getTypeName().equals(columns[currentColumn].getDataType().getTypeName())
+							)
+						{
+							dataTypeCombo.setSelectedIndex(i);
+							Boolean b = dt.isPrecisionRequired();
+							if (b != null && b.booleanValue()) {
+								precisionField.setText(String.valueOf(columns[currentColumn].getPrecision()));
+							} else {
+								precisionField.setText("");
+							}
+							precisionField.setEditable(b != null && b.booleanValue());
+							b = dt.isScaleRequired();
+							if (b != null && b.booleanValue()) {
+								scaleField.setText(String.valueOf(columns[currentColumn].getScale()));
+							} else {
+								scaleField.setText("");
+							}
+							scaleField.setEditable(b != null && b.booleanValue());
+							break;
+						}
+					}
+				}
+			}
+		}
+		
 		// For the JSpinner
 		public void stateChanged(ChangeEvent event)
 		{
@@ -131,6 +131,7 @@ import us.pcsw.swing.ToolbarButton;
  *                running the app on other platforms do not require Apple's
  *                ui.jar library.  PAC </LI>
  * <LI>03/11/2005 Added a menu item for the new Data Import feature.  PAC</LI>
+ * <LI>10/18/2026 Added the Execute to File menu item.</LI>
  * </UL></P>
  *
  * @author Philip A. Chapman
@@ -170,6 +171,7 @@ public class MainFrame
     private JMenu stmt;
     private JMenuItem
     	stmtExec,
+    	stmtExecToFile,
 		stmtExit,
 		stmtOpenSQL,
 		stmtSaveSQL,
@@ -380,6 +382,8 @@ public class MainFrame
 				getSelectedConnectionPanel().historyClear();
 		    } else if (source.equals(stmtExec)) {
 		    	getSelectedConnectionPanel().executeScript();
+		    } else if (source.equals(stmtExecToFile)) {
+		    	getSelectedConnectionPanel().executeToFile();
 		    } else if (source.equals(stmtNext)) {
 				getSelectedConnectionPanel().historyNext();
 		    } else if (source.equals(stmtPrev)) {
@@ -529,6 +533,11 @@ public class MainFrame
 		stmtExec.addActionListener(this);
 		stmt.add(stmtExec);
 		
+		stmtExecToFile = new JMenuItem("Execute to File...");
+		stmtExecToFile.setMnemonic('E');
+		stmtExecToFile.addActionListener(this);
+		stmt.add(stmtExecToFile);
+		
 		stmt.addSeparator();
 		
 		// Added by Garrett Baker 2003-03-19
@@ -979,6 +988,7 @@ public class MainFrame
 		editReplace.setEnabled(sqlStmt);
 //		editUndo.setEnabled(sqlStmt);
 		stmtExec.setEnabled(sqlStmt && (! stmtExecuting));
+		stmtExecToFile.setEnabled(sqlStmt && (! stmtExecuting));
 		stmtOpenSQL.setEnabled(connected);
 		toolbarOpenSQL.setEnabled(connected);
 		stmtSaveSQL.setEnabled(sqlStmt);
@@ -89,6 +89,11 @@ import us.pcsw.swing.RegExpFormatter;
  *                a little and Removed the unused Cancelled() property.  PAC
  *                </LI>
  * <LI>09/24/2003 Added results font option.  PAC </LI>
+ * <LI>10/18/2026 Added result cache memory limit option.</LI>
+ * <LI>10/18/2026 Added loaded results spill threshold option.</LI>
+ * <LI>10/18/2026 Added export threads option.</LI>
+ * <LI>10/18/2026 The result cache memory limit says it only applies to
+ *                scrollable results.</LI>
  * </UL></P>
  *
  * @author Philip A. Chapman
@@ -116,6 +121,9 @@ public final class OptionsDialog
 	private JCheckBox ignoreSelCheckBox = null;
 	private JCheckBox saveSecretCheckBox = null;
 	private JTextField repForNullTextField = null;
+	private JFormattedTextField cacheBudgetTextField = null;
+	private JFormattedTextField exportThreadsTextField = null;
+	private JFormattedTextField spillThresholdTextField = null;
 	private JFormattedTextField tabSizeTextField = null;
 	private JTabbedPane optTab = null;
 	private JLabel cacheSizeLabel = null;
@@ -553,11 +561,119 @@ public final class OptionsDialog
 		gridBag.setConstraints(slider, constraints);
 		panel.add(slider);
 	 	
+		// CACHE MEMORY LIMIT
+		label = new JLabel("Result Cache Memory Limit (MB):");
+		label.setHorizontalAlignment(SwingConstants.RIGHT);
+		constraints = 
+			new GridBagConstraints(0, 3,        // gridx, gridy 
+					   1, 1,        // gridWidth, gridHeight
+					   1, 1,        // weightx, weghty
+					   GridBagConstraints.EAST, // anchor
+					   GridBagConstraints.HORIZONTAL, // fill
+						new Insets(12,12,0,6),      // insets
+					   0, 0);       // ipadx, ipady
+		gridBag.setConstraints(label, constraints);
+		panel.add(label);
+
+		ref = new RegExpFormatter();
+		ref.setPattern(Pattern.compile("\\d{1,5}?"));
+		cacheBudgetTextField = new JFormattedTextField(ref);
+		cacheBudgetTextField.setColumns(5);
+		cacheBudgetTextField.addFocusListener(this);
+		cacheBudgetTextField.setToolTipText(
+				"<html>Rows farthest from view are discarded and read again " +
+				"when the cache grows past this size.  0 means no limit.<br>" +
+				"Only results which can be scrolled are limited.  The " +
+				"PostgreSQL, MySQL and Oracle providers stream results<br>" +
+				"forward only, and all of their rows are kept.</html>"
+			);
+		cacheBudgetTextField.setText(String.valueOf(Preferences.getCacheHeapBudget()));
+		constraints = 
+			new GridBagConstraints(1, 3,        // gridx, gridy 
+					   2, 1,        // gridWidth, gridHeight
+					   1, 1,        // weightx, weghty
+					   GridBagConstraints.WEST, // anchor
+					   GridBagConstraints.NONE, // fill
+					   new Insets(12,0,0,6),      // insets
+					   0, 0);       // ipadx, ipady
+		gridBag.setConstraints(cacheBudgetTextField, constraints);
+		panel.add(cacheBudgetTextField);
+	 	
+		// SPILL THRESHOLD
+		label = new JLabel("Loaded Results Spill Threshold (MB):");
+		label.setHorizontalAlignment(SwingConstants.RIGHT);
+		constraints = 
+			new GridBagConstraints(0, 4,        // gridx, gridy 
+					   1, 1,        // gridWidth, gridHeight
+					   1, 1,        // weightx, weghty
+					   GridBagConstraints.EAST, // anchor
+					   GridBagConstraints.HORIZONTAL, // fill
+						new Insets(12,12,0,6),      // insets
+					   0, 0);       // ipadx, ipady
+		gridBag.setConstraints(label, constraints);
+		panel.add(label);
+
+		ref = new RegExpFormatter();
+		ref.setPattern(Pattern.compile("\\d{1,5}?"));
+		spillThresholdTextField = new JFormattedTextField(ref);
+		spillThresholdTextField.setColumns(5);
+		spillThresholdTextField.addFocusListener(this);
+		spillThresholdTextField.setToolTipText(
+				"When the whole resultset is loaded, rows are moved to a " +
+				"temporary file once they use this much memory.  0 means never."
+			);
+		spillThresholdTextField.setText(String.valueOf(Preferences.getSpillThreshold()));
+		constraints = 
+			new GridBagConstraints(1, 4,        // gridx, gridy 
+					   2, 1,        // gridWidth, gridHeight
+					   1, 1,        // weightx, weghty
+					   GridBagConstraints.WEST, // anchor
+					   GridBagConstraints.NONE, // fill
+					   new Insets(12,0,0,6),      // insets
+					   0, 0);       // ipadx, ipady
+		gridBag.setConstraints(spillThresholdTextField, constraints);
+		panel.add(spillThresholdTextField);
+	 	
+		// EXPORT THREADS
+		label = new JLabel("Export Threads:");
+		label.setHorizontalAlignment(SwingConstants.RIGHT);
+		constraints = 
+			new GridBagConstraints(0, 5,        // gridx, gridy 
+					   1, 1,        // gridWidth, gridHeight
+					   1, 1,        // weightx, weghty
+					   GridBagConstraints.EAST, // anchor
+					   GridBagConstraints.HORIZONTAL, // fill
+						new Insets(12,12,0,6),      // insets
+					   0, 0);       // ipadx, ipady
+		gridBag.setConstraints(label, constraints);
+		panel.add(label);
+
+		ref = new RegExpFormatter();
+		ref.setPattern(Pattern.compile("\\d{1,3}?"));
+		exportThreadsTextField = new JFormattedTextField(ref);
+		exportThreadsTextField.setColumns(3);
+		exportThreadsTextField.addFocusListener(this);
+		exportThreadsTextField.setToolTipText(
+				"The number of threads which format the rows of a fully " +
+				"loaded resultset when it is saved.  0 means one per processor."
+			);
+		exportThreadsTextField.setText(String.valueOf(Preferences.getExportThreads()));
+		constraints = 
+			new GridBagConstraints(1, 5,        // gridx, gridy 
+					   2, 1,        // gridWidth, gridHeight
+					   1, 1,        // weightx, weghty
+					   GridBagConstraints.WEST, // anchor
+					   GridBagConstraints.NONE, // fill
+					   new Insets(12,0,0,6),      // insets
+					   0, 0);       // ipadx, ipady
+		gridBag.setConstraints(exportThreadsTextField, constraints);
+		panel.add(exportThreadsTextField);
+	 	
 		// REPRESENTATION FOR NULL
 		label = new JLabel("Representation for Null Values:");
 		label.setHorizontalAlignment(SwingConstants.RIGHT);
 		constraints = 
-			new GridBagConstraints(0, 3,        // gridx, gridy 
+			new GridBagConstraints(0, 6,        // gridx, gridy 
 					   1, 1,        // gridWidth, gridHeight
 					   1, 1,        // weightx, weghty
 					   GridBagConstraints.EAST, // anchor
@@ -572,7 +688,7 @@ public final class OptionsDialog
 		repForNullTextField.addFocusListener(this);
 		repForNullTextField.setText(Preferences.getRepresentationForNull());
 		constraints = 
-			new GridBagConstraints(1, 3,        // gridx, gridy 
+			new GridBagConstraints(1, 6,        // gridx, gridy 
 					   2, 1,        // gridWidth, gridHeight
 					   1, 1,        // weightx, weghty
 					   GridBagConstraints.WEST, // anchor
@@ -586,7 +702,7 @@ public final class OptionsDialog
 		label = new JLabel("Results Text Font:");
 		label.setHorizontalAlignment(SwingConstants.RIGHT);
 		constraints = 
-			new GridBagConstraints(0, 4,        // gridx, gridy 
+			new GridBagConstraints(0, 7,        // gridx, gridy 
 					   1, 1,        // gridWidth, gridHeight
 					   1, 1,        // weightx, weghty
 					   GridBagConstraints.EAST, // anchor
@@ -615,7 +731,7 @@ public final class OptionsDialog
 		resFontButton.addActionListener(this);
 		panel1.add(resFontButton);
 		constraints = 
-			new GridBagConstraints(1, 4,        // gridx, gridy 
+			new GridBagConstraints(1, 7,        // gridx, gridy 
 					   3, 1,        // gridWidth, gridHeight
 					   1, 1,        // weightx, weghty
 					   GridBagConstraints.WEST, // anchor
@@ -656,7 +772,7 @@ public final class OptionsDialog
 		sepPanel.add(sep);
 				
 		constraints = 
-			new GridBagConstraints(0, 4,        // gridx, gridy 
+			new GridBagConstraints(0, 7,        // gridx, gridy 
 					3, 1,        // gridWidth, gridHeight
 					0, 1,        // weightx, weghty
 					GridBagConstraints.WEST, // anchor
@@ -670,7 +786,7 @@ public final class OptionsDialog
 		label = new JLabel("Tab Size for SQL Text:");
 		label.setHorizontalAlignment(SwingConstants.RIGHT);
 		constraints = 
-			new GridBagConstraints(0, 5,        // gridx, gridy 
+			new GridBagConstraints(0, 8,        // gridx, gridy 
 					   1, 1,        // gridWidth, gridHeight
 					   1, 1,        // weightx, weghty
 					   GridBagConstraints.EAST, // anchor
@@ -687,7 +803,7 @@ public final class OptionsDialog
 		tabSizeTextField.addFocusListener(this);
 		tabSizeTextField.setText(String.valueOf(Preferences.getSQLTabSize()));
 		constraints = 
-			new GridBagConstraints(1, 5,        // gridx, gridy 
+			new GridBagConstraints(1, 8,        // gridx, gridy 
 					   3, 1,        // gridWidth, gridHeight
 					   1, 1,        // weightx, weghty
 					   GridBagConstraints.WEST, // anchor
@@ -701,7 +817,7 @@ public final class OptionsDialog
 		label = new JLabel("SQL Text Font:");
 		label.setHorizontalAlignment(SwingConstants.RIGHT);
 		constraints = 
-			new GridBagConstraints(0, 6,        // gridx, gridy 
+			new GridBagConstraints(0, 9,        // gridx, gridy 
 					   1, 1,        // gridWidth, gridHeight
 					   1, 1,        // weightx, weghty
 					   GridBagConstraints.EAST, // anchor
@@ -730,7 +846,7 @@ public final class OptionsDialog
 		sqlFontButton.addActionListener(this);
 		panel1.add(sqlFontButton);
 		constraints = 
-			new GridBagConstraints(1, 6,        // gridx, gridy 
+			new GridBagConstraints(1, 9,        // gridx, gridy 
 					   3, 1,        // gridWidth, gridHeight
 					   1, 1,        // weightx, weghty
 					   GridBagConstraints.WEST, // anchor
@@ -744,7 +860,7 @@ public final class OptionsDialog
 		label = new JLabel("Ignore Selected SQL Text on Excution:");
 		label.setHorizontalAlignment(SwingConstants.RIGHT);
 		constraints = 
-			new GridBagConstraints(0, 7,        // gridx, gridy 
+			new GridBagConstraints(0, 10,        // gridx, gridy 
 					   1, 1,        // gridWidth, gridHeight
 					   1, 1,        // weightx, weghty
 					   GridBagConstraints.EAST, // anchor
@@ -757,7 +873,7 @@ public final class OptionsDialog
 		ignoreSelCheckBox = new JCheckBox("", Preferences.ignoreSelectedText());
 		ignoreSelCheckBox.addChangeListener(this);
 		constraints = 
-			new GridBagConstraints(1, 7,        // gridx, gridy 
+			new GridBagConstraints(1, 10,        // gridx, gridy 
 					   3, 1,        // gridWidth, gridHeight
 					   1, 1,        // weightx, weghty
 					   GridBagConstraints.WEST, // anchor
@@ -815,6 +931,24 @@ public final class OptionsDialog
 		} else if (e.getSource().equals(tabSizeTextField)) {
 			Preferences.setSQLTabSize(Integer.parseInt(tabSizeTextField.getText()));
 			System.out.println(tabSizeTextField.getText());
+		} else if (e.getSource().equals(cacheBudgetTextField)) {
+			try {
+				Preferences.setCacheHeapBudget(Integer.parseInt(cacheBudgetTextField.getText()));
+			} catch (NumberFormatException nfe) {
+				cacheBudgetTextField.setText(String.valueOf(Preferences.getCacheHeapBudget()));
+			}
+		} else if (e.getSource().equals(spillThresholdTextField)) {
+			try {
+				Preferences.setSpillThreshold(Integer.parseInt(spillThresholdTextField.getText()));
+			} catch (NumberFormatException nfe) {
+				spillThresholdTextField.setText(String.valueOf(Preferences.getSpillThreshold()));
+			}
+		} else if (e.getSource().equals(exportThreadsTextField)) {
+			try {
+				Preferences.setExportThreads(Integer.parseInt(exportThreadsTextField.getText()));
+			} catch (NumberFormatException nfe) {
+				exportThreadsTextField.setText(String.valueOf(Preferences.getExportThreads()));
+			}
 		}
 	}
 	
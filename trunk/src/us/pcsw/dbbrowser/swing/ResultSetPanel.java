@@ -62,6 +62,8 @@ import us.pcsw.swing.HorizontalStrut;
  *
  * <P><STRONG>Revision History:</STRONG><UL>
  * <LI>Feb 16, 2006 This class was created by pchapman.</LI>
+ * <LI>Oct 18, 2026 The model is closed when it is replaced or the panel is
+ *     removed.</LI>
  * </UL></P>
  *
  * @author pchapman
@@ -174,6 +176,11 @@ public class ResultSetPanel extends JPanel
 		if (model == null) {
 			model = new CachingResultSetTableModel();
 		}
+		ResultSetTableModel oldModel = getResultSetTableModel();
+		if (oldModel != model) {
+			oldModel.removeTableModelListener(listener);
+			oldModel.close();
+		}
 		results.setModel(model);
 		updateRowCount();
 		model.addTableModelListener(listener);
@@ -181,6 +188,15 @@ public class ResultSetPanel extends JPanel
 	
 	// METHODS
 
+	/**
+	 * Releases the resources held by the displayed model.  Called when the
+	 * panel is removed.
+	 */
+	void close()
+	{
+		getResultSetTableModel().close();
+	}
+
 	void maximizeColumnHeader(JTableHeader tableHeader, int columnIndex)
 	{
 		setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
@@ -198,6 +214,14 @@ public class ResultSetPanel extends JPanel
 			rowCount = rstm.getRowCount();
 		}
 		for (int i = 0; i < rowCount; i++) {
+			if (
+					rstm instanceof CachingResultSetTableModel &&
+					! ((CachingResultSetTableModel)rstm).isRowCached(i)
+				)
+			{
+				// Don't read evicted pages back in just to size the column.
+				continue;
+			}
 			cellrenderer = results.getCellRenderer(i, columnIndex).getTableCellRendererComponent(results, results.getValueAt(i, columnIndex), false, false, i, columnIndex);
 			desiredWidth = cellrenderer.getPreferredSize().width;
 			if (desiredWidth > maxWidth) {
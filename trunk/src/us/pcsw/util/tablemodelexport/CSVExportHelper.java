@@ -1,5 +1,9 @@
 package us.pcsw.util.tablemodelexport;
 
+import java.io.IOException;
+
+import java.math.BigDecimal;
+
 /**
  * us.pcsw.util.tablemodelexport.CSVExportHelper
  * -
@@ -7,6 +11,8 @@ package us.pcsw.util.tablemodelexport;
  *
  * <P><B>Revision History:</B><UL>
  * <LI>Mar 14, 2005 This class was created by pchapman.</LI>
+ * <LI>Oct 18, 2026 Quotes within text are doubled, and numbers are written
+ *                  without grouping.</LI>
  * </UL></P>
  */
 final class CSVExportHelper extends ExportHelper
@@ -43,21 +49,52 @@ final class CSVExportHelper extends ExportHelper
 	}
 
 	/**
-	 * @see us.pcsw.util.tablemodelexport.ExportHelper#buildDataColumn(java.lang.Object)
+	 * Writes the number without grouping, so that it is one field.
+	 * @see us.pcsw.util.tablemodelexport.ExportHelper#appendDecimal(us.pcsw.util.tablemodelexport.ExportBuffer, java.math.BigDecimal)
+	 */
+	protected void appendDecimal(ExportBuffer out, BigDecimal value)
+		throws IOException
+	{
+		out.append(value.toPlainString());
+	}
+
+	/**
+	 * Writes the number without grouping, so that it is one field.
+	 * @see us.pcsw.util.tablemodelexport.ExportHelper#appendInteger(us.pcsw.util.tablemodelexport.ExportBuffer, long)
+	 */
+	protected void appendInteger(ExportBuffer out, long value)
+		throws IOException
+	{
+		out.append(value);
+	}
+
+	/**
+	 * Writes the number without grouping or rounding.
+	 * @see us.pcsw.util.tablemodelexport.ExportHelper#appendNumber(us.pcsw.util.tablemodelexport.ExportBuffer, java.lang.Number)
+	 */
+	protected void appendNumber(ExportBuffer out, Number value)
+		throws IOException
+	{
+		out.append(value.toString());
+	}
+
+	/**
+	 * Quotes the text, doubling any quotes within it.
+	 * @see us.pcsw.util.tablemodelexport.ExportHelper#appendText(us.pcsw.util.tablemodelexport.ExportBuffer, java.lang.CharSequence, int, int)
 	 */
-	public String buildDataColumn(Object data)
+	protected void appendText(
+			ExportBuffer out, CharSequence s, int start, int end
+		)
+		throws IOException
 	{
-		if (data instanceof Integer || data instanceof Long) {
-			return INTEGER_FORMATTER.format(((Number)data).longValue());
-		} else if (data instanceof Double || data instanceof Float) {
-			return NUMBER_FORMATTER.format(((Number)data).doubleValue());
-		} else if (data == null) {
-			return "";
-		} else {
-			StringBuffer sb = new StringBuffer("\"");
-			sb.append(super.buildDataColumn(data));
-			sb.append('"');
-			return sb.toString();
+		out.append('"');
+		int i = indexOf(s, '"', start, end);
+		while (i >= 0) {
+			out.append(s, start, i + 1);
+			start = i;
+			i = indexOf(s, '"', i + 1, end);
 		}
+		out.append(s, start, end);
+		out.append('"');
 	}
 }
@@ -0,0 +1,262 @@
+package us.pcsw.util.tablemodelexport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+
+import java.nio.ByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.util.LinkedList;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * us.pcsw.util.tablemodelexport.ChunkedExport
+ * -
+ * Exports the rows of a fully loaded table model to a text file by splitting
+ * them into chunks which are formatted on the threads of a fork join pool.
+ * Each chunk is formatted with a helper of its own into a buffer of bytes,
+ * and the buffers are written to the file in the order of their rows, so
+ * the file is the same as the one a single thread writes.  Only a few
+ * chunks per thread are formatted ahead of the one being written, so the
+ * memory used does not grow with the number of rows.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+final class ChunkedExport extends Object
+{
+	// CONSTANTS
+
+	/**
+	 * The number of chunks for each thread which may be formatted ahead of
+	 * the one being written.
+	 */
+	private static final int CHUNKS_PER_THREAD = 2;
+
+	/**
+	 * The number of rows in a chunk.
+	 */
+	static final int CHUNK_ROWS = 4096;
+
+	// CONSTRUCTORS
+
+	/**
+	 * @param exportType The type of file, which must be a text file.
+	 * @param dataModel The data, which is read from the pool's threads.
+	 * @param title The title of the data.
+	 * @param parallelism The number of threads which format rows, or 0 for
+	 *                    one per processor.
+	 */
+	ChunkedExport(
+			TableModelExportType exportType, LoadedTableModel dataModel,
+			String title, int parallelism
+		)
+	{
+		super();
+		this.dataModel = dataModel;
+		this.exportType = exportType;
+		if (parallelism < 1) {
+			this.parallelism = Runtime.getRuntime().availableProcessors();
+		} else {
+			this.parallelism = parallelism;
+		}
+		this.title = title;
+	}
+
+	// MEMBERS
+
+	private LoadedTableModel dataModel;
+	private TableModelExportType exportType;
+	private int parallelism;
+	private String title;
+
+	// METHODS
+
+	/**
+	 * Writes the file.
+	 * @param channel The file's channel, which is written from its current
+	 *                position.
+	 * @param task The task to report the rows and bytes written to, which
+	 *             may cancel the export.  May be null.
+	 * @return The number of rows written.
+	 */
+	long write(FileChannel channel, ExportTask task) throws IOException
+	{
+		int rowCount = dataModel.getRowCount();
+		long rows = 0;
+
+		// The file and column headers.
+		ExportHelper helper = TableModelExport.createHelper(exportType, title);
+		ChunkOutputStream bytes = new ChunkOutputStream();
+		ExportBuffer out = new ExportBuffer(new OutputStreamWriter(bytes));
+		TableModelExport.writeHeader(
+				helper, new TableModelExportSource(dataModel), out
+			);
+		out.flush();
+		writeBytes(channel, bytes, task);
+
+		// The rows.
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			LinkedList chunks = new LinkedList();
+			int nextRow = 0;
+			while (nextRow < rowCount || ! chunks.isEmpty()) {
+				while (
+						nextRow < rowCount &&
+						chunks.size() < parallelism * CHUNKS_PER_THREAD
+					)
+				{
+					int endRow = (int)Math.min(
+							(long)nextRow + CHUNK_ROWS, rowCount
+						);
+					Chunk chunk = new Chunk(nextRow, endRow);
+					pool.execute(chunk);
+					chunks.add(chunk);
+					nextRow = endRow;
+				}
+				Chunk chunk = (Chunk)chunks.removeFirst();
+				writeBytes(channel, chunk.getBytes(), task);
+				rows += chunk.getRowCount();
+				if (task != null) {
+					task.rowsWritten(rows);
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		// The file footer.
+		bytes.reset();
+		TableModelExport.writeFooter(helper, out);
+		out.flush();
+		writeBytes(channel, bytes, task);
+		return rows;
+	}
+
+	/**
+	 * Writes the bytes to the channel.
+	 */
+	private static void writeBytes(
+			FileChannel channel, ChunkOutputStream bytes, ExportTask task
+		)
+		throws IOException
+	{
+		ByteBuffer buffer = bytes.toByteBuffer();
+		int length = buffer.remaining();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		if (task != null) {
+			task.bytesWritten(length);
+		}
+	}
+
+	/**
+	 * Formats a range of the rows into bytes.
+	 */
+	private final class Chunk extends RecursiveTask
+	{
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * @param startRow The index of the first row formatted.
+		 * @param endRow The index after the last row formatted.
+		 */
+		Chunk(int startRow, int endRow)
+		{
+			super();
+			this.endRow = endRow;
+			this.startRow = startRow;
+		}
+
+		private int endRow;
+		private IOException error = null;
+		private int startRow;
+
+		protected Object compute()
+		{
+			try {
+				ExportHelper helper =
+					TableModelExport.createHelper(exportType, title);
+				ChunkOutputStream bytes = new ChunkOutputStream();
+				ExportBuffer out =
+					new ExportBuffer(new OutputStreamWriter(bytes));
+				// The helper must write the column headers before any rows,
+				// but they are only wanted at the start of the file.
+				TableModelExport.writeHeader(
+						helper, new TableModelExportSource(dataModel), out
+					);
+				out.flush();
+				bytes.reset();
+				TableModelExport.writeRows(
+						helper,
+						new TableModelExportSource(dataModel, startRow, endRow),
+						out, null
+					);
+				out.flush();
+				return bytes;
+			} catch (IOException ioe) {
+				error = ioe;
+				return null;
+			}
+		}
+
+		/**
+		 * Waits for the rows to be formatted and returns their bytes.
+		 * @throws IOException indicates the rows could not be formatted.
+		 */
+		ChunkOutputStream getBytes() throws IOException
+		{
+			Object bytes;
+			try {
+				bytes = get();
+			} catch (ExecutionException ee) {
+				Throwable cause = ee.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException)cause;
+				} else if (cause instanceof Error) {
+					throw (Error)cause;
+				} else {
+					IOException ioe = new IOException(cause.getMessage());
+					ioe.initCause(cause);
+					throw ioe;
+				}
+			} catch (InterruptedException ie) {
+				throw new InterruptedIOException("The export was interrupted.");
+			}
+			if (error != null) {
+				throw error;
+			}
+			return (ChunkOutputStream)bytes;
+		}
+
+		int getRowCount()
+		{
+			return endRow - startRow;
+		}
+	}
+
+	/**
+	 * Holds the bytes of a chunk, which may be written without being
+	 * copied.
+	 */
+	private static final class ChunkOutputStream extends ByteArrayOutputStream
+	{
+		ChunkOutputStream()
+		{
+			super(ExportBuffer.BUFFER_SIZE);
+		}
+
+		ByteBuffer toByteBuffer()
+		{
+			return ByteBuffer.wrap(buf, 0, count);
+		}
+	}
+}
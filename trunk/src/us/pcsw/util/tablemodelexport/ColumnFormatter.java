@@ -0,0 +1,35 @@
+package us.pcsw.util.tablemodelexport;
+
+import java.io.IOException;
+
+/**
+ * us.pcsw.util.tablemodelexport.ColumnFormatter
+ * -
+ * Appends the values of one column to the text of an export.  An export
+ * helper creates one for each column before any rows are written, choosing
+ * it by the column's type, so that the work of deciding how to write a
+ * value is not repeated for every cell.  A formatter is used by one export
+ * at a time.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+abstract class ColumnFormatter extends Object
+{
+	// CONSTRUCTORS
+
+	ColumnFormatter()
+	{
+		super();
+	}
+
+	// METHODS
+
+	/**
+	 * Appends a value, escaped as the file's type requires.
+	 * @param value The value, which may be null.
+	 * @param out The buffer to append to.
+	 */
+	abstract void format(Object value, ExportBuffer out) throws IOException;
+}
@@ -0,0 +1,159 @@
+package us.pcsw.util.tablemodelexport;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * us.pcsw.util.tablemodelexport.ExportBuffer
+ * -
+ * A reusable buffer of characters which the text of an export is appended
+ * to, cell by cell, and which is written to the file's writer whenever it
+ * fills.  The formatters append to it directly rather than building a
+ * String for each cell, and whole numbers are appended without any objects
+ * being created.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 Added flush, so that a buffer may write several chunks
+ *                  of a file.</LI>
+ * </UL></P>
+ */
+final class ExportBuffer extends Object
+{
+	// CONSTANTS
+
+	/**
+	 * The number of characters held before they are written.
+	 */
+	static final int BUFFER_SIZE = 16384;
+
+	/**
+	 * The characters of Long.MIN_VALUE, which has no positive counterpart.
+	 */
+	private static final String MIN_LONG = String.valueOf(Long.MIN_VALUE);
+
+	// CONSTRUCTORS
+
+	/**
+	 * @param out The writer the characters are written to.
+	 */
+	ExportBuffer(Writer out)
+	{
+		super();
+		this.out = out;
+	}
+
+	// MEMBERS
+
+	private char[] chars = new char[BUFFER_SIZE];
+	private int length = 0;
+	private Writer out;
+
+	// METHODS
+
+	/**
+	 * Appends a character.
+	 */
+	void append(char c) throws IOException
+	{
+		if (length == chars.length) {
+			flushBuffer();
+		}
+		chars[length++] = c;
+	}
+
+	/**
+	 * Appends the characters of a buffer.
+	 */
+	void append(CharSequence s) throws IOException
+	{
+		append(s, 0, s.length());
+	}
+
+	/**
+	 * Appends part of the characters of a buffer.
+	 * @param start The index of the first character appended.
+	 * @param end The index after the last character appended.
+	 */
+	void append(CharSequence s, int start, int end) throws IOException
+	{
+		while (start < end) {
+			if (length == chars.length) {
+				flushBuffer();
+			}
+			int count = Math.min(end - start, chars.length - length);
+			if (s instanceof String) {
+				((String)s).getChars(start, start + count, chars, length);
+				length += count;
+				start += count;
+			} else if (s instanceof StringBuffer) {
+				((StringBuffer)s).getChars(start, start + count, chars, length);
+				length += count;
+				start += count;
+			} else {
+				for (int i = 0; i < count; i++) {
+					chars[length++] = s.charAt(start++);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Appends the decimal digits of a whole number, with a leading minus
+	 * sign if it is negative.
+	 */
+	void append(long value) throws IOException
+	{
+		if (value == Long.MIN_VALUE) {
+			append(MIN_LONG);
+			return;
+		}
+		// The longest value has 19 digits and a sign.
+		if (chars.length - length < 20) {
+			flushBuffer();
+		}
+		if (value < 0) {
+			chars[length++] = '-';
+			value = -value;
+		}
+		int digits = 1;
+		for (long v = value / 10; v > 0; v /= 10) {
+			digits++;
+		}
+		int i = length + digits;
+		length = i;
+		do {
+			chars[--i] = (char)('0' + (int)(value % 10));
+			value /= 10;
+		} while (value > 0);
+	}
+
+	/**
+	 * Writes the characters held and closes the writer.
+	 */
+	void close() throws IOException
+	{
+		flushBuffer();
+		out.close();
+	}
+
+	/**
+	 * Writes the characters held and flushes the writer.
+	 */
+	void flush() throws IOException
+	{
+		flushBuffer();
+		out.flush();
+	}
+
+	/**
+	 * Writes the characters held to the writer, leaving the buffer empty.
+	 */
+	void flushBuffer() throws IOException
+	{
+		if (length > 0) {
+			out.write(chars, 0, length);
+			length = 0;
+		}
+	}
+}
@@ -1,7 +1,18 @@
 package us.pcsw.util.tablemodelexport;
 
+import java.io.IOException;
+
+import java.math.BigDecimal;
+
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+
 import java.text.DateFormat;
+import java.text.FieldPosition;
+import java.text.Format;
 import java.text.NumberFormat;
+
 import java.util.Calendar;
 import java.util.Date;
 
@@ -14,16 +25,27 @@ import java.util.Date;
  *
  * <P><B>Revision History:</B><UL>
  * <LI>Mar 14, 2005 This class was created by pchapman.</LI>
+ * <LI>Oct 18, 2026 Each helper has its own formats.</LI>
+ * <LI>Oct 18, 2026 Values are appended to an ExportBuffer by a
+ *                  ColumnFormatter chosen by the column's type rather than
+ *                  built into a String for each cell.  The title is put
+ *                  into the header and footer without a regular
+ *                  expression.</LI>
  * </UL></P>
  */
 abstract class ExportHelper extends Object
 {
-	protected static final DateFormat DATE_FORMATTER = DateFormat.getDateInstance();
-	protected static final NumberFormat INTEGER_FORMATTER = NumberFormat.getIntegerInstance();
-	protected static final NumberFormat NUMBER_FORMATTER = NumberFormat.getInstance();
-	
+	/*
+	 * Formats are not thread safe, so each helper has its own in order that
+	 * exports can run at the same time.
+	 */
+	private final NumberFormat integerFormatter = NumberFormat.getIntegerInstance();
+	private final NumberFormat numberFormatter = NumberFormat.getInstance();
+	private final StringBuffer formatBuffer = new StringBuffer();
+	private final FieldPosition formatPosition = new FieldPosition(0);
+
 	// CONSTRUCTORS
-	
+
 	/**
 	 * @param value The type index
 	 */
@@ -32,9 +54,9 @@ abstract class ExportHelper extends Object
 		super();
 		setTitle(title);
 	}
-	
+
 	// MEMBERS
-	
+
 	/*
 	 * File types and related constants.  The second dimension elements are:
 	 *		 0	-	File header text, may be null
@@ -47,55 +69,47 @@ abstract class ExportHelper extends Object
 	 * 		 7	-	Line ending for data row, may be null
 	 */
 	protected abstract String[] getConstantArray();
-	
+
 	String getDataDelimeter()
 	{
 		return getConstantArray()[6];
 	}
-	
+
 	String getDataRowLineEnd()
 	{
 		return getConstantArray()[7];
 	}
-	
+
 	String getDataRowLineStart()
 	{
 		return getConstantArray()[5];
 	}
-	
+
 	public String getFileFooter()
 	{
-		if (getConstantArray()[1] == null) {
-			return null;
-		} else {
-			return getConstantArray()[1].replaceAll("%t", getTitle());
-		}
+		return insertTitle(getConstantArray()[1]);
 	}
-	
+
 	public String getFileHeader()
 	{
-		if (getConstantArray()[0] == null) {
-			return null;
-		} else {
-			return getConstantArray()[0].replaceAll("%t", getTitle());
-		}
+		return insertTitle(getConstantArray()[0]);
 	}
-	
+
 	String getHeaderDelimeter()
 	{
 		return getConstantArray()[3];
 	}
-	
+
 	String getHeaderLineEnd()
 	{
 		return getConstantArray()[4];
 	}
-	
+
 	String getHeaderLineStart()
 	{
 		return getConstantArray()[2];
 	}
-	
+
 	private String title;
 	public String getTitle()
 	{
@@ -105,32 +119,328 @@ abstract class ExportHelper extends Object
 	{
 		this.title = title;
 	}
-	
+
+	// The formatters used for values whose column type does not decide how
+	// they are written, created when first needed.
+	private ColumnFormatter dateFormatter;
+	private ColumnFormatter timeFormatter;
+	private ColumnFormatter timestampFormatter;
+	private ColumnFormatter valueFormatter;
+
 	// MEMBERS
-	
-	/**
-	 * Takes the data object and produces a String that can be used to export
-	 *  the data.
-	 */
-	public String buildDataColumn(Object data)
-	{
-		if (data instanceof Calendar) {
-			return DATE_FORMATTER.format(((Calendar)data).getTime());
-		} else if (data instanceof Date) {
-			return DATE_FORMATTER.format((Date)data);
-		} else if (data instanceof Integer || data instanceof Long) {
-			return INTEGER_FORMATTER.format(((Number)data).longValue());
-		} else if (data instanceof Double || data instanceof Float) {
-			return NUMBER_FORMATTER.format(((Number)data).doubleValue());
-		} else if (data == null) {
-			return "";
+
+	/**
+	 * Appends a column's name to the column headers.
+	 */
+	void appendColumnHeader(ExportBuffer out, String columnName)
+		throws IOException
+	{
+		getValueFormatter().format(columnName, out);
+	}
+
+	/**
+	 * Appends a decimal number.  By default, it is written as text.
+	 */
+	protected void appendDecimal(ExportBuffer out, BigDecimal value)
+		throws IOException
+	{
+		String s = value.toString();
+		appendText(out, s, 0, s.length());
+	}
+
+	/**
+	 * Appends a whole number.  By default, it is written with the locale's
+	 * grouping.
+	 */
+	protected void appendInteger(ExportBuffer out, long value)
+		throws IOException
+	{
+		formatBuffer.setLength(0);
+		integerFormatter.format(value, formatBuffer, formatPosition);
+		out.append(formatBuffer);
+	}
+
+	/**
+	 * Appends a null value.  By default, nothing is written.
+	 */
+	protected void appendNull(ExportBuffer out) throws IOException
+	{
+	}
+
+	/**
+	 * Appends a floating point number, a Double or a Float.  By default, it
+	 * is written in the locale's format.
+	 */
+	protected void appendNumber(ExportBuffer out, Number value)
+		throws IOException
+	{
+		formatBuffer.setLength(0);
+		numberFormatter.format(
+				value.doubleValue(), formatBuffer, formatPosition
+			);
+		out.append(formatBuffer);
+	}
+
+	/**
+	 * Appends text, quoted and escaped as the file's type requires.
+	 * @param start The index of the first character of s appended.
+	 * @param end The index after the last character of s appended.
+	 */
+	protected abstract void appendText(
+			ExportBuffer out, CharSequence s, int start, int end
+		)
+		throws IOException;
+
+	/**
+	 * Creates the format used to write dates, times or timestamps.  By
+	 * default, the locale's format is used.
+	 * @param sqlType Types.DATE, Types.TIME or Types.TIMESTAMP.
+	 */
+	protected Format createDateFormat(int sqlType)
+	{
+		if (sqlType == Types.TIME) {
+			return DateFormat.getTimeInstance();
+		} else if (sqlType == Types.TIMESTAMP) {
+			return DateFormat.getDateTimeInstance();
 		} else {
-			return data.toString().trim();
+			return DateFormat.getDateInstance();
+		}
+	}
+
+	/**
+	 * Creates the formatter for a column.
+	 * @param sqlType The type of the column as defined in java.sql.Types, or
+	 *                Types.OTHER if it is not known.
+	 */
+	ColumnFormatter createFormatter(int sqlType)
+	{
+		switch (sqlType) {
+			case Types.BIGINT:
+			case Types.INTEGER:
+			case Types.SMALLINT:
+			case Types.TINYINT:
+				return new IntegerFormatter();
+			case Types.DOUBLE:
+			case Types.FLOAT:
+			case Types.REAL:
+				return new NumberFormatter();
+			case Types.DECIMAL:
+			case Types.NUMERIC:
+				return new DecimalFormatter();
+			case Types.DATE:
+			case Types.TIME:
+			case Types.TIMESTAMP:
+				return new DateFormatter(sqlType);
+			case Types.CHAR:
+			case Types.LONGVARCHAR:
+			case Types.VARCHAR:
+				return new TextFormatter();
+			default:
+				return getValueFormatter();
 		}
 	}
-	
-	public String buildColumnHeader(String columnName)
+
+	/**
+	 * Returns the formatter for values of any type, which decides how to
+	 * write each value by its class.
+	 */
+	ColumnFormatter getValueFormatter()
+	{
+		if (valueFormatter == null) {
+			valueFormatter = new ValueFormatter();
+		}
+		return valueFormatter;
+	}
+
+	/**
+	 * Returns the index of the first occurrence of the character between
+	 * start and end, or -1 if there is none.
+	 */
+	static int indexOf(CharSequence s, char c, int start, int end)
 	{
-		return buildDataColumn(columnName);
+		if (s instanceof String) {
+			int i = ((String)s).indexOf(c, start);
+			return (i < end ? i : -1);
+		}
+		for (int i = start; i < end; i++) {
+			if (s.charAt(i) == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the template with the title put in place of %t.
+	 */
+	String insertTitle(String template)
+	{
+		if (template == null) {
+			return null;
+		}
+		int i = template.indexOf("%t");
+		if (i < 0) {
+			return template;
+		}
+		StringBuffer sb = new StringBuffer(template.length() + title.length());
+		int start = 0;
+		while (i >= 0) {
+			sb.append(template, start, i);
+			sb.append(title);
+			start = i + 2;
+			i = template.indexOf("%t", start);
+		}
+		sb.append(template, start, template.length());
+		return sb.toString();
+	}
+
+	/**
+	 * Returns whether the value is a whole number which fits in a long.
+	 */
+	private static boolean isInteger(Object value)
+	{
+		return value instanceof Integer || value instanceof Long ||
+			value instanceof Short || value instanceof Byte;
+	}
+
+	/**
+	 * Writes dates, times and timestamps with a format for the column's
+	 * type.
+	 */
+	private final class DateFormatter extends ColumnFormatter
+	{
+		DateFormatter(int sqlType)
+		{
+			super();
+			format = createDateFormat(sqlType);
+		}
+
+		private StringBuffer buffer = new StringBuffer();
+		private Format format;
+		private FieldPosition position = new FieldPosition(0);
+
+		void format(Object value, ExportBuffer out) throws IOException
+		{
+			if (value instanceof Calendar) {
+				value = ((Calendar)value).getTime();
+			}
+			if (value instanceof Date) {
+				buffer.setLength(0);
+				format.format(value, buffer, position);
+				appendText(out, buffer, 0, buffer.length());
+			} else {
+				getValueFormatter().format(value, out);
+			}
+		}
+	}
+
+	/**
+	 * Writes the values of numeric and decimal columns.
+	 */
+	private final class DecimalFormatter extends ColumnFormatter
+	{
+		void format(Object value, ExportBuffer out) throws IOException
+		{
+			if (value instanceof BigDecimal) {
+				appendDecimal(out, (BigDecimal)value);
+			} else {
+				getValueFormatter().format(value, out);
+			}
+		}
+	}
+
+	/**
+	 * Writes the values of whole number columns.
+	 */
+	private final class IntegerFormatter extends ColumnFormatter
+	{
+		void format(Object value, ExportBuffer out) throws IOException
+		{
+			if (isInteger(value)) {
+				appendInteger(out, ((Number)value).longValue());
+			} else {
+				getValueFormatter().format(value, out);
+			}
+		}
+	}
+
+	/**
+	 * Writes the values of floating point columns.
+	 */
+	private final class NumberFormatter extends ColumnFormatter
+	{
+		void format(Object value, ExportBuffer out) throws IOException
+		{
+			if (value instanceof Double || value instanceof Float) {
+				appendNumber(out, (Number)value);
+			} else {
+				getValueFormatter().format(value, out);
+			}
+		}
+	}
+
+	/**
+	 * Writes the values of character columns.
+	 */
+	private final class TextFormatter extends ColumnFormatter
+	{
+		void format(Object value, ExportBuffer out) throws IOException
+		{
+			if (value instanceof String) {
+				String s = (String)value;
+				int start = 0;
+				int end = s.length();
+				// Trimmed as String.trim would, without creating a String.
+				while (start < end && s.charAt(start) <= ' ') {
+					start++;
+				}
+				while (end > start && s.charAt(end - 1) <= ' ') {
+					end--;
+				}
+				appendText(out, s, start, end);
+			} else {
+				getValueFormatter().format(value, out);
+			}
+		}
+	}
+
+	/**
+	 * Writes values of any type, deciding how by the class of each.
+	 */
+	private final class ValueFormatter extends ColumnFormatter
+	{
+		private ColumnFormatter textFormatter = new TextFormatter();
+
+		void format(Object value, ExportBuffer out) throws IOException
+		{
+			if (value == null) {
+				appendNull(out);
+			} else if (value instanceof String) {
+				textFormatter.format(value, out);
+			} else if (isInteger(value)) {
+				appendInteger(out, ((Number)value).longValue());
+			} else if (value instanceof Double || value instanceof Float) {
+				appendNumber(out, (Number)value);
+			} else if (value instanceof BigDecimal) {
+				appendDecimal(out, (BigDecimal)value);
+			} else if (value instanceof Timestamp) {
+				if (timestampFormatter == null) {
+					timestampFormatter = new DateFormatter(Types.TIMESTAMP);
+				}
+				timestampFormatter.format(value, out);
+			} else if (value instanceof Time) {
+				if (timeFormatter == null) {
+					timeFormatter = new DateFormatter(Types.TIME);
+				}
+				timeFormatter.format(value, out);
+			} else if (value instanceof Date || value instanceof Calendar) {
+				if (dateFormatter == null) {
+					dateFormatter = new DateFormatter(Types.DATE);
+				}
+				dateFormatter.format(value, out);
+			} else {
+				textFormatter.format(value.toString(), out);
+			}
+		}
 	}
 }
@@ -0,0 +1,181 @@
+package us.pcsw.util.tablemodelexport;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.FlowLayout;
+import java.awt.GridLayout;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
+import java.text.NumberFormat;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import us.pcsw.swing.WrappedOptionPane;
+
+/**
+ * us.pcsw.util.tablemodelexport.ExportProgressDialog
+ * -
+ * Shows the rows and bytes an ExportTask has written and how fast, and lets
+ * the user cancel it.  The dialog is not modal, so the window it belongs to
+ * can be used while the export runs.  It closes itself when the export is
+ * done, and reports the error if the export failed.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+final class ExportProgressDialog extends JDialog
+{
+	// CONSTANTS
+
+	/**
+	 * The number of milliseconds between updates of the progress shown.
+	 */
+	private static final int UPDATE_INTERVAL = 250;
+
+	private static final long serialVersionUID = 1L;
+
+	// CONSTRUCTORS
+
+	/**
+	 * @param parent The component the dialog is shown over.
+	 * @param task The export, which the dialog watches once it is shown.
+	 */
+	ExportProgressDialog(Component parent, ExportTask task)
+	{
+		super(SwingUtilities.getWindowAncestor(parent), "Exporting Data");
+		this.parent = parent;
+		this.task = task;
+		initGUI();
+		timer = new Timer(
+				UPDATE_INTERVAL,
+				new ActionListener()
+				{
+					public void actionPerformed(ActionEvent ae)
+					{
+						update();
+					}
+				}
+			);
+		timer.start();
+	}
+
+	// MEMBERS
+
+	private JLabel bytesLabel;
+	private JButton cancelButton;
+	private NumberFormat formatter = NumberFormat.getInstance();
+	private Component parent;
+	private JLabel rateLabel;
+	private JLabel rowsLabel;
+	private ExportTask task;
+	private Timer timer;
+
+	// METHODS
+
+	private void cancel()
+	{
+		task.cancel();
+		cancelButton.setEnabled(false);
+		cancelButton.setText("Cancelling...");
+	}
+
+	private void initGUI()
+	{
+		setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+		addWindowListener(
+				new WindowAdapter()
+				{
+					public void windowClosing(WindowEvent we)
+					{
+						cancel();
+					}
+				}
+			);
+
+		JPanel panel = new JPanel(new BorderLayout(0, 10));
+		panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+		panel.add(
+				new JLabel(
+						"Exporting to " +
+						task.getTarget().getFile().getAbsolutePath()
+					),
+				BorderLayout.NORTH
+			);
+
+		JPanel labels = new JPanel(new GridLayout(3, 2, 10, 5));
+		labels.add(new JLabel("Rows Written:"));
+		rowsLabel = new JLabel("0");
+		labels.add(rowsLabel);
+		labels.add(new JLabel("Bytes Written:"));
+		bytesLabel = new JLabel("0");
+		labels.add(bytesLabel);
+		labels.add(new JLabel("Rate:"));
+		rateLabel = new JLabel("");
+		labels.add(rateLabel);
+		panel.add(labels, BorderLayout.CENTER);
+
+		JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+		cancelButton = new JButton("Cancel");
+		cancelButton.setMnemonic('C');
+		cancelButton.addActionListener(
+				new ActionListener()
+				{
+					public void actionPerformed(ActionEvent ae)
+					{
+						cancel();
+					}
+				}
+			);
+		buttons.add(cancelButton);
+		panel.add(buttons, BorderLayout.SOUTH);
+
+		getContentPane().add(panel);
+		pack();
+		setLocationRelativeTo(parent);
+	}
+
+	/**
+	 * Shows the task's progress, and closes the dialog once it is done.
+	 */
+	private void update()
+	{
+		long rows = task.getRowCount();
+		long bytes = task.getByteCount();
+		long millis = task.getElapsedMillis();
+		rowsLabel.setText(formatter.format(rows));
+		bytesLabel.setText(formatter.format(bytes));
+		if (millis > 0) {
+			rateLabel.setText(
+					formatter.format(rows * 1000 / millis) + " rows/s, " +
+					formatter.format(bytes * 1000.0 / millis / (1024 * 1024)) +
+					" MB/s"
+				);
+		}
+		if (task.isDone()) {
+			timer.stop();
+			dispose();
+			Throwable t = task.getError();
+			if (t != null) {
+				WrappedOptionPane.showWrappedMessageDialog(
+						parent,
+						"There was an error writing the file " +
+						task.getTarget().getFile().getAbsolutePath() + ": " +
+						t.getLocalizedMessage(),
+						"Cannot Export Data",
+						WrappedOptionPane.ERROR_MESSAGE
+					);
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package us.pcsw.util.tablemodelexport;
+
+import java.io.IOException;
+
+/**
+ * us.pcsw.util.tablemodelexport.ExportSource
+ * -
+ * The rows of data to be exported, which are read one at a time so that the
+ * exporter need not know whether they are held in memory or read as they
+ * are written.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 The type of each column is known.</LI>
+ * </UL></P>
+ */
+abstract class ExportSource extends Object
+{
+	// CONSTRUCTORS
+
+	ExportSource()
+	{
+		super();
+	}
+
+	// METHODS
+
+	/**
+	 * Returns the number of columns in each row.
+	 */
+	abstract int getColumnCount();
+
+	/**
+	 * Returns the name of a column.
+	 * @param column The 0 based index of the column.
+	 */
+	abstract String getColumnName(int column);
+
+	/**
+	 * Returns the type of a column as defined in java.sql.Types, or
+	 * Types.OTHER if it is not known.
+	 * @param column The 0 based index of the column.
+	 */
+	abstract int getColumnType(int column);
+
+	/**
+	 * Returns the value of a column of the current row.
+	 * @param column The 0 based index of the column.
+	 * @throws IOException indicates the value could not be read.
+	 */
+	abstract Object getValue(int column) throws IOException;
+
+	/**
+	 * Moves to the next row.  The source starts before the first row.
+	 * @return false if there are no more rows.
+	 * @throws IOException indicates the row could not be read.
+	 */
+	abstract boolean next() throws IOException;
+}
@@ -0,0 +1,55 @@
+package us.pcsw.util.tablemodelexport;
+
+import java.io.File;
+
+/**
+ * us.pcsw.util.tablemodelexport.ExportTarget
+ * -
+ * The file chosen to export data to, along with the type of file and the
+ * title to give the data.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * </UL></P>
+ */
+public final class ExportTarget extends Object
+{
+	// CONSTRUCTORS
+
+	/**
+	 * @param file The file to write.
+	 * @param exportType The type of file to write.
+	 * @param title The title of the data, which is the table name for SQL
+	 *              scripts.
+	 */
+	public ExportTarget(File file, TableModelExportType exportType, String title)
+	{
+		super();
+		this.exportType = exportType;
+		this.file = file;
+		this.title = title;
+	}
+
+	// MEMBERS
+
+	private TableModelExportType exportType;
+	private File file;
+	private String title;
+
+	// METHODS
+
+	public TableModelExportType getExportType()
+	{
+		return exportType;
+	}
+
+	public File getFile()
+	{
+		return file;
+	}
+
+	public String getTitle()
+	{
+		return title;
+	}
+}
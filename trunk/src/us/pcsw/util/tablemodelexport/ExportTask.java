@@ -0,0 +1,270 @@
+package us.pcsw.util.tablemodelexport;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+import javax.swing.table.TableModel;
+
+/**
+ * us.pcsw.util.tablemodelexport.ExportTask
+ * -
+ * Exports a table model's data to file on a thread of its own.  The rows and
+ * bytes written so far may be read from any thread while the export runs,
+ * and the export may be cancelled.  A file which is not completely written,
+ * because the export failed or was cancelled, is deleted.  Each task writes
+ * its own file, so any number of them may run at once.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 The rows of a LoadedTableModel may be formatted on
+ *                  several threads.</LI>
+ * <LI>Oct 18, 2026 A SharedTableModel is acquired while the task uses it,
+ *                  and the export fails if the model is closed before all
+ *                  of its rows are written.</LI>
+ * </UL></P>
+ */
+public final class ExportTask extends Object implements Runnable
+{
+	// CONSTRUCTORS
+
+	/**
+	 * @param target The file to write.
+	 * @param dataModel The data to write.  It is read from the task's
+	 *                  thread.  A SharedTableModel is acquired here and
+	 *                  released when the task is done, so the task should
+	 *                  be run once it is created.
+	 */
+	public ExportTask(ExportTarget target, TableModel dataModel)
+	{
+		super();
+		this.dataModel = dataModel;
+		this.target = target;
+		if (dataModel instanceof SharedTableModel) {
+			((SharedTableModel)dataModel).acquire();
+		}
+	}
+
+	// MEMBERS
+
+	private volatile long byteCount = 0;
+	private volatile boolean cancelled = false;
+	private TableModel dataModel;
+	private volatile boolean done = false;
+	private volatile long endTime = 0;
+	private volatile Throwable error = null;
+	private int parallelism = 1;
+	private volatile long rowCount = 0;
+	private volatile long startTime = 0;
+	private ExportTarget target;
+
+	// METHODS
+
+	/**
+	 * Records the number of bytes written to the file by a ChunkedExport.
+	 */
+	void bytesWritten(long count)
+	{
+		byteCount += count;
+	}
+
+	/**
+	 * Asks the export to stop.  It stops after the row being written and
+	 * deletes the file.
+	 */
+	public void cancel()
+	{
+		cancelled = true;
+	}
+
+	/**
+	 * Returns the number of bytes written to the file so far.
+	 */
+	public long getByteCount()
+	{
+		return byteCount;
+	}
+
+	/**
+	 * Returns the number of milliseconds the export has run, or ran for if
+	 * it is done.
+	 */
+	public long getElapsedMillis()
+	{
+		if (startTime == 0) {
+			return 0;
+		} else if (done) {
+			return endTime - startTime;
+		} else {
+			return System.currentTimeMillis() - startTime;
+		}
+	}
+
+	/**
+	 * Returns what stopped the export, or null if it did not fail.
+	 */
+	public Throwable getError()
+	{
+		return error;
+	}
+
+	/**
+	 * Returns the number of threads which format the rows of a
+	 * LoadedTableModel, or 0 for one per processor.
+	 */
+	public int getParallelism()
+	{
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of threads which format the rows of a
+	 * LoadedTableModel.  The rows of other models are formatted by the
+	 * task's thread.  Must be set before the task is started.
+	 * @param parallelism The number of threads, or 0 for one per
+	 *                    processor.  The default is 1.
+	 */
+	public void setParallelism(int parallelism)
+	{
+		this.parallelism = (parallelism < 0 ? 0 : parallelism);
+	}
+
+	/**
+	 * Returns the number of rows written to the file so far.
+	 */
+	public long getRowCount()
+	{
+		return rowCount;
+	}
+
+	public ExportTarget getTarget()
+	{
+		return target;
+	}
+
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+
+	/**
+	 * Indicates whether the export has finished, failed or been cancelled.
+	 */
+	public boolean isDone()
+	{
+		return done;
+	}
+
+	/**
+	 * Writes the file.
+	 */
+	public void run()
+	{
+		startTime = System.currentTimeMillis();
+		File file = target.getFile();
+		boolean written = false;
+		try {
+			if (
+					parallelism != 1 &&
+					dataModel instanceof LoadedTableModel &&
+					target.getExportType() != TableModelExportType.XLSX
+				)
+			{
+				FileOutputStream outStream = new FileOutputStream(file);
+				try {
+					TableModelExport.exportData(
+							target.getExportType(),
+							(LoadedTableModel)dataModel,
+							outStream.getChannel(), target.getTitle(),
+							parallelism, this
+						);
+				} finally {
+					outStream.close();
+				}
+			} else {
+				OutputStream outStream =
+					new CountingOutputStream(new FileOutputStream(file));
+				try {
+					TableModelExport.exportData(
+							target.getExportType(), dataModel, outStream,
+							target.getTitle(), this
+						);
+				} finally {
+					outStream.close();
+				}
+			}
+			// Rows a closed model no longer has are not seen by the export,
+			// so it would otherwise look complete.
+			if (
+					dataModel instanceof SharedTableModel &&
+					((SharedTableModel)dataModel).isTruncated()
+				)
+			{
+				throw new IOException(
+						"The data was closed before all of its rows were " +
+						"written."
+					);
+			}
+			written = true;
+		} catch (Throwable t) {
+			if (! cancelled) {
+				error = t;
+			}
+		} finally {
+			if (! written) {
+				file.delete();
+			}
+			if (dataModel instanceof SharedTableModel) {
+				((SharedTableModel)dataModel).release();
+			}
+			endTime = System.currentTimeMillis();
+			done = true;
+		}
+	}
+
+	/**
+	 * Records the number of rows written.
+	 * @throws InterruptedIOException indicates the export was cancelled.
+	 */
+	void rowsWritten(long rows) throws InterruptedIOException
+	{
+		rowCount = rows;
+		if (cancelled) {
+			throw new InterruptedIOException("The export was cancelled.");
+		}
+	}
+
+	/**
+	 * Starts the export on a new thread.
+	 */
+	public void start()
+	{
+		new Thread(this, "Export to " + target.getFile().getName()).start();
+	}
+
+	/**
+	 * Counts the bytes written to the file.
+	 */
+	private class CountingOutputStream extends FilterOutputStream
+	{
+		CountingOutputStream(OutputStream out)
+		{
+			super(out);
+		}
+
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			out.write(b, off, len);
+			byteCount += len;
+		}
+
+		public void write(int b) throws IOException
+		{
+			out.write(b);
+			byteCount++;
+		}
+	}
+}
@@ -1,6 +1,6 @@
 package us.pcsw.util.tablemodelexport;
 
-import us.pcsw.util.StringUtil;
+import java.io.IOException;
 
 /**
  * us.pcsw.util.tablemodelexport.HTMLExportHelper
@@ -9,6 +9,8 @@ import us.pcsw.util.StringUtil;
  *
  * <P><B>Revision History:</B><UL>
  * <LI>Mar 14, 2005 This class was created by pchapman.</LI>
+ * <LI>Oct 18, 2026 Entities are written as the text is appended rather
+ *                  than replaced in a String.</LI>
  * </UL></P>
  */
 final class HTMLExportHelper extends ExportHelper
@@ -49,16 +51,36 @@ final class HTMLExportHelper extends ExportHelper
 	}
 	
 	/**
-	 * @see us.pcsw.util.tablemodelexport.ExportHelper#buildDataColumn(java.lang.Object)
+	 * Replaces the characters which have a meaning in HTML with entities.
+	 * @see us.pcsw.util.tablemodelexport.ExportHelper#appendText(us.pcsw.util.tablemodelexport.ExportBuffer, java.lang.CharSequence, int, int)
 	 */
-	public String buildDataColumn(Object data)
+	protected void appendText(
+			ExportBuffer out, CharSequence s, int start, int end
+		)
+		throws IOException
 	{
-		String s = super.buildDataColumn(data);
-		if (s == null) {
-			return null;
-		} else {
-			s = StringUtil.replaceHTMLEntities(s);
-			return s;
+		String entity;
+		for (int i = start; i < end; i++) {
+			switch (s.charAt(i)) {
+				case '&':
+					entity = "&amp;";
+					break;
+				case '>':
+					entity = "&gt;";
+					break;
+				case '<':
+					entity = "&lt;";
+					break;
+				case '"':
+					entity = "&quot;";
+					break;
+				default:
+					continue;
+			}
+			out.append(s, start, i);
+			out.append(entity);
+			start = i + 1;
 		}
+		out.append(s, start, end);
 	}
 }
@@ -0,0 +1,18 @@
+package us.pcsw.util.tablemodelexport;
+
+import javax.swing.table.TableModel;
+
+/**
+ * us.pcsw.util.tablemodelexport.LoadedTableModel
+ * -
+ * A table model whose rows are all loaded and do not change, so that any
+ * number of threads may read them at once.  The data of such a model may be
+ * exported by formatting chunks of its rows in parallel.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This interface was created.</LI>
+ * </UL></P>
+ */
+public interface LoadedTableModel extends TableModel
+{
+}
@@ -0,0 +1,154 @@
+package us.pcsw.util.tablemodelexport;
+
+import java.io.IOException;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * us.pcsw.util.tablemodelexport.ResultSetExportSource
+ * -
+ * Exports the rows of a resultset as they are read from it, so that no more
+ * than the driver's fetch of rows is held in memory.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created.</LI>
+ * <LI>Oct 18, 2026 The type of each column is read from the metadata.</LI>
+ * <LI>Oct 18, 2026 Only numbers, dates and text are read as objects.  Other
+ *                  values are read as the driver's text for them.</LI>
+ * <LI>Oct 18, 2026 Rows may be fetched through a RowFetcher.</LI>
+ * </UL></P>
+ */
+final class ResultSetExportSource extends ExportSource
+{
+	// CONSTRUCTORS
+
+	/**
+	 * @throws IOException indicates the resultset's columns could not be
+	 *                     read.
+	 */
+	ResultSetExportSource(ResultSet rs) throws IOException
+	{
+		this(rs, null);
+	}
+
+	/**
+	 * @param fetcher Moves the resultset to its next row.  May be null, in
+	 *                which case rs.next() is called.
+	 * @throws IOException indicates the resultset's columns could not be
+	 *                     read.
+	 */
+	ResultSetExportSource(ResultSet rs, RowFetcher fetcher) throws IOException
+	{
+		super();
+		this.fetcher = fetcher;
+		this.rs = rs;
+		try {
+			ResultSetMetaData rsmd = rs.getMetaData();
+			columnNames = new String[rsmd.getColumnCount()];
+			columnTypes = new int[columnNames.length];
+			for (int i = 0; i < columnNames.length; i++) {
+				columnNames[i] = rsmd.getColumnLabel(i + 1);
+				columnTypes[i] = rsmd.getColumnType(i + 1);
+			}
+		} catch (SQLException sqle) {
+			throw createIOException(sqle);
+		}
+	}
+
+	// MEMBERS
+
+	private String[] columnNames;
+	private int[] columnTypes;
+	private RowFetcher fetcher;
+	private ResultSet rs;
+
+	// METHODS
+
+	/**
+	 * Wraps an error reading the resultset so that it is reported like an
+	 * error writing the file.
+	 */
+	private static IOException createIOException(SQLException sqle)
+	{
+		IOException ioe = new IOException(sqle.getLocalizedMessage());
+		ioe.initCause(sqle);
+		return ioe;
+	}
+
+	/**
+	 * @see us.pcsw.util.tablemodelexport.ExportSource#getColumnCount()
+	 */
+	int getColumnCount()
+	{
+		return columnNames.length;
+	}
+
+	/**
+	 * @see us.pcsw.util.tablemodelexport.ExportSource#getColumnName(int)
+	 */
+	String getColumnName(int column)
+	{
+		return columnNames[column];
+	}
+
+	/**
+	 * @see us.pcsw.util.tablemodelexport.ExportSource#getColumnType(int)
+	 */
+	int getColumnType(int column)
+	{
+		return columnTypes[column];
+	}
+
+	/**
+	 * @see us.pcsw.util.tablemodelexport.ExportSource#getValue(int)
+	 */
+	Object getValue(int column) throws IOException
+	{
+		try {
+			switch (columnTypes[column]) {
+				case Types.BIGINT:
+				case Types.CHAR:
+				case Types.DECIMAL:
+				case Types.DOUBLE:
+				case Types.FLOAT:
+				case Types.INTEGER:
+				case Types.LONGVARCHAR:
+				case Types.NUMERIC:
+				case Types.REAL:
+				case Types.SMALLINT:
+				case Types.TINYINT:
+				case Types.VARCHAR:
+					return rs.getObject(column + 1);
+				// Some drivers return their own classes from getObject.
+				case Types.DATE:
+					return rs.getDate(column + 1);
+				case Types.TIME:
+					return rs.getTime(column + 1);
+				case Types.TIMESTAMP:
+					return rs.getTimestamp(column + 1);
+				default:
+					// LOBs, binary values and other types would be written
+					// with their objects' toString, so write the text shown
+					// when the results are displayed and saved instead.
+					return rs.getString(column + 1);
+			}
+		} catch (SQLException sqle) {
+			throw createIOException(sqle);
+		}
+	}
+
+	/**
+	 * @see us.pcsw.util.tablemodelexport.ExportSource#next()
+	 */
+	boolean next() throws IOException
+	{
+		try {
+			return (fetcher == null ? rs.next() : fetcher.next(rs));
+		} catch (SQLException sqle) {
+			throw createIOException(sqle);
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package us.pcsw.util.tablemodelexport;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * us.pcsw.util.tablemodelexport.RowFetcher
+ * -
+ * Moves a resultset which is being exported to its next row, so that how
+ * its rows are fetched from the server, such as its fetch size, can be
+ * tuned as they are read.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This interface was created.</LI>
+ * </UL></P>
+ */
+public interface RowFetcher
+{
+	/**
+	 * Moves the resultset to its next row.
+	 * @return The value returned by rs.next().
+	 */
+	public abstract boolean next(ResultSet rs) throws SQLException;
+}
@@ -1,5 +1,14 @@
 package us.pcsw.util.tablemodelexport;
 
+import java.io.IOException;
+
+import java.math.BigDecimal;
+
+import java.sql.Types;
+
+import java.text.Format;
+import java.text.SimpleDateFormat;
+
 /**
  * us.pcsw.util.tablemodelexport.SQLExportHelper
  * -
@@ -7,6 +16,9 @@ package us.pcsw.util.tablemodelexport;
  *
  * <P><B>Revision History:</B><UL>
  * <LI>Mar 14, 2005 This class was created by pchapman.</LI>
+ * <LI>Oct 18, 2026 Apostrophes within text are doubled, nulls are written
+ *                  as NULL, numbers are written without grouping and dates
+ *                  in the JDBC escape formats.</LI>
  * </UL></P>
  */
 final class SQLExportHelper extends ExportHelper
@@ -46,7 +58,7 @@ final class SQLExportHelper extends ExportHelper
 	}
 		
 	private boolean first = true;
-	public String buildColumnHeader(String columnName)
+	void appendColumnHeader(ExportBuffer out, String columnName)
 	{
 		if (first) {
 			first = false;
@@ -54,30 +66,94 @@ final class SQLExportHelper extends ExportHelper
 			insertBodySB.append(',');
 		}
 		insertBodySB.append(columnName);
-		return "";
 	}
-	
-	public String buildDataColumn(Object data)
+
+	/**
+	 * Writes the number without grouping, so that it is one value.
+	 * @see us.pcsw.util.tablemodelexport.ExportHelper#appendDecimal(us.pcsw.util.tablemodelexport.ExportBuffer, java.math.BigDecimal)
+	 */
+	protected void appendDecimal(ExportBuffer out, BigDecimal value)
+		throws IOException
+	{
+		out.append(value.toPlainString());
+	}
+
+	/**
+	 * Writes the number without grouping, so that it is one value.
+	 * @see us.pcsw.util.tablemodelexport.ExportHelper#appendInteger(us.pcsw.util.tablemodelexport.ExportBuffer, long)
+	 */
+	protected void appendInteger(ExportBuffer out, long value)
+		throws IOException
 	{
-		if (data instanceof Integer || data instanceof Long) {
-			return INTEGER_FORMATTER.format(((Number)data).longValue());
-		} else if (data instanceof Double || data instanceof Float) {
-			return NUMBER_FORMATTER.format(((Number)data).doubleValue());
-		} else if (data == null) {
-			return "";
+		out.append(value);
+	}
+
+	/**
+	 * @see us.pcsw.util.tablemodelexport.ExportHelper#appendNull(us.pcsw.util.tablemodelexport.ExportBuffer)
+	 */
+	protected void appendNull(ExportBuffer out) throws IOException
+	{
+		out.append("NULL");
+	}
+
+	/**
+	 * Writes the number without grouping or rounding.  NaN and infinity,
+	 * which SQL has no literal for, are written as text.
+	 * @see us.pcsw.util.tablemodelexport.ExportHelper#appendNumber(us.pcsw.util.tablemodelexport.ExportBuffer, java.lang.Number)
+	 */
+	protected void appendNumber(ExportBuffer out, Number value)
+		throws IOException
+	{
+		String s = value.toString();
+		double d = value.doubleValue();
+		if (Double.isNaN(d) || Double.isInfinite(d)) {
+			appendText(out, s, 0, s.length());
 		} else {
-			StringBuffer sb = new StringBuffer("'");
-			sb.append(super.buildDataColumn(data));
-			sb.append("'");
-			return sb.toString();
+			out.append(s);
 		}
 	}
-	
+
+	/**
+	 * Quotes the text, doubling any apostrophes within it.
+	 * @see us.pcsw.util.tablemodelexport.ExportHelper#appendText(us.pcsw.util.tablemodelexport.ExportBuffer, java.lang.CharSequence, int, int)
+	 */
+	protected void appendText(
+			ExportBuffer out, CharSequence s, int start, int end
+		)
+		throws IOException
+	{
+		out.append('\'');
+		int i = indexOf(s, '\'', start, end);
+		while (i >= 0) {
+			out.append(s, start, i + 1);
+			start = i;
+			i = indexOf(s, '\'', i + 1, end);
+		}
+		out.append(s, start, end);
+		out.append('\'');
+	}
+
+	/**
+	 * Dates and times are written in the JDBC escape formats, which
+	 * databases read whatever the locale.
+	 * @see us.pcsw.util.tablemodelexport.ExportHelper#createDateFormat(int)
+	 */
+	protected Format createDateFormat(int sqlType)
+	{
+		if (sqlType == Types.TIME) {
+			return new SimpleDateFormat("HH:mm:ss");
+		} else if (sqlType == Types.TIMESTAMP) {
+			return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+		} else {
+			return new SimpleDateFormat("yyyy-MM-dd");
+		}
+	}
+
 	String getDataRowLineStart()
 	{
 		return insertBody;
 	}
-	
+
 	String getHeaderLineEnd()
 	{
 		insertBodySB.append(super.getHeaderLineEnd());
@@ -85,10 +161,10 @@ final class SQLExportHelper extends ExportHelper
 		insertBody = insertBodySB.toString();
 		return "";
 	}
-	
+
 	String getHeaderLineStart()
 	{
-		insertBodySB = new StringBuffer(CONSTANTS[2].replace("%t", getTitle()));
+		insertBodySB = new StringBuffer(insertTitle(CONSTANTS[2]));
 		return "";
 	}
 }
@@ -0,0 +1,39 @@
+package us.pcsw.util.tablemodelexport;
+
+import javax.swing.table.TableModel;
+
+/**
+ * us.pcsw.util.tablemodelexport.SharedTableModel
+ * -
+ * A table model which holds what its rows are read from, such as an open
+ * resultset or a temporary file, and lets go of it when the model is closed.
+ * An ExportTask acquires such a model when it is created and releases it
+ * when it is done, and fails rather than writing only part of the rows if
+ * the model was closed under it.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This interface was created.</LI>
+ * </UL></P>
+ */
+public interface SharedTableModel extends TableModel
+{
+	/**
+	 * Registers a reader of the model's rows on another thread.  Until the
+	 * reader calls release, closing the model is put off if it can be.  A
+	 * model which can't wait must make isTruncated return true if rows were
+	 * lost when it was closed.
+	 */
+	public abstract void acquire();
+
+	/**
+	 * Returns whether the model was closed before all of its rows could be
+	 * read, so that some of them can no longer be.
+	 */
+	public abstract boolean isTruncated();
+
+	/**
+	 * Ends a call to acquire.  A close which was put off happens when the
+	 * last reader releases the model.
+	 */
+	public abstract void release();
+}
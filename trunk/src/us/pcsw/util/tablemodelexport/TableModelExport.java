@@ -1,17 +1,17 @@
 package us.pcsw.util.tablemodelexport;
 
 import java.awt.Component;
-import java.awt.Cursor;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.Writer;
 
-import java.util.Calendar;
-import java.util.Date;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+import java.sql.ResultSet;
 
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
@@ -20,13 +20,6 @@ import javax.swing.filechooser.FileFilter;
 
 import javax.swing.table.TableModel;
 
-import org.apache.poi.hssf.usermodel.HSSFCell;
-import org.apache.poi.hssf.usermodel.HSSFCellStyle;
-import org.apache.poi.hssf.usermodel.HSSFFont;
-import org.apache.poi.hssf.usermodel.HSSFRow;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-
 import us.pcsw.swing.WrappedOptionPane;
 
 import us.pcsw.util.StringUtil;
@@ -42,6 +35,18 @@ import us.pcsw.util.StringUtil;
  * <LI>Oct 11, 2005 Fixed a bug in the exportData method where the outWriter
  *                  was not being closed and data was not being flushed to the
  *                  output stream.  pchapman</LI>
+ * <LI>Oct 18, 2026 The file dialogs were moved into chooseExportTarget, and
+ *                  a resultset may be exported as its rows are read.</LI>
+ * <LI>Oct 18, 2026 saveTableModel writes the file in the background with an
+ *                  ExportTask and shows its progress.</LI>
+ * <LI>Oct 18, 2026 Excel workbooks are written in the XLSX format with an
+ *                  XLSXWriter rather than built in memory with HSSF.</LI>
+ * <LI>Oct 18, 2026 Rows are appended to an ExportBuffer by a formatter for
+ *                  each column rather than written a String at a time.</LI>
+ * <LI>Oct 18, 2026 A LoadedTableModel may be written to a FileChannel by a
+ *                  ChunkedExport, which formats rows on several threads.</LI>
+ * <LI>Oct 18, 2026 The rows of an exported resultset may be fetched through
+ *                  a RowFetcher.</LI>
  * </UL></P>
  */
 public class TableModelExport
@@ -54,11 +59,55 @@ public class TableModelExport
 		saveTableModel(parent, dataModel, title, TableModelExportType.list());
 	}
 	
+	/**
+	 * Asks the user for a file and writes the table model's data to it.  The
+	 * file is written on a thread of its own while a dialog shows the
+	 * progress, so this method returns once the export has started.  The
+	 * data model is read from that thread, so it must allow that.
+	 */
 	public static void saveTableModel(
 			Component parent, TableModel dataModel, String title,
 			TableModelExportType[] validTypes
 		)
 		throws IOException
+	{
+		saveTableModel(parent, dataModel, title, validTypes, 1);
+	}
+	
+	/**
+	 * Asks the user for a file and writes the table model's data to it as
+	 * the other saveTableModel methods do.  The rows of a LoadedTableModel
+	 * are formatted on several threads.
+	 * @param parallelism The number of threads which format the rows of a
+	 *                    LoadedTableModel, or 0 for one per processor.
+	 */
+	public static void saveTableModel(
+			Component parent, TableModel dataModel, String title,
+			TableModelExportType[] validTypes, int parallelism
+		)
+		throws IOException
+	{
+		ExportTarget target = chooseExportTarget(parent, title, validTypes);
+		if (target != null) {
+		    // Save the data
+			ExportTask task = new ExportTask(target, dataModel);
+			task.setParallelism(parallelism);
+			new ExportProgressDialog(parent, task).setVisible(true);
+			task.start();
+		}
+	}
+	
+	/**
+	 * Asks the user for the file to export data to, and for SQL scripts the
+	 * name of the table to insert the data into.
+	 * @param parent The component the dialogs are shown over.
+	 * @param title The title of the data.
+	 * @param validTypes The types of file which may be chosen.
+	 * @return The chosen file, or null if the user cancelled.
+	 */
+	public static ExportTarget chooseExportTarget(
+			Component parent, String title, TableModelExportType[] validTypes
+		)
 	{
 	    // Initialize
     	File file = null;
@@ -85,80 +134,107 @@ public class TableModelExport
 
 	    // Get the path/name of the file to save the file to.
 	    response = resultChooser.showSaveDialog(parent);
-    	if (response == JFileChooser.APPROVE_OPTION) {
-			file = resultChooser.getSelectedFile();
-			
-			// Determine which file type is required.
-			s = file.getName();
-			for (int i = 0; i < validTypes.length; i++) {
-				if (s.indexOf(validTypes[i].getFileExtension()) > 1) {
-					exportType = validTypes[i];
-					break;
-				}
-			}
-			
-			if (exportType == null) {
-				// The chosen file is not of the correct type.
-				StringBuffer msg = new StringBuffer("Please choose a file with the type ");
-				String[] words = new String[validTypes.length];
-				for (int i = 0; i < validTypes.length; i++) {
-					words[i] = validTypes[0].getFileDescription();
-				}
-				msg.append(StringUtil.createGrammaticalList(words, StringUtil.GRAMMATICAL_LIST_TYPE_EXCLUSIVE));
-				msg.append('.');
-				WrappedOptionPane.showWrappedMessageDialog(
-						parent, msg.toString(), "Invalid File type",
-						WrappedOptionPane.INFORMATION_MESSAGE
-					);
-				// Try again.
-				saveTableModel(parent, dataModel, title);
-				return;
-			}
-			
-			if (exportType == TableModelExportType.SQL) {
-				title = JOptionPane.showInputDialog(
-						null,
-						"What is the name of the table " +
-						"to insert the data into?",
-						"Insert Table Name",
-						JOptionPane.QUESTION_MESSAGE
-					);
-				if (title == null) {
-					return; 
-				}
+    	if (response != JFileChooser.APPROVE_OPTION) {
+    		return null;
+    	}
+		file = resultChooser.getSelectedFile();
+		
+		// Determine which file type is required.
+		s = file.getName();
+		for (int i = 0; i < validTypes.length; i++) {
+			if (s.indexOf(validTypes[i].getFileExtension()) > 1) {
+				exportType = validTypes[i];
+				break;
 			}
-			
-			// Test for file's existance and user's willingness to
-			//  overwrite it.
-			if (file.exists()) {
-			    response = JOptionPane.showConfirmDialog
-					(null, 
-					 "Overwrite the existing file " + file.getName() + "?",
-					 "Overwrite Existing File",
-					 JOptionPane.YES_NO_OPTION);
-			} else {
-			    response = JOptionPane.YES_OPTION;
+		}
+		
+		if (exportType == null) {
+			// The chosen file is not of the correct type.
+			StringBuffer msg = new StringBuffer("Please choose a file with the type ");
+			String[] words = new String[validTypes.length];
+			for (int i = 0; i < validTypes.length; i++) {
+				words[i] = validTypes[0].getFileDescription();
 			}
-			if (response == JOptionPane.YES_OPTION) {
-			    // Save the data
-				parent.setCursor(
-						Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR)
-					);
-				try {
-					FileOutputStream outStream = new FileOutputStream(file);
-					exportData(exportType, dataModel, outStream, title);
-					outStream.close();
-				} catch (IOException ioe) {
-				    parent.setCursor(
-				    		Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR)
-						);
-				    throw ioe;
-				}
-			    parent.setCursor(
-			    		Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR)
-					);
+			msg.append(StringUtil.createGrammaticalList(words, StringUtil.GRAMMATICAL_LIST_TYPE_EXCLUSIVE));
+			msg.append('.');
+			WrappedOptionPane.showWrappedMessageDialog(
+					parent, msg.toString(), "Invalid File type",
+					WrappedOptionPane.INFORMATION_MESSAGE
+				);
+			// Try again.
+			return chooseExportTarget(parent, title, validTypes);
+		}
+		
+		if (exportType == TableModelExportType.SQL) {
+			title = JOptionPane.showInputDialog(
+					null,
+					"What is the name of the table " +
+					"to insert the data into?",
+					"Insert Table Name",
+					JOptionPane.QUESTION_MESSAGE
+				);
+			if (title == null) {
+				return null; 
 			}
 		}
+		
+		// Test for file's existance and user's willingness to
+		//  overwrite it.
+		if (file.exists()) {
+		    response = JOptionPane.showConfirmDialog
+				(null, 
+				 "Overwrite the existing file " + file.getName() + "?",
+				 "Overwrite Existing File",
+				 JOptionPane.YES_NO_OPTION);
+		} else {
+		    response = JOptionPane.YES_OPTION;
+		}
+		if (response == JOptionPane.YES_OPTION) {
+			return new ExportTarget(file, exportType, title);
+		} else {
+			return null;
+		}
+	}
+	
+	/**
+	 * Writes the rows of a resultset to the stream as they are read, so that
+	 * only the rows the driver fetches at a time are held in memory.  For
+	 * large results, the resultset should be forward only and have a fetch
+	 * size.
+	 * @return The number of rows written.
+	 * @throws IOException indicates an error writing the stream or reading
+	 *                     the resultset.  The latter has the SQLException as
+	 *                     its cause.
+	 */
+	public static long exportData(
+			TableModelExportType exportType, ResultSet rs,
+			OutputStream outStream, String title
+		)
+		throws IOException
+	{
+		return exportData(exportType, rs, null, outStream, title);
+	}
+	
+	/**
+	 * Writes the rows of a resultset to the stream as they are read, moving
+	 * from row to row with the fetcher.
+	 * @param fetcher Moves the resultset to its next row, tuning how the
+	 *                rows are fetched.  May be null.
+	 * @return The number of rows written.
+	 * @throws IOException indicates an error writing the stream or reading
+	 *                     the resultset.  The latter has the SQLException as
+	 *                     its cause.
+	 */
+	public static long exportData(
+			TableModelExportType exportType, ResultSet rs, RowFetcher fetcher,
+			OutputStream outStream, String title
+		)
+		throws IOException
+	{
+		return exportData(
+				exportType, new ResultSetExportSource(rs, fetcher), outStream,
+				title, null
+			);
 	}
 	
 	public static void exportData(
@@ -167,125 +243,236 @@ public class TableModelExport
 		)
 		throws IOException
 	{
-		int columns;
-		Object obj;
-		String s;
-		ExportHelper helper = null;
-
+		exportData(exportType, dataModel, outStream, title, null);
+	}
+	
+	/**
+	 * @param task The task to report the rows written to, which may cancel
+	 *             the export.  May be null.
+	 */
+	static void exportData(
+			TableModelExportType exportType, TableModel dataModel,
+			OutputStream outStream, String title, ExportTask task
+		)
+		throws IOException
+	{
+		exportData(
+				exportType, new TableModelExportSource(dataModel), outStream,
+				title, task
+			);
+	}
+	
+	/**
+	 * Writes the rows of a fully loaded table model to a file, formatting
+	 * chunks of rows on several threads at once.  The file is the same as
+	 * the one the other exportData methods write.  Excel workbooks are
+	 * written a row at a time.
+	 * @param channel The file's channel, which is written from its current
+	 *                position.
+	 * @param parallelism The number of threads which format rows, or 0 for
+	 *                    one per processor.
+	 * @return The number of rows written.
+	 */
+	public static long exportData(
+			TableModelExportType exportType, LoadedTableModel dataModel,
+			FileChannel channel, String title, int parallelism
+		)
+		throws IOException
+	{
+		return exportData(
+				exportType, dataModel, channel, title, parallelism, null
+			);
+	}
+	
+	/**
+	 * @param task The task to report the rows and bytes written to, which
+	 *             may cancel the export.  May be null.
+	 */
+	static long exportData(
+			TableModelExportType exportType, LoadedTableModel dataModel,
+			FileChannel channel, String title, int parallelism,
+			ExportTask task
+		)
+		throws IOException
+	{
+		if (exportType == TableModelExportType.XLSX) {
+			// A workbook is a zip file, which can't be written in pieces.
+			OutputStream outStream = new BufferedOutputStream(
+					Channels.newOutputStream(channel), ExportBuffer.BUFFER_SIZE
+				);
+			long rows = exportData(
+					exportType, new TableModelExportSource(dataModel),
+					outStream, title, task
+				);
+			outStream.flush();
+			return rows;
+		} else {
+			return new ChunkedExport(
+					exportType, dataModel, title, parallelism
+				).write(channel, task);
+		}
+	}
+	
+	/**
+	 * @param task The task to report the rows written to, which may cancel
+	 *             the export.  May be null.
+	 * @return The number of rows written.
+	 */
+	private static long exportData(
+			TableModelExportType exportType, ExportSource source,
+			OutputStream outStream, String title, ExportTask task
+		)
+		throws IOException
+	{
+		if (exportType == TableModelExportType.XLSX) {
+			return exportDataToXLSX(source, outStream, title, task);
+		}
+		ExportHelper helper = createHelper(exportType, title);
+		ExportBuffer out = new ExportBuffer(new OutputStreamWriter(outStream));
+		writeHeader(helper, source, out);
+		long rows = writeRows(helper, source, out, task);
+		writeFooter(helper, out);
+	    out.close();
+	    return rows;
+	}
+	
+	/**
+	 * Creates the helper which writes text files of the type.
+	 * @return The helper, or null if the type is not a text file.
+	 */
+	static ExportHelper createHelper(
+			TableModelExportType exportType, String title
+		)
+	{
 		if (exportType == TableModelExportType.CSV) {
-			helper = new CSVExportHelper(title);
+			return new CSVExportHelper(title);
 		} else if (exportType == TableModelExportType.HTML) {
-			helper = new HTMLExportHelper(title);
+			return new HTMLExportHelper(title);
 		} else if (exportType == TableModelExportType.SQL) {
-			helper = new SQLExportHelper(title);
-		} else if (exportType == TableModelExportType.XLS) {
-			exportDataToXML(exportType, dataModel, outStream, title);
-			return;
+			return new SQLExportHelper(title);
+		} else {
+			return null;
 		}
-		
-		Writer outWriter = new OutputStreamWriter(outStream);
-		
+	}
+	
+	/**
+	 * Writes an Excel workbook a row at a time with an XLSXWriter.
+	 * @param task The task to report the rows written to, which may cancel
+	 *             the export.  May be null.
+	 * @return The number of rows written.
+	 */
+	private static long exportDataToXLSX(
+			ExportSource source, OutputStream outStream, String title,
+			ExportTask task
+		)
+		throws IOException
+	{
+		String[] columnNames = new String[source.getColumnCount()];
+		for (int i = 0; i < columnNames.length; i++) {
+			columnNames[i] = source.getColumnName(i);
+		}
+		XLSXWriter writer = new XLSXWriter(outStream, title, columnNames);
+		long rows = 0;
+		while (source.next()) {
+			writer.writeRow(source);
+			rows++;
+			if (task != null) {
+				task.rowsWritten(rows);
+			}
+		}
+		writer.finish();
+		return rows;
+	}
+	
+	/**
+	 * Appends the file footer, if the type has one.
+	 */
+	static void writeFooter(ExportHelper helper, ExportBuffer out)
+		throws IOException
+	{
+		String s = helper.getFileFooter();
+	    if (s != null) {
+	    	out.append(s);
+	    }
+	}
+	
+	/**
+	 * Appends the file header, if the type has one, and the column headers.
+	 */
+	static void writeHeader(
+			ExportHelper helper, ExportSource source, ExportBuffer out
+		)
+		throws IOException
+	{
+		String s;
+
 	    // Append a file header if needed
 		s = helper.getFileHeader();
 	    if (s != null) {
-	    	outWriter.write(s);
+	    	out.append(s);
 	    }
 	    
 	    // Create column headers.
 	    s = helper.getHeaderLineStart();
 	    if (s != null) {
-	    	outWriter.write(s);
+	    	out.append(s);
 	    }
-		columns = dataModel.getColumnCount();
+		int columns = source.getColumnCount();
 	    for (int i = 0; i < columns; i++) {
 			if (i > 0) {
-				outWriter.write(helper.getHeaderDelimeter());
+				out.append(helper.getHeaderDelimeter());
 			}
-			outWriter.write(helper.buildColumnHeader(dataModel.getColumnName(i)));
+			helper.appendColumnHeader(out, source.getColumnName(i));
 	    }
 	    s = helper.getHeaderLineEnd();
 	    if (s != null) {
-	    	outWriter.write(s);
-	    }
-
-		// Write the data, dataModel.getRowCount() may
-		// change if not all results are cached, so make the
-		// method call each time.
-	    for (int i = 0; i < dataModel.getRowCount(); i++) {
-	    	s = helper.getDataRowLineStart();
-	    	if (s != null) {
-	    		outWriter.write(s);
-	    	}
-			if (i < dataModel.getRowCount()) {
-			    for (int j = 0; j < columns; j++) {
-					obj = dataModel.getValueAt(i, j);
-					if (j > 0) {
-						outWriter.write(helper.getDataDelimeter());
-					}
-					outWriter.write(helper.buildDataColumn(obj));
-			    }
-		    	s = helper.getDataRowLineEnd();
-		    	if (s != null) {
-		    		outWriter.write(s);
-		    	}
-			}
-	    }
-		
-	    // Append a file footer if needed
-		s = helper.getFileFooter();
-	    if (s != null) {
-	    	outWriter.write(s);
+	    	out.append(s);
 	    }
-	    
-	    outWriter.close();
 	}
 	
-	private static void exportDataToXML(
-			TableModelExportType exportType, TableModel dataModel,
-			OutputStream outStream, String title
+	/**
+	 * Appends the rows of the source.  The column headers must have been
+	 * written with the helper first.
+	 * @param task The task to report the rows written to, which may cancel
+	 *             the export.  May be null.
+	 * @return The number of rows written.
+	 */
+	static long writeRows(
+			ExportHelper helper, ExportSource source, ExportBuffer out,
+			ExportTask task
 		)
 		throws IOException
 	{
-		Object o = null;
-		HSSFCell cell;
-	    HSSFWorkbook wb = new HSSFWorkbook();
-	    HSSFSheet sheet = wb.createSheet(title);
+		long rows = 0;
 
-	    HSSFRow row = sheet.createRow(0);
-	    HSSFFont font = wb.createFont();
-	    font.setBoldweight(HSSFFont.BOLDWEIGHT_BOLD);
-	    HSSFCellStyle style = wb.createCellStyle();
-	    style.setFont(font);
-	    for (int y = 0; y < dataModel.getColumnCount(); y++) {
-	    	cell = row.createCell((short)y);
-	    	cell.setCellValue(dataModel.getColumnName(y));
-	    	cell.setCellStyle(style);
-	    }
-	    
-	    // Rows and and cells are 0 based.
-	    for (int i = 0; i < dataModel.getRowCount(); i++) {
-	    	row = sheet.createRow(i + 1);
-	    	for (int y = 0; y < dataModel.getColumnCount(); y++) {
-	    		o = dataModel.getValueAt(i, y);
-	    		// Create a cell and put a value in it.
-	    		cell = row.createCell((short)y);
-	    		if (o != null) {
-	    			if (o instanceof Boolean) {
-	    				cell.setCellValue(((Boolean)o).booleanValue());
-	    			} else if (o instanceof Calendar) {
-	    				cell.setCellValue((Calendar)o);
-	    			} else if (o instanceof Date) {
-	    				cell.setCellValue((Date)o);
-	    			} else if (o instanceof Number) {
-	    				cell.setCellValue(((Number)o).doubleValue());
-	    			} else {
-	    				cell.setCellValue(o.toString());
-	    			}
-	    		}
+		// The formatter for each column is chosen by its type once, before
+		// any rows are written.
+		int columns = source.getColumnCount();
+		ColumnFormatter[] formatters = new ColumnFormatter[columns];
+		for (int i = 0; i < columns; i++) {
+			formatters[i] = helper.createFormatter(source.getColumnType(i));
+		}
+		String delimeter = helper.getDataDelimeter();
+		String lineEnd = helper.getDataRowLineEnd();
+		String lineStart = helper.getDataRowLineStart();
+	    while (source.next()) {
+	    	if (lineStart != null) {
+	    		out.append(lineStart);
+	    	}
+		    for (int j = 0; j < columns; j++) {
+				if (j > 0) {
+					out.append(delimeter);
+				}
+				formatters[j].format(source.getValue(j), out);
+		    }
+	    	if (lineEnd != null) {
+	    		out.append(lineEnd);
+	    	}
+	    	rows++;
+	    	if (task != null) {
+	    		task.rowsWritten(rows);
 	    	}
 	    }
-
-	    // Write the output to a file
-	    wb.write(outStream);
+	    return rows;
 	}
 }
@@ -0,0 +1,102 @@
+package us.pcsw.util.tablemodelexport;
+
+import java.sql.Types;
+
+import javax.swing.table.TableModel;
+
+/**
+ * us.pcsw.util.tablemodelexport.TableModelExportSource
+ * -
+ * Exports the rows of a table model.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created from the loop in
+ *                  TableModelExport.exportData.</LI>
+ * <LI>Oct 18, 2026 The column types of a TypedTableModel are used.</LI>
+ * <LI>Oct 18, 2026 A range of the rows may be exported.</LI>
+ * </UL></P>
+ */
+final class TableModelExportSource extends ExportSource
+{
+	// CONSTRUCTORS
+
+	TableModelExportSource(TableModel dataModel)
+	{
+		super();
+		this.dataModel = dataModel;
+	}
+
+	/**
+	 * Exports a range of the model's rows.
+	 * @param startRow The index of the first row exported.
+	 * @param endRow The index after the last row exported.
+	 */
+	TableModelExportSource(TableModel dataModel, int startRow, int endRow)
+	{
+		this(dataModel);
+		this.endRow = endRow;
+		this.row = startRow - 1;
+	}
+
+	// MEMBERS
+
+	private TableModel dataModel;
+	// The index after the last row exported, or -1 for all of the rows.
+	private int endRow = -1;
+	private int row = -1;
+
+	// METHODS
+
+	/**
+	 * @see us.pcsw.util.tablemodelexport.ExportSource#getColumnCount()
+	 */
+	int getColumnCount()
+	{
+		return dataModel.getColumnCount();
+	}
+
+	/**
+	 * @see us.pcsw.util.tablemodelexport.ExportSource#getColumnName(int)
+	 */
+	String getColumnName(int column)
+	{
+		return dataModel.getColumnName(column);
+	}
+
+	/**
+	 * The type is known if the model is a TypedTableModel.
+	 * @see us.pcsw.util.tablemodelexport.ExportSource#getColumnType(int)
+	 */
+	int getColumnType(int column)
+	{
+		if (dataModel instanceof TypedTableModel) {
+			return ((TypedTableModel)dataModel).getColumnType(column);
+		} else {
+			return Types.OTHER;
+		}
+	}
+
+	/**
+	 * @see us.pcsw.util.tablemodelexport.ExportSource#getValue(int)
+	 */
+	Object getValue(int column)
+	{
+		return dataModel.getValueAt(row, column);
+	}
+
+	/**
+	 * @see us.pcsw.util.tablemodelexport.ExportSource#next()
+	 */
+	boolean next()
+	{
+		// dataModel.getRowCount() may change if not all results are cached,
+		// so make the method call each time.
+		int rowCount = (endRow < 0 ? dataModel.getRowCount() : endRow);
+		if (row + 1 < rowCount) {
+			row++;
+			return true;
+		} else {
+			return false;
+		}
+	}
+}
@@ -14,6 +14,7 @@ import us.pcsw.util.BaseEnum;
  *
  * <P><B>Revision History:</B><UL>
  * <LI>Mar 14, 2005 This class was created by pchapman.</LI>
+ * <LI>Oct 18, 2026 XLS was replaced by XLSX.</LI>
  * </UL></P>
  */
 public class TableModelExportType extends BaseEnum
@@ -31,7 +32,7 @@ public class TableModelExportType extends BaseEnum
 		},{
 			"sql", "SQL script"
 		},{
-			"xls", "Microsoft Excel Spreadsheet"
+			"xlsx", "Microsoft Excel Workbook"
 		}
 	};
 	
@@ -45,7 +46,7 @@ public class TableModelExportType extends BaseEnum
 	public static final TableModelExportType CSV = LIST[0];
 	public static final TableModelExportType HTML = LIST[1];
 	public static final TableModelExportType SQL = LIST[2];
-	public static final TableModelExportType XLS = LIST[3];
+	public static final TableModelExportType XLSX = LIST[3];
 	
 	// CONSTRUCTORS
 	
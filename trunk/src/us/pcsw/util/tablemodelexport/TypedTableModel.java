@@ -0,0 +1,25 @@
+package us.pcsw.util.tablemodelexport;
+
+import javax.swing.table.TableModel;
+
+/**
+ * us.pcsw.util.tablemodelexport.TypedTableModel
+ * -
+ * A table model which knows the SQL type of its columns.  The data of such a
+ * model is exported with formatters chosen by the type of each column.
+ * The columns of other table models are formatted by the class of each
+ * value.
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This interface was created.</LI>
+ * </UL></P>
+ */
+public interface TypedTableModel extends TableModel
+{
+	/**
+	 * Returns the type of the column's contents as one of the constants
+	 * defined in java.sql.Types.
+	 * @param column The 0 based index of the column.
+	 */
+	public abstract int getColumnType(int column);
+}
@@ -0,0 +1,504 @@
+package us.pcsw.util.tablemodelexport;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * us.pcsw.util.tablemodelexport.XLSXWriter
+ * -
+ * Writes an Excel workbook (Office Open XML) one row at a time.  Each row is
+ * written to the worksheet's XML in the zip stream as soon as it is given,
+ * so memory use does not grow with the number of rows.  Strings are written
+ * inline rather than to a shared string table for the same reason.  When a
+ * worksheet has as many rows as Excel allows, a new one is started with the
+ * column headers repeated.
+ * <P>
+ * The workbook's parts are written in this order: the content types, the
+ * package relationships, the styles, the worksheets as they are filled and,
+ * once the number of worksheets is known, the workbook and its
+ * relationships.
+ * </P>
+ *
+ * <P><B>Revision History:</B><UL>
+ * <LI>Oct 18, 2026 This class was created to replace the HSSF workbook.</LI>
+ * </UL></P>
+ */
+final class XLSXWriter extends Object
+{
+	// CONSTANTS
+
+	/**
+	 * The most characters Excel allows in a cell.
+	 */
+	private static final int MAX_CELL_LENGTH = 32767;
+
+	/**
+	 * The most rows Excel allows in a worksheet, including the header row.
+	 */
+	static final int MAX_ROWS = 1048576;
+
+	/**
+	 * The most characters Excel allows in a worksheet name.
+	 */
+	private static final int MAX_SHEET_NAME_LENGTH = 31;
+
+	private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+	private static final String NS_MAIN =
+		"http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+	private static final String NS_PACKAGE_RELATIONSHIPS =
+		"http://schemas.openxmlformats.org/package/2006/relationships";
+	private static final String NS_RELATIONSHIPS =
+		"http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+	/*
+	 * The indexes of the cell formats in the styles part.
+	 */
+	private static final int STYLE_HEADER = 1;
+	private static final int STYLE_DATE = 2;
+	private static final int STYLE_TIMESTAMP = 3;
+	private static final int STYLE_TIME = 4;
+
+	/**
+	 * The number of days from Excel's day 0, Dec 30, 1899, to Jan 1, 1970.
+	 */
+	private static final int UNIX_EPOCH_SERIAL = 25569;
+
+	private static final String XML_DECLARATION =
+		"<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+	// CONSTRUCTORS
+
+	/**
+	 * Starts the workbook and its first worksheet.
+	 * @param outStream The stream the workbook is written to.
+	 * @param title The name of the worksheets.
+	 * @param columnNames The column headers, which are the first row of each
+	 *                    worksheet.
+	 * @throws IOException indicates an error writing the stream.
+	 */
+	XLSXWriter(OutputStream outStream, String title, String[] columnNames)
+		throws IOException
+	{
+		super();
+		this.columnNames = columnNames;
+		columnRefs = new String[columnNames.length];
+		for (int i = 0; i < columnRefs.length; i++) {
+			columnRefs[i] = getColumnRef(i);
+		}
+		sheetName = createSheetName(title);
+		zipStream = new ZipOutputStream(outStream);
+		writer = new BufferedWriter(new OutputStreamWriter(zipStream, "UTF-8"));
+		writeContentTypes();
+		writePackageRelationships();
+		writeStyles();
+		startSheet();
+	}
+
+	// MEMBERS
+
+	private String[] columnNames;
+	/**
+	 * The letters of each column, used in the cell references.
+	 */
+	private String[] columnRefs;
+	/**
+	 * The number of rows in the current worksheet, including the header row.
+	 */
+	private int sheetRowCount;
+	private int sheetCount = 0;
+	private String sheetName;
+	private TimeZone timeZone = TimeZone.getDefault();
+	private Writer writer;
+	private ZipOutputStream zipStream;
+
+	// METHODS
+
+	/**
+	 * Makes a valid worksheet name from the title, which is shortened to
+	 * leave room for the number added to the names of later worksheets.
+	 */
+	private static String createSheetName(String title)
+	{
+		StringBuffer sb = new StringBuffer();
+		if (title != null) {
+			for (int i = 0; i < title.length(); i++) {
+				char c = title.charAt(i);
+				if ("[]:*?/\\".indexOf(c) > -1 || c < ' ') {
+					sb.append('_');
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		if (sb.toString().trim().length() == 0) {
+			return "Sheet";
+		} else if (sb.length() > MAX_SHEET_NAME_LENGTH - 8) {
+			sb.setLength(MAX_SHEET_NAME_LENGTH - 8);
+		}
+		return sb.toString();
+	}
+
+	private void endCell() throws IOException
+	{
+		writer.write("</v></c>");
+	}
+
+	private void endSheet() throws IOException
+	{
+		writer.write("</sheetData>\n</worksheet>\n");
+		writer.flush();
+		zipStream.closeEntry();
+	}
+
+	/**
+	 * Ends the last worksheet and writes the rest of the workbook.  The
+	 * underlying stream is left open.
+	 * @throws IOException indicates an error writing the stream.
+	 */
+	void finish() throws IOException
+	{
+		endSheet();
+		writeWorkbook();
+		writeWorkbookRelationships();
+		writer.flush();
+		zipStream.finish();
+	}
+
+	/**
+	 * Returns the letters of a column, such as A for the first and AA for
+	 * the 27th.
+	 * @param column The 0 based index of the column.
+	 */
+	private static String getColumnRef(int column)
+	{
+		StringBuffer sb = new StringBuffer();
+		for (int i = column + 1; i > 0; i = (i - 1) / 26) {
+			sb.insert(0, (char)('A' + (i - 1) % 26));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the name of a worksheet.
+	 * @param sheet The 1 based number of the worksheet.
+	 */
+	private String getSheetName(int sheet)
+	{
+		if (sheet == 1) {
+			return sheetName;
+		} else {
+			return sheetName + " (" + sheet + ')';
+		}
+	}
+
+	/**
+	 * Indicates whether a number can be written as one.  Excel has no
+	 * infinity or NaN.
+	 */
+	private static boolean isFinite(Number n)
+	{
+		if (n instanceof Double || n instanceof Float) {
+			double d = n.doubleValue();
+			return ! (Double.isNaN(d) || Double.isInfinite(d));
+		} else {
+			return true;
+		}
+	}
+
+	/**
+	 * Starts a cell.
+	 * @param column The 0 based index of the cell's column.
+	 * @param style The index of the cell's format, or 0 for the default.
+	 * @param type The cell's type, or null for a number.
+	 */
+	private void startCell(int column, int style, String type)
+		throws IOException
+	{
+		writer.write("<c r=\"");
+		writer.write(columnRefs[column]);
+		writer.write(Integer.toString(sheetRowCount));
+		if (style != 0) {
+			writer.write("\" s=\"");
+			writer.write(Integer.toString(style));
+		}
+		if (type != null) {
+			writer.write("\" t=\"");
+			writer.write(type);
+		}
+		writer.write("\"><v>");
+	}
+
+	private void startRow() throws IOException
+	{
+		writer.write("<row r=\"");
+		writer.write(Integer.toString(sheetRowCount));
+		writer.write("\">");
+	}
+
+	/**
+	 * Starts a new worksheet, with the header row frozen at the top.
+	 */
+	private void startSheet() throws IOException
+	{
+		sheetCount++;
+		zipStream.putNextEntry(
+				new ZipEntry("xl/worksheets/sheet" + sheetCount + ".xml")
+			);
+		writer.write(XML_DECLARATION);
+		writer.write("<worksheet xmlns=\"" + NS_MAIN + "\">\n");
+		writer.write(
+				"<sheetViews><sheetView workbookViewId=\"0\">" +
+				"<pane ySplit=\"1\" topLeftCell=\"A2\" activePane=\"bottomLeft\" state=\"frozen\"/>" +
+				"</sheetView></sheetViews>\n"
+			);
+		writer.write("<sheetData>\n");
+		sheetRowCount = 1;
+		startRow();
+		for (int i = 0; i < columnNames.length; i++) {
+			writeString(i, columnNames[i], STYLE_HEADER);
+		}
+		writer.write("</row>\n");
+	}
+
+	private void writeContentTypes() throws IOException
+	{
+		// Worksheets are the only XML parts which are not named, so that
+		// they need not be known before they are written.
+		writePart(
+				"[Content_Types].xml",
+				"<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">\n" +
+				"<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>\n" +
+				"<Default Extension=\"xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>\n" +
+				"<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>\n" +
+				"<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>\n" +
+				"</Types>\n"
+			);
+	}
+
+	/**
+	 * Writes a date as Excel's serial number of days.
+	 * @param localMillis The milliseconds since the epoch in local time.
+	 */
+	private void writeDate(int column, long localMillis, int style)
+		throws IOException
+	{
+		startCell(column, style, null);
+		writer.write(
+				Double.toString(
+						(double)localMillis / MILLIS_PER_DAY + UNIX_EPOCH_SERIAL
+					)
+			);
+		endCell();
+	}
+
+	private void writeDate(int column, Date date, int style) throws IOException
+	{
+		long millis = date.getTime();
+		writeDate(column, millis + timeZone.getOffset(millis), style);
+	}
+
+	private void writePackageRelationships() throws IOException
+	{
+		writePart(
+				"_rels/.rels",
+				"<Relationships xmlns=\"" + NS_PACKAGE_RELATIONSHIPS + "\">\n" +
+				"<Relationship Id=\"rId1\" Type=\"" + NS_RELATIONSHIPS + "/officeDocument\" Target=\"xl/workbook.xml\"/>\n" +
+				"</Relationships>\n"
+			);
+	}
+
+	private void writePart(String name, String content) throws IOException
+	{
+		zipStream.putNextEntry(new ZipEntry(name));
+		writer.write(XML_DECLARATION);
+		writer.write(content);
+		writer.flush();
+		zipStream.closeEntry();
+	}
+
+	/**
+	 * Writes a row of values.  Booleans, numbers, dates and times are
+	 * written as such, and anything else as text.
+	 * @throws IOException indicates an error writing the stream or reading
+	 *                     the values.
+	 */
+	void writeRow(ExportSource source) throws IOException
+	{
+		if (sheetRowCount == MAX_ROWS) {
+			endSheet();
+			startSheet();
+		}
+		sheetRowCount++;
+		startRow();
+		for (int i = 0; i < columnRefs.length; i++) {
+			Object o = source.getValue(i);
+			if (o == null) {
+				continue;
+			} else if (o instanceof Boolean) {
+				startCell(i, 0, "b");
+				writer.write(((Boolean)o).booleanValue() ? '1' : '0');
+				endCell();
+			} else if (o instanceof Calendar) {
+				Calendar c = (Calendar)o;
+				long millis = c.getTimeInMillis();
+				writeDate(
+						i, millis + c.getTimeZone().getOffset(millis),
+						STYLE_TIMESTAMP
+					);
+			} else if (o instanceof java.sql.Date) {
+				writeDate(i, (Date)o, STYLE_DATE);
+			} else if (o instanceof java.sql.Time) {
+				writeDate(i, (Date)o, STYLE_TIME);
+			} else if (o instanceof Date) {
+				writeDate(i, (Date)o, STYLE_TIMESTAMP);
+			} else if (o instanceof Number && isFinite((Number)o)) {
+				startCell(i, 0, null);
+				writer.write(o.toString());
+				endCell();
+			} else {
+				writeString(i, o.toString(), 0);
+			}
+		}
+		writer.write("</row>\n");
+	}
+
+	/**
+	 * Writes a string as an inline string cell.  Characters XML does not
+	 * allow are left out, and strings longer than a cell allows are cut off.
+	 */
+	private void writeString(int column, String s, int style)
+		throws IOException
+	{
+		writer.write("<c r=\"");
+		writer.write(columnRefs[column]);
+		writer.write(Integer.toString(sheetRowCount));
+		if (style != 0) {
+			writer.write("\" s=\"");
+			writer.write(Integer.toString(style));
+		}
+		writer.write("\" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+		writeXML(s, MAX_CELL_LENGTH);
+		writer.write("</t></is></c>");
+	}
+
+	private void writeStyles() throws IOException
+	{
+		// The cell formats are in the order of the STYLE_ constants.  14, 21
+		// and 22 are Excel's built in date, time and date and time formats.
+		writePart(
+				"xl/styles.xml",
+				"<styleSheet xmlns=\"" + NS_MAIN + "\">\n" +
+				"<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font><font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>\n" +
+				"<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill></fills>\n" +
+				"<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>\n" +
+				"<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>\n" +
+				"<cellXfs count=\"5\">" +
+				"<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>" +
+				"<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/>" +
+				"<xf numFmtId=\"14\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" +
+				"<xf numFmtId=\"22\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" +
+				"<xf numFmtId=\"21\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" +
+				"</cellXfs>\n" +
+				"<cellStyles count=\"1\"><cellStyle name=\"Normal\" xfId=\"0\" builtinId=\"0\"/></cellStyles>\n" +
+				"</styleSheet>\n"
+			);
+	}
+
+	private void writeWorkbook() throws IOException
+	{
+		zipStream.putNextEntry(new ZipEntry("xl/workbook.xml"));
+		writer.write(XML_DECLARATION);
+		writer.write(
+				"<workbook xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" +
+				NS_RELATIONSHIPS + "\">\n"
+			);
+		writer.write("<sheets>\n");
+		for (int i = 1; i <= sheetCount; i++) {
+			writer.write("<sheet name=\"");
+			writeXML(getSheetName(i), MAX_SHEET_NAME_LENGTH);
+			writer.write("\" sheetId=\"" + i + "\" r:id=\"rId" + i + "\"/>\n");
+		}
+		writer.write("</sheets>\n");
+		writer.write("</workbook>\n");
+		writer.flush();
+		zipStream.closeEntry();
+	}
+
+	private void writeWorkbookRelationships() throws IOException
+	{
+		zipStream.putNextEntry(new ZipEntry("xl/_rels/workbook.xml.rels"));
+		writer.write(XML_DECLARATION);
+		writer.write("<Relationships xmlns=\"" + NS_PACKAGE_RELATIONSHIPS + "\">\n");
+		for (int i = 1; i <= sheetCount; i++) {
+			writer.write(
+					"<Relationship Id=\"rId" + i + "\" Type=\"" +
+					NS_RELATIONSHIPS + "/worksheet\" Target=\"worksheets/sheet" +
+					i + ".xml\"/>\n"
+				);
+		}
+		writer.write(
+				"<Relationship Id=\"rId" + (sheetCount + 1) + "\" Type=\"" +
+				NS_RELATIONSHIPS + "/styles\" Target=\"styles.xml\"/>\n"
+			);
+		writer.write("</Relationships>\n");
+		writer.flush();
+		zipStream.closeEntry();
+	}
+
+	/**
+	 * Writes a string with the characters which are special in XML escaped
+	 * and those XML does not allow left out.
+	 * @param maxLength The most characters of the string to write.
+	 */
+	private void writeXML(String s, int maxLength) throws IOException
+	{
+		int length = Math.min(s.length(), maxLength);
+		if (
+				length < s.length() &&
+				Character.isHighSurrogate(s.charAt(length - 1))
+			)
+		{
+			// Don't split a character.
+			length--;
+		}
+		int start = 0;
+		for (int i = 0; i < length; i++) {
+			char c = s.charAt(i);
+			String escape;
+			switch (c) {
+				case '&':
+					escape = "&amp;";
+					break;
+				case '<':
+					escape = "&lt;";
+					break;
+				case '>':
+					escape = "&gt;";
+					break;
+				case '"':
+					escape = "&quot;";
+					break;
+				default:
+					if (c >= ' ' || c == '\t' || c == '\n' || c == '\r') {
+						continue;
+					}
+					escape = "";
+			}
+			writer.write(s, start, i - start);
+			writer.write(escape);
+			start = i + 1;
+		}
+		writer.write(s, start, length - start);
+	}
+}